@@ -1,10 +1,12 @@
 package main.model;
 
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
 import main.model.enums.EAzioniGioco;
+import main.model.enums.ECarte;
 import main.model.enums.ECostiCarte;
 import main.model.enums.EEffettiPermanenti;
 import main.model.exceptions.NoEnoughResourcesException;
@@ -22,8 +24,8 @@ public abstract class Carta implements Serializable {
 	/**
 	 * Default constructor
 	 */
-	public Carta(String nome, ArrayList<Object[]> acquisizione, ArrayList<Object[]> effettoImmediato,
-			ArrayList<Object[]> effettoPermanente, int valoreNecessario, int periodo, ArrayList<ECostiCarte> costi,
+	public Carta(String nome, List<Costo> acquisizione, List<Effetto> effettoImmediato,
+			List<Effetto> effettoPermanente, int valoreNecessario, int periodo, ArrayList<ECostiCarte> costi,
 			int scelteCosti, ArrayList<EEffettiPermanenti> effettiPermanenti, int scelteEffettiPermanenti) {
 		this.nome = nome;
 		this.acquisizione = acquisizione;
@@ -31,7 +33,6 @@ public abstract class Carta implements Serializable {
 		this.effettoPermanente = effettoPermanente;
 		this.valoreNecessarioEffettoPermanente = valoreNecessario;
 		this.periodoCarta = periodo;
-		this.utilEffetto = new UtilEffetto();
 		this.costiDellaCartaComunicazione = costi;
 		this.numeroScelteCostiComunicazione = scelteCosti;
 		this.effettiPermanentiDelleCarteComunicazione = effettiPermanenti;
@@ -44,18 +45,15 @@ public abstract class Carta implements Serializable {
 	protected String nome;
 
 	/**
-	 * attributo aggiunto per fare funzionare i metodi
+	 * Costi della carta (immutabili, condivisi da tutte le partite)
 	 */
-	private UtilEffetto utilEffetto = new UtilEffetto();
-	/**
-	 * 
-	 */
-	protected transient ArrayList<Object[]> acquisizione;
+	protected transient List<Costo> acquisizione;
 
 	/**
-	 * 
+	 * Effetti immediati della carta (immutabili, condivisi da tutte le
+	 * partite)
 	 */
-	protected transient ArrayList<Object[]> effettoImmediato;
+	protected transient List<Effetto> effettoImmediato;
 
 	/**
 	 * 
@@ -90,9 +88,22 @@ public abstract class Carta implements Serializable {
 	protected int numeroScelteEffettiPermanentiComunicazione;
 
 	/**
-	 * 
+	 * Effetti permanenti della carta (immutabili, condivisi da tutte le
+	 * partite)
 	 */
-	protected transient ArrayList<Object[]> effettoPermanente;
+	protected transient List<Effetto> effettoPermanente;
+
+	/**
+	 * Ricollega costi ed effetti (non serializzati) alla carta deserializzata,
+	 * cercandola per nome (vedi {@link ECarte#getCarta(String)}).
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		ECarte carta = ECarte.getCarta(this.nome);
+		this.acquisizione = carta != null ? carta.getCosti() : Collections.<Costo>emptyList();
+		this.effettoImmediato = carta != null ? carta.getEffettiImmediati() : Collections.<Effetto>emptyList();
+		this.effettoPermanente = carta != null ? carta.getEffettiPermanenti() : Collections.<Effetto>emptyList();
+	}
 
 	/**
 	 * Metodo che controlla se il giocatore ha abbastanza punti militari o
@@ -102,31 +113,26 @@ public abstract class Carta implements Serializable {
 	 * @return
 	 */
 	public boolean acquisibile(Giocatore giocatore) {
-		// devo controllare che
-		// posso pagare o con le
-		// risorse o con i punti
-
-		boolean controlloRisorse = false;
-		boolean controlloPunti = false;
-		for (int i = 0; i < acquisizione.size(); i++) {
-			acquisizione.get(i)[1] = giocatore;
-			if (acquisizione.get(i)[0] != null)
-				if ((int) acquisizione.get(i)[0] == 1)
-					if (utilEffetto.cartaAcquisibileRisorse(acquisizione.get(i))) {
-						controlloRisorse = true;
-						acquisizione.get(i)[0] = 0;
-					} else if ((int) acquisizione.get(i)[0] == 2)
-						if (utilEffetto.cartaAcquisibilePunti(acquisizione.get(i))) {
-							controlloPunti = true;
-							acquisizione.get(i)[0] = 0;
-						}
-		}
-		if (controlloRisorse | controlloPunti)
-			// se almeno con i punti o con le risorse posso pagare, allora la
-			// carta e' acquisibile
-			return true;
-		else
-			return false;
+		// la carta e' acquisibile se il giocatore puo' pagare almeno uno dei
+		// costi (con le risorse o con i punti)
+		for (int i = 0; i < acquisizione.size(); i++)
+			if (acquisizione.get(i).pagabile(giocatore))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Metodo che controlla se il giocatore puo' pagare il costo scelto della
+	 * carta (vedi {@link #acquisizione(Giocatore, ECostiCarte)}), senza
+	 * effettuare il pagamento
+	 * 
+	 * @param giocatore
+	 * @param costoScelto
+	 *            costo scelto (null per il primo costo pagabile)
+	 * @return
+	 */
+	public boolean acquisibile(Giocatore giocatore, ECostiCarte costoScelto) {
+		return scegliCosto(giocatore, costoScelto) != null;
 	}
 
 	/**
@@ -136,19 +142,9 @@ public abstract class Carta implements Serializable {
 	 * @return
 	 */
 	public void effettoImmediato(Giocatore giocatore, Famigliare famigliare, Carta carta) {
-		for (int i = 0; i < effettoImmediato.size(); i++) {
-			effettoImmediato.get(i)[1] = giocatore;
-			effettoImmediato.get(i)[3] = famigliare;
-			effettoImmediato.get(i)[4] = carta;
-			/*
-			 * if ((int) effettoImmediato.get(i)[0] == 0)
-			 * utilEffetto.aggiungiRisorse(effettoImmediato.get(i)); else if
-			 * ((int) effettoImmediato.get(i)[0] == 3)
-			 * utilEffetto.eseguiPrivilegioDelConsiglio(effettoImmediato.get(i))
-			 * ;
-			 */
-			attivaEffettoSingolo(this.effettoImmediato.get(i));
-		}
+		ContestoEffetto contesto = new ContestoEffetto(giocatore, famigliare, carta);
+		for (Effetto effetto : effettoImmediato)
+			attivaEffettoSingolo(effetto, contesto);
 	}
 
 	/**
@@ -159,26 +155,16 @@ public abstract class Carta implements Serializable {
 	 */
 	public void effettoPermanente(Giocatore giocatore, Famigliare famigliare, Carta carta,
 			EEffettiPermanenti effettoScelto) {
+		ContestoEffetto contesto = new ContestoEffetto(giocatore, famigliare, carta);
 		if (this.effettiPermanentiDelleCarteComunicazione.size() >= 1
 				&& effettoScelto == this.effettiPermanentiDelleCarteComunicazione.get(0)) {
-			effettoPermanente.get(0)[1] = giocatore;
-			effettoPermanente.get(0)[3] = famigliare;
-			effettoPermanente.get(0)[4] = carta;
-			attivaEffettoSingolo(effettoPermanente.get(0));
+			attivaEffettoSingolo(effettoPermanente.get(0), contesto);
 		} else if (this.effettiPermanentiDelleCarteComunicazione.size() >= 2
 				&& effettoScelto == this.effettiPermanentiDelleCarteComunicazione.get(1)) {
-			effettoPermanente.get(1)[1] = giocatore;
-			effettoPermanente.get(1)[3] = famigliare;
-			effettoPermanente.get(1)[4] = carta;
-			attivaEffettoSingolo(effettoPermanente.get(1));
+			attivaEffettoSingolo(effettoPermanente.get(1), contesto);
 		} else if (effettoScelto == null) {
-
-			for (int i = 0; i < effettoPermanente.size(); i++) {
-				effettoPermanente.get(i)[1] = giocatore;
-				effettoPermanente.get(i)[3] = famigliare;
-				effettoPermanente.get(i)[4] = carta;
-				attivaEffettoSingolo(effettoPermanente.get(i));
-			}
+			for (Effetto effetto : effettoPermanente)
+				attivaEffettoSingolo(effetto, contesto);
 		}
 	}
 
@@ -210,21 +196,27 @@ public abstract class Carta implements Serializable {
 	 * 
 	 */
 	public void acquisizione(Giocatore giocatore, ECostiCarte costoScelto) throws NoEnoughResourcesException {
-		if (costoScelto == this.costiDellaCartaComunicazione.get(0))
-			if ((int) (acquisizione.get(0)[0]) == 0) {
-				utilEffetto.preparaPagamento(acquisizione.get(0));
-			} else
-				throw new NoEnoughResourcesException();
-		else if (acquisizione.size() > 1) {
-			if ((int) (acquisizione.get(1)[0]) == 0)
-				utilEffetto.preparaPagamento(acquisizione.get(1));
-		} else if (costoScelto == null) {
-			if ((int) (acquisizione.get(0)[0]) == 0) {
-				utilEffetto.preparaPagamento(acquisizione.get(0));
-			}
-		} else
+		Costo costo = scegliCosto(giocatore, costoScelto);
+		if (costo == null || !costo.paga(giocatore))
 			throw new NoEnoughResourcesException();
+	}
 
+	/**
+	 * Metodo che restituisce il costo scelto dal giocatore, oppure null se il
+	 * giocatore non lo puo' pagare
+	 */
+	private Costo scegliCosto(Giocatore giocatore, ECostiCarte costoScelto) {
+		Costo costo = null;
+		if (costoScelto == null) {
+			// nessuna scelta: pago il primo costo che il giocatore puo' pagare
+			for (int i = 0; i < acquisizione.size(); i++)
+				if (acquisizione.get(i).pagabile(giocatore))
+					return acquisizione.get(i);
+		} else if (costoScelto == this.costiDellaCartaComunicazione.get(0))
+			costo = acquisizione.get(0);
+		else if (acquisizione.size() > 1)
+			costo = acquisizione.get(1);
+		return costo != null && costo.pagabile(giocatore) ? costo : null;
 	}
 
 	/**
@@ -234,65 +226,23 @@ public abstract class Carta implements Serializable {
 	 * @return
 	 */
 	public void attivaOnAzione(Giocatore giocatore, EAzioniGioco azione, Famigliare famigliare, Carta carta) {
-		for (int i = 0; i < this.effettoPermanente.size(); i++) {
-			this.effettoPermanente.get(i)[1] = giocatore;
-			this.effettoPermanente.get(i)[3] = famigliare;
-			this.effettoPermanente.get(i)[4] = carta;
-			if ((EAzioniGioco) (this.effettoPermanente.get(i)[2]) == azione)
-				attivaEffettoSingolo(this.effettoPermanente.get(i));
+		ContestoEffetto contesto = null;
+		for (Effetto effetto : this.effettoPermanente) {
+			if (effetto.getAzioneAttivazione() == azione) {
+				if (contesto == null)
+					contesto = new ContestoEffetto(giocatore, famigliare, carta);
+				attivaEffettoSingolo(effetto, contesto);
+			}
 		}
 	}
 
 	/**
-	 * Metodo che, dato un array di Object in ingresso, va ad eseguire l'effetto
-	 * corrispondente con i parametri codificati nell'array di Object
+	 * Metodo che esegue un effetto con i parametri dell'attivazione contenuti
+	 * nel contesto
 	 */
-	public void attivaEffettoSingolo(Object[] parametri) {
+	public void attivaEffettoSingolo(Effetto effetto, ContestoEffetto contesto) {
 		try {
-			if ((int) parametri[0] == 0)
-				utilEffetto.aggiungiRisorse(parametri);
-			else if ((int) parametri[0] == 3)
-				utilEffetto.eseguiPrivilegioDelConsiglio(parametri);
-			else if ((int) parametri[0] == 4)
-				utilEffetto.aumentaDiDueAzione(parametri);
-			else if ((int) parametri[0] == 5)
-				utilEffetto.aumentaDiTreAzione(parametri);
-			else if ((int) parametri[0] == 6)
-				utilEffetto.eseguiEffettoImmediatoRaccolto(parametri);
-			else if ((int) parametri[0] == 7)
-				utilEffetto.eseguiEffettoImmediatoProduzioneValoreTre(parametri);
-			else if ((int) parametri[0] == 8)
-				utilEffetto.eseguiEffettoImmediatoProduzioneValoreQuattro(parametri);
-			else if ((int) parametri[0] == 9)
-				utilEffetto.duePVxedificio(parametri);
-			else if ((int) parametri[0] == 10)
-				utilEffetto.duePVxpersonaggio(parametri);
-			else if ((int) parametri[0] == 11)
-				utilEffetto.duePVximpresa(parametri);
-			else if ((int) parametri[0] == 12)
-				utilEffetto.duePVxterritorio(parametri);
-			else if ((int) parametri[0] == 13)
-				utilEffetto.unPVxpersonaggio(parametri);
-			else if ((int) parametri[0] == 14)
-				utilEffetto.unPVximpresa(parametri);
-			else if ((int) parametri[0] == 15)
-				utilEffetto.unaMonetaxterritorio(parametri);
-			else if ((int) parametri[0] == 16)
-				utilEffetto.unaMonetaxedificio(parametri);
-			else if ((int) parametri[0] == 17)
-				utilEffetto.unPVxduePM(parametri);
-			else if ((int) parametri[0] == 18)
-				utilEffetto.decrementaDiQuattroAzione(parametri);
-			else if ((int) parametri[0] == 19)
-				utilEffetto.decrementaDiTreAzione(parametri);
-			else if ((int) parametri[0] == 20)
-				utilEffetto.decrementaDiUnoAzione(parametri);
-			else if ((int) parametri[0] == 23)
-				utilEffetto.scontoUnaMoneta(parametri);
-			else if ((int) parametri[0] == 24)
-				utilEffetto.scontoLegnoEPietra(parametri);
-			else if ((int) parametri[0] == 25)
-				utilEffetto.prendiCartaSenzaFamigliareQuattro(parametri);
+			effetto.attiva(contesto);
 		} catch (Exception e) {
 			System.err.println(e.getMessage());
 		}
@@ -308,8 +258,8 @@ public abstract class Carta implements Serializable {
 	 * 
 	 */
 	public boolean attivaOnEffettoTorre() {
-		for (int i = 0; i < this.effettoPermanente.size(); i++) {
-			if ((EAzioniGioco) (this.effettoPermanente.get(i)[2]) == EAzioniGioco.EffettoTorre)
+		for (Effetto effetto : this.effettoPermanente) {
+			if (effetto.getAzioneAttivazione() == EAzioniGioco.EffettoTorre)
 				return true;
 		}
 		return false;
@@ -329,7 +279,7 @@ public abstract class Carta implements Serializable {
 		return this.nome;
 	}
 
-	public ArrayList<Object[]> getAcquisizione() {
+	public List<Costo> getAcquisizione() {
 		return this.acquisizione;
 	}
 
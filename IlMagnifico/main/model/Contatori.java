@@ -0,0 +1,191 @@
+package main.model;
+
+import java.io.Serializable;
+
+/**
+ * Contatori di un giocatore (risorse e punti) raccolti in un unico vettore di
+ * interi, condiviso da {@link Risorsa} e {@link Punti}. Le variazioni, i costi
+ * e le copie dei contatori (controlli dei costi, famigliare temporaneo,
+ * variazioni inviate ai client) sono operazioni sull'intero vettore.
+ */
+public final class Contatori implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 2650842251384367913L;
+
+	/**
+	 * Posizioni dei contatori nel vettore
+	 */
+	public static final int MONETE = 0, LEGNO = 1, PIETRE = 2, SERVITORI = 3, PUNTI_VITTORIA = 4,
+			PUNTI_MILITARI = 5, PUNTI_FEDE = 6;
+
+	/**
+	 * Numero di contatori
+	 */
+	public static final int NUMERO = 7;
+
+	/**
+	 * Valori dei contatori
+	 */
+	private final int[] valori = new int[NUMERO];
+
+	/**
+	 * Ritorna un vettore di contatori con i valori indicati
+	 *
+	 * @return int[]
+	 */
+	public static int[] vettore(int monete, int legno, int pietre, int servitori, int puntiVittoria,
+			int puntiMilitari, int puntiFede) {
+		return new int[] { monete, legno, pietre, servitori, puntiVittoria, puntiMilitari, puntiFede };
+	}
+
+	/**
+	 * Ritorna il valore del contatore
+	 *
+	 * @param contatore
+	 *            posizione del contatore (es. {@link #MONETE})
+	 * @return int
+	 */
+	public int get(int contatore) {
+		return this.valori[contatore];
+	}
+
+	/**
+	 * Imposta il valore del contatore
+	 *
+	 * @param contatore
+	 * @param valore
+	 */
+	public void set(int contatore, int valore) {
+		this.valori[contatore] = valore;
+	}
+
+	/**
+	 * Applica la variazione al contatore. Se la variazione e' positiva e il
+	 * contatore e' nel malus (un bit per contatore, vedi
+	 * {@link Giocatore#getMalusRicezione()}) viene ricevuta un'unita' in meno
+	 *
+	 * @param contatore
+	 * @param variazione
+	 * @param malus
+	 */
+	public void cambia(int contatore, int variazione, int malus) {
+		if (variazione > 0 && (malus & (1 << contatore)) != 0)
+			variazione--;
+		this.valori[contatore] += variazione;
+	}
+
+	/**
+	 * Applica le variazioni di tutti i contatori (vedi
+	 * {@link #cambia(int, int, int)})
+	 *
+	 * @param variazioni
+	 * @param malus
+	 */
+	public void aggiungi(int[] variazioni, int malus) {
+		for (int i = 0; i < NUMERO; i++) {
+			int variazione = variazioni[i];
+			if (variazione > 0 && (malus & (1 << i)) != 0)
+				variazione--;
+			this.valori[i] += variazione;
+		}
+	}
+
+	/**
+	 * Applica la somma delle variazioni di piu' effetti: per ogni contatore nel
+	 * malus viene ricevuta un'unita' in meno per ciascuno degli effetti che lo
+	 * aumentano (come applicando le variazioni una alla volta)
+	 *
+	 * @param variazioni
+	 * @param ricevute
+	 *            numero di effetti che aumentano ciascun contatore
+	 * @param malus
+	 */
+	public void aggiungi(int[] variazioni, int[] ricevute, int malus) {
+		for (int i = 0; i < NUMERO; i++)
+			this.valori[i] += (malus & (1 << i)) != 0 ? variazioni[i] - ricevute[i] : variazioni[i];
+	}
+
+	/**
+	 * Sottrae il costo da tutti i contatori
+	 *
+	 * @param costo
+	 */
+	public void sottrai(int[] costo) {
+		for (int i = 0; i < NUMERO; i++)
+			this.valori[i] -= costo[i];
+	}
+
+	/**
+	 * Ritorna true se ogni contatore e' almeno pari al valore richiesto
+	 *
+	 * @param richiesti
+	 * @return boolean
+	 */
+	public boolean copre(int[] richiesti) {
+		// senza salti: il segno dell'or delle differenze e' negativo se almeno
+		// un contatore e' minore del valore richiesto
+		int[] v = this.valori;
+		return ((v[0] - richiesti[0]) | (v[1] - richiesti[1]) | (v[2] - richiesti[2]) | (v[3] - richiesti[3])
+				| (v[4] - richiesti[4]) | (v[5] - richiesti[5]) | (v[6] - richiesti[6])) >= 0;
+	}
+
+	/**
+	 * Ritorna true se, applicando le variazioni, nessun contatore che diminuisce
+	 * diventa negativo
+	 *
+	 * @param variazioni
+	 * @return boolean
+	 */
+	public boolean ammette(int[] variazioni) {
+		for (int i = 0; i < NUMERO; i++)
+			if (variazioni[i] < 0 && this.valori[i] + variazioni[i] < 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Ritorna la somma dei contatori compresi tra le posizioni indicate
+	 *
+	 * @param primo
+	 * @param ultimo
+	 *            (compreso)
+	 * @return int
+	 */
+	public int somma(int primo, int ultimo) {
+		int somma = 0;
+		for (int i = primo; i <= ultimo; i++)
+			somma += this.valori[i];
+		return somma;
+	}
+
+	/**
+	 * Copia i valori di altri contatori
+	 *
+	 * @param contatori
+	 */
+	public void copia(Contatori contatori) {
+		System.arraycopy(contatori.valori, 0, this.valori, 0, NUMERO);
+	}
+
+	/**
+	 * Copia i contatori nel vettore, a partire dalla posizione indicata
+	 *
+	 * @param destinazione
+	 * @param posizione
+	 */
+	public void copiaIn(int[] destinazione, int posizione) {
+		System.arraycopy(this.valori, 0, destinazione, posizione, NUMERO);
+	}
+
+	/**
+	 * Imposta i contatori ai primi {@link #NUMERO} valori del vettore
+	 *
+	 * @param valori
+	 */
+	public void imposta(int[] valori) {
+		System.arraycopy(valori, 0, this.valori, 0, NUMERO);
+	}
+}
@@ -0,0 +1,42 @@
+package main.model;
+
+/**
+ * Parametri di una singola attivazione di un {@link Effetto} (o di un
+ * {@link Costo}). Viene creato ad ogni attivazione, per cui partite diverse
+ * possono valutare gli stessi effetti contemporaneamente.
+ */
+public final class ContestoEffetto {
+
+	/**
+	 * Giocatore che attiva l'effetto (puo' essere null).
+	 */
+	private final Giocatore giocatore;
+
+	/**
+	 * Famigliare coinvolto nell'azione (puo' essere null).
+	 */
+	private final Famigliare famigliare;
+
+	/**
+	 * Carta coinvolta nell'azione (puo' essere null).
+	 */
+	private final Carta carta;
+
+	public ContestoEffetto(Giocatore giocatore, Famigliare famigliare, Carta carta) {
+		this.giocatore = giocatore;
+		this.famigliare = famigliare;
+		this.carta = carta;
+	}
+
+	public Giocatore getGiocatore() {
+		return this.giocatore;
+	}
+
+	public Famigliare getFamigliare() {
+		return this.famigliare;
+	}
+
+	public Carta getCarta() {
+		return this.carta;
+	}
+}
@@ -0,0 +1,118 @@
+package main.model;
+
+/**
+ * Costo di acquisizione di una carta, compilato a partire da
+ * {@link main.model.enums.ECostiCarte}. E' immutabile e condiviso da tutte le
+ * partite: la possibilita' di pagarlo viene sempre valutata rispetto al
+ * giocatore passato come parametro.
+ */
+public final class Costo {
+
+	/**
+	 * Costo pagato con le risorse.
+	 */
+	public static final int RISORSE = 1;
+
+	/**
+	 * Costo pagato con i punti militari (richiede una soglia minima).
+	 */
+	public static final int PUNTI = 2;
+
+	/**
+	 * Tipo del costo ({@link #RISORSE} o {@link #PUNTI}).
+	 */
+	private final int tipo;
+
+	/**
+	 * Risorse da pagare.
+	 */
+	private final int monete, legno, pietre, servitori;
+
+	/**
+	 * Punti militari da pagare.
+	 */
+	private final int puntiMilitari;
+
+	/**
+	 * Punti militari necessari per poter pagare il costo.
+	 */
+	private final int sogliaPuntiMilitari;
+
+	/**
+	 * Contatori da pagare (vedi {@link Contatori}).
+	 */
+	private final int[] pagamento;
+
+	/**
+	 * Contatori necessari per poter pagare il costo: le risorse da pagare
+	 * oppure la soglia di punti militari.
+	 */
+	private final int[] requisiti;
+
+	public Costo(int tipo, int monete, int legno, int pietre, int servitori, int puntiMilitari,
+			int sogliaPuntiMilitari) {
+		this.tipo = tipo;
+		this.monete = monete;
+		this.legno = legno;
+		this.pietre = pietre;
+		this.servitori = servitori;
+		this.puntiMilitari = puntiMilitari;
+		this.sogliaPuntiMilitari = sogliaPuntiMilitari;
+		if (tipo == PUNTI) {
+			this.pagamento = Contatori.vettore(0, 0, 0, 0, 0, puntiMilitari, 0);
+			this.requisiti = Contatori.vettore(0, 0, 0, 0, 0, sogliaPuntiMilitari, 0);
+		} else {
+			this.pagamento = Contatori.vettore(monete, legno, pietre, servitori, 0, 0, 0);
+			this.requisiti = this.pagamento;
+		}
+	}
+
+	/**
+	 * Controlla se il giocatore puo' pagare il costo.
+	 */
+	public boolean pagabile(Giocatore giocatore) {
+		return giocatore.getContatori().copre(this.requisiti);
+	}
+
+	/**
+	 * Fa pagare il costo al giocatore.
+	 *
+	 * @return true se il pagamento e' stato effettuato, false se il giocatore
+	 *         non puo' pagare il costo.
+	 */
+	public boolean paga(Giocatore giocatore) {
+		Contatori contatori = giocatore.getContatori();
+		if (!contatori.copre(this.requisiti))
+			return false;
+		contatori.sottrai(this.pagamento);
+		return true;
+	}
+
+	public int getTipo() {
+		return this.tipo;
+	}
+
+	public int getMonete() {
+		return this.monete;
+	}
+
+	public int getLegno() {
+		return this.legno;
+	}
+
+	public int getPietre() {
+		return this.pietre;
+	}
+
+	public int getServitori() {
+		return this.servitori;
+	}
+
+	public int getPuntiMilitari() {
+		return this.puntiMilitari;
+	}
+
+	public int getSogliaPuntiMilitari() {
+		return this.sogliaPuntiMilitari;
+	}
+}
@@ -0,0 +1,117 @@
+package main.model;
+
+import main.model.enums.EAzioniGioco;
+
+/**
+ * Effetto (immediato, permanente o di una scomunica) compilato a partire dagli
+ * enumerativi delle carte. E' immutabile: la stessa istanza e' condivisa da
+ * tutte le partite in corso e viene valutata rispetto a un
+ * {@link ContestoEffetto}, che contiene il giocatore, il famigliare e la carta
+ * coinvolti nell'attivazione.
+ */
+public final class Effetto {
+
+	/**
+	 * Numero che identifica il metodo di {@link UtilEffetto} da eseguire.
+	 */
+	private final int numeroEffetto;
+
+	/**
+	 * Metodo che esegue l'effetto, risolto una sola volta a partire dal numero
+	 * dell'effetto (null se l'effetto non fa nulla).
+	 */
+	private final UtilEffetto.MetodoEffetto metodo;
+
+	/**
+	 * Azione che attiva l'effetto (null per gli effetti immediati).
+	 */
+	private final EAzioniGioco azioneAttivazione;
+
+	/**
+	 * Variazioni di risorse e punti applicate dall'effetto.
+	 */
+	private final int monete, legno, pietre, servitori, puntiVittoria, puntiMilitari, puntiFede;
+
+	/**
+	 * Variazioni dell'effetto come vettore di {@link Contatori}.
+	 */
+	private final int[] variazioni;
+
+	/**
+	 * Numero di privilegi del consiglio concessi dall'effetto.
+	 */
+	private final int privilegiConsiglio;
+
+	public Effetto(int numeroEffetto, EAzioniGioco azioneAttivazione, int monete, int legno, int pietre,
+			int servitori, int puntiVittoria, int puntiMilitari, int puntiFede, int privilegiConsiglio) {
+		this.numeroEffetto = numeroEffetto;
+		this.metodo = UtilEffetto.getMetodo(numeroEffetto);
+		this.azioneAttivazione = azioneAttivazione;
+		this.monete = monete;
+		this.legno = legno;
+		this.pietre = pietre;
+		this.servitori = servitori;
+		this.puntiVittoria = puntiVittoria;
+		this.puntiMilitari = puntiMilitari;
+		this.puntiFede = puntiFede;
+		this.variazioni = Contatori.vettore(monete, legno, pietre, servitori, puntiVittoria, puntiMilitari,
+				puntiFede);
+		this.privilegiConsiglio = privilegiConsiglio;
+	}
+
+	/**
+	 * Esegue l'effetto con i parametri dell'attivazione.
+	 */
+	public void attiva(ContestoEffetto contesto) {
+		if (this.metodo != null)
+			this.metodo.esegui(contesto, this);
+	}
+
+	public int getNumeroEffetto() {
+		return this.numeroEffetto;
+	}
+
+	public EAzioniGioco getAzioneAttivazione() {
+		return this.azioneAttivazione;
+	}
+
+	public int getMonete() {
+		return this.monete;
+	}
+
+	public int getLegno() {
+		return this.legno;
+	}
+
+	public int getPietre() {
+		return this.pietre;
+	}
+
+	public int getServitori() {
+		return this.servitori;
+	}
+
+	public int getPuntiVittoria() {
+		return this.puntiVittoria;
+	}
+
+	public int getPuntiMilitari() {
+		return this.puntiMilitari;
+	}
+
+	public int getPuntiFede() {
+		return this.puntiFede;
+	}
+
+	/**
+	 * Ritorna le variazioni dell'effetto (vedi {@link Contatori}): il vettore
+	 * e' condiviso e non va modificato.
+	 */
+	int[] getVariazioni() {
+		return this.variazioni;
+	}
+
+	public int getPrivilegiConsiglio() {
+		return this.privilegiConsiglio;
+	}
+}
@@ -74,6 +74,39 @@ public class Famigliare implements Serializable {
 	public void eseguiSpostamentoTorre(int posizione, ECostiCarte[] costiScelti) throws FamiliarAlreadyUsedException,
 			SpazioOccupatoException, SameAreaException, InvalidPositionException, InsufficientValueException,
 			NoMoneyException, NoEnoughResourcesException, MaxCardsReachedException, NullCardException {
+		ECostiCarte costoScelto = (costiScelti != null && costiScelti.length > 0) ? costiScelti[0] : null;
+		Famigliare famigliareTemporaneo = verificaSpostamentoTorre(posizione, costoScelto, 0);
+		SpazioAzione spazioAzione = giocatoreAppartenenza.getSpazioAzione();
+		// effettuo il pagamento, prendo la carta, eseguo l'effetto immediato e
+		// posiziono il famigliare
+		spazioAzione.getCartaTorre(posizione).acquisizione(famigliareTemporaneo.giocatoreAppartenenza, costoScelto);
+		// devo applicare tutte le modifiche al mio giocatore di partenza
+		mergeFamigliari(famigliareTemporaneo);
+		prendiCartaDallaTorre(posizione / 4, spazioAzione, posizione);
+		spazioAzione.setFamigliareTorre(this, posizione);
+		this.posizionato = true;
+	}
+
+	/**
+	 * Metodo che controlla tutte le condizioni dello spostamento su una zona
+	 * della torre senza modificare la partita: i calcoli vengono eseguiti sul
+	 * famigliare temporaneo (vedi {@link #clonaFamigliare()}).
+	 * 
+	 * @param posizione
+	 *            posizione sulle torri (da 0 a 15).
+	 * @param costoScelto
+	 *            costo scelto per la carta (null per il primo costo pagabile).
+	 * @param servitori
+	 *            servitori pagati prima dello spostamento (vedi
+	 *            {@link Giocatore#pagaServitore(Famigliare, int)}), che il
+	 *            giocatore deve poter pagare.
+	 * @return il famigliare temporaneo con le risorse del giocatore prima del
+	 *         pagamento della carta.
+	 */
+	public Famigliare verificaSpostamentoTorre(int posizione, ECostiCarte costoScelto, int servitori)
+			throws FamiliarAlreadyUsedException, SpazioOccupatoException, SameAreaException, InvalidPositionException,
+			InsufficientValueException, NoMoneyException, NoEnoughResourcesException, MaxCardsReachedException,
+			NullCardException {
 		int identificativoTorre = 0;
 
 		if (posizione < 0 | posizione > 15)
@@ -99,14 +132,14 @@ public class Famigliare implements Serializable {
 
 		// creo un famigliare temporaneo su cui fare tutti i calcoli derivanti
 		// da effetti
-		Famigliare famigliareTemporaneo = clonaFamigliare();
+		Famigliare famigliareTemporaneo = clonaFamigliare(servitori);
 		// Controllo tutti gli effetti permanenti delle carte personaggio e
 		// delle scomuniche
 		controlloMalusEffettiPermanentiTorre(identificativoTorre, famigliareTemporaneo);
 		controlloMalusScomunicheTorre(identificativoTorre, famigliareTemporaneo);
 		// controllo che il famigliare abbia un valore sufficiente per l'azione
 		if (famigliareTemporaneo.valore < (1 + 2 * (posizione % 4)))
-			throw new InsufficientValueException();
+			throw new InsufficientValueException(1 + 2 * (posizione % 4) - famigliareTemporaneo.valore);
 		// guardo se c'e' un'altra pedina e nel caso pago 3 monete
 		controlloAltroFamigliareNellaTorre(identificativoTorre, famigliareTemporaneo, spazioAzione);
 
@@ -115,19 +148,11 @@ public class Famigliare implements Serializable {
 
 		// controllo le carte personaggio per applicare eventuali sconti
 		controlloScontiEffettoPermanente(identificativoTorre, famigliareTemporaneo, spazioAzione, posizione);
-		// controllo se posso pagare la carta. Se posso, effettuo il pagamento,
-		// prendo la carta, eseguo l'effetto immediato e posiziono il famigliare
-		if (!spazioAzione.getCartaTorre(posizione).acquisibile(famigliareTemporaneo.giocatoreAppartenenza))
+		// controllo se posso pagare la carta
+		if (!spazioAzione.getCartaTorre(posizione).acquisibile(famigliareTemporaneo.giocatoreAppartenenza,
+				costoScelto))
 			throw new NoEnoughResourcesException();
-		else {
-			spazioAzione.getCartaTorre(posizione).acquisizione(famigliareTemporaneo.giocatoreAppartenenza,
-					(costiScelti != null && costiScelti.length > 0) ? costiScelti[0] : null);
-			// devo applicare tutte le modifiche al mio giocatore di partenza
-			mergeFamigliari(famigliareTemporaneo);
-			prendiCartaDallaTorre(identificativoTorre, spazioAzione, posizione);
-			spazioAzione.setFamigliareTorre(this, posizione);
-			this.posizionato = true;
-		}
+		return famigliareTemporaneo;
 	}
 
 	/**
@@ -138,14 +163,11 @@ public class Famigliare implements Serializable {
 	 * @return
 	 */
 	public void controlloSameTower(int identificativoTorre, SpazioAzione spazioAzione) throws SameAreaException {
-		for (int i = 4 * identificativoTorre; i < (identificativoTorre * 4) + 4; i++) {
-			// controllo che il giocatore sulla stessa torre non abbia due
-			// famigliari colorati
-			if (spazioAzione.getFamigliareTorre(i) != null)
-				if ((spazioAzione.getFamigliareTorre(i).getGiocatore().equals(this.giocatoreAppartenenza))
-						&& (spazioAzione.getFamigliareTorre(i).getNeutralita() == false) && (this.neutro == false))
-					throw new SameAreaException();
-		}
+		// controllo che il giocatore sulla stessa torre non abbia due
+		// famigliari colorati
+		if (this.neutro == false && (spazioAzione.getOccupazioneColorati(this.giocatoreAppartenenza)
+				& SpazioAzione.caselleTorre(identificativoTorre)) != 0)
+			throw new SameAreaException();
 	}
 
 	/**
@@ -167,25 +189,40 @@ public class Famigliare implements Serializable {
 	}
 
 	/**
-	 * Metodo che crea una copia del famigliare
+	 * Metodo che crea una copia del famigliare su cui eseguire i calcoli
+	 * temporanei di un'azione (applicati poi con {@link #mergeFamigliari}). La
+	 * copia e' il famigliare temporaneo del giocatore, riutilizzato da tutte le
+	 * sue azioni: e' valida solo fino alla copia successiva.
 	 * 
 	 * @param
 	 * @return
 	 */
 	public Famigliare clonaFamigliare() {
-		Famigliare famigliareTemporaneo = new Famigliare(new Giocatore(), this.valore, this.neutro);
-		famigliareTemporaneo.getGiocatore().getRisorse().setLegno(this.giocatoreAppartenenza.getRisorse().getLegno());
-		famigliareTemporaneo.getGiocatore().getRisorse().setPietre(this.giocatoreAppartenenza.getRisorse().getPietre());
-		famigliareTemporaneo.getGiocatore().getRisorse().setMonete(this.giocatoreAppartenenza.getRisorse().getMonete());
-		famigliareTemporaneo.getGiocatore().getRisorse()
-				.setServitori(this.giocatoreAppartenenza.getRisorse().getServitori());
-		famigliareTemporaneo.getGiocatore().getPunti()
-				.setPuntiMilitari(this.giocatoreAppartenenza.getPunti().getPuntiMilitari());
-		famigliareTemporaneo.getGiocatore().getPunti()
-				.setPuntiFede(this.giocatoreAppartenenza.getPunti().getPuntiFede());
-		famigliareTemporaneo.getGiocatore().getPunti()
-				.setPuntiVittoria(this.giocatoreAppartenenza.getPunti().getPuntiVittoria());
-		famigliareTemporaneo.getGiocatore().setColore(this.giocatoreAppartenenza.getColore());
+		return clonaFamigliare(0);
+	}
+
+	/**
+	 * Metodo che crea una copia del famigliare (vedi {@link #clonaFamigliare()})
+	 * come se il giocatore avesse prima pagato i servitori indicati per
+	 * aumentarne il valore.
+	 * 
+	 * @param servitori
+	 *            servitori pagati (vedi
+	 *            {@link Giocatore#pagaServitore(Famigliare, int)}).
+	 * @return
+	 */
+	public Famigliare clonaFamigliare(int servitori) {
+		Famigliare famigliareTemporaneo = this.giocatoreAppartenenza.getFamigliareTemporaneo();
+		famigliareTemporaneo.valore = this.valore;
+		famigliareTemporaneo.neutro = this.neutro;
+		famigliareTemporaneo.posizionato = false;
+		Giocatore registro = famigliareTemporaneo.giocatoreAppartenenza;
+		registro.getContatori().copia(this.giocatoreAppartenenza.getContatori());
+		registro.setColore(this.giocatoreAppartenenza.getColore());
+		if (servitori > 0) {
+			famigliareTemporaneo.cambiaValore(servitori);
+			registro.getRisorse().cambiaServitori(-this.giocatoreAppartenenza.getCostoServitori(servitori));
+		}
 		return famigliareTemporaneo;
 	}
 
@@ -218,10 +255,7 @@ public class Famigliare implements Serializable {
 	 * @return
 	 */
 	public void controlloEffettiPermanentiOnFamigliare(Famigliare famigliare, EAzioniGioco azione) {
-		for (int i = 0; i < this.giocatoreAppartenenza.getPlancia().getPersonaggi().size(); i++) {
-			this.giocatoreAppartenenza.getPlancia().getPersonaggi().get(i).attivaOnAzione(null, azione, famigliare,
-					null);
-		}
+		this.giocatoreAppartenenza.getPlancia().attivaEffettiPersonaggi(azione, null, famigliare, null);
 	}
 
 	/**
@@ -233,24 +267,17 @@ public class Famigliare implements Serializable {
 	 * 
 	 */
 	public void controlloMalusScomunicheTorre(int identificativoTorre, Famigliare famigliare) {
-		if ((famigliare.neutro == false) && (this.giocatoreAppartenenza.getScomunica(0) != null))
+		if ((famigliare.neutro == false)
+				&& this.giocatoreAppartenenza.scomunicaAttiva(0, EAzioniGioco.MuoviColorato))
 			this.giocatoreAppartenenza.getScomunica(0).attivaOnAzione(null, EAzioniGioco.MuoviColorato, famigliare,
 					null);
 
-		if (this.giocatoreAppartenenza.getScomunica(1) != null) {
-			if (identificativoTorre == 0)
-				this.giocatoreAppartenenza.getScomunica(1).attivaOnAzione(null, EAzioniGioco.PrendiTerritorio,
-						famigliare, null);
-			if (identificativoTorre == 1)
-				this.giocatoreAppartenenza.getScomunica(1).attivaOnAzione(null, EAzioniGioco.PrendiPersonaggio,
-						famigliare, null);
-			if (identificativoTorre == 2)
-				this.giocatoreAppartenenza.getScomunica(1).attivaOnAzione(null, EAzioniGioco.PrendiEdificio, famigliare,
-						null);
-			if (identificativoTorre == 3)
-				this.giocatoreAppartenenza.getScomunica(1).attivaOnAzione(null, EAzioniGioco.PrendiImpresa, famigliare,
-						null);
-		}
+		EAzioniGioco azione = identificativoTorre == 0 ? EAzioniGioco.PrendiTerritorio
+				: identificativoTorre == 1 ? EAzioniGioco.PrendiPersonaggio
+						: identificativoTorre == 2 ? EAzioniGioco.PrendiEdificio : EAzioniGioco.PrendiImpresa;
+		if (identificativoTorre >= 0 && identificativoTorre <= 3
+				&& this.giocatoreAppartenenza.scomunicaAttiva(1, azione))
+			this.giocatoreAppartenenza.getScomunica(1).attivaOnAzione(null, azione, famigliare, null);
 	}
 
 	/**
@@ -263,15 +290,11 @@ public class Famigliare implements Serializable {
 	 */
 	public void controlloAltroFamigliareNellaTorre(int identificativoTorre, Famigliare famigliare,
 			SpazioAzione spazioAzione) throws NoMoneyException {
-		for (int i = 4 * identificativoTorre; i < identificativoTorre + 4; i++) {
-			if (spazioAzione.torreLibera(i) == false) {
-				if (famigliare.giocatoreAppartenenza.getRisorse().getMonete() < 3)
-					throw new NoMoneyException();
-				else {
-					famigliare.giocatoreAppartenenza.getRisorse().cambiaMonete(-3);
-					break;
-				}
-			}
+		if (spazioAzione.torreOccupata(identificativoTorre)) {
+			if (famigliare.giocatoreAppartenenza.getRisorse().getMonete() < 3)
+				throw new NoMoneyException();
+			else
+				famigliare.giocatoreAppartenenza.getRisorse().cambiaMonete(-3);
 		}
 	}
 
@@ -287,10 +310,8 @@ public class Famigliare implements Serializable {
 			SpazioAzione spazioAzione) {
 		boolean controllo = false;
 		if (posizione % 4 == 3 | posizione % 4 == 2) {
-			for (int i = 0; i < this.giocatoreAppartenenza.getPlancia().getPersonaggi().size(); i++) {
-				if (this.giocatoreAppartenenza.getPlancia().getPersonaggi().get(i).attivaOnEffettoTorre())
-					controllo = true;
-			}
+			if (this.giocatoreAppartenenza.getPlancia().getEffettiPersonaggi(EAzioniGioco.EffettoTorre).length > 0)
+				controllo = true;
 			if (controllo == false)
 				spazioAzione.eseguiEffettoImmediatoTorre(famigliareTemporaneo.giocatoreAppartenenza, posizione);
 		}
@@ -305,21 +326,13 @@ public class Famigliare implements Serializable {
 	 */
 	public void controlloScontiEffettoPermanente(int identificativoTorre, Famigliare famigliare,
 			SpazioAzione spazioAzione, int posizione) {
-		for (int j = 0; j < this.giocatoreAppartenenza.getPlancia().getPersonaggi().size(); j++) {
-			Personaggio cartaPersonaggio = this.giocatoreAppartenenza.getPlancia().getPersonaggi().get(j);
-			if (identificativoTorre == 0)
-				cartaPersonaggio.attivaOnAzione(famigliare.giocatoreAppartenenza, EAzioniGioco.PagaTerritorio, null,
-						spazioAzione.getCartaTorre(posizione));
-			if (identificativoTorre == 1)
-				cartaPersonaggio.attivaOnAzione(famigliare.giocatoreAppartenenza, EAzioniGioco.PagaPersonaggio, null,
-						spazioAzione.getCartaTorre(posizione));
-			if (identificativoTorre == 2)
-				cartaPersonaggio.attivaOnAzione(famigliare.giocatoreAppartenenza, EAzioniGioco.PagaEdificio, null,
-						spazioAzione.getCartaTorre(posizione));
-			if (identificativoTorre == 3)
-				cartaPersonaggio.attivaOnAzione(famigliare.giocatoreAppartenenza, EAzioniGioco.PagaImpresa, null,
-						spazioAzione.getCartaTorre(posizione));
-		}
+		EAzioniGioco azione = identificativoTorre == 0 ? EAzioniGioco.PagaTerritorio
+				: identificativoTorre == 1 ? EAzioniGioco.PagaPersonaggio
+						: identificativoTorre == 2 ? EAzioniGioco.PagaEdificio
+								: identificativoTorre == 3 ? EAzioniGioco.PagaImpresa : null;
+		if (azione != null)
+			this.giocatoreAppartenenza.getPlancia().attivaEffettiPersonaggi(azione, famigliare.giocatoreAppartenenza,
+					null, spazioAzione.getCartaTorre(posizione));
 	}
 
 	/**
@@ -330,19 +343,7 @@ public class Famigliare implements Serializable {
 	 * @return
 	 */
 	public void mergeFamigliari(Famigliare cloneFamigliare) {
-		this.giocatoreAppartenenza.getPunti()
-				.setPuntiFede(cloneFamigliare.giocatoreAppartenenza.getPunti().getPuntiFede());
-		this.giocatoreAppartenenza.getPunti()
-				.setPuntiMilitari(cloneFamigliare.giocatoreAppartenenza.getPunti().getPuntiMilitari());
-		this.giocatoreAppartenenza.getPunti()
-				.setPuntiVittoria(cloneFamigliare.giocatoreAppartenenza.getPunti().getPuntiVittoria());
-		this.giocatoreAppartenenza.getRisorse().setLegno(cloneFamigliare.giocatoreAppartenenza.getRisorse().getLegno());
-		this.giocatoreAppartenenza.getRisorse()
-				.setMonete(cloneFamigliare.giocatoreAppartenenza.getRisorse().getMonete());
-		this.giocatoreAppartenenza.getRisorse()
-				.setPietre(cloneFamigliare.giocatoreAppartenenza.getRisorse().getPietre());
-		this.giocatoreAppartenenza.getRisorse()
-				.setServitori(cloneFamigliare.giocatoreAppartenenza.getRisorse().getServitori());
+		this.giocatoreAppartenenza.getContatori().copia(cloneFamigliare.giocatoreAppartenenza.getContatori());
 		this.valore = cloneFamigliare.valore;
 	}
 
@@ -391,6 +392,23 @@ public class Famigliare implements Serializable {
 	 */
 	public void eseguiSpostamentoRaccoltoRotondo()
 			throws SpazioOccupatoException, InsufficientValueException, FamiliarAlreadyUsedException {
+		Famigliare famigliareTemporaneo = verificaSpostamentoRaccoltoRotondo(0);
+		mergeFamigliari(famigliareTemporaneo);
+		giocatoreAppartenenza.getSpazioAzione().setZonaRaccoltoRotonda(this);
+		this.posizionato = true;
+		this.giocatoreAppartenenza.raccolto(this.valore);
+	}
+
+	/**
+	 * Metodo che controlla le condizioni dello spostamento sulla zona del
+	 * raccolto rotonda senza modificare la partita.
+	 * 
+	 * @param servitori
+	 *            servitori pagati prima dello spostamento.
+	 * @return il famigliare temporaneo con il valore dell'azione.
+	 */
+	public Famigliare verificaSpostamentoRaccoltoRotondo(int servitori)
+			throws SpazioOccupatoException, InsufficientValueException, FamiliarAlreadyUsedException {
 		if (this.posizionato == true)
 			throw new FamiliarAlreadyUsedException();
 
@@ -400,25 +418,20 @@ public class Famigliare implements Serializable {
 			throw new SpazioOccupatoException();
 
 		// creo un clone del mio famigliare
-		Famigliare famigliareTemporaneo = clonaFamigliare();
+		Famigliare famigliareTemporaneo = clonaFamigliare(servitori);
 
 		// applico gli effetti permanenti delle carte e gli effetti delle
 		// scomuniche
 		controlloEffettiPermanentiOnFamigliare(famigliareTemporaneo, EAzioniGioco.Raccolto);
 
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
+		if (this.giocatoreAppartenenza.scomunicaAttiva(0, EAzioniGioco.Raccolto))
 			this.giocatoreAppartenenza.getScomunica(0).attivaOnAzione(null, EAzioniGioco.Raccolto, famigliareTemporaneo,
 					null);
 
 		// guardo se ho abbastanza valore con la pedina
 		if (famigliareTemporaneo.valore < 1)
-			throw new InsufficientValueException();
-		else {
-			mergeFamigliari(famigliareTemporaneo);
-			spazioAzione.setZonaRaccoltoRotonda(this);
-			this.posizionato = true;
-			this.giocatoreAppartenenza.raccolto(this.valore);
-		}
+			throw new InsufficientValueException(1 - famigliareTemporaneo.valore);
+		return famigliareTemporaneo;
 	}
 
 	/**
@@ -429,24 +442,38 @@ public class Famigliare implements Serializable {
 	 */
 	public void eseguiSpostamentoRaccoltoOvale()
 			throws FamiliarAlreadyUsedException, SameAreaException, InsufficientValueException {
+		Famigliare famigliareTemporaneo = verificaSpostamentoRaccoltoOvale(0);
+		mergeFamigliari(famigliareTemporaneo);
+		giocatoreAppartenenza.getSpazioAzione().setZonaRaccoltoOvale(this);
+		this.posizionato = true;
+		this.giocatoreAppartenenza.raccolto(this.valore);
+	}
+
+	/**
+	 * Metodo che controlla le condizioni dello spostamento sulla zona del
+	 * raccolto ovale senza modificare la partita.
+	 * 
+	 * @param servitori
+	 *            servitori pagati prima dello spostamento.
+	 * @return il famigliare temporaneo con il valore dell'azione.
+	 */
+	public Famigliare verificaSpostamentoRaccoltoOvale(int servitori)
+			throws FamiliarAlreadyUsedException, SameAreaException, InsufficientValueException {
 		if (this.posizionato == true)
 			throw new FamiliarAlreadyUsedException();
 		SpazioAzione spazioAzione = giocatoreAppartenenza.getSpazioAzione();
-		Famigliare famigliareTemporaneo = new Famigliare(null, 0, false);
+		Famigliare famigliareTemporaneo;
 		// controllo che non ci sia un famigliare dello stesso colore
-		for (int i = 0; i < spazioAzione.getZonaRaccoltoOvale().size(); i++) {
-			famigliareTemporaneo = spazioAzione.getZonaRaccoltoOvale().get(i);
-			if (famigliareTemporaneo.giocatoreAppartenenza == this.giocatoreAppartenenza
-					&& famigliareTemporaneo.getNeutralita() == false && this.neutro == false)
-				throw new SameAreaException();
-		}
+		if (this.neutro == false && (spazioAzione.getOccupazioneColorati(this.giocatoreAppartenenza)
+				& (1 << SpazioAzione.ZONA_RACCOLTO_OVALE)) != 0)
+			throw new SameAreaException();
 
-		famigliareTemporaneo = clonaFamigliare();
+		famigliareTemporaneo = clonaFamigliare(servitori);
 
 		// applico gli effetti permanenti delle carte e gli effetti delle
 		// scomuniche
 		controlloEffettiPermanentiOnFamigliare(famigliareTemporaneo, EAzioniGioco.Raccolto);
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
+		if (this.giocatoreAppartenenza.scomunicaAttiva(0, EAzioniGioco.Raccolto))
 			this.giocatoreAppartenenza.getScomunica(0).attivaOnAzione(null, EAzioniGioco.Raccolto, famigliareTemporaneo,
 					null);
 
@@ -454,14 +481,8 @@ public class Famigliare implements Serializable {
 		famigliareTemporaneo.cambiaValore(-3);
 		// guardo se il famigliare ha abbastanza valore
 		if (famigliareTemporaneo.valore < 1)
-			throw new InsufficientValueException();
-		else {
-			mergeFamigliari(famigliareTemporaneo);
-			spazioAzione.setZonaRaccoltoOvale(this);
-			this.posizionato = true;
-			this.giocatoreAppartenenza.raccolto(this.valore);
-		}
-
+			throw new InsufficientValueException(1 - famigliareTemporaneo.valore);
+		return famigliareTemporaneo;
 	}
 
 	/**
@@ -472,6 +493,23 @@ public class Famigliare implements Serializable {
 	 */
 	public void eseguiSpostamentoProduzioneRotondo(EEffettiPermanenti effettoScelto)
 			throws SpazioOccupatoException, InsufficientValueException, FamiliarAlreadyUsedException {
+		Famigliare famigliareTemporaneo = verificaSpostamentoProduzioneRotondo(0);
+		mergeFamigliari(famigliareTemporaneo);
+		giocatoreAppartenenza.getSpazioAzione().setZonaProduzioneRotonda(this);
+		this.posizionato = true;
+		this.giocatoreAppartenenza.produzione(this.valore, effettoScelto);
+	}
+
+	/**
+	 * Metodo che controlla le condizioni dello spostamento sulla zona di
+	 * produzione rotonda senza modificare la partita.
+	 * 
+	 * @param servitori
+	 *            servitori pagati prima dello spostamento.
+	 * @return il famigliare temporaneo con il valore dell'azione.
+	 */
+	public Famigliare verificaSpostamentoProduzioneRotondo(int servitori)
+			throws SpazioOccupatoException, InsufficientValueException, FamiliarAlreadyUsedException {
 		if (this.posizionato == true)
 			throw new FamiliarAlreadyUsedException();
 
@@ -481,25 +519,20 @@ public class Famigliare implements Serializable {
 			throw new SpazioOccupatoException();
 
 		// creo un clone del mio famigliare
-		Famigliare famigliareTemporaneo = clonaFamigliare();
+		Famigliare famigliareTemporaneo = clonaFamigliare(servitori);
 
 		// applico gli effetti permanenti delle carte e gli effetti delle
 		// scomuniche
 		controlloEffettiPermanentiOnFamigliare(famigliareTemporaneo, EAzioniGioco.Produzione);
 
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
+		if (this.giocatoreAppartenenza.scomunicaAttiva(0, EAzioniGioco.Produzione))
 			this.giocatoreAppartenenza.getScomunica(0).attivaOnAzione(null, EAzioniGioco.Produzione,
 					famigliareTemporaneo, null);
 
 		// guardo se ho abbastanza valore con la pedina
 		if (famigliareTemporaneo.valore < 1)
-			throw new InsufficientValueException();
-		else {
-			mergeFamigliari(famigliareTemporaneo);
-			spazioAzione.setZonaProduzioneRotonda(this);
-			this.posizionato = true;
-			this.giocatoreAppartenenza.produzione(this.valore, effettoScelto);
-		}
+			throw new InsufficientValueException(1 - famigliareTemporaneo.valore);
+		return famigliareTemporaneo;
 	}
 
 	/**
@@ -510,24 +543,38 @@ public class Famigliare implements Serializable {
 	 */
 	public void eseguiSpostamentoProduzioneOvale(EEffettiPermanenti effettoScelto)
 			throws FamiliarAlreadyUsedException, SameAreaException, InsufficientValueException {
+		Famigliare famigliareTemporaneo = verificaSpostamentoProduzioneOvale(0);
+		mergeFamigliari(famigliareTemporaneo);
+		giocatoreAppartenenza.getSpazioAzione().setZonaProduzioneOvale(this);
+		this.posizionato = true;
+		this.giocatoreAppartenenza.produzione(this.valore, effettoScelto);
+	}
+
+	/**
+	 * Metodo che controlla le condizioni dello spostamento sulla zona di
+	 * produzione ovale senza modificare la partita.
+	 * 
+	 * @param servitori
+	 *            servitori pagati prima dello spostamento.
+	 * @return il famigliare temporaneo con il valore dell'azione.
+	 */
+	public Famigliare verificaSpostamentoProduzioneOvale(int servitori)
+			throws FamiliarAlreadyUsedException, SameAreaException, InsufficientValueException {
 		if (this.posizionato == true)
 			throw new FamiliarAlreadyUsedException();
 		SpazioAzione spazioAzione = giocatoreAppartenenza.getSpazioAzione();
-		Famigliare famigliareTemporaneo = new Famigliare(null, 0, false);
+		Famigliare famigliareTemporaneo;
 		// controllo che non ci sia un famigliare dello stesso colore
-		for (int i = 0; i < spazioAzione.getZonaProduzioneOvale().size(); i++) {
-			famigliareTemporaneo = spazioAzione.getZonaProduzioneOvale().get(i);
-			if (famigliareTemporaneo.giocatoreAppartenenza == this.giocatoreAppartenenza
-					&& famigliareTemporaneo.getNeutralita() == false && this.neutro == false)
-				throw new SameAreaException();
-		}
+		if (this.neutro == false && (spazioAzione.getOccupazioneColorati(this.giocatoreAppartenenza)
+				& (1 << SpazioAzione.ZONA_PRODUZIONE_OVALE)) != 0)
+			throw new SameAreaException();
 
-		famigliareTemporaneo = clonaFamigliare();
+		famigliareTemporaneo = clonaFamigliare(servitori);
 
 		// applico gli effetti permanenti delle carte e gli effetti delle
 		// scomuniche
 		controlloEffettiPermanentiOnFamigliare(famigliareTemporaneo, EAzioniGioco.Produzione);
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
+		if (this.giocatoreAppartenenza.scomunicaAttiva(0, EAzioniGioco.Produzione))
 			this.giocatoreAppartenenza.getScomunica(0).attivaOnAzione(null, EAzioniGioco.Produzione,
 					famigliareTemporaneo, null);
 
@@ -535,14 +582,8 @@ public class Famigliare implements Serializable {
 		famigliareTemporaneo.cambiaValore(-3);
 		// guardo se il famigliare ha abbastanza valore
 		if (famigliareTemporaneo.valore < 1)
-			throw new InsufficientValueException();
-		else {
-			mergeFamigliari(famigliareTemporaneo);
-			spazioAzione.setZonaProduzioneOvale(this);
-			this.posizionato = true;
-			this.giocatoreAppartenenza.produzione(this.valore, effettoScelto);
-
-		}
+			throw new InsufficientValueException(1 - famigliareTemporaneo.valore);
+		return famigliareTemporaneo;
 	}
 
 	/**
@@ -555,6 +596,26 @@ public class Famigliare implements Serializable {
 	public void eseguiSpostamentoMercato(int posizione, ESceltePrivilegioDelConsiglio[] sceltePrivilegiConsiglio)
 			throws InvalidPositionException, FamiliarAlreadyUsedException, SpazioOccupatoException,
 			MarketNotAvailableException, InsufficientValueException, InvalidChoiceException {
+		verificaSpostamentoMercato(posizione, 0);
+		SpazioAzione spazioAzione = this.giocatoreAppartenenza.getSpazioAzione();
+		spazioAzione.setMercato(this, posizione);
+		this.posizionato = true;
+		spazioAzione.eseguiEffettoMercato(giocatoreAppartenenza, posizione, sceltePrivilegiConsiglio);
+	}
+
+	/**
+	 * Metodo che controlla le condizioni dello spostamento nella zona del
+	 * mercato senza modificare la partita (le scelte dei privilegi del
+	 * consiglio devono essere diverse tra loro).
+	 * 
+	 * @param posizione
+	 *            posizione nel mercato (da 0 a 3).
+	 * @param servitori
+	 *            servitori pagati prima dello spostamento.
+	 */
+	public void verificaSpostamentoMercato(int posizione, int servitori) throws InvalidPositionException,
+			FamiliarAlreadyUsedException, SpazioOccupatoException, MarketNotAvailableException,
+			InsufficientValueException {
 		if (posizione < 0 || posizione > 3)
 			throw new InvalidPositionException();
 
@@ -565,16 +626,11 @@ public class Famigliare implements Serializable {
 		if (spazioAzione.zonaMercatoLibera(posizione) == false)
 			throw new SpazioOccupatoException();
 
-		if (this.giocatoreAppartenenza.getScomunica(1) != null)
-			if (this.giocatoreAppartenenza.getScomunica(1).attivaOnMercato())
-				throw new MarketNotAvailableException();
-
-		if (valore < 1)
-			throw new InsufficientValueException();
+		if (this.giocatoreAppartenenza.scomunicaAttiva(1, EAzioniGioco.Mercato))
+			throw new MarketNotAvailableException();
 
-		spazioAzione.setMercato(this, posizione);
-		this.posizionato = true;
-		spazioAzione.eseguiEffettoMercato(giocatoreAppartenenza, posizione, sceltePrivilegiConsiglio);
+		if (valore + servitori < 1)
+			throw new InsufficientValueException(1 - valore - servitori);
 	}
 
 	/**
@@ -585,19 +641,29 @@ public class Famigliare implements Serializable {
 	 */
 	public void eseguiSpostamentoPalazzoConsiglio(ESceltePrivilegioDelConsiglio scelta)
 			throws FamiliarAlreadyUsedException, InsufficientValueException {
-
-		if (this.posizionato == true)
-			throw new FamiliarAlreadyUsedException();
-
-		if (valore < 1)
-			throw new InsufficientValueException();
-
+		verificaSpostamentoPalazzoConsiglio(0);
 		SpazioAzione spazioAzione = giocatoreAppartenenza.getSpazioAzione();
 		spazioAzione.setPalazzoDelConsiglio(this);
 		this.posizionato = true;
 		spazioAzione.eseguiEffettoPalazzoConsiglio(giocatoreAppartenenza, scelta);
 	}
 
+	/**
+	 * Metodo che controlla le condizioni dello spostamento nella zona del
+	 * palazzo del consiglio senza modificare la partita.
+	 * 
+	 * @param servitori
+	 *            servitori pagati prima dello spostamento.
+	 */
+	public void verificaSpostamentoPalazzoConsiglio(int servitori)
+			throws FamiliarAlreadyUsedException, InsufficientValueException {
+		if (this.posizionato == true)
+			throw new FamiliarAlreadyUsedException();
+
+		if (valore + servitori < 1)
+			throw new InsufficientValueException(1 - valore - servitori);
+	}
+
 	public boolean getNeutralita() {
 		return this.neutro;
 	}
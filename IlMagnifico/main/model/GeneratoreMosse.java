@@ -0,0 +1,171 @@
+package main.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EColoriPedine;
+import main.model.enums.ECostiCarte;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+import main.model.exceptions.InsufficientValueException;
+import main.model.exceptions.SpostamentoNonValidoException;
+
+/**
+ * Genera tutte le mosse legali (famigliare, spazio azione, costo scelto,
+ * privilegi scelti e servitori da pagare) di un giocatore, senza modificare la
+ * partita: ogni spostamento viene controllato con i metodi "verifica" di
+ * {@link Famigliare}, che eseguono gli stessi controlli dei metodi
+ * "eseguiSpostamento" sul famigliare temporaneo del giocatore.
+ *
+ * Per ogni spostamento viene generata una sola mossa, con il minimo numero di
+ * servitori da pagare (pagandone di piu' lo spostamento resta legale, se il
+ * giocatore ha le risorse per farlo).
+ */
+public final class GeneratoreMosse {
+
+	private static final EColoriPedine[] COLORI = EColoriPedine.values();
+
+	/**
+	 * Scelte del privilegio del palazzo del consiglio.
+	 */
+	private static final ESceltePrivilegioDelConsiglio[][] PRIVILEGI_CONSIGLIO;
+
+	/**
+	 * Scelte dei due privilegi (diversi tra loro) dell'ultima posizione del
+	 * mercato.
+	 */
+	private static final ESceltePrivilegioDelConsiglio[][] PRIVILEGI_MERCATO;
+
+	/**
+	 * Posizione del mercato che assegna due privilegi del consiglio.
+	 */
+	private static final int MERCATO_PRIVILEGI = 3;
+
+	static {
+		ESceltePrivilegioDelConsiglio[] privilegi = ESceltePrivilegioDelConsiglio.values();
+		PRIVILEGI_CONSIGLIO = new ESceltePrivilegioDelConsiglio[privilegi.length][];
+		PRIVILEGI_MERCATO = new ESceltePrivilegioDelConsiglio[privilegi.length * (privilegi.length - 1) / 2][];
+		int coppia = 0;
+		for (int i = 0; i < privilegi.length; i++) {
+			PRIVILEGI_CONSIGLIO[i] = new ESceltePrivilegioDelConsiglio[] { privilegi[i] };
+			for (int j = i + 1; j < privilegi.length; j++)
+				PRIVILEGI_MERCATO[coppia++] = new ESceltePrivilegioDelConsiglio[] { privilegi[i], privilegi[j] };
+		}
+	}
+
+	private GeneratoreMosse() {
+
+	}
+
+	/**
+	 * Controllo di uno spostamento dopo aver pagato i servitori indicati.
+	 */
+	@FunctionalInterface
+	private interface Verifica {
+		void verifica(int servitori) throws SpostamentoNonValidoException;
+	}
+
+	/**
+	 * Restituisce le mosse legali del giocatore (indipendentemente dal turno,
+	 * vedi {@link Partita#getMosseLegali(Giocatore)}).
+	 *
+	 * @param giocatore
+	 * @return
+	 */
+	public static List<Mossa> generaMosse(Giocatore giocatore) {
+		List<Mossa> mosse = new ArrayList<>();
+		generaMosse(giocatore, mosse);
+		return mosse;
+	}
+
+	/**
+	 * Aggiunge alla lista le mosse legali del giocatore.
+	 *
+	 * @param giocatore
+	 * @param mosse
+	 *            lista a cui aggiungere le mosse.
+	 * @return numero di mosse aggiunte.
+	 */
+	public static int generaMosse(Giocatore giocatore, List<Mossa> mosse) {
+		int generate = mosse.size();
+		SpazioAzione spazioAzione = giocatore.getSpazioAzione();
+		for (EColoriPedine colore : COLORI) {
+			Famigliare famigliare = giocatore.getFamigliare(colore.getIndiceColore());
+			if (famigliare.getPosizionato())
+				continue;
+
+			for (int posizione = 0; posizione < 16; posizione++) {
+				Carta carta = spazioAzione.getCartaTorre(posizione);
+				if (carta != null && carta.getCostiCarta().size() > 1) {
+					for (ECostiCarte costo : carta.getCostiCarta())
+						aggiungiTorre(giocatore, famigliare, colore, posizione, costo, mosse);
+				} else
+					aggiungiTorre(giocatore, famigliare, colore, posizione, null, mosse);
+			}
+
+			for (int posizione = 0; posizione <= MERCATO_PRIVILEGI; posizione++) {
+				final int p = posizione;
+				int servitori = servitoriNecessari(giocatore, s -> famigliare.verificaSpostamentoMercato(p, s));
+				if (servitori < 0)
+					continue;
+				if (posizione == MERCATO_PRIVILEGI) {
+					for (ESceltePrivilegioDelConsiglio[] privilegi : PRIVILEGI_MERCATO)
+						mosse.add(new Mossa(EAzioniGiocatore.Mercato, colore, posizione, null, privilegi, servitori));
+				} else
+					mosse.add(new Mossa(EAzioniGiocatore.Mercato, colore, posizione, null, null, servitori));
+			}
+
+			int servitori = servitoriNecessari(giocatore, famigliare::verificaSpostamentoPalazzoConsiglio);
+			if (servitori >= 0)
+				for (ESceltePrivilegioDelConsiglio[] privilegi : PRIVILEGI_CONSIGLIO)
+					mosse.add(new Mossa(EAzioniGiocatore.PalazzoConsiglio, colore, 0, null, privilegi, servitori));
+
+			aggiungi(giocatore, colore, EAzioniGiocatore.Raccolto, famigliare::verificaSpostamentoRaccoltoRotondo,
+					mosse);
+			aggiungi(giocatore, colore, EAzioniGiocatore.RaccoltoOvale, famigliare::verificaSpostamentoRaccoltoOvale,
+					mosse);
+			aggiungi(giocatore, colore, EAzioniGiocatore.Produzione,
+					famigliare::verificaSpostamentoProduzioneRotondo, mosse);
+			aggiungi(giocatore, colore, EAzioniGiocatore.ProduzioneOvale,
+					famigliare::verificaSpostamentoProduzioneOvale, mosse);
+		}
+		return mosse.size() - generate;
+	}
+
+	private static void aggiungiTorre(Giocatore giocatore, Famigliare famigliare, EColoriPedine colore,
+			int posizione, ECostiCarte costo, List<Mossa> mosse) {
+		int servitori = servitoriNecessari(giocatore, s -> famigliare.verificaSpostamentoTorre(posizione, costo, s));
+		if (servitori >= 0)
+			mosse.add(new Mossa(EAzioniGiocatore.Torre, colore, posizione, costo, null, servitori));
+	}
+
+	private static void aggiungi(Giocatore giocatore, EColoriPedine colore, EAzioniGiocatore azione,
+			Verifica verifica, List<Mossa> mosse) {
+		int servitori = servitoriNecessari(giocatore, verifica);
+		if (servitori >= 0)
+			mosse.add(new Mossa(azione, colore, 0, null, null, servitori));
+	}
+
+	/**
+	 * Restituisce il minimo numero di servitori da pagare per rendere legale lo
+	 * spostamento, oppure -1 se lo spostamento non e' legale.
+	 */
+	private static int servitoriNecessari(Giocatore giocatore, Verifica verifica) {
+		try {
+			verifica.verifica(0);
+			return 0;
+		} catch (InsufficientValueException e) {
+			int servitori = e.getValoreMancante();
+			if (servitori <= 0 || giocatore.getCostoServitori(servitori) > giocatore.getRisorse().getServitori())
+				return -1;
+			try {
+				verifica.verifica(servitori);
+				return servitori;
+			} catch (SpostamentoNonValidoException e1) {
+				return -1;
+			}
+		} catch (SpostamentoNonValidoException e) {
+			return -1;
+		}
+	}
+}
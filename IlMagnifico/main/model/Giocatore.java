@@ -1,7 +1,10 @@
 package main.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
+import main.model.enums.EAzioniGioco;
 import main.model.enums.EEffettiPermanenti;
 import main.model.enums.EColoriGiocatori;
 import main.model.exceptions.NoEnoughResourcesException;
@@ -14,7 +17,7 @@ public class Giocatore implements Serializable {
 	/**
 	 * 
 	 */
-	private static final long serialVersionUID = -3040945684311418121L;
+	private static final long serialVersionUID = -3040945684311418122L;
 
 	/**
 	 * Nome del giocatore.
@@ -31,6 +34,12 @@ public class Giocatore implements Serializable {
 	 */
 	private Famigliare[] famiglia;
 
+	/**
+	 * Risorse e punti del giocatore, condivisi da {@link #risorse} e
+	 * {@link #punti}
+	 */
+	private final Contatori contatori = new Contatori();
+
 	/**
 	 * 
 	 */
@@ -53,6 +62,25 @@ public class Giocatore implements Serializable {
 	 */
 	private Scomunica[] scomuniche;
 
+	/**
+	 * Azioni che attivano le scomuniche del giocatore, per periodo (vedi
+	 * {@link Scomunica#getAttivazioni()}). Ricalcolate da
+	 * {@link #setScomunica(int, Scomunica)}
+	 */
+	private transient int[] attivazioniScomuniche;
+
+	/**
+	 * Malus della scomunica del primo periodo sui contatori ricevuti (vedi
+	 * {@link #getMalusRicezione()})
+	 */
+	private transient int malusRicezione;
+
+	/**
+	 * Famigliare usato per i calcoli temporanei delle azioni (vedi
+	 * {@link #getFamigliareTemporaneo()}).
+	 */
+	private transient Famigliare famigliareTemporaneo;
+
 	/**
 	 * Default constructor
 	 */
@@ -66,6 +94,7 @@ public class Giocatore implements Serializable {
 		this.spazioAzione = spazioAzione;
 		this.famiglia = new Famigliare[4];
 		this.scomuniche = new Scomunica[3];
+		aggiornaScomuniche();
 	}
 
 	public Giocatore() {
@@ -83,6 +112,7 @@ public class Giocatore implements Serializable {
 		for (int j = 0; j < 3; j++) {
 			this.scomuniche[j] = new Scomunica();
 		}
+		aggiornaScomuniche();
 		this.spazioAzione = new SpazioAzione();
 		// Si potrebbe fare:
 		// famiglia = null;
@@ -96,6 +126,25 @@ public class Giocatore implements Serializable {
 		// inizializza(); ??
 	}
 
+	/**
+	 * Ritorna il famigliare su cui le azioni del giocatore eseguono i calcoli
+	 * temporanei (bonus, malus e pagamenti) prima di applicarne il risultato
+	 * al giocatore. Il suo giocatore e' un registro che contiene solo risorse e
+	 * punti: viene creato alla prima azione e poi riutilizzato, per cui la
+	 * validazione di un'azione non alloca oggetti.
+	 */
+	Famigliare getFamigliareTemporaneo() {
+		if (this.famigliareTemporaneo == null) {
+			Giocatore registro = new Giocatore(null, null, null, new Plancia(), null, null);
+			registro.risorse = new Risorsa(registro);
+			registro.punti = new Punti(registro);
+			for (int i = 0; i < registro.scomuniche.length; i++)
+				registro.scomuniche[i] = new Scomunica();
+			this.famigliareTemporaneo = new Famigliare(registro, 0, false);
+		}
+		return this.famigliareTemporaneo;
+	}
+
 	/**
 	 * Imposta il nome del giocatore (utilizzato per identificare univocamente
 	 * il giocatore all'interno del gioco).
@@ -143,10 +192,7 @@ public class Giocatore implements Serializable {
 	 * @return
 	 */
 	public void pagaServitore(Famigliare famigliare, int valore) throws NoEnoughResourcesException {
-		int servitoriDaPagare = valore;
-		if (this.scomuniche[1] != null)
-			if (this.scomuniche[1].attivaOnPagaServitore())
-				servitoriDaPagare = servitoriDaPagare * 2;
+		int servitoriDaPagare = getCostoServitori(valore);
 		if (this.risorse.getServitori() < servitoriDaPagare)
 			throw new NoEnoughResourcesException();
 		else {
@@ -155,6 +201,80 @@ public class Giocatore implements Serializable {
 		}
 	}
 
+	/**
+	 * Restituisce il numero di servitori da pagare per aumentare di "valore"
+	 * il valore di un famigliare (raddoppiato dalla scomunica).
+	 * 
+	 * @param valore
+	 * @return
+	 */
+	public int getCostoServitori(int valore) {
+		if (scomunicaAttiva(1, EAzioniGioco.PagaServitori))
+			return valore * 2;
+		return valore;
+	}
+
+	/**
+	 * Ritorna i contatori di risorse e punti del giocatore
+	 * 
+	 * @return Contatori
+	 */
+	public Contatori getContatori() {
+		return this.contatori;
+	}
+
+	/**
+	 * Ritorna i contatori (un bit per contatore, vedi {@link Contatori#MONETE})
+	 * di cui il giocatore riceve un'unita' in meno a causa della scomunica del
+	 * primo periodo
+	 * 
+	 * @return int
+	 */
+	public int getMalusRicezione() {
+		return this.malusRicezione;
+	}
+
+	/**
+	 * Ritorna true se la scomunica del periodo indicato (0, 1 o 2) ha un
+	 * effetto attivato dall'azione
+	 * 
+	 * @param periodo
+	 * @param azione
+	 * @return boolean
+	 */
+	public boolean scomunicaAttiva(int periodo, EAzioniGioco azione) {
+		return (this.attivazioniScomuniche[periodo] & (1 << azione.ordinal())) != 0;
+	}
+
+	/**
+	 * Ricalcola le azioni che attivano le scomuniche e il malus sui contatori
+	 * ricevuti
+	 */
+	private void aggiornaScomuniche() {
+		this.attivazioniScomuniche = new int[this.scomuniche.length];
+		for (int i = 0; i < this.scomuniche.length; i++)
+			if (this.scomuniche[i] != null)
+				this.attivazioniScomuniche[i] = this.scomuniche[i].getAttivazioni();
+		int malus = 0;
+		if (scomunicaAttiva(0, EAzioniGioco.RiceviMonete))
+			malus |= 1 << Contatori.MONETE;
+		if (scomunicaAttiva(0, EAzioniGioco.RiceviPietreOLegno))
+			malus |= 1 << Contatori.LEGNO | 1 << Contatori.PIETRE;
+		if (scomunicaAttiva(0, EAzioniGioco.RiceviServitori))
+			malus |= 1 << Contatori.SERVITORI;
+		if (scomunicaAttiva(0, EAzioniGioco.RiceviPM))
+			malus |= 1 << Contatori.PUNTI_MILITARI;
+		this.malusRicezione = malus;
+	}
+
+	/**
+	 * Ricalcola le attivazioni delle scomuniche (non serializzate)
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		aggiornaScomuniche();
+	}
+
 	public Risorsa getRisorse() {
 		return this.risorse;
 	}
@@ -192,6 +312,7 @@ public class Giocatore implements Serializable {
 	 */
 	public void setScomunica(int periodo, Scomunica scomunica) {
 		this.scomuniche[periodo] = scomunica;
+		aggiornaScomuniche();
 	}
 
 	/**
@@ -231,7 +352,9 @@ public class Giocatore implements Serializable {
 	}
 
 	/**
-	 * Metodo che implementa il Raccolto
+	 * Metodo che implementa il Raccolto. Gli effetti delle carte territorio
+	 * sono attivati tramite la resa del raccolto della plancia (vedi
+	 * {@link Plancia#getReseTerritori()})
 	 * 
 	 * @param
 	 * @return
@@ -240,22 +363,13 @@ public class Giocatore implements Serializable {
 		this.risorse.cambiaLegno(1);
 		this.risorse.cambiaPietre(1);
 		this.risorse.cambiaServitori(1);
-		Carta carta = new Carta(null, null, null, null, 0, 0, null, 0, null, 0) {
-
-			/**
-			 * 
-			 */
-			private static final long serialVersionUID = -2805833778341801826L;
-		};
-		for (int i = 0; i < getPlancia().getTerritori().size(); i++) {
-			carta = getPlancia().getTerritori().get(i);
-			if (valoreAzione >= carta.getValoreNecessarioEffettoPermanente())
-				carta.effettoPermanente(this, null, null, null);
-		}
+		getPlancia().getReseTerritori().applica(this, valoreAzione);
 	}
 
 	/**
-	 * Metodo che implementa la Produzione
+	 * Metodo che implementa la Produzione. Senza effetto scelto gli effetti
+	 * delle carte edificio sono attivati tramite la resa della produzione
+	 * della plancia (vedi {@link Plancia#getReseEdifici()})
 	 * 
 	 * @param
 	 * @return
@@ -263,13 +377,11 @@ public class Giocatore implements Serializable {
 	public void produzione(int valoreAzione, EEffettiPermanenti effettoScelto) {
 		this.risorse.cambiaMonete(2);
 		this.punti.cambiaPuntiMilitari(1);
-		Carta carta = new Carta(null, null, null, null, 0, 0, null, 0, null, 0) {
-
-			/**
-			 * 
-			 */
-			private static final long serialVersionUID = -4625517524205122052L;
-		};
+		if (effettoScelto == null) {
+			getPlancia().getReseEdifici().applica(this, valoreAzione);
+			return;
+		}
+		Carta carta;
 		for (int i = 0; i < getPlancia().getEdifici().size(); i++) {
 			carta = getPlancia().getEdifici().get(i);
 			if (valoreAzione >= carta.getValoreNecessarioEffettoPermanente())
@@ -282,7 +394,7 @@ public class Giocatore implements Serializable {
 		int numeroRisorse = 0;
 		// guadagno punti vittoria per le carte territorio
 
-		if (!getScomunica(2).attivaOnTerritoriFinePartita() || getScomunica(2) == null) {
+		if (!scomunicaAttiva(2, EAzioniGioco.TerritoriFinePartita)) {
 			numeroDiCarte = getPlancia().getTerritori().size();
 			if (numeroDiCarte == 3)
 				getPunti().cambiaPuntiVittoria(1);
@@ -295,7 +407,7 @@ public class Giocatore implements Serializable {
 		}
 		// guadagno punti vittoria per le carte personaggio
 
-		if (!getScomunica(2).attivaOnPersonaggiFinePartita() || getScomunica(2) == null) {
+		if (!scomunicaAttiva(2, EAzioniGioco.PersonaggiFinePartita)) {
 			numeroDiCarte = getPlancia().getPersonaggi().size();
 			for (int j = 1; j <= numeroDiCarte; j++) {
 				getPunti().cambiaPuntiVittoria(j);
@@ -303,14 +415,13 @@ public class Giocatore implements Serializable {
 		}
 		// attivo gli effetti delle carte impresa
 
-		if (!getScomunica(2).attivaOnImpreseFinePartita() || getScomunica(2) == null) {
+		if (!scomunicaAttiva(2, EAzioniGioco.ImpreseFinePartita)) {
 			for (int i = 0; i < getPlancia().getImprese().size(); i++) {
 				getPlancia().getImprese().get(i).effettoPermanente(this, null, null, null);
 			}
 		}
 		// ricevo un punto vittoria ogni 5 risorse
-		numeroRisorse = getRisorse().getLegno() + getRisorse().getMonete() + getRisorse().getPietre()
-				+ getRisorse().getServitori();
+		numeroRisorse = this.contatori.somma(Contatori.MONETE, Contatori.SERVITORI);
 		getPunti().cambiaPuntiVittoria((numeroRisorse / 5));
 
 	}
@@ -0,0 +1,89 @@
+package main.model;
+
+import java.util.Arrays;
+
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EColoriPedine;
+import main.model.enums.ECostiCarte;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+
+/**
+ * Mossa legale di un giocatore (vedi {@link GeneratoreMosse}): famigliare,
+ * spazio azione, costo scelto, privilegi del consiglio scelti e servitori da
+ * pagare prima dello spostamento.
+ */
+public final class Mossa {
+
+	/**
+	 * Azione di spostamento (es. {@link EAzioniGiocatore#Torre})
+	 */
+	private final EAzioniGiocatore azione;
+
+	/**
+	 * Colore del famigliare da spostare
+	 */
+	private final EColoriPedine colore;
+
+	/**
+	 * Posizione sulle torri o nel mercato (0 per le altre azioni)
+	 */
+	private final int posizione;
+
+	/**
+	 * Costo scelto per la carta della torre (null per il primo costo pagabile)
+	 */
+	private final ECostiCarte costo;
+
+	/**
+	 * Privilegi del consiglio scelti (mercato e palazzo del consiglio)
+	 */
+	private final ESceltePrivilegioDelConsiglio[] privilegi;
+
+	/**
+	 * Servitori da pagare per aumentare il valore del famigliare prima dello
+	 * spostamento
+	 */
+	private final int servitori;
+
+	public Mossa(EAzioniGiocatore azione, EColoriPedine colore, int posizione, ECostiCarte costo,
+			ESceltePrivilegioDelConsiglio[] privilegi, int servitori) {
+		this.azione = azione;
+		this.colore = colore;
+		this.posizione = posizione;
+		this.costo = costo;
+		this.privilegi = privilegi;
+		this.servitori = servitori;
+	}
+
+	public EAzioniGiocatore getAzione() {
+		return this.azione;
+	}
+
+	public EColoriPedine getColore() {
+		return this.colore;
+	}
+
+	public int getPosizione() {
+		return this.posizione;
+	}
+
+	public ECostiCarte getCosto() {
+		return this.costo;
+	}
+
+	public ESceltePrivilegioDelConsiglio[] getPrivilegi() {
+		return this.privilegi != null ? this.privilegi.clone() : null;
+	}
+
+	public int getServitori() {
+		return this.servitori;
+	}
+
+	@Override
+	public String toString() {
+		return azione + "[" + colore + (azione == EAzioniGiocatore.Torre || azione == EAzioniGiocatore.Mercato
+				? " " + posizione : "") + (costo != null ? " " + costo.name() : "")
+				+ (privilegi != null ? " " + Arrays.toString(privilegi) : "")
+				+ (servitori > 0 ? " +" + servitori : "") + "]";
+	}
+}
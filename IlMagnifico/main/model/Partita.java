@@ -71,6 +71,18 @@ public abstract class Partita {
 	 */
 	protected boolean partitaTerminata;
 
+	/**
+	 * Seme da cui vengono generate tutte le estrazioni casuali della partita
+	 * (scomuniche, ordine dei giocatori, mazzo e dadi): a parita' di seme e di
+	 * azioni la partita si svolge sempre allo stesso modo.
+	 */
+	protected long seme;
+
+	/**
+	 * Generatore inizializzato con {@link #seme} (vedi {@link #setSeme(long)}).
+	 */
+	protected Random random;
+
 	/**
 	 * Costruttore.
 	 */
@@ -88,6 +100,23 @@ public abstract class Partita {
 		this.partitaTerminata = false;
 		this.giocatoriRapportoVaticano = new ArrayList<Giocatore>();
 		this.rapportoVaticanoEseguito = false;
+		setSeme(new Random().nextLong());
+	}
+
+	/**
+	 * Imposta il seme della partita (da chiamare prima dell'inizializzazione
+	 * della partita).
+	 * 
+	 * @param seme
+	 *            seme delle estrazioni casuali.
+	 */
+	public void setSeme(long seme) {
+		this.seme = seme;
+		this.random = new Random(seme);
+	}
+
+	public long getSeme() {
+		return this.seme;
 	}
 
 	/**
@@ -204,29 +233,44 @@ public abstract class Partita {
 	public void inizializzaMazzo() {
 		ECarte carte[] = ECarte.values();
 		for (int i = 0; i < carte.length; i++) {
-			if (carte[i].getTipoCarta() == ETipiCarte.Territorio)
-				this.mazzo.add(new Territorio(carte[i].getNome(), carte[i].getCosti(), carte[i].getEffettiImmediati(),
-						carte[i].getEffettiPermanenti(), carte[i].getvaloreNecessarioAttivazione(),
-						carte[i].getPeriodo(), carte[i].getCostiCarta(), carte[i].getNumScelteCosti(),
-						carte[i].getEffettiCarta(), carte[i].getNumScelteEffPermanenti()));
-			if (carte[i].getTipoCarta() == ETipiCarte.Edificio)
-				this.mazzo.add(new Edificio(carte[i].getNome(), carte[i].getCosti(), carte[i].getEffettiImmediati(),
-						carte[i].getEffettiPermanenti(), carte[i].getvaloreNecessarioAttivazione(),
-						carte[i].getPeriodo(), carte[i].getCostiCarta(), carte[i].getNumScelteCosti(),
-						carte[i].getEffettiCarta(), carte[i].getNumScelteEffPermanenti()));
-			if (carte[i].getTipoCarta() == ETipiCarte.Personaggio)
-				this.mazzo.add(new Personaggio(carte[i].getNome(), carte[i].getCosti(), carte[i].getEffettiImmediati(),
-						carte[i].getEffettiPermanenti(), carte[i].getvaloreNecessarioAttivazione(),
-						carte[i].getPeriodo(), carte[i].getCostiCarta(), carte[i].getNumScelteCosti(),
-						carte[i].getEffettiCarta(), carte[i].getNumScelteEffPermanenti()));
-			if (carte[i].getTipoCarta() == ETipiCarte.Impresa)
-				this.mazzo.add(new Impresa(carte[i].getNome(), carte[i].getCosti(), carte[i].getEffettiImmediati(),
-						carte[i].getEffettiPermanenti(), carte[i].getvaloreNecessarioAttivazione(),
-						carte[i].getPeriodo(), carte[i].getCostiCarta(), carte[i].getNumScelteCosti(),
-						carte[i].getEffettiCarta(), carte[i].getNumScelteEffPermanenti()));
+			Carta carta = creaCarta(carte[i]);
+			if (carta != null)
+				this.mazzo.add(carta);
 		}
 	}
 
+	/**
+	 * Crea la carta corrispondente (in base al tipo) all'elemento di
+	 * {@link ECarte} fornito.
+	 * 
+	 * @param carta
+	 *            carta da creare.
+	 * @return la carta creata (null se il tipo non e' gestito).
+	 */
+	public static Carta creaCarta(ECarte carta) {
+		if (carta.getTipoCarta() == ETipiCarte.Territorio)
+			return new Territorio(carta.getNome(), carta.getCosti(), carta.getEffettiImmediati(),
+					carta.getEffettiPermanenti(), carta.getvaloreNecessarioAttivazione(), carta.getPeriodo(),
+					carta.getCostiCarta(), carta.getNumScelteCosti(), carta.getEffettiCarta(),
+					carta.getNumScelteEffPermanenti());
+		if (carta.getTipoCarta() == ETipiCarte.Edificio)
+			return new Edificio(carta.getNome(), carta.getCosti(), carta.getEffettiImmediati(),
+					carta.getEffettiPermanenti(), carta.getvaloreNecessarioAttivazione(), carta.getPeriodo(),
+					carta.getCostiCarta(), carta.getNumScelteCosti(), carta.getEffettiCarta(),
+					carta.getNumScelteEffPermanenti());
+		if (carta.getTipoCarta() == ETipiCarte.Personaggio)
+			return new Personaggio(carta.getNome(), carta.getCosti(), carta.getEffettiImmediati(),
+					carta.getEffettiPermanenti(), carta.getvaloreNecessarioAttivazione(), carta.getPeriodo(),
+					carta.getCostiCarta(), carta.getNumScelteCosti(), carta.getEffettiCarta(),
+					carta.getNumScelteEffPermanenti());
+		if (carta.getTipoCarta() == ETipiCarte.Impresa)
+			return new Impresa(carta.getNome(), carta.getCosti(), carta.getEffettiImmediati(),
+					carta.getEffettiPermanenti(), carta.getvaloreNecessarioAttivazione(), carta.getPeriodo(),
+					carta.getCostiCarta(), carta.getNumScelteCosti(), carta.getEffettiCarta(),
+					carta.getNumScelteEffPermanenti());
+		return null;
+	}
+
 	/**
 	 * Metodo che mischia il mazzo senza distinguere le carte per periodo e per
 	 * tipo. Il riconoscere le carte da prendere per il relativo periodo e per
@@ -235,7 +279,7 @@ public abstract class Partita {
 	 * @return
 	 */
 	public void mescolaMazzo() {
-		Collections.shuffle(mazzo);
+		Collections.shuffle(mazzo, random);
 	}
 
 	/**
@@ -248,7 +292,6 @@ public abstract class Partita {
 			int periodo = i + 1;
 			int indice;
 			ArrayList<Scomunica> temporaneo = new ArrayList<Scomunica>();
-			Random random = new Random();
 			EScomuniche scomuniche[] = EScomuniche.values();
 			for (int j = 0; j < scomuniche.length; j++) {
 				if (scomuniche[j].getPeriodo() == periodo) {
@@ -266,7 +309,7 @@ public abstract class Partita {
 	 */
 	public void inizializzaGiocatori() {
 		int contatoreMonete = 4;
-		Collections.shuffle(giocatori);
+		Collections.shuffle(giocatori, random);
 		// generazione casuale dell'ordine dei turni di gioco
 
 		for (int i = 0; i < this.giocatori.size(); i++) {
@@ -457,7 +500,7 @@ public abstract class Partita {
 		classifica.removeAll(classifica);
 		// attivo gli effetti delle scomuniche di terzo periodo
 		for (int i = 0; i < giocatori.size(); i++) {
-			if (this.giocatori.get(i).getScomunica(2) != null)
+			if (this.giocatori.get(i).scomunicaAttiva(2, EAzioniGioco.FinePartita))
 				this.giocatori.get(i).getScomunica(2).attivaOnAzione(this.giocatori.get(i), EAzioniGioco.FinePartita,
 						null, null);
 		}
@@ -484,20 +527,15 @@ public abstract class Partita {
 	/**
 	 * Metodo che lancia i dadi ed assegna i valori alle variabili legate ai
 	 * dadi in SpazioAzione ed ai famigliari dei giocatori. Per convenzione
-	 * lancio sempre prima il dado nero, poi l'arancione, poi il bianco.
-	 * 
-	 * @return
+	 * lancio sempre prima il dado nero, poi l'arancione, poi il bianco. Il
+	 * lancio e' immediato: l'eventuale "animazione" dei dadi e' a carico dei
+	 * Client (vedi {@link main.util.Costants#DICE_REVEAL_DELAY}).
 	 */
 	public void lanciaDadi() {
 		int valoreDado;
-		Random random = new Random();
+		int[] dadi = tiraDadi();
 		for (int i = 0; i < 3; i++) {
-			valoreDado = random.nextInt(6) + 1;
-			try {
-				Thread.sleep(500);
-			} catch (InterruptedException e) {
-				// e.printStackTrace();
-			}
+			valoreDado = dadi[i];
 			for (int j = 0; j < this.giocatori.size(); j++) {
 				this.giocatori.get(j).setValore(i, valoreDado);
 				this.spazioAzione.setValoreDadi(valoreDado, i);
@@ -506,6 +544,20 @@ public abstract class Partita {
 		}
 	}
 
+	/**
+	 * Estrae i valori dei tre dadi (nero, arancione, bianco) usati da
+	 * {@link #lanciaDadi()}. Puo' essere ridefinito dalle sottoclassi (es. per
+	 * registrare i lanci o riprodurre lanci gia' registrati).
+	 * 
+	 * @return valori dei dadi.
+	 */
+	protected int[] tiraDadi() {
+		int[] dadi = new int[3];
+		for (int i = 0; i < 3; i++)
+			dadi[i] = random.nextInt(6) + 1;
+		return dadi;
+	}
+
 	/**
 	 * Metodo astratto per il log sul Server (vedi {@link Game})
 	 * 
@@ -530,13 +582,12 @@ public abstract class Partita {
 		// se la scomunica e' presente
 		for (int j = 0; j < cloneGiocatori.size(); j++) {
 			giocatore = cloneGiocatori.get(j);
-			if (giocatore.getScomunica(1) != null)
-				if (giocatore.getScomunica(1).attivaOnInizioTurno()) {
-					// rimuovo il giocatore dalla posizione in cui e' e lo
-					// inserisco alla fine
-					giocatori.remove(giocatore);
-					giocatori.add(giocatore);
-				}
+			if (giocatore.scomunicaAttiva(1, EAzioniGioco.InizioTurno)) {
+				// rimuovo il giocatore dalla posizione in cui e' e lo
+				// inserisco alla fine
+				giocatori.remove(giocatore);
+				giocatori.add(giocatore);
+			}
 		}
 	}
 
@@ -600,4 +651,38 @@ public abstract class Partita {
 	public Scomunica[] getScomuniche() {
 		return this.scomuniche;
 	}
+
+	/**
+	 * Metodo che restituisce i giocatori nell'ordine di gioco attuale
+	 * 
+	 * @return
+	 */
+	public List<Giocatore> getGiocatori() {
+		return Collections.unmodifiableList(this.giocatori);
+	}
+
+	/**
+	 * Metodo che restituisce i giocatori che devono ancora eseguire il
+	 * rapporto vaticano
+	 * 
+	 * @return
+	 */
+	public List<Giocatore> getGiocatoriRapportoVaticano() {
+		return Collections.unmodifiableList(this.giocatoriRapportoVaticano);
+	}
+
+	/**
+	 * Metodo che restituisce le mosse legali del giocatore (vedi
+	 * {@link GeneratoreMosse}): nessuna se non e' il suo turno, se la partita
+	 * non e' in corso o se deve essere eseguito il rapporto vaticano
+	 * 
+	 * @param giocatore
+	 * @return
+	 */
+	public List<Mossa> getMosseLegali(Giocatore giocatore) {
+		if (!isPartitaIniziata() || isPartitaFinita() || !this.giocatoriRapportoVaticano.isEmpty()
+				|| this.giocatoreDiTurno == null || !this.giocatoreDiTurno.getNome().equals(giocatore.getNome()))
+			return new ArrayList<Mossa>();
+		return GeneratoreMosse.generaMosse(giocatore);
+	}
 }
\ No newline at end of file
@@ -15,8 +15,8 @@ public class Personaggio extends Carta {
 	 */
 	private static final long serialVersionUID = -8999414251616255020L;
 
-	public Personaggio(String nome, ArrayList<Object[]> acquisizione, ArrayList<Object[]> effettoImmediato,
-			ArrayList<Object[]> effettoPermanente, int valoreNecessarioeffettoPermanente, int periodoCarta,
+	public Personaggio(String nome, List<Costo> acquisizione, List<Effetto> effettoImmediato,
+			List<Effetto> effettoPermanente, int valoreNecessarioeffettoPermanente, int periodoCarta,
 			ArrayList<ECostiCarte> costi, int scelteCosti, ArrayList<EEffettiPermanenti> effettiPermanenti,
 			int scelteEffettiPermanenti) {
 		super(nome, acquisizione, effettoImmediato, effettoPermanente, valoreNecessarioeffettoPermanente, periodoCarta,
@@ -3,6 +3,7 @@ package main.model;
 import java.io.Serializable;
 import java.util.*;
 
+import main.model.enums.EAzioniGioco;
 import main.model.enums.EEffettiPermanenti;
 
 /**
@@ -45,12 +46,120 @@ public class Plancia implements Serializable {
 	 */
 	private ArrayList<Impresa> imprese;
 
+	/**
+	 * Nessun effetto (vedi {@link #getEffettiPersonaggi(EAzioniGioco)})
+	 */
+	private static final Effetto[] NESSUN_EFFETTO = new Effetto[0];
+
+	/**
+	 * Effetti permanenti delle carte personaggio indicizzati per azione che li
+	 * attiva, nell'ordine delle carte. Aggiornato da
+	 * {@link #aggiungiPersonaggio(Personaggio)} e ricostruito quando la lista
+	 * dei personaggi viene modificata in altro modo (o dopo la
+	 * deserializzazione)
+	 */
+	private transient EnumMap<EAzioniGioco, Effetto[]> effettiPersonaggi;
+
+	/**
+	 * Personaggi presenti in {@link #effettiPersonaggi}, nell'ordine in cui
+	 * sono stati indicizzati
+	 */
+	private transient Personaggio[] personaggiIndicizzati;
+
+	/**
+	 * Rese del raccolto e della produzione (vedi {@link TabellaRese}).
+	 * Aggiornate da {@link #aggiungiTerritorio(Territorio)} e
+	 * {@link #aggiungiEdificio(Edificio)} e ricostruite quando le liste delle
+	 * carte vengono modificate in altro modo (o dopo la deserializzazione)
+	 */
+	private transient TabellaRese reseTerritori, reseEdifici;
+
 	/**
 	 * @param Personaggio
 	 * @return
 	 */
 	public void aggiungiPersonaggio(Personaggio nuovoPersonaggio) {
+		boolean indiceAggiornato = isIndiceAggiornato();
 		personaggi.add(nuovoPersonaggio);
+		if (indiceAggiornato) {
+			indicizza(nuovoPersonaggio);
+			personaggiIndicizzati = Arrays.copyOf(personaggiIndicizzati, personaggiIndicizzati.length + 1);
+			personaggiIndicizzati[personaggiIndicizzati.length - 1] = nuovoPersonaggio;
+		}
+	}
+
+	/**
+	 * Ritorna gli effetti permanenti delle carte personaggio attivati
+	 * dall'azione (il vettore e' condiviso e non va modificato)
+	 * 
+	 * @param azione
+	 * @return {@link Effetto}[]
+	 */
+	public Effetto[] getEffettiPersonaggi(EAzioniGioco azione) {
+		if (!isIndiceAggiornato()) {
+			effettiPersonaggi = new EnumMap<EAzioniGioco, Effetto[]>(EAzioniGioco.class);
+			for (Personaggio personaggio : personaggi)
+				indicizza(personaggio);
+			personaggiIndicizzati = personaggi.toArray(new Personaggio[personaggi.size()]);
+		}
+		Effetto[] effetti = effettiPersonaggi.get(azione);
+		return effetti != null ? effetti : NESSUN_EFFETTO;
+	}
+
+	/**
+	 * Attiva gli effetti permanenti delle carte personaggio attivati
+	 * dall'azione
+	 * 
+	 * @param azione
+	 * @param giocatore
+	 * @param famigliare
+	 * @param carta
+	 */
+	public void attivaEffettiPersonaggi(EAzioniGioco azione, Giocatore giocatore, Famigliare famigliare,
+			Carta carta) {
+		Effetto[] effetti = getEffettiPersonaggi(azione);
+		if (effetti.length == 0)
+			return;
+		ContestoEffetto contesto = new ContestoEffetto(giocatore, famigliare, carta);
+		for (Effetto effetto : effetti) {
+			try {
+				effetto.attiva(contesto);
+			} catch (Exception e) {
+				System.err.println(e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Ritorna true se {@link #effettiPersonaggi} contiene esattamente i
+	 * personaggi della plancia (come {@link TabellaRese#contiene(List)})
+	 */
+	private boolean isIndiceAggiornato() {
+		if (effettiPersonaggi == null || personaggiIndicizzati.length != personaggi.size())
+			return false;
+		for (int i = 0; i < personaggiIndicizzati.length; i++)
+			if (personaggi.get(i) != personaggiIndicizzati[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Aggiunge all'indice gli effetti permanenti del personaggio
+	 */
+	private void indicizza(Personaggio personaggio) {
+		for (Effetto effetto : personaggio.effettoPermanente) {
+			EAzioniGioco azione = effetto.getAzioneAttivazione();
+			if (azione == null)
+				continue;
+			Effetto[] effetti = effettiPersonaggi.get(azione);
+			if (effetti == null) {
+				effettiPersonaggi.put(azione, new Effetto[] { effetto });
+			} else {
+				effetti = Arrays.copyOf(effetti, effetti.length + 1);
+				effetti[effetti.length - 1] = effetto;
+				effettiPersonaggi.put(azione, effetti);
+			}
+		}
 	}
 
 	/**
@@ -58,7 +167,10 @@ public class Plancia implements Serializable {
 	 * @return
 	 */
 	public void aggiungiTerritorio(Territorio nuovoTerritorio) {
+		boolean reseAggiornate = reseTerritori != null && reseTerritori.contiene(territori);
 		territori.add(nuovoTerritorio);
+		if (reseAggiornate)
+			reseTerritori.aggiungi(nuovoTerritorio);
 	}
 
 	/**
@@ -66,7 +178,39 @@ public class Plancia implements Serializable {
 	 * @return
 	 */
 	public void aggiungiEdificio(Edificio nuovoEdificio) {
+		boolean reseAggiornate = reseEdifici != null && reseEdifici.contiene(edifici);
 		edifici.add(nuovoEdificio);
+		if (reseAggiornate)
+			reseEdifici.aggiungi(nuovoEdificio);
+	}
+
+	/**
+	 * Ritorna la resa del raccolto delle carte territorio
+	 *
+	 * @return {@link TabellaRese}
+	 */
+	TabellaRese getReseTerritori() {
+		if (reseTerritori == null || !reseTerritori.contiene(territori))
+			reseTerritori = tabellaRese(territori);
+		return reseTerritori;
+	}
+
+	/**
+	 * Ritorna la resa della produzione delle carte edificio
+	 *
+	 * @return {@link TabellaRese}
+	 */
+	TabellaRese getReseEdifici() {
+		if (reseEdifici == null || !reseEdifici.contiene(edifici))
+			reseEdifici = tabellaRese(edifici);
+		return reseEdifici;
+	}
+
+	private static TabellaRese tabellaRese(List<? extends Carta> carte) {
+		TabellaRese rese = new TabellaRese();
+		for (Carta carta : carte)
+			rese.aggiungi(carta);
+		return rese;
 	}
 
 	/**
@@ -10,29 +10,21 @@ public class Punti implements Serializable {
 	/**
 	 * 
 	 */
-	private static final long serialVersionUID = 7642887997296035889L;
+	private static final long serialVersionUID = 7642887997296035890L;
 
 	/**
 	 * Default constructor
 	 */
 	public Punti(Giocatore giocatore) {
 		this.giocatoreAppartenenza = giocatore;
+		this.contatori = giocatore.getContatori();
 	}
 
 	/**
-	 * 
-	 */
-	private int puntiVittoria;
-
-	/**
-	 * 
-	 */
-	private int puntiMilitari;
-
-	/**
-	 * 
+	 * Contatori del giocatore (i punti sono gli ultimi tre, vedi
+	 * {@link Contatori#PUNTI_VITTORIA})
 	 */
-	private int puntiFede;
+	private Contatori contatori;
 
 	private Giocatore giocatoreAppartenenza;
 
@@ -44,7 +36,7 @@ public class Punti implements Serializable {
 	 * @return
 	 */
 	public void cambiaPuntiVittoria(int variazione) {
-		this.puntiVittoria = this.puntiVittoria + variazione;
+		this.contatori.cambia(Contatori.PUNTI_VITTORIA, variazione, 0);
 	}
 
 	/**
@@ -55,10 +47,7 @@ public class Punti implements Serializable {
 	 * @return
 	 */
 	public void cambiaPuntiMilitari(int variazione) {
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
-			if (this.giocatoreAppartenenza.getScomunica(0).attivaOnRiceviPM() && variazione > 0)
-				this.puntiMilitari--;
-		this.puntiMilitari = this.puntiMilitari + variazione;
+		this.contatori.cambia(Contatori.PUNTI_MILITARI, variazione, this.giocatoreAppartenenza.getMalusRicezione());
 	}
 
 	/**
@@ -69,7 +58,16 @@ public class Punti implements Serializable {
 	 * @return
 	 */
 	public void cambiaPuntiFede(int variazione) {
-		this.puntiFede = this.puntiFede + variazione;
+		this.contatori.cambia(Contatori.PUNTI_FEDE, variazione, 0);
+	}
+
+	/**
+	 * Ritorna i contatori del giocatore
+	 * 
+	 * @return Contatori
+	 */
+	public Contatori getContatori() {
+		return this.contatori;
 	}
 
 	/**
@@ -79,7 +77,7 @@ public class Punti implements Serializable {
 	 * @return int
 	 */
 	public int getPuntiVittoria() {
-		return this.puntiVittoria;
+		return this.contatori.get(Contatori.PUNTI_VITTORIA);
 	}
 
 	/**
@@ -89,7 +87,7 @@ public class Punti implements Serializable {
 	 * @return int
 	 */
 	public int getPuntiMilitari() {
-		return this.puntiMilitari;
+		return this.contatori.get(Contatori.PUNTI_MILITARI);
 	}
 
 	/**
@@ -99,7 +97,7 @@ public class Punti implements Serializable {
 	 * @return int
 	 **/
 	public int getPuntiFede() {
-		return this.puntiFede;
+		return this.contatori.get(Contatori.PUNTI_FEDE);
 	}
 
 	/**
@@ -110,14 +108,14 @@ public class Punti implements Serializable {
 	 * @return
 	 */
 	public void setPuntiFede(int puntiFede) {
-		this.puntiFede = puntiFede;
+		this.contatori.set(Contatori.PUNTI_FEDE, puntiFede);
 	}
 
 	public void setPuntiVittoria(int puntiVittoria) {
-		this.puntiVittoria = puntiVittoria;
+		this.contatori.set(Contatori.PUNTI_VITTORIA, puntiVittoria);
 	}
 
 	public void setPuntiMilitari(int puntiMilitari) {
-		this.puntiMilitari = puntiMilitari;
+		this.contatori.set(Contatori.PUNTI_MILITARI, puntiMilitari);
 	}
 }
\ No newline at end of file
@@ -10,34 +10,21 @@ public class Risorsa implements Serializable{
 	/**
 	 * 
 	 */
-	private static final long serialVersionUID = -6060279375623683644L;
+	private static final long serialVersionUID = -6060279375623683645L;
 
 	/**
 	 * Default constructor
 	 */
 	public Risorsa(Giocatore giocatore) {
 		this.giocatoreAppartenenza = giocatore;
+		this.contatori = giocatore.getContatori();
 	}
 
 	/**
-	 * 
-	 */
-	private int monete;
-
-	/**
-	 * 
-	 */
-	private int legno;
-
-	/**
-	 * 
+	 * Contatori del giocatore (le risorse sono i primi quattro, vedi
+	 * {@link Contatori#MONETE})
 	 */
-	private int pietre;
-
-	/**
-	 * 
-	 */
-	private int servitori;
+	private Contatori contatori;
 
 	private Giocatore giocatoreAppartenenza;
 
@@ -49,10 +36,7 @@ public class Risorsa implements Serializable{
 	 * @return
 	 */
 	public void cambiaMonete(int variazione) {
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
-			if (this.giocatoreAppartenenza.getScomunica(0).attivaOnRiceviMonete() && variazione > 0)
-				this.monete--;
-		this.monete = this.monete + variazione;
+		this.contatori.cambia(Contatori.MONETE, variazione, this.giocatoreAppartenenza.getMalusRicezione());
 	}
 
 	/**
@@ -63,10 +47,7 @@ public class Risorsa implements Serializable{
 	 * @return
 	 */
 	public void cambiaLegno(int variazione) {
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
-			if (this.giocatoreAppartenenza.getScomunica(0).attivaOnRiceviPietreOLegno() && variazione > 0)
-				this.legno--;
-		this.legno = this.legno + variazione;
+		this.contatori.cambia(Contatori.LEGNO, variazione, this.giocatoreAppartenenza.getMalusRicezione());
 	}
 
 	/**
@@ -77,10 +58,7 @@ public class Risorsa implements Serializable{
 	 * @return
 	 */
 	public void cambiaPietre(int variazione) {
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
-			if (this.giocatoreAppartenenza.getScomunica(0).attivaOnRiceviPietreOLegno() && variazione > 0)
-				this.pietre--;
-		this.pietre = this.pietre + variazione;
+		this.contatori.cambia(Contatori.PIETRE, variazione, this.giocatoreAppartenenza.getMalusRicezione());
 	}
 
 	/**
@@ -91,10 +69,16 @@ public class Risorsa implements Serializable{
 	 * @return
 	 */
 	public void cambiaServitori(int variazione) {
-		if (this.giocatoreAppartenenza.getScomunica(0) != null)
-			if (this.giocatoreAppartenenza.getScomunica(0).attivaOnRiceviServitori() && variazione > 0)
-				this.servitori--;
-		this.servitori = this.servitori + variazione;
+		this.contatori.cambia(Contatori.SERVITORI, variazione, this.giocatoreAppartenenza.getMalusRicezione());
+	}
+
+	/**
+	 * Ritorna i contatori del giocatore
+	 * 
+	 * @return Contatori
+	 */
+	public Contatori getContatori() {
+		return this.contatori;
 	}
 
 	/**
@@ -104,7 +88,7 @@ public class Risorsa implements Serializable{
 	 * @return int
 	 */
 	public int getMonete() {
-		return this.monete;
+		return this.contatori.get(Contatori.MONETE);
 	}
 
 	/**
@@ -115,7 +99,7 @@ public class Risorsa implements Serializable{
 	 */
 	public int getLegno() {
 
-		return this.legno;
+		return this.contatori.get(Contatori.LEGNO);
 	}
 
 	/**
@@ -126,7 +110,7 @@ public class Risorsa implements Serializable{
 	 */
 	public int getPietre() {
 
-		return this.pietre;
+		return this.contatori.get(Contatori.PIETRE);
 	}
 
 	/**
@@ -137,22 +121,22 @@ public class Risorsa implements Serializable{
 	 */
 	public int getServitori() {
 
-		return this.servitori;
+		return this.contatori.get(Contatori.SERVITORI);
 	}
 
 	public void setMonete(int monete) {
-		this.monete = monete;
+		this.contatori.set(Contatori.MONETE, monete);
 	}
 
 	public void setLegno(int legno) {
-		this.legno = legno;
+		this.contatori.set(Contatori.LEGNO, legno);
 	}
 
 	public void setPietre(int pietre) {
-		this.pietre = pietre;
+		this.contatori.set(Contatori.PIETRE, pietre);
 	}
 
 	public void setServitori(int servitori) {
-		this.servitori = servitori;
+		this.contatori.set(Contatori.SERVITORI, servitori);
 	}
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package main.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
 import main.model.enums.EAzioniGioco;
+import main.model.enums.EScomuniche;
 
 /**
  * 
@@ -20,12 +23,16 @@ public class Scomunica implements Serializable {
 	 */
 	private String nome;
 
-	private UtilEffetto utilEffetto;
+	/**
+	 * Effetti della scomunica (immutabili, condivisi da tutte le partite)
+	 */
+	transient private List<Effetto> effetto;
 
 	/**
-	 * 
+	 * Azioni che attivano gli effetti della scomunica (un bit per ogni
+	 * {@link EAzioniGioco}), calcolate quando vengono impostati gli effetti
 	 */
-	transient private ArrayList<Object[]> effetto;
+	transient private int attivazioni;
 
 	private int periodo;
 
@@ -33,15 +40,57 @@ public class Scomunica implements Serializable {
 	 * Default constructor
 	 */
 	public Scomunica() {
-		this.utilEffetto = new UtilEffetto();
 		this.nome = new String();
-		this.effetto = new ArrayList<Object[]>();
+		this.effetto = new ArrayList<Effetto>();
 	}
 
-	public Scomunica(String nome, int periodo, ArrayList<Object[]> effetto) {
+	public Scomunica(String nome, int periodo, List<Effetto> effetto) {
 		this.nome = nome;
 		this.periodo = periodo;
 		this.effetto = effetto;
+		this.attivazioni = calcolaAttivazioni(effetto);
+	}
+
+	/**
+	 * Ricollega gli effetti (non serializzati) alla scomunica deserializzata,
+	 * cercandola per nome (vedi {@link EScomuniche#getScomunica(String)}).
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		EScomuniche scomunica = EScomuniche.getScomunica(this.nome);
+		this.effetto = scomunica != null ? scomunica.getEffetto() : new ArrayList<Effetto>();
+		this.attivazioni = calcolaAttivazioni(this.effetto);
+	}
+
+	/**
+	 * Ritorna le azioni che attivano gli effetti (vedi {@link #getAttivazioni()})
+	 */
+	private static int calcolaAttivazioni(List<Effetto> effetti) {
+		int attivazioni = 0;
+		for (Effetto e : effetti)
+			if (e.getAzioneAttivazione() != null)
+				attivazioni |= 1 << e.getAzioneAttivazione().ordinal();
+		return attivazioni;
+	}
+
+	/**
+	 * Ritorna le azioni che attivano gli effetti della scomunica: un bit per
+	 * ogni {@link EAzioniGioco} (in posizione {@link EAzioniGioco#ordinal()})
+	 * 
+	 * @return int
+	 */
+	public int getAttivazioni() {
+		return this.attivazioni;
+	}
+
+	/**
+	 * Ritorna true se la scomunica ha un effetto attivato dall'azione
+	 * 
+	 * @param azione
+	 * @return boolean
+	 */
+	public boolean attivaOn(EAzioniGioco azione) {
+		return (this.attivazioni & (1 << azione.ordinal())) != 0;
 	}
 
 	/**
@@ -49,40 +98,29 @@ public class Scomunica implements Serializable {
 	 * @return
 	 */
 	public void eseguiEffettoScomunica(Giocatore giocatore, Famigliare famigliare, Carta carta) {
-		for (int i = 0; i < effetto.size(); i++) {
-			effetto.get(i)[1] = giocatore;
-			effetto.get(i)[3] = famigliare;
-			effetto.get(i)[4] = carta;
-			attivaEffettoSingolo(effetto.get(i));
-		}
+		ContestoEffetto contesto = new ContestoEffetto(giocatore, famigliare, carta);
+		for (Effetto e : effetto)
+			attivaEffettoSingolo(e, contesto);
 	}
 
-	public void attivaEffettoSingolo(Object[] parametri) {
+	public void attivaEffettoSingolo(Effetto effetto, ContestoEffetto contesto) {
 		try {
-			if ((int) parametri[0] == 18)
-				utilEffetto.decrementaDiQuattroAzione(parametri);
-			else if ((int) parametri[0] == 19)
-				utilEffetto.decrementaDiTreAzione(parametri);
-			else if ((int) parametri[0] == 20)
-				utilEffetto.decrementaDiUnoAzione(parametri);
-			else if ((int) parametri[0] == 21)
-				utilEffetto.perdiPvxcinquePV(parametri);
-			else if ((int) parametri[0] == 22)
-				utilEffetto.perdiPvxPM(parametri);
-			else if ((int) parametri[0] == 26)
-				utilEffetto.perdiPVxRisorse(parametri);
+			effetto.attiva(contesto);
 		} catch (Exception e) {
 			System.err.println(e.getMessage());
 		}
 	}
 
 	public void attivaOnAzione(Giocatore giocatore, EAzioniGioco azione, Famigliare famigliare, Carta carta) {
-		for (int i = 0; i < this.effetto.size(); i++) {
-			this.effetto.get(i)[1] = giocatore;
-			this.effetto.get(i)[3] = famigliare;
-			this.effetto.get(i)[4] = carta;
-			if ((EAzioniGioco) (this.effetto.get(i)[2]) == azione)
-				attivaEffettoSingolo(this.effetto.get(i));
+		if (!attivaOn(azione))
+			return;
+		ContestoEffetto contesto = null;
+		for (Effetto e : this.effetto) {
+			if (e.getAzioneAttivazione() == azione) {
+				if (contesto == null)
+					contesto = new ContestoEffetto(giocatore, famigliare, carta);
+				attivaEffettoSingolo(e, contesto);
+			}
 		}
 	}
 
@@ -94,83 +132,43 @@ public class Scomunica implements Serializable {
 	 * @return
 	 */
 	public boolean attivaOnMercato() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.Mercato)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.Mercato);
 	}
 
 	public boolean attivaOnInizioTurno() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.InizioTurno)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.InizioTurno);
 	}
 
 	public boolean attivaOnPersonaggiFinePartita() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.PersonaggiFinePartita)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.PersonaggiFinePartita);
 	}
 
 	public boolean attivaOnTerritoriFinePartita() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.TerritoriFinePartita)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.TerritoriFinePartita);
 	}
 
 	public boolean attivaOnImpreseFinePartita() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.ImpreseFinePartita)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.ImpreseFinePartita);
 	}
 
 	public boolean attivaOnRiceviMonete() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.RiceviMonete)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.RiceviMonete);
 	}
 
 	public boolean attivaOnRiceviPietreOLegno() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.RiceviPietreOLegno)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.RiceviPietreOLegno);
 	}
 
 	public boolean attivaOnRiceviPM() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.RiceviPM)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.RiceviPM);
 	}
 
 	public boolean attivaOnRiceviServitori() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.RiceviServitori)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.RiceviServitori);
 	}
 
 	public boolean attivaOnPagaServitore() {
-		for (int i = 0; i < effetto.size(); i++) {
-			if ((EAzioniGioco) (effetto.get(i)[2]) == EAzioniGioco.PagaServitori)
-				return true;
-		}
-		return false;
+		return attivaOn(EAzioniGioco.PagaServitori);
 	}
 
 	public String getNome() {
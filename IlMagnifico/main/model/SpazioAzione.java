@@ -3,11 +3,15 @@ package main.model;
 import java.io.Serializable;
 import java.util.*;
 
+import main.model.enums.EColoriPedine;
 import main.model.enums.ESceltePrivilegioDelConsiglio;
 import main.model.exceptions.InvalidChoiceException;
 
 /**
- * 
+ * Tabellone di gioco. Oltre ai famigliari posizionati mantiene un indice
+ * dell'occupazione (vedi {@link #getOccupazione()}) con un bit per ogni
+ * casella: i controlli sull'occupazione (es. torre occupata, famigliare dello
+ * stesso colore nella stessa torre) sono operazioni sui bit.
  */
 public class SpazioAzione implements Serializable {
 
@@ -16,6 +20,67 @@ public class SpazioAzione implements Serializable {
 	 */
 	private static final long serialVersionUID = -7750262017347409763L;
 
+	/**
+	 * Bit della prima casella del mercato (le caselle da 0 a 15 sono i piani
+	 * delle torri)
+	 */
+	public static final int CASELLA_MERCATO = 16;
+
+	/**
+	 * Bit della zona di raccolto rotonda
+	 */
+	public static final int CASELLA_RACCOLTO_ROTONDA = 20;
+
+	/**
+	 * Bit della zona di produzione rotonda
+	 */
+	public static final int CASELLA_PRODUZIONE_ROTONDA = 21;
+
+	/**
+	 * Bit della zona di raccolto ovale (impostato se c'e' almeno un famigliare)
+	 */
+	public static final int ZONA_RACCOLTO_OVALE = 22;
+
+	/**
+	 * Bit della zona di produzione ovale (impostato se c'e' almeno un
+	 * famigliare)
+	 */
+	public static final int ZONA_PRODUZIONE_OVALE = 23;
+
+	/**
+	 * Bit del palazzo del consiglio (impostato se c'e' almeno un famigliare)
+	 */
+	public static final int ZONA_PALAZZO_CONSIGLIO = 24;
+
+	/**
+	 * Numero di colori dei famigliari
+	 */
+	private static final int COLORI = EColoriPedine.values().length;
+
+	/**
+	 * Caselle occupate (un bit per casella, vedi {@link #CASELLA_MERCATO})
+	 */
+	private transient int occupazione;
+
+	/**
+	 * Giocatori che hanno posizionato almeno un famigliare, nell'ordine usato
+	 * da {@link #occupazioneFamigliari}
+	 */
+	private transient Giocatore[] giocatoriIndice;
+
+	/**
+	 * Caselle occupate da ogni famigliare: [indice del giocatore * 4 + indice
+	 * del colore]
+	 */
+	private transient int[] occupazioneFamigliari;
+
+	/**
+	 * False dopo la deserializzazione: l'indice viene ricostruito al primo
+	 * utilizzo (durante la deserializzazione i famigliari potrebbero non essere
+	 * ancora completi)
+	 */
+	private transient boolean indiceAggiornato;
+
 	/**
 	 * Default constructor
 	 */
@@ -31,6 +96,9 @@ public class SpazioAzione implements Serializable {
 		this.mercato = new Famigliare[4];
 		this.palazzoDelConsiglio = new ArrayList<Famigliare>();
 		this.valoreDadi = new int[3];
+		this.giocatoriIndice = new Giocatore[0];
+		this.occupazioneFamigliari = new int[0];
+		this.indiceAggiornato = true;
 	}
 
 	private Torre[] pianoDellaTorre;
@@ -100,10 +168,175 @@ public class SpazioAzione implements Serializable {
 	 * 
 	 */
 	public boolean torreLibera(int posizione) {
-		if (this.pianoDellaTorre[posizione].famigliarePianoDellaTorre == null)
-			return true;
-		else
-			return false;
+		return (getOccupazione() & (1 << posizione)) == 0;
+	}
+
+	/**
+	 * Restituisce true se almeno un piano della torre indicata (0=territori,
+	 * 1=personaggi, 2=edifici, 3=imprese) e' occupato
+	 * 
+	 * @param torre
+	 * @return boolean
+	 */
+	public boolean torreOccupata(int torre) {
+		return (getOccupazione() & caselleTorre(torre)) != 0;
+	}
+
+	/**
+	 * Restituisce i bit dei piani della torre indicata
+	 * 
+	 * @param torre
+	 * @return int
+	 */
+	public static int caselleTorre(int torre) {
+		return 0xF << (4 * torre);
+	}
+
+	/**
+	 * Restituisce le caselle occupate (un bit per casella, vedi
+	 * {@link #CASELLA_MERCATO})
+	 * 
+	 * @return int
+	 */
+	public int getOccupazione() {
+		if (!this.indiceAggiornato)
+			aggiornaIndice();
+		return this.occupazione;
+	}
+
+	/**
+	 * Restituisce le caselle occupate dal famigliare del colore indicato del
+	 * giocatore
+	 * 
+	 * @param giocatore
+	 * @param colore
+	 * @return int
+	 */
+	public int getOccupazione(Giocatore giocatore, EColoriPedine colore) {
+		int indice = cercaGiocatore(giocatore);
+		return indice < 0 ? 0 : this.occupazioneFamigliari[indice * COLORI + colore.getIndiceColore()];
+	}
+
+	/**
+	 * Restituisce le caselle occupate dai famigliari di tutti i giocatori del
+	 * colore indicato
+	 * 
+	 * @param colore
+	 * @return int
+	 */
+	public int getOccupazione(EColoriPedine colore) {
+		if (!this.indiceAggiornato)
+			aggiornaIndice();
+		int caselle = 0;
+		for (int i = colore.getIndiceColore(); i < this.occupazioneFamigliari.length; i += COLORI)
+			caselle |= this.occupazioneFamigliari[i];
+		return caselle;
+	}
+
+	/**
+	 * Restituisce le caselle occupate dai famigliari del giocatore
+	 * 
+	 * @param giocatore
+	 * @return int
+	 */
+	public int getOccupazione(Giocatore giocatore) {
+		int indice = cercaGiocatore(giocatore);
+		int caselle = 0;
+		for (int i = 0; indice >= 0 && i < COLORI; i++)
+			caselle |= this.occupazioneFamigliari[indice * COLORI + i];
+		return caselle;
+	}
+
+	/**
+	 * Restituisce le caselle occupate dai famigliari colorati (non neutrali)
+	 * del giocatore
+	 * 
+	 * @param giocatore
+	 * @return int
+	 */
+	public int getOccupazioneColorati(Giocatore giocatore) {
+		return getOccupazione(giocatore) & ~getOccupazione(giocatore, EColoriPedine.Neutrale);
+	}
+
+	/**
+	 * Ricostruisce l'indice dell'occupazione dai famigliari posizionati: va
+	 * chiamato dopo aver modificato direttamente le liste delle zone (es.
+	 * {@link #getZonaRaccoltoOvale()})
+	 */
+	public void aggiornaIndice() {
+		this.occupazione = 0;
+		this.giocatoriIndice = new Giocatore[0];
+		this.occupazioneFamigliari = new int[0];
+		this.indiceAggiornato = true;
+		for (int i = 0; i < this.pianoDellaTorre.length; i++)
+			if (this.pianoDellaTorre[i].famigliarePianoDellaTorre != null)
+				occupa(this.pianoDellaTorre[i].famigliarePianoDellaTorre, i);
+		for (int i = 0; i < this.mercato.length; i++)
+			if (this.mercato[i] != null)
+				occupa(this.mercato[i], CASELLA_MERCATO + i);
+		if (this.zonaRaccoltoRotonda != null)
+			occupa(this.zonaRaccoltoRotonda, CASELLA_RACCOLTO_ROTONDA);
+		if (this.zonaProduzioneRotonda != null)
+			occupa(this.zonaProduzioneRotonda, CASELLA_PRODUZIONE_ROTONDA);
+		for (Famigliare famigliare : this.zonaRaccoltoOvale)
+			occupa(famigliare, ZONA_RACCOLTO_OVALE);
+		for (Famigliare famigliare : this.zonaProduzioneOvale)
+			occupa(famigliare, ZONA_PRODUZIONE_OVALE);
+		for (Famigliare famigliare : this.palazzoDelConsiglio)
+			occupa(famigliare, ZONA_PALAZZO_CONSIGLIO);
+	}
+
+	/**
+	 * Imposta il famigliare di una casella a famigliare singolo (null per
+	 * liberarla)
+	 */
+	private void impostaCasella(Famigliare famigliare, int casella) {
+		if (!this.indiceAggiornato) {
+			aggiornaIndice();
+			return;
+		}
+		this.occupazione &= ~(1 << casella);
+		for (int i = 0; i < this.occupazioneFamigliari.length; i++)
+			this.occupazioneFamigliari[i] &= ~(1 << casella);
+		if (famigliare != null)
+			occupa(famigliare, casella);
+	}
+
+	/**
+	 * Segna la casella come occupata dal famigliare
+	 */
+	private void occupa(Famigliare famigliare, int casella) {
+		if (!this.indiceAggiornato) {
+			aggiornaIndice();
+			return;
+		}
+		this.occupazione |= 1 << casella;
+		if (famigliare == null)
+			return;
+		int indice = cercaGiocatore(famigliare.getGiocatore());
+		if (indice < 0) {
+			indice = this.giocatoriIndice.length;
+			this.giocatoriIndice = Arrays.copyOf(this.giocatoriIndice, indice + 1);
+			this.giocatoriIndice[indice] = famigliare.getGiocatore();
+			this.occupazioneFamigliari = Arrays.copyOf(this.occupazioneFamigliari, (indice + 1) * COLORI);
+		}
+		EColoriPedine colore = famigliare.getColoreFamigliare();
+		if (colore == null)
+			colore = famigliare.getNeutralita() ? EColoriPedine.Neutrale : EColoriPedine.Nera;
+		this.occupazioneFamigliari[indice * COLORI + colore.getIndiceColore()] |= 1 << casella;
+	}
+
+	/**
+	 * Restituisce l'indice del giocatore nell'indice dell'occupazione (-1 se
+	 * non ha famigliari posizionati)
+	 */
+	private int cercaGiocatore(Giocatore giocatore) {
+		if (!this.indiceAggiornato)
+			aggiornaIndice();
+		for (int i = 0; i < this.giocatoriIndice.length; i++)
+			if (this.giocatoriIndice[i] == giocatore)
+				return i;
+		return -1;
 	}
 
 	/**
@@ -115,10 +348,7 @@ public class SpazioAzione implements Serializable {
 	 * 
 	 */
 	public boolean zonaRaccoltoRotondaLibera() {
-		if (this.zonaRaccoltoRotonda == null)
-			return true;
-		else
-			return false;
+		return (getOccupazione() & (1 << CASELLA_RACCOLTO_ROTONDA)) == 0;
 	}
 
 	/**
@@ -130,10 +360,7 @@ public class SpazioAzione implements Serializable {
 	 * 
 	 */
 	public boolean zonaProduzioneRotondaLibera() {
-		if (this.zonaProduzioneRotonda == null)
-			return true;
-		else
-			return false;
+		return (getOccupazione() & (1 << CASELLA_PRODUZIONE_ROTONDA)) == 0;
 	}
 
 	/**
@@ -144,10 +371,7 @@ public class SpazioAzione implements Serializable {
 	 * @return boolean
 	 */
 	public boolean zonaMercatoLibera(int posizione) {
-		if (this.mercato[posizione] == null)
-			return true;
-		else
-			return false;
+		return (getOccupazione() & (1 << (CASELLA_MERCATO + posizione))) == 0;
 	}
 
 	/**
@@ -346,6 +570,7 @@ public class SpazioAzione implements Serializable {
 	 */
 	public void setFamigliareTorre(Famigliare famigliare, int posizione) {
 		this.pianoDellaTorre[posizione].famigliarePianoDellaTorre = famigliare;
+		impostaCasella(famigliare, posizione);
 	}
 
 	/**
@@ -367,6 +592,7 @@ public class SpazioAzione implements Serializable {
 	 */
 	public void setZonaRaccoltoRotonda(Famigliare famigliare) {
 		this.zonaRaccoltoRotonda = famigliare;
+		impostaCasella(famigliare, CASELLA_RACCOLTO_ROTONDA);
 	}
 
 	/**
@@ -378,6 +604,7 @@ public class SpazioAzione implements Serializable {
 	 */
 	public void setZonaRaccoltoOvale(Famigliare famigliare) {
 		this.zonaRaccoltoOvale.add(famigliare);
+		occupa(famigliare, ZONA_RACCOLTO_OVALE);
 	}
 
 	/**
@@ -388,6 +615,7 @@ public class SpazioAzione implements Serializable {
 	 */
 	public void setZonaProduzioneRotonda(Famigliare famigliare) {
 		this.zonaProduzioneRotonda = famigliare;
+		impostaCasella(famigliare, CASELLA_PRODUZIONE_ROTONDA);
 	}
 
 	/**
@@ -399,6 +627,7 @@ public class SpazioAzione implements Serializable {
 	 */
 	public void setZonaProduzioneOvale(Famigliare famigliare) {
 		this.zonaProduzioneOvale.add(famigliare);
+		occupa(famigliare, ZONA_PRODUZIONE_OVALE);
 	}
 
 	/**
@@ -410,6 +639,7 @@ public class SpazioAzione implements Serializable {
 	 */
 	public void setMercato(Famigliare famigliare, int posizione) {
 		this.mercato[posizione] = famigliare;
+		impostaCasella(famigliare, CASELLA_MERCATO + posizione);
 	}
 
 	/**
@@ -421,6 +651,7 @@ public class SpazioAzione implements Serializable {
 	 */
 	public void setPalazzoDelConsiglio(Famigliare famigliare) {
 		this.palazzoDelConsiglio.add(famigliare);
+		occupa(famigliare, ZONA_PALAZZO_CONSIGLIO);
 	}
 
 	/**
@@ -0,0 +1,163 @@
+package main.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resa del raccolto (carte territorio) o della produzione (carte edificio) di
+ * un giocatore per ogni valore dell'azione. Per ogni valore sono memorizzati i
+ * passi da eseguire nell'ordine delle carte: le carte consecutive i cui
+ * effetti permanenti aggiungono solamente risorse e punti sono raccolte in
+ * un'unica somma di variazioni, mentre le altre carte (conversioni, effetti
+ * che dipendono dalle carte possedute, privilegi) attivano i propri effetti
+ * come in {@link Carta#effettoPermanente(Giocatore, Famigliare, Carta, main.model.enums.EEffettiPermanenti)}.
+ *
+ * La tabella vale solamente quando non viene scelto un effetto permanente
+ * (effetto scelto null), e viene aggiornata ad ogni carta acquisita.
+ */
+final class TabellaRese {
+
+	/**
+	 * Nessun passo (valori minori di quelli richiesti da tutte le carte)
+	 */
+	private static final Passo[] NESSUN_PASSO = new Passo[0];
+
+	/**
+	 * Carte presenti nella tabella, nell'ordine in cui sono state aggiunte
+	 */
+	private Carta[] carte = new Carta[0];
+
+	/**
+	 * Passi da eseguire per ogni valore dell'azione (l'ultima riga vale anche
+	 * per i valori maggiori)
+	 */
+	private Passo[][] passi = { NESSUN_PASSO };
+
+	/**
+	 * Ritorna true se la tabella contiene esattamente le carte della lista
+	 *
+	 * @param carte
+	 * @return boolean
+	 */
+	boolean contiene(List<? extends Carta> carte) {
+		if (carte.size() != this.carte.length)
+			return false;
+		for (int i = 0; i < this.carte.length; i++)
+			if (carte.get(i) != this.carte[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Aggiunge la carta in fondo alla tabella
+	 *
+	 * @param carta
+	 */
+	void aggiungi(Carta carta) {
+		carte = Arrays.copyOf(carte, carte.length + 1);
+		carte[carte.length - 1] = carta;
+
+		int valore = Math.max(carta.getValoreNecessarioEffettoPermanente(), 0);
+		if (valore >= passi.length) {
+			int righe = passi.length;
+			passi = Arrays.copyOf(passi, valore + 1);
+			Arrays.fill(passi, righe, passi.length, passi[righe - 1]);
+		}
+		Passo passo = Passo.di(carta);
+		for (int v = valore; v < passi.length; v++)
+			passi[v] = accoda(passi[v], passo);
+	}
+
+	/**
+	 * Attiva gli effetti permanenti delle carte che richiedono al piu' il
+	 * valore indicato (senza effetto scelto)
+	 *
+	 * @param giocatore
+	 * @param valoreAzione
+	 */
+	void applica(Giocatore giocatore, int valoreAzione) {
+		if (valoreAzione < 0)
+			return;
+		for (Passo passo : passi[Math.min(valoreAzione, passi.length - 1)]) {
+			if (passo.carta != null)
+				passo.carta.effettoPermanente(giocatore, null, null, null);
+			else
+				giocatore.getContatori().aggiungi(passo.variazioni, passo.ricevute, giocatore.getMalusRicezione());
+		}
+	}
+
+	/**
+	 * Accoda il passo, sommandolo all'ultimo se entrambi sono somme di
+	 * variazioni (le righe condividono i passi, che non vengono modificati)
+	 */
+	private static Passo[] accoda(Passo[] riga, Passo passo) {
+		Passo ultimo = riga.length > 0 ? riga[riga.length - 1] : null;
+		if (passo.carta == null && ultimo != null && ultimo.carta == null) {
+			riga = riga.clone();
+			riga[riga.length - 1] = ultimo.somma(passo);
+			return riga;
+		}
+		riga = Arrays.copyOf(riga, riga.length + 1);
+		riga[riga.length - 1] = passo;
+		return riga;
+	}
+
+	/**
+	 * Passo della tabella: una carta da attivare oppure una somma di variazioni
+	 */
+	private static final class Passo {
+
+		/**
+		 * Carta da attivare (null per una somma di variazioni)
+		 */
+		private final Carta carta;
+
+		/**
+		 * Somma delle variazioni (vedi {@link Contatori})
+		 */
+		private final int[] variazioni;
+
+		/**
+		 * Numero di effetti che aumentano ciascun contatore
+		 */
+		private final int[] ricevute;
+
+		private Passo(Carta carta, int[] variazioni, int[] ricevute) {
+			this.carta = carta;
+			this.variazioni = variazioni;
+			this.ricevute = ricevute;
+		}
+
+		/**
+		 * Ritorna il passo della carta: una somma di variazioni se tutti gli
+		 * effetti permanenti aggiungono solamente risorse e punti
+		 */
+		private static Passo di(Carta carta) {
+			int[] variazioni = new int[Contatori.NUMERO];
+			int[] ricevute = new int[Contatori.NUMERO];
+			for (Effetto effetto : carta.effettoPermanente) {
+				if (effetto.getNumeroEffetto() != 0)
+					return new Passo(carta, null, null);
+				int[] variazioniEffetto = effetto.getVariazioni();
+				for (int i = 0; i < Contatori.NUMERO; i++) {
+					if (variazioniEffetto[i] < 0)
+						return new Passo(carta, null, null);
+					variazioni[i] += variazioniEffetto[i];
+					if (variazioniEffetto[i] > 0)
+						ricevute[i]++;
+				}
+			}
+			return new Passo(null, variazioni, ricevute);
+		}
+
+		private Passo somma(Passo passo) {
+			int[] variazioni = this.variazioni.clone();
+			int[] ricevute = this.ricevute.clone();
+			for (int i = 0; i < Contatori.NUMERO; i++) {
+				variazioni[i] += passo.variazioni[i];
+				ricevute[i] += passo.ricevute[i];
+			}
+			return new Passo(null, variazioni, ricevute);
+		}
+	}
+}
@@ -11,83 +11,81 @@ public class UtilEffetto implements Serializable {
 	private static final long serialVersionUID = 6350024466665562089L;
 
 	/**
-	 * Aggiunge risorse al giocatore passato tra i parametri. Tra i parametri
-	 * sono passate le risorse da aggiungere e, se negativi, sono quelle che il
-	 * giocatore deve spendere.Restituisce true se l'esito del metodo e'
-	 * positivo, false altrimenti.
-	 * 
-	 * @param
-	 * @return boolean
+	 * Metodo che esegue un effetto, dati i parametri dell'attivazione.
 	 */
-	public boolean aggiungiRisorse(Object o[]) {// metodo numero 0
-		Giocatore giocatore = (Giocatore) (o[1]);
-		int monete = (int) (o[5]);
-		int legno = (int) (o[6]);
-		int pietre = (int) (o[7]);
-		int servitori = (int) (o[8]);
-		int puntiVittoria = (int) (o[9]);
-		int puntiMilitari = (int) (o[10]);
-		int puntiFede = (int) (o[11]);
-
-		int[] risorse = { monete, legno, pietre, servitori, puntiVittoria, puntiMilitari, puntiFede };
-		int[] risorseGiocatore = { giocatore.getRisorse().getMonete(), giocatore.getRisorse().getLegno(),
-				giocatore.getRisorse().getPietre(), giocatore.getRisorse().getServitori(),
-				giocatore.getPunti().getPuntiVittoria(), giocatore.getPunti().getPuntiMilitari(),
-				giocatore.getPunti().getPuntiFede() };
-
-		for (int i = 0; i < risorse.length; i++) {
-			if (risorse[i] < 0) {
-				if (risorse[i] + risorseGiocatore[i] < 0)
-					return false;
-			}
-		}
-
-		giocatore.getRisorse().cambiaMonete(monete);
-		giocatore.getRisorse().cambiaLegno(legno);
-		giocatore.getRisorse().cambiaPietre(pietre);
-		giocatore.getRisorse().cambiaServitori(servitori);
-
-		giocatore.getPunti().cambiaPuntiVittoria(puntiVittoria);
-		giocatore.getPunti().cambiaPuntiMilitari(puntiMilitari);
-		giocatore.getPunti().cambiaPuntiFede(puntiFede);
+	@FunctionalInterface
+	public interface MetodoEffetto {
+		void esegui(ContestoEffetto contesto, Effetto effetto);
+	}
 
-		return true;
+	/**
+	 * Istanza usata dalla tabella dei metodi (la classe non ha stato).
+	 */
+	private static final UtilEffetto UTIL = new UtilEffetto();
+
+	/**
+	 * Tabella dei metodi indicizzata per numero dell'effetto (vedi il commento
+	 * "metodo numero" di ogni metodo). Gli effetti la consultano una sola volta,
+	 * quando vengono compilati.
+	 */
+	private static final MetodoEffetto[] METODI = new MetodoEffetto[27];
+
+	static {
+		METODI[0] = UTIL::aggiungiRisorse;
+		METODI[3] = UTIL::eseguiPrivilegioDelConsiglio;
+		METODI[4] = UTIL::aumentaDiDueAzione;
+		METODI[5] = UTIL::aumentaDiTreAzione;
+		METODI[6] = UTIL::eseguiEffettoImmediatoRaccolto;
+		METODI[7] = UTIL::eseguiEffettoImmediatoProduzioneValoreTre;
+		METODI[8] = UTIL::eseguiEffettoImmediatoProduzioneValoreQuattro;
+		METODI[9] = UTIL::duePVxedificio;
+		METODI[10] = UTIL::duePVxpersonaggio;
+		METODI[11] = UTIL::duePVximpresa;
+		METODI[12] = UTIL::duePVxterritorio;
+		METODI[13] = UTIL::unPVxpersonaggio;
+		METODI[14] = UTIL::unPVximpresa;
+		METODI[15] = UTIL::unaMonetaxterritorio;
+		METODI[16] = UTIL::unaMonetaxedificio;
+		METODI[17] = UTIL::unPVxduePM;
+		METODI[18] = UTIL::decrementaDiQuattroAzione;
+		METODI[19] = UTIL::decrementaDiTreAzione;
+		METODI[20] = UTIL::decrementaDiUnoAzione;
+		METODI[21] = UTIL::perdiPvxcinquePV;
+		METODI[22] = UTIL::perdiPvxPM;
+		METODI[23] = UTIL::scontoUnaMoneta;
+		METODI[24] = UTIL::scontoLegnoEPietra;
+		METODI[25] = UTIL::prendiCartaSenzaFamigliareQuattro;
+		METODI[26] = UTIL::perdiPVxRisorse;
 	}
 
 	/**
-	 * Controlla se il giocatore puo' pagare le risorse per l'aquisizione di una
-	 * carta.
-	 * 
-	 * @param
-	 * @return boolean
+	 * Ritorna il metodo che esegue l'effetto con il numero dato.
+	 *
+	 * @return il metodo, oppure null se al numero non corrisponde alcun metodo.
 	 */
-	public boolean cartaAcquisibileRisorse(Object o[]) {// metodo numero 1
-		Giocatore giocatore = (Giocatore) (o[1]);
-		int monete = (int) (o[5]);
-		int legno = (int) (o[6]);
-		int pietre = (int) (o[7]);
-		int servitori = (int) (o[8]);
-		if (giocatore.getRisorse().getMonete() >= monete && giocatore.getRisorse().getLegno() >= legno
-				&& giocatore.getRisorse().getPietre() >= pietre && giocatore.getRisorse().getServitori() >= servitori)
-			return true;
-		else
-			return false;
+	public static MetodoEffetto getMetodo(int numeroEffetto) {
+		if (numeroEffetto < 0 || numeroEffetto >= METODI.length)
+			return null;
+		return METODI[numeroEffetto];
 	}
 
 	/**
-	 * Controlla se il giocatore puo' pagare i punti militari per l'aquisizione
-	 * di una carta.
+	 * Aggiunge risorse al giocatore passato tra i parametri. Tra i parametri
+	 * sono passate le risorse da aggiungere e, se negativi, sono quelle che il
+	 * giocatore deve spendere.Restituisce true se l'esito del metodo e'
+	 * positivo, false altrimenti.
 	 * 
 	 * @param
 	 * @return boolean
 	 */
-	public boolean cartaAcquisibilePunti(Object o[]) {// metodo numero 2
-		Giocatore giocatore = (Giocatore) (o[1]);
-		int sogliaPM = (int) (o[13]);
-		if (giocatore.getPunti().getPuntiMilitari() >= sogliaPM)
-			return true;
-		else
+	public boolean aggiungiRisorse(ContestoEffetto contesto, Effetto effetto) {// metodo numero 0
+		Giocatore giocatore = contesto.getGiocatore();
+		Contatori contatori = giocatore.getContatori();
+		int[] variazioni = effetto.getVariazioni();
+		if (!contatori.ammette(variazioni))
 			return false;
+		contatori.aggiungi(variazioni, giocatore.getMalusRicezione());
+		return true;
 	}
 
 	/**
@@ -97,9 +95,9 @@ public class UtilEffetto implements Serializable {
 	 * controllo sulle scelte. Quando e' richiesta l'interazione dell'utente e'
 	 * segnalato con un commento
 	 */
-	public void eseguiPrivilegioDelConsiglio(Object o[]) {// metodo numero 3
+	public void eseguiPrivilegioDelConsiglio(ContestoEffetto contesto, Effetto effetto) {// metodo numero 3
 		/*
-		 * Giocatore giocatore = (Giocatore) (o[1]); int numeroIterazioni =
+		 * Giocatore giocatore = contesto.getGiocatore(); int numeroIterazioni =
 		 * (int) (o[12]); String[] scelte = new String[numeroIterazioni]; String
 		 * scelta = new String(); boolean controllo = false; for (int i = 0; i <
 		 * numeroIterazioni; i++) { // TODO: finire di implementare /* scelta=
@@ -131,16 +129,16 @@ public class UtilEffetto implements Serializable {
 	 * @param
 	 * @return
 	 */
-	public void aumentaDiDueAzione(Object o[]) {// metodo numero 4
-		cambiaValoreAzione(2, (Famigliare) (o[3]));
+	public void aumentaDiDueAzione(ContestoEffetto contesto, Effetto effetto) {// metodo numero 4
+		cambiaValoreAzione(2, contesto.getFamigliare());
 	}
 
 	/**
 	 * @param
 	 * @return
 	 */
-	public void aumentaDiTreAzione(Object o[]) {// metodo numero 5
-		cambiaValoreAzione(3, (Famigliare) (o[3]));
+	public void aumentaDiTreAzione(ContestoEffetto contesto, Effetto effetto) {// metodo numero 5
+		cambiaValoreAzione(3, contesto.getFamigliare());
 	}
 
 	/**
@@ -151,10 +149,10 @@ public class UtilEffetto implements Serializable {
 	 * @return
 	 * 
 	 */
-	public void eseguiEffettoImmediatoRaccolto(Object o[]) {// metodo numero 6
-		Famigliare famigliare = new Famigliare((Giocatore) o[1], 4, false);
+	public void eseguiEffettoImmediatoRaccolto(ContestoEffetto contesto, Effetto effetto) {// metodo numero 6
+		Famigliare famigliare = new Famigliare(contesto.getGiocatore(), 4, false);
 		famigliare.controlloEffettiPermanentiOnFamigliare(famigliare, EAzioniGioco.Raccolto);
-		if (famigliare.getGiocatore().getScomunica(0) != null)
+		if (famigliare.getGiocatore().scomunicaAttiva(0, EAzioniGioco.Raccolto))
 			famigliare.getGiocatore().getScomunica(0).attivaOnAzione(null, EAzioniGioco.Raccolto, famigliare, null);
 		if (famigliare.getValore() > 0)
 			famigliare.getGiocatore().raccolto(famigliare.getValore());
@@ -169,12 +167,11 @@ public class UtilEffetto implements Serializable {
 	 * @return
 	 * 
 	 */
-	public void eseguiEffettoImmediatoProduzioneValoreTre(Object o[]) {// metodo
-																		// numero
-																		// 7
-		Famigliare famigliare = new Famigliare((Giocatore) o[1], 3, false);
+	public void eseguiEffettoImmediatoProduzioneValoreTre(ContestoEffetto contesto,
+			Effetto effetto) {// metodo numero 7
+		Famigliare famigliare = new Famigliare(contesto.getGiocatore(), 3, false);
 		famigliare.controlloEffettiPermanentiOnFamigliare(famigliare, EAzioniGioco.Produzione);
-		if (famigliare.getGiocatore().getScomunica(0) != null)
+		if (famigliare.getGiocatore().scomunicaAttiva(0, EAzioniGioco.Produzione))
 			famigliare.getGiocatore().getScomunica(0).attivaOnAzione(null, EAzioniGioco.Produzione, famigliare, null);
 		if (famigliare.getValore() > 0)
 			famigliare.getGiocatore().produzione(famigliare.getValore(), null);
@@ -185,12 +182,11 @@ public class UtilEffetto implements Serializable {
 	 * Metodo per gli effetti immediati che richiedono di effettuare l'azione di
 	 * Produzione di valore 4
 	 */
-	public void eseguiEffettoImmediatoProduzioneValoreQuattro(Object o[]) {// metodo
-																			// numero
-																			// 8
-		Famigliare famigliare = new Famigliare((Giocatore) o[1], 4, false);
+	public void eseguiEffettoImmediatoProduzioneValoreQuattro(ContestoEffetto contesto,
+			Effetto effetto) {// metodo numero 8
+		Famigliare famigliare = new Famigliare(contesto.getGiocatore(), 4, false);
 		famigliare.controlloEffettiPermanentiOnFamigliare(famigliare, EAzioniGioco.Produzione);
-		if (famigliare.getGiocatore().getScomunica(0) != null)
+		if (famigliare.getGiocatore().scomunicaAttiva(0, EAzioniGioco.Produzione))
 			famigliare.getGiocatore().getScomunica(0).attivaOnAzione(null, EAzioniGioco.Produzione, famigliare, null);
 		if (famigliare.getValore() > 0)
 			famigliare.getGiocatore().produzione(famigliare.getValore(), null);
@@ -201,8 +197,8 @@ public class UtilEffetto implements Serializable {
 	 * Effetto che aggiunge al giocatore due punti vittoria per ogni carta
 	 * edificio in suo possesso
 	 */
-	public void duePVxedificio(Object o[]) {// metodo numero 9
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void duePVxedificio(ContestoEffetto contesto, Effetto effetto) {// metodo numero 9
+		Giocatore giocatore = contesto.getGiocatore();
 		moltiplicatorePuntiVittoria(giocatore, 2, new Edificio(null, null, null, null, 0, 0, null, 0, null, 0));
 	}
 
@@ -212,8 +208,8 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void duePVxpersonaggio(Object o[]) {// metodo numero 10
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void duePVxpersonaggio(ContestoEffetto contesto, Effetto effetto) {// metodo numero 10
+		Giocatore giocatore = contesto.getGiocatore();
 		moltiplicatorePuntiVittoria(giocatore, 2, new Personaggio(null, null, null, null, 0, 0, null, 0, null, 0));
 	}
 
@@ -223,8 +219,8 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void duePVximpresa(Object o[]) {// metodo numero 11
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void duePVximpresa(ContestoEffetto contesto, Effetto effetto) {// metodo numero 11
+		Giocatore giocatore = contesto.getGiocatore();
 		moltiplicatorePuntiVittoria(giocatore, 2, new Impresa(null, null, null, null, 0, 0, null, 0, null, 0));
 	}
 
@@ -234,8 +230,8 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void duePVxterritorio(Object o[]) {// metodo numero 12
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void duePVxterritorio(ContestoEffetto contesto, Effetto effetto) {// metodo numero 12
+		Giocatore giocatore = contesto.getGiocatore();
 		moltiplicatorePuntiVittoria(giocatore, 2, new Territorio(null, null, null, null, 0, 0, null, 0, null, 0));
 	}
 
@@ -245,8 +241,8 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void unPVxpersonaggio(Object o[]) {// metodo numero 13
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void unPVxpersonaggio(ContestoEffetto contesto, Effetto effetto) {// metodo numero 13
+		Giocatore giocatore = contesto.getGiocatore();
 		moltiplicatorePuntiVittoria(giocatore, 1, new Personaggio(null, null, null, null, 0, 0, null, 0, null, 0));
 	}
 
@@ -256,8 +252,8 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void unPVximpresa(Object o[]) {// metodo numero 14
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void unPVximpresa(ContestoEffetto contesto, Effetto effetto) {// metodo numero 14
+		Giocatore giocatore = contesto.getGiocatore();
 		moltiplicatorePuntiVittoria(giocatore, 1, new Impresa(null, null, null, null, 0, 0, null, 0, null, 0));
 	}
 
@@ -267,8 +263,8 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void unaMonetaxterritorio(Object o[]) {// metodo numero 15
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void unaMonetaxterritorio(ContestoEffetto contesto, Effetto effetto) {// metodo numero 15
+		Giocatore giocatore = contesto.getGiocatore();
 		giocatore.getRisorse().cambiaMonete(giocatore.getPlancia().getTerritori().size());
 	}
 
@@ -278,8 +274,8 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void unaMonetaxedificio(Object o[]) {// metodo numero 16
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void unaMonetaxedificio(ContestoEffetto contesto, Effetto effetto) {// metodo numero 16
+		Giocatore giocatore = contesto.getGiocatore();
 		giocatore.getRisorse().cambiaMonete(giocatore.getPlancia().getEdifici().size());
 	}
 
@@ -289,30 +285,30 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void unPVxduePM(Object o[]) {// metodo numero 17
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void unPVxduePM(ContestoEffetto contesto, Effetto effetto) {// metodo numero 17
+		Giocatore giocatore = contesto.getGiocatore();
 		giocatore.getPunti().cambiaPuntiVittoria(giocatore.getPunti().getPuntiMilitari() / 2);
 	}
 
 	/**
 	 * @param
 	 */
-	public void decrementaDiQuattroAzione(Object o[]) {// metodo numero 18
-		cambiaValoreAzione(-4, (Famigliare) (o[3]));
+	public void decrementaDiQuattroAzione(ContestoEffetto contesto, Effetto effetto) {// metodo numero 18
+		cambiaValoreAzione(-4, contesto.getFamigliare());
 	}
 
 	/**
 	 * @param
 	 */
-	public void decrementaDiTreAzione(Object o[]) {// metodo numero 19
-		cambiaValoreAzione(-3, (Famigliare) (o[3]));
+	public void decrementaDiTreAzione(ContestoEffetto contesto, Effetto effetto) {// metodo numero 19
+		cambiaValoreAzione(-3, contesto.getFamigliare());
 	}
 
 	/**
 	 * @param
 	 */
-	public void decrementaDiUnoAzione(Object o[]) {// metodo numero 20
-		cambiaValoreAzione(-1, (Famigliare) (o[3]));
+	public void decrementaDiUnoAzione(ContestoEffetto contesto, Effetto effetto) {// metodo numero 20
+		cambiaValoreAzione(-1, contesto.getFamigliare());
 	}
 
 	/**
@@ -321,8 +317,8 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void perdiPvxcinquePV(Object o[]) {// metodo numero 21
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void perdiPvxcinquePV(ContestoEffetto contesto, Effetto effetto) {// metodo numero 21
+		Giocatore giocatore = contesto.getGiocatore();
 		giocatore.getPunti().cambiaPuntiVittoria(-(giocatore.getPunti().getPuntiVittoria() / 5));
 	}
 
@@ -332,29 +328,28 @@ public class UtilEffetto implements Serializable {
 	 * 
 	 * @param
 	 */
-	public void perdiPvxPM(Object o[]) {// metodo numero 22
-		Giocatore giocatore = (Giocatore) (o[1]);
+	public void perdiPvxPM(ContestoEffetto contesto, Effetto effetto) {// metodo numero 22
+		Giocatore giocatore = contesto.getGiocatore();
 		giocatore.getPunti().cambiaPuntiVittoria(-(giocatore.getPunti().getPuntiMilitari()));
 	}
 
-	public void scontoUnaMoneta(Object o[]) {// metodo numero 23
-		Carta carta = (Carta) (o[4]);
-		Giocatore giocatore = (Giocatore) (o[1]);
-		if ((int) (carta.getAcquisizione().get(0)[5]) > 0)
+	public void scontoUnaMoneta(ContestoEffetto contesto, Effetto effetto) {// metodo numero 23
+		Carta carta = contesto.getCarta();
+		Giocatore giocatore = contesto.getGiocatore();
+		if (carta.getAcquisizione().get(0).getMonete() > 0)
 			giocatore.getRisorse().cambiaMonete(1);
 	}
 
-	public void scontoLegnoEPietra(Object o[]) {// metodo numero 24
-		Carta carta = (Carta) (o[4]);
-		Giocatore giocatore = (Giocatore) (o[1]);
-		if ((int) (carta.getAcquisizione().get(0)[6]) > 0)
+	public void scontoLegnoEPietra(ContestoEffetto contesto, Effetto effetto) {// metodo numero 24
+		Carta carta = contesto.getCarta();
+		Giocatore giocatore = contesto.getGiocatore();
+		if (carta.getAcquisizione().get(0).getLegno() > 0)
 			giocatore.getRisorse().cambiaLegno(1);
-		if ((int) (carta.getAcquisizione().get(0)[7]) > 0)
+		if (carta.getAcquisizione().get(0).getPietre() > 0)
 			giocatore.getRisorse().cambiaPietre(1);
 	}
 
-	public void prendiCartaSenzaFamigliareQuattro(Object o[]) {// metodo numero
-																// 25
+	public void prendiCartaSenzaFamigliareQuattro(ContestoEffetto contesto, Effetto effetto) {// metodo numero 25
 
 	}
 
@@ -362,11 +357,10 @@ public class UtilEffetto implements Serializable {
 	 * Metodo che implementa la scomunica dove il giocatore perde un punto
 	 * vittoria per ogni risorsa in proprio possesso
 	 */
-	public void perdiPVxRisorse(Object o[]) {// metodo numero 26
-		Giocatore giocatore = (Giocatore) (o[1]);
-		Risorsa risorse = giocatore.getRisorse();
-		giocatore.getPunti().cambiaPuntiVittoria(
-				-(risorse.getLegno() + risorse.getMonete() + risorse.getPietre() + risorse.getServitori()));
+	public void perdiPVxRisorse(ContestoEffetto contesto, Effetto effetto) {// metodo numero 26
+		Giocatore giocatore = contesto.getGiocatore();
+		giocatore.getPunti()
+				.cambiaPuntiVittoria(-giocatore.getContatori().somma(Contatori.MONETE, Contatori.SERVITORI));
 	}
 
 	/**
@@ -394,20 +388,4 @@ public class UtilEffetto implements Serializable {
 	public void cambiaValoreAzione(int variazione, Famigliare famigliare) {
 		famigliare.cambiaValore(variazione);
 	}
-
-	/**
-	 * Metodo che perpara i parametri per effettuare il pagamento
-	 * 
-	 * @param
-	 */
-	public void preparaPagamento(Object[] o) {
-		o[5] = -(int) o[5];
-		o[6] = -(int) o[6];
-		o[7] = -(int) o[7];
-		o[8] = -(int) o[8];
-		o[9] = -(int) o[9];
-		o[10] = -(int) o[10];
-		o[11] = -(int) o[11];
-		aggiungiRisorse(o);
-	}
 }
@@ -1,8 +1,14 @@
 package main.model.enums;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import main.model.Carta;
+import main.model.Costo;
+import main.model.Effetto;
 import main.util.ANSI;
 
 public enum ECarte {
@@ -115,9 +121,9 @@ public enum ECarte {
 	private String nome;
 	private int periodo;
 	private int valoreNecessarioAttivazione;
-	private ArrayList<Object[]> costi;
-	private ArrayList<Object[]> effettiImmediati;
-	private ArrayList<Object[]> effettiPermanenti;
+	private List<Costo> costi;
+	private List<Effetto> effettiImmediati;
+	private List<Effetto> effettiPermanenti;
 	private ETipiCarte tipoCarta;
 	private int numScelteCosti;
 	private int numScelteEffPermanenti;
@@ -128,38 +134,45 @@ public enum ECarte {
 		this.periodo = periodo;
 		this.valoreNecessarioAttivazione = valoreNecessario;
 		this.tipoCarta = tipo;
-		this.costi = new ArrayList<Object[]>();
 		inizializzaCosti();
-		this.effettiImmediati = new ArrayList<Object[]>();
 		inizializzaEffettiImmediati();
-		this.effettiPermanenti = new ArrayList<Object[]>();
 		inizializzaEffettiPermanenti();
 		this.numScelteCosti = numScelteCosti;
 		this.numScelteEffPermanenti = numScelteEffPermanenti;
 	}
 
-	public void inizializzaCosti() {
+	/**
+	 * Compila i costi della carta. Le liste di costi ed effetti sono
+	 * immutabili, per cui possono essere condivise da tutte le partite.
+	 */
+	private void inizializzaCosti() {
+		ArrayList<Costo> costi = new ArrayList<Costo>();
 		for (ECostiCarte e : ECostiCarte.values()) {
 			if (this.nome.equals(e.getNome())) {
-				this.costi.add(e.getCosto());
+				costi.add(e.getCosto());
 			}
 		}
+		this.costi = Collections.unmodifiableList(costi);
 	}
 
-	public void inizializzaEffettiImmediati() {
+	private void inizializzaEffettiImmediati() {
+		ArrayList<Effetto> effetti = new ArrayList<Effetto>();
 		for (EEffettiImmediati e : EEffettiImmediati.values()) {
 			if (this.nome.equals(e.getNome())) {
-				this.effettiImmediati.add(e.getEffetto());
+				effetti.add(e.getEffetto());
 			}
 		}
+		this.effettiImmediati = Collections.unmodifiableList(effetti);
 	}
 
-	public void inizializzaEffettiPermanenti() {
+	private void inizializzaEffettiPermanenti() {
+		ArrayList<Effetto> effetti = new ArrayList<Effetto>();
 		for (EEffettiPermanenti e : EEffettiPermanenti.values()) {
 			if (this.nome.equals(e.getNome())) {
-				this.effettiPermanenti.add(e.getEffetto());
+				effetti.add(e.getEffetto());
 			}
 		}
+		this.effettiPermanenti = Collections.unmodifiableList(effetti);
 	}
 
 	public String getNome() {
@@ -174,15 +187,15 @@ public enum ECarte {
 		return this.valoreNecessarioAttivazione;
 	}
 
-	public ArrayList<Object[]> getCosti() {
+	public List<Costo> getCosti() {
 		return this.costi;
 	}
 
-	public ArrayList<Object[]> getEffettiImmediati() {
+	public List<Effetto> getEffettiImmediati() {
 		return this.effettiImmediati;
 	}
 
-	public ArrayList<Object[]> getEffettiPermanenti() {
+	public List<Effetto> getEffettiPermanenti() {
 		return this.effettiPermanenti;
 	}
 
@@ -198,24 +211,48 @@ public enum ECarte {
 		return this.numScelteEffPermanenti;
 	}
 
+	/**
+	 * Carte indicizzate per nome (vedi {@link #getCarta(String)}).
+	 */
+	private static final Map<String, ECarte> CARTE_PER_NOME = new HashMap<>();
+
+	/**
+	 * Costi ed effetti permanenti indicizzati per nome della carta (usati ad
+	 * ogni creazione del mazzo, vedi {@link #getCostiCarta()} e
+	 * {@link #getEffettiCarta()}).
+	 */
+	private static final Map<String, List<ECostiCarte>> COSTI_PER_NOME = new HashMap<>();
+
+	private static final Map<String, List<EEffettiPermanenti>> EFFETTI_PER_NOME = new HashMap<>();
+
+	static {
+		for (ECarte carta : values())
+			CARTE_PER_NOME.put(carta.getNome(), carta);
+		for (ECostiCarte costo : ECostiCarte.values())
+			COSTI_PER_NOME.computeIfAbsent(costo.getNome(), nome -> new ArrayList<>()).add(costo);
+		for (EEffettiPermanenti effetto : EEffettiPermanenti.values())
+			EFFETTI_PER_NOME.computeIfAbsent(effetto.getNome(), nome -> new ArrayList<>()).add(effetto);
+	}
+
+	/**
+	 * Ritorna la carta con il nome indicato (usato per ricollegare costi ed
+	 * effetti alle carte deserializzate, vedi {@link Carta}).
+	 * 
+	 * @param nome
+	 *            nome della carta.
+	 * @return la carta (null se non trovata).
+	 */
+	public static ECarte getCarta(String nome) {
+		return CARTE_PER_NOME.get(nome);
+	}
+
 	public ArrayList<ECostiCarte> getCostiCarta() {
-		ArrayList<ECostiCarte> arrayCosti = new ArrayList<ECostiCarte>();
-		for (int i = 0; i < ECostiCarte.values().length; i++) {
-			if (ECostiCarte.values()[i].getNome().equals(this.nome)) {
-				arrayCosti.add(ECostiCarte.values()[i]);
-			}
-		}
-		return arrayCosti;
+		return new ArrayList<ECostiCarte>(COSTI_PER_NOME.getOrDefault(this.nome, Collections.emptyList()));
 	}
 
 	public ArrayList<EEffettiPermanenti> getEffettiCarta() {
-		ArrayList<EEffettiPermanenti> arrayCosti = new ArrayList<EEffettiPermanenti>();
-		for (int i = 0; i < EEffettiPermanenti.values().length; i++) {
-			if (EEffettiPermanenti.values()[i].getNome().equals(this.nome)) {
-				arrayCosti.add(EEffettiPermanenti.values()[i]);
-			}
-		}
-		return arrayCosti;
+		return new ArrayList<EEffettiPermanenti>(
+				EFFETTI_PER_NOME.getOrDefault(this.nome, Collections.emptyList()));
 	}
 
 	public static String stringify(ArrayList<Carta> cards, boolean startsWithZero, boolean printHeader) {
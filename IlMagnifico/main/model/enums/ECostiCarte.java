@@ -2,6 +2,8 @@ package main.model.enums;
 
 import java.util.ArrayList;
 
+import main.model.Costo;
+
 public enum ECostiCarte {
 
 	// Periodo 1
@@ -136,54 +138,12 @@ public enum ECostiCarte {
 		return this.nome;
 	}
 
-	public Object[] getCosto() {
-		Object[] costi = new Object[14];
-		if (this.costoMonete > 0 || this.costoLegno > 0 || this.costoPietra > 0 || this.costoServitori > 0) {
-			for (int i = 0; i < 14; i++) {
-				costi[i] = new Object();
-			}
-			costi[0] = 1;
-			costi[5] = this.costoMonete;
-			costi[6] = this.costoLegno;
-			costi[7] = this.costoPietra;
-			costi[8] = this.costoServitori;
-			costi[9] = 0;
-			costi[10] = 0;
-			costi[11] = 0;
-			costi[13]=0;
-		}else
-		if (this.costoMonete == 0 && this.costoLegno == 0 && this.costoPietra == 0 && this.costoServitori == 0 && this.costoPM==0) {
-			for (int i = 0; i < 14; i++) {
-				costi[i] = new Object();
-			}
-			costi[0] = 1;
-			costi[5] = this.costoMonete;
-			costi[6] = this.costoLegno;
-			costi[7] = this.costoPietra;
-			costi[8] = this.costoServitori;
-			costi[9] = 0;
-			costi[10] = 0;
-			costi[11] = 0;
-			costi[13]=0;
-		}
-		else
-		if (this.costoPM > 0) {
-			
-			for (int i = 0; i < 14; i++) {
-				costi[i] = new Object();
-			}
-			costi[0] = 2;
-			costi[10] = this.costoPM;
-			costi[5] = 0;
-			costi[6] = 0;
-			costi[7] = 0;
-			costi[8] = 0;
-			costi[9] = 0;
-			costi[10] = 0;
-			costi[11] = 0;
-			costi[13]=this.sogliaPuntiMilitari;
-		}
-		return costi;
+	public Costo getCosto() {
+		if (this.costoMonete > 0 || this.costoLegno > 0 || this.costoPietra > 0 || this.costoServitori > 0
+				|| this.costoPM == 0)
+			return new Costo(Costo.RISORSE, this.costoMonete, this.costoLegno, this.costoPietra, this.costoServitori,
+					0, 0);
+		return new Costo(Costo.PUNTI, 0, 0, 0, 0, this.costoPM, this.sogliaPuntiMilitari);
 	}
 	
 	public static String stringify(ArrayList<ECostiCarte> costs){
@@ -1,5 +1,7 @@
 package main.model.enums;
 
+import main.model.Effetto;
+
 public enum EEffettiImmediati {
 
 	// Periodo 1
@@ -146,21 +148,9 @@ public enum EEffettiImmediati {
 		return this.nome;
 	}
 
-	public Object[] getEffetto() {
-		Object[] effetto = new Object[13];
-		for (int i = 0; i < 13; i++) {
-			effetto[i] = new Object();
-		}
-		effetto[0] = this.numeroEffetto;
-		effetto[5] = this.deltaMonete;
-		effetto[6] = this.deltaLegno;
-		effetto[7] = this.deltaPietra;
-		effetto[8] = this.deltaServitori;
-		effetto[9] = this.deltaPV;
-		effetto[10] = this.deltaPM;
-		effetto[11] = this.deltaPF;
-		effetto[12] = this.numeroprivilegiConsiglio;
-		return effetto;
+	public Effetto getEffetto() {
+		return new Effetto(this.numeroEffetto, null, this.deltaMonete, this.deltaLegno, this.deltaPietra,
+				this.deltaServitori, this.deltaPV, this.deltaPM, this.deltaPF, this.numeroprivilegiConsiglio);
 	}
 
 	public String getDescrizione() {
@@ -1,5 +1,7 @@
 package main.model.enums;
 
+import main.model.Effetto;
+
 public enum EEffettiPermanenti {
 
 	// Periodo 1
@@ -147,22 +149,10 @@ public enum EEffettiPermanenti {
 	}
 
 
-	public Object[] getEffetto() {
-		Object[] effetto = new Object[13];
-		for (int i = 0; i < 13; i++) {
-			effetto[i] = new Object();
-		}
-		effetto[0] = this.numeroEffetto;
-		effetto[2] = this.azioneAttivazione;
-		effetto[5] = this.deltaMonete;
-		effetto[6] = this.deltaLegno;
-		effetto[7] = this.deltaPietra;
-		effetto[8] = this.deltaServitori;
-		effetto[9] = this.deltaPV;
-		effetto[10] = this.deltaPM;
-		effetto[11] = this.deltaPF;
-		effetto[12] = this.numeroprivilegiConsiglio;
-		return effetto;
+	public Effetto getEffetto() {
+		return new Effetto(this.numeroEffetto, this.azioneAttivazione, this.deltaMonete, this.deltaLegno,
+				this.deltaPietra, this.deltaServitori, this.deltaPV, this.deltaPM, this.deltaPF,
+				this.numeroprivilegiConsiglio);
 	}
 	
 	public String getNome() {
@@ -1,6 +1,12 @@
 package main.model.enums;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import main.model.Effetto;
 
 public enum EScomuniche {
 	
@@ -49,23 +55,46 @@ public enum EScomuniche {
 	private String nome;
 	private int periodo;
 	private String nomeFile;
-	private ArrayList<Object[]> effetto;
+	private List<Effetto> effetto;
 
 	private EScomuniche(String nome, String nomeFile, int periodo) {
 		this.nome = nome;
 		this.periodo = periodo;
 		this.nomeFile = nomeFile;
-		this.effetto = new ArrayList<Object[]>();
 		inizializzaEffetto();
 	}
 
-	public void inizializzaEffetto() {
+	private void inizializzaEffetto() {
+		ArrayList<Effetto> effetto = new ArrayList<Effetto>();
 		for (EEffettiScomuniche e : EEffettiScomuniche.values()) {
 			if (this.nome.equals(e.getNome())) {
-				this.effetto.add(e.getEffetto());
+				effetto.add(e.getEffetto());
 			}
 		}
+		this.effetto = Collections.unmodifiableList(effetto);
+
+	}
+
+	/**
+	 * Scomuniche indicizzate per nome (vedi {@link #getScomunica(String)}).
+	 */
+	private static final Map<String, EScomuniche> SCOMUNICHE_PER_NOME = new HashMap<>();
+
+	static {
+		for (EScomuniche scomunica : values())
+			SCOMUNICHE_PER_NOME.put(scomunica.getNome(), scomunica);
+	}
 
+	/**
+	 * Ritorna la scomunica con il nome indicato (usato per ricollegare gli
+	 * effetti alle scomuniche deserializzate).
+	 * 
+	 * @param nome
+	 *            nome della scomunica.
+	 * @return la scomunica (null se non trovata).
+	 */
+	public static EScomuniche getScomunica(String nome) {
+		return SCOMUNICHE_PER_NOME.get(nome);
 	}
 
 	public int getPeriodo() {
@@ -76,7 +105,7 @@ public enum EScomuniche {
 		return this.nome;
 	}
 
-	public ArrayList<Object[]> getEffetto() {
+	public List<Effetto> getEffetto() {
 		return this.effetto;
 	}
 
@@ -5,7 +5,7 @@ package main.model.exceptions;
  * sul tabellone in precendenza nello stesso turno
  * 
  */
-public class FamiliarAlreadyUsedException extends Exception {
+public class FamiliarAlreadyUsedException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
@@ -4,13 +4,27 @@ package main.model.exceptions;
  * Eccezione che si verifica quando il valore del famigliare non e' sufficiente
  * per compiere una determinata azione
  */
-public class InsufficientValueException extends Exception {
+public class InsufficientValueException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
 	private static final long serialVersionUID = -2320702365379945054L;
 
+	/**
+	 * Valore mancante al famigliare per compiere l'azione (0 se non noto)
+	 */
+	private final int valoreMancante;
+
 	public InsufficientValueException() {
+		this(0);
+	}
+
+	public InsufficientValueException(int valoreMancante) {
 		super();
+		this.valoreMancante = valoreMancante;
+	}
+
+	public int getValoreMancante() {
+		return this.valoreMancante;
 	}
 }
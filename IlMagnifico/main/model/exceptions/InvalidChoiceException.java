@@ -1,6 +1,6 @@
 package main.model.exceptions;
 
-public class InvalidChoiceException extends Exception {
+public class InvalidChoiceException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
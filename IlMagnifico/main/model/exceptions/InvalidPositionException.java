@@ -5,7 +5,7 @@ package main.model.exceptions;
  * in una posizione non valida
  * 
  */
-public class InvalidPositionException extends Exception {
+public class InvalidPositionException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
@@ -4,7 +4,7 @@ package main.model.exceptions;
  * Eccezione che si verifica quando un giocatore vuole posizionare un famigliare
  * in una zone Mercato ma e' in possesso della carta scomunica che glielo vieta
  */
-public class MarketNotAvailableException extends Exception {
+public class MarketNotAvailableException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
@@ -5,7 +5,7 @@ package main.model.exceptions;
  * nella plancia di quel tipo della carta
  * 
  */
-public class MaxCardsReachedException extends Exception {
+public class MaxCardsReachedException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
@@ -5,7 +5,7 @@ package main.model.exceptions;
  * orre dove e' presente un altro famigliare ma non ha abbastanza le tre monete
  * da pagare al banco
  */
-public class NoMoneyException extends Exception {
+public class NoMoneyException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
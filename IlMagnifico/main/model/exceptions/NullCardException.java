@@ -5,7 +5,7 @@ package main.model.exceptions;
  * della torre dove non c'e' nessuna carta
  * 
  */
-public class NullCardException extends Exception {
+public class NullCardException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
@@ -5,7 +5,7 @@ package main.model.exceptions;
  * gia'� posizionato un famigliare non neutro e si accinge a posizionarne un altro
  * non neutro
  */
-public class SameAreaException extends Exception {
+public class SameAreaException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
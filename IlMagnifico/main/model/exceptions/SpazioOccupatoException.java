@@ -5,7 +5,7 @@ package main.model.exceptions;
  * famigliare e' gia'� occupato da un altro famigliare
  * 
  */
-public class SpazioOccupatoException extends Exception {
+public class SpazioOccupatoException extends SpostamentoNonValidoException {
 	/**
 	 * 
 	 */
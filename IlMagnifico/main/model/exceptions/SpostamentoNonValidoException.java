@@ -0,0 +1,17 @@
+package main.model.exceptions;
+
+/**
+ * Eccezione che si verifica quando uno spostamento di un famigliare non e'
+ * valido. Non registra lo stack trace: viene sollevata per ogni spostamento
+ * non valido controllato da {@link main.model.GeneratoreMosse}
+ */
+public abstract class SpostamentoNonValidoException extends Exception {
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 3412688207713544937L;
+
+	public SpostamentoNonValidoException() {
+		super(null, null, false, false);
+	}
+}
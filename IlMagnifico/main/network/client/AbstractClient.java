@@ -97,6 +97,26 @@ public abstract class AbstractClient {
 	 */
 	public abstract void sendLoginRequest(String nickname) throws NetworkException;
 
+	/**
+	 * Riapre la connessione con il server e riprende la sessione ottenuta con
+	 * l'ultimo login (il giocatore resta nella propria Stanza).
+	 * 
+	 * @throws LoginException
+	 *             se la sessione non e' piu' presente sul server.
+	 * @throws NetworkException
+	 *             se il server non e' raggiungibile o qualcosa e' andato storto.
+	 */
+	public abstract void sendResumeRequest() throws NetworkException;
+
+	/**
+	 * Richiede al server lo stato completo della partita in corso (es. dopo
+	 * aver perso un aggiornamento), senza attenderne la risposta.
+	 * 
+	 * @throws NetworkException
+	 *             se il server non e' raggiungibile o qualcosa e' andato storto.
+	 */
+	public abstract void sendResyncRequest() throws NetworkException;
+
 	/**
 	 * Invia un messaggio in chat ad altri giocatori o un giocatore specifico.
 	 * 
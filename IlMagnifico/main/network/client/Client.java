@@ -24,7 +24,10 @@ import main.network.client.rmi.RMIClient;
 import main.network.client.socket.SocketClient;
 import main.network.exceptions.LoginException;
 import main.network.protocol.ConnectionTypes;
+import main.network.server.cluster.ClusterDirectory;
+import main.network.server.cluster.ClusterNodeInfo;
 import main.network.server.game.Game;
+import main.network.server.game.GameDelta;
 import main.network.server.game.UpdateStats;
 import main.ui.cli.CLI;
 import main.util.ANSI;
@@ -142,6 +145,19 @@ public class Client implements IClient {
 	 */
 	private UpdateStats latestUpdate;
 
+	/**
+	 * Numero di sequenza dell'ultimo aggiornamento ricevuto (vedi
+	 * {@link UpdateStats#getSequenza()}).
+	 */
+	private long sequence;
+
+	/**
+	 * "True" se e' stato perso un aggiornamento: le variazioni vengono scartate
+	 * fino al prossimo aggiornamento completo, richiesto al Server (vedi
+	 * {@link #applyDelta(UpdateStats)}).
+	 */
+	private boolean outOfSync;
+
 	/**
 	 * Flag usato per determinare se il giocatore è abilitato ad effettuare una
 	 * richiesta di {@link EAzioniGiocatore#SostegnoChiesa} (aka. Rapporto con
@@ -223,7 +239,10 @@ public class Client implements IClient {
 		int socketPort = SERVER_SOCKET_PORT, rmiPort = SERVER_RMI_PORT;
 
 		// Check if arguments were passed in
-		if (args.length != 0) {
+		if (args.length != 0 && args[0].equals(CLI.CLUSTER_OPTION)) {
+			CLI.mainClusterClient(args);
+			return;
+		} else if (args.length != 0) {
 			try {
 				serverAddress = args[0];
 				socketPort = Integer.parseInt(args[1]);
@@ -287,6 +306,33 @@ public class Client implements IClient {
 		}
 	}
 
+	/**
+	 * Avvia connessioni client verso il nodo del cluster scelto dall'elenco dei
+	 * nodi (vedi {@link ClusterDirectory#route()}). In caso di disconnessione
+	 * la sessione viene ripresa sullo stesso nodo.
+	 * 
+	 * @param connectionType
+	 *            nome del tipo di connessione scelta
+	 * @param directoryAddress
+	 *            indirizzo dell'elenco dei nodi.
+	 * @param directoryPort
+	 *            porta del Registry dell'elenco dei nodi.
+	 * @throws ClientException
+	 *             se l'elenco non e' raggiungibile, non e' attivo alcun nodo o
+	 *             si verifica un errore.
+	 */
+	public void startClusterClient(String connectionType, String directoryAddress, int directoryPort)
+			throws ClientException {
+		ClusterNodeInfo node;
+		try {
+			node = ClusterDirectory.locateNode(directoryAddress, directoryPort);
+		} catch (NetworkException e) {
+			throw new ClientException("Cannot reach cluster directory", e);
+		}
+		System.out.println("Routed to cluster node: " + node);
+		startClient(connectionType, node.getHost(), node.getSocketPort(), node.getRmiPort());
+	}
+
 	/**
 	 * Avvia la connessione RMI.
 	 *
@@ -475,6 +521,51 @@ public class Client implements IClient {
 		}
 	}
 
+	/**
+	 * Metodo per riprendere la sessione presso il Server dopo una
+	 * disconnessione (senza un nuovo login): il giocatore resta nella propria
+	 * Stanza e riceve lo stato completo della partita in corso.
+	 * 
+	 * @return "True" se la sessione e' stata ripresa.
+	 */
+	public boolean resumeSession() {
+		try {
+			System.out.println("Try to resume session of: " + nickname);
+			client.sendResumeRequest();
+		} catch (LoginException e) {
+			System.out.println("Session expired, please login again");
+			this.isLogged = false;
+			return false;
+		} catch (NetworkException e) {
+			System.err.println(e.getMessage());
+			return false;
+		}
+		System.out.println("Session resumed as: " + nickname);
+		return true;
+	}
+
+	/**
+	 * Riprende automaticamente la sessione dopo la perdita della connessione
+	 * (vedi {@link #resumeSession()}), con al piu'
+	 * {@link Costants#MAX_CONNECTION_ATTEMPTS} tentativi.
+	 */
+	@Override
+	public void onConnectionLost() {
+		ui.onConnectionLost();
+		for (int i = 0; i < Costants.MAX_CONNECTION_ATTEMPTS && this.isLogged; i++) {
+			if (i > 0) {
+				try {
+					Thread.sleep(Costants.CONNECTION_RETRY_SECONDS * 1000L);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			if (resumeSession())
+				return;
+		}
+	}
+
 	/**
 	 * Callback per inviare un messaggio sulla chat.
 	 * 
@@ -681,7 +772,10 @@ public class Client implements IClient {
 
 		// update local game copy
 		this.latestUpdate = update;
-		this.board = update.getSpazioAzione();
+		if (update.getDelta() != null)
+			applyDelta(update);
+		else
+			applySnapshot(update);
 
 		if (update.getPlanciaGiocatore() != null)
 			this.playersDashboards.put(playerName, update.getPlanciaGiocatore());
@@ -709,6 +803,79 @@ public class Client implements IClient {
 		ui.onGameUpdate(update);
 	}
 
+	/**
+	 * Sostituisce la copia locale della partita con lo stato completo
+	 * contenuto nell'aggiornamento.
+	 * 
+	 * @param update
+	 *            aggiornamento completo (vedi {@link UpdateStats}).
+	 */
+	private void applySnapshot(UpdateStats update) {
+		this.sequence = update.getSequenza();
+		this.outOfSync = false;
+		if (update.getSpazioAzione() != null)
+			this.board = update.getSpazioAzione();
+
+		if (update.getRisorseGiocatori() != null)
+			this.playersResources = update.getRisorseGiocatori();
+		if (update.getPuntiGiocatori() != null)
+			this.playersPoints = update.getPuntiGiocatori();
+		if (update.getFamiglieGiocatori() != null)
+			this.playersFamilies = update.getFamiglieGiocatori();
+		if (update.getPlanceGiocatori() != null)
+			this.playersDashboards = update.getPlanceGiocatori();
+		if (update.getScomunicheGiocatori() != null)
+			this.playersExcommunications = update.getScomunicheGiocatori();
+		if (update.getColoriGiocatori() != null)
+			this.playersColors = update.getColoriGiocatori();
+	}
+
+	/**
+	 * Applica alla copia locale della partita la variazione contenuta
+	 * nell'aggiornamento (vedi {@link GameDelta}). Se la variazione non segue
+	 * l'ultimo aggiornamento ricevuto la copia locale non e' piu' valida: la
+	 * variazione viene scartata, come le successive, e viene richiesto al
+	 * Server lo stato completo della partita. La fase e l'azione
+	 * dell'aggiornamento vengono comunque gestite, con la copia locale non
+	 * aggiornata.
+	 * 
+	 * @param update
+	 *            aggiornamento contenente la variazione.
+	 */
+	private void applyDelta(UpdateStats update) {
+		GameDelta delta = update.getDelta();
+		if (this.board == null) {
+			log(Costants.GAME_ID, "UPDATE #" + delta.getSequenza() + " received before game state, ignored");
+			return;
+		}
+		update.setSpazioAzione(this.board);
+		if (this.outOfSync || delta.getSequenza() != this.sequence + 1) {
+			if (!this.outOfSync) {
+				log(Costants.GAME_ID, "UPDATE #" + delta.getSequenza() + " out of sequence (expected #"
+						+ (this.sequence + 1) + "), requesting game state");
+				this.outOfSync = true;
+				requestGameState();
+			}
+			return;
+		}
+		this.sequence = delta.getSequenza();
+
+		delta.applica(this.board, this.playersFamilies, this.playersResources, this.playersPoints,
+				this.playersDashboards, this.playersExcommunications);
+	}
+
+	/**
+	 * Richiede al Server lo stato completo della partita (vedi
+	 * {@link #applySnapshot(UpdateStats)}).
+	 */
+	private void requestGameState() {
+		try {
+			client.sendResyncRequest();
+		} catch (NetworkException e) {
+			System.err.println("Cannot send game state request");
+		}
+	}
+
 	/**
 	 * Scatenato quando il server notifica {@link EFasiDiGioco#SostegnoChiesa}.
 	 * 
@@ -937,18 +1104,6 @@ public class Client implements IClient {
 	public void onGameStarted(UpdateStats update) {
 		isGameStarted = true;
 
-		if (update.getRisorseGiocatori() != null)
-			this.playersResources = update.getRisorseGiocatori();
-		if (update.getPuntiGiocatori() != null)
-			this.playersPoints = update.getPuntiGiocatori();
-		if (update.getFamiglieGiocatori() != null)
-			this.playersFamilies = update.getFamiglieGiocatori();
-		if (update.getPlanceGiocatori() != null)
-			this.playersDashboards = update.getPlanceGiocatori();
-		if (update.getScomunicheGiocatori() != null)
-			this.playersExcommunications = update.getScomunicheGiocatori();
-		if (update.getColoriGiocatori() != null)
-			this.playersColors = update.getColoriGiocatori();
 		if (update.getScomuniche() != null)
 			this.excommunications = update.getScomuniche();
 
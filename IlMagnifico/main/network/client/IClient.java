@@ -217,6 +217,12 @@ public interface IClient {
 	 */
 	public void onGameStarted(UpdateStats update);
 
+	/**
+	 * Scatenato quando la connessione con il Server si interrompe senza che
+	 * il giocatore l'abbia chiusa (es. rete non raggiungibile).
+	 */
+	public void onConnectionLost();
+
 	/**
 	 * Metodo per il "debug"
 	 */
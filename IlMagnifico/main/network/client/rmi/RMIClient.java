@@ -32,6 +32,12 @@ public class RMIClient extends AbstractClient implements RMIClientInterface {
 	 */
 	private RMIServerInterface server;
 
+	/**
+	 * Flag che indica se il client e' gia' stato esportato come oggetto remoto
+	 * (vedi {@link #connect()}).
+	 */
+	private boolean exported;
+
 	/**
 	 * Crea un'istanza RMIClient .
 	 * 
@@ -57,7 +63,10 @@ public class RMIClient extends AbstractClient implements RMIClientInterface {
 		try {
 			Registry registry = LocateRegistry.getRegistry(getAddress(), getPort());
 			server = (RMIServerInterface) registry.lookup("Server");
-			UnicastRemoteObject.exportObject(this, 0);
+			if (!exported) {
+				UnicastRemoteObject.exportObject(this, 0);
+				exported = true;
+			}
 
 			System.out.println("RMI Connection established (port: " + getPort() + ")");
 
@@ -89,6 +98,44 @@ public class RMIClient extends AbstractClient implements RMIClientInterface {
 		}
 	}
 
+	/**
+	 * Ricollega il client al RMIServer e riprende la sessione ottenuta con
+	 * l'ultimo login.
+	 * 
+	 * @throws LoginException
+	 *             se la sessione non e' piu' presente sul server.
+	 * @throws NetworkException
+	 *             se il server non e' raggiungibile.
+	 */
+	@Override
+	public void sendResumeRequest() throws NetworkException {
+		if (sessionToken == null)
+			throw new LoginException("Not logged in");
+		try {
+			connect();
+			sessionToken = server.sendResumeRequest(sessionToken, this);
+		} catch (LoginException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new NetworkException(e);
+		}
+	}
+
+	/**
+	 * Richiede al RMIServer lo stato completo della partita in corso.
+	 * 
+	 * @throws NetworkException
+	 *             se il server non e' raggiungibile.
+	 */
+	@Override
+	public void sendResyncRequest() throws NetworkException {
+		try {
+			server.sendResyncRequest(sessionToken);
+		} catch (IOException e) {
+			throw new NetworkException(e);
+		}
+	}
+
 	/**
 	 * Invia un messaggio in chat ad altri giocatori o un giocatore specifico.
 	 * 
@@ -157,6 +204,22 @@ public class RMIClient extends AbstractClient implements RMIClientInterface {
 		getController().onChatMessage(author, message);
 	}
 
+	/**
+	 * Notifica al giocatore un gruppo di messaggi ricevuti sulla chat.
+	 * 
+	 * @param authors
+	 *            nomi dei giocatori che hanno inviato i messaggi.
+	 * @param messages
+	 *            corpi dei messaggi ricevuti (nello stesso ordine).
+	 * @throws RemoteException
+	 *             se il giocatore non e' raggiungibile dal server.
+	 */
+	@Override
+	public void notifyChatMessages(String[] authors, String[] messages) throws RemoteException {
+		for (int i = 0; i < authors.length; i++)
+			getController().onChatMessage(authors[i], messages[i]);
+	}
+
 	/**
 	 * Notifica aggiornamento stato partita
 	 * 
@@ -168,6 +231,20 @@ public class RMIClient extends AbstractClient implements RMIClientInterface {
 		getController().onGameUpdate(update);
 	}
 
+	/**
+	 * Heartbeat del server: la risposta coincide con il ritorno
+	 * dell'invocazione remota.
+	 * 
+	 * @param timestamp
+	 *            istante di invio dell'heartbeat.
+	 * @throws RemoteException
+	 *             se il giocatore non e' raggiungibile dal server.
+	 */
+	@Override
+	public void notifyHeartbeat(long timestamp) throws RemoteException {
+		// Nessuna operazione: e' sufficiente che l'invocazione vada a buon fine.
+	}
+
 	/**
 	 * Metodo per il "debug"
 	 * 
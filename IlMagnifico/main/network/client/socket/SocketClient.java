@@ -3,11 +3,12 @@ package main.network.client.socket;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.util.HashMap;
+import java.util.List;
 
 import main.network.NetworkException;
 import main.network.client.AbstractClient;
@@ -15,6 +16,7 @@ import main.network.client.ClientException;
 import main.network.client.IClient;
 import main.network.exceptions.LoginException;
 import main.network.protocol.socket.SocketConstants;
+import main.network.protocol.socket.SocketFrames;
 import main.network.server.game.UpdateStats;
 
 /**
@@ -26,17 +28,19 @@ public class SocketClient extends AbstractClient {
 	/**
 	 * Socket del Client.
 	 */
-	private Socket socketClient;
+	private volatile Socket socketClient;
 
 	/**
-	 * Stream di Input per la ricezione degli oggetti serializzati dal Server.
+	 * Stream di Input per la ricezione dei messaggi dal Server (vedi
+	 * {@link SocketFrames}).
 	 */
-	private ObjectInputStream inputStream;
+	private DataInputStream inputStream;
 
 	/**
-	 * Stream di Output per l'invio di oggetti serializzati al Server.
+	 * Stream di Output per l'invio dei messaggi al Server (vedi
+	 * {@link SocketFrames}).
 	 */
-	private ObjectOutputStream outputStream;
+	private OutputStream outputStream;
 
 	/**
 	 * MUTEX per evitare la concorrenza tra Thread durante la scrittura sul
@@ -79,9 +83,8 @@ public class SocketClient extends AbstractClient {
 
 			System.out.println("Socket Connection established (port: " + this.getPort() + ")");
 
-			outputStream = new ObjectOutputStream(new BufferedOutputStream(socketClient.getOutputStream()));
-			outputStream.flush();
-			inputStream = new ObjectInputStream(new BufferedInputStream(socketClient.getInputStream()));
+			outputStream = new BufferedOutputStream(socketClient.getOutputStream());
+			inputStream = new DataInputStream(new BufferedInputStream(socketClient.getInputStream()));
 
 		} catch (IOException e) {
 			throw new ClientException(e);
@@ -96,8 +99,10 @@ public class SocketClient extends AbstractClient {
 	 */
 	private void loadResponses() {
 		responseMap.put(SocketConstants.CHAT_MESSAGE, this::notifyChatMessage);
+		responseMap.put(SocketConstants.CHAT_MESSAGES, this::notifyChatMessages);
 		responseMap.put(SocketConstants.ACTION_NOT_VALID, this::notifyActionNotValid);
 		responseMap.put(SocketConstants.GAME_ACTION, this::notifyGameUpdate);
+		responseMap.put(SocketConstants.HEARTBEAT, this::notifyHeartbeat);
 	}
 
 	/**
@@ -105,7 +110,7 @@ public class SocketClient extends AbstractClient {
 	 * ingresso del socket e li elabora secondo il Protocollo definito.
 	 */
 	private void startResponseHandler() {
-		ResponseHandler responseHandler = new ResponseHandler();
+		ResponseHandler responseHandler = new ResponseHandler(socketClient, inputStream, outputStream);
 		responseHandler.start();
 	}
 
@@ -124,22 +129,62 @@ public class SocketClient extends AbstractClient {
 	@Override
 	public void sendLoginRequest(String nickname) throws NetworkException {
 		int responseCode;
+		Object[] response;
 		try {
-			outputStream.writeObject(SocketConstants.LOGIN_REQUEST);
-			outputStream.writeObject(nickname);
-			outputStream.flush();
+			sendFrame(SocketConstants.LOGIN_REQUEST, nickname);
 
-			responseCode = (int) inputStream.readObject();
-		} catch (ClassNotFoundException | ClassCastException | IOException e) {
+			response = SocketFrames.read(inputStream);
+			responseCode = (int) response[0];
+		} catch (ClassCastException | IOException e) {
 			throw new NetworkException(e);
 		}
 		if (responseCode == SocketConstants.RESPONSE_PLAYER_ALREADY_EXISTS) {
 			throw new LoginException();
 		} else {
+			if (response.length > 1)
+				sessionToken = (String) response[1];
 			startResponseHandler();
 		}
 	}
 
+	/**
+	 * Apre una nuova connessione con il SocketServer e riprende la sessione
+	 * ottenuta con l'ultimo login.
+	 * 
+	 * @throws LoginException
+	 *             se la sessione non e' piu' presente sul server.
+	 * @throws NetworkException
+	 *             se il server non e' raggiungibile.
+	 */
+	@Override
+	public void sendResumeRequest() throws NetworkException {
+		if (sessionToken == null)
+			throw new LoginException("Not logged in");
+		int responseCode;
+		try {
+			connect();
+			sendFrame(SocketConstants.RESUME_REQUEST, sessionToken);
+
+			responseCode = (int) SocketFrames.read(inputStream)[0];
+		} catch (ClassCastException | IOException e) {
+			throw new NetworkException(e);
+		}
+		if (responseCode != SocketConstants.RESPONSE_OK)
+			throw new LoginException("Session not found");
+		startResponseHandler();
+	}
+
+	/**
+	 * Richiede al SocketServer lo stato completo della partita in corso.
+	 * 
+	 * @throws NetworkException
+	 *             se il server non e' raggiungibile o qualcosa e' andato storto.
+	 */
+	@Override
+	public void sendResyncRequest() throws NetworkException {
+		sendFrame(SocketConstants.RESYNC_REQUEST);
+	}
+
 	/**
 	 * Invia un messaggio in chat ad altri giocatori o un giocatore specifico.
 	 * 
@@ -153,16 +198,7 @@ public class SocketClient extends AbstractClient {
 	 */
 	@Override
 	public void sendChatMessage(String receiver, String message) throws NetworkException {
-		synchronized (OUTPUT_MUTEX) {
-			try {
-				outputStream.writeObject(SocketConstants.CHAT_MESSAGE);
-				outputStream.writeObject(receiver);
-				outputStream.writeObject(message);
-				outputStream.flush();
-			} catch (IOException e) {
-				throw new NetworkException(e);
-			}
-		}
+		sendFrame(SocketConstants.CHAT_MESSAGE, receiver, message);
 	}
 
 	/**
@@ -175,10 +211,22 @@ public class SocketClient extends AbstractClient {
 	 */
 	@Override
 	public void sendGameActionRequest(UpdateStats requestedAction) throws NetworkException {
+		sendFrame(SocketConstants.GAME_ACTION, requestedAction);
+	}
+
+	/**
+	 * Codifica e invia un messaggio al Server (vedi {@link SocketFrames}).
+	 * 
+	 * @param frame
+	 *            oggetti (intestazione + contenuto) che compongono il
+	 *            messaggio.
+	 * @throws NetworkException
+	 *             se il server non e' raggiungibile o qualcosa e' andato storto.
+	 */
+	private void sendFrame(Object... frame) throws NetworkException {
 		synchronized (OUTPUT_MUTEX) {
 			try {
-				outputStream.writeObject(SocketConstants.GAME_ACTION);
-				outputStream.writeObject(requestedAction);
+				outputStream.write(SocketFrames.encode(frame));
 				outputStream.flush();
 			} catch (IOException e) {
 				throw new NetworkException(e);
@@ -192,40 +240,66 @@ public class SocketClient extends AbstractClient {
 
 	/**
 	 * Notifica al giocatore che e' stato ricevuto un nuovo messaggio sulla chat.
+	 * 
+	 * @param frame
+	 *            [CHAT_MESSAGE, author, message]
 	 */
-	private void notifyChatMessage() {
-		try {
-			String author = (String) inputStream.readObject();
-			String message = (String) inputStream.readObject();
-			getController().onChatMessage(author, message);
-		} catch (ClassNotFoundException | ClassCastException | IOException e) {
-			System.err.println("Exception while handling server message");
-		}
+	private void notifyChatMessage(Object[] frame) {
+		String author = (String) frame[1];
+		String message = (String) frame[2];
+		getController().onChatMessage(author, message);
+	}
+
+	/**
+	 * Notifica al giocatore un gruppo di messaggi ricevuti sulla chat.
+	 * 
+	 * @param frame
+	 *            [CHAT_MESSAGES, authors, messages]
+	 */
+	private void notifyChatMessages(Object[] frame) {
+		@SuppressWarnings("unchecked")
+		List<String> authors = (List<String>) frame[1];
+		@SuppressWarnings("unchecked")
+		List<String> messages = (List<String>) frame[2];
+		for (int i = 0; i < authors.size(); i++)
+			getController().onChatMessage(authors.get(i), messages.get(i));
 	}
 
 	/**
 	 * Notifica al giocatore un aggiornamento dello stato partita.
+	 * 
+	 * @param frame
+	 *            [GAME_ACTION, update]
+	 */
+	private void notifyGameUpdate(Object[] frame) {
+		UpdateStats update = (UpdateStats) frame[1];
+		getController().onGameUpdate(update);
+	}
+
+	/**
+	 * Risponde ad un heartbeat del Server (con lo stesso istante ricevuto).
+	 * 
+	 * @param frame
+	 *            [HEARTBEAT, timestamp]
 	 */
-	private void notifyGameUpdate() {
+	private void notifyHeartbeat(Object[] frame) {
 		try {
-			UpdateStats update = (UpdateStats) inputStream.readObject();
-			getController().onGameUpdate(update);
-		} catch (ClassNotFoundException | ClassCastException | IOException e) {
-			System.err.println("Exception while handling server message");
+			sendFrame(SocketConstants.HEARTBEAT, frame[1]);
+		} catch (NetworkException e) {
+			System.err.println("Cannot answer server heartbeat");
 		}
 	}
 
 	/**
 	 * Notifica al giocatore l'impossibilità di compiere un'azione richiesta (ad
 	 * esempio perche' si sta tentando di compiere un'azione illegale).
+	 * 
+	 * @param frame
+	 *            [ACTION_NOT_VALID, errorCode]
 	 */
-	private void notifyActionNotValid() {
-		try {
-			String errorCode = (String) inputStream.readObject();
-			getController().onActionNotValid(errorCode);
-		} catch (ClassNotFoundException | ClassCastException | IOException e) {
-			System.err.println("Exception while handling server message");
-		}
+	private void notifyActionNotValid(Object[] frame) {
+		String errorCode = (String) frame[1];
+		getController().onActionNotValid(errorCode);
 	}
 	/////////////////////////////////////////////////////////////////////////////////////////
 	// Thread per la gestione dei messaggi di risposta (SERVER --> CLIENT)
@@ -236,6 +310,32 @@ public class SocketClient extends AbstractClient {
 	 */
 	private class ResponseHandler extends Thread {
 
+		/**
+		 * Socket, Stream di Input e di Output della connessione gestita (una
+		 * ripresa della sessione apre una nuova connessione).
+		 */
+		private final Socket socket;
+
+		private final DataInputStream input;
+
+		private final OutputStream output;
+
+		/**
+		 * Costruttore.
+		 * 
+		 * @param socket
+		 *            socket della connessione.
+		 * @param input
+		 *            stream di ingresso del socket.
+		 * @param output
+		 *            stream di uscita del socket.
+		 */
+		private ResponseHandler(Socket socket, DataInputStream input, OutputStream output) {
+			this.socket = socket;
+			this.input = input;
+			this.output = output;
+		}
+
 		/**
 		 * Loop che attende messaggi di risposta dal Server e invocando i metodi
 		 * appropriati.
@@ -245,9 +345,9 @@ public class SocketClient extends AbstractClient {
 			while (true) {
 				boolean quit = false;
 				try {
-					Object object = inputStream.readObject();
-					handleResponse(object);
-				} catch (ClassNotFoundException | IOException e) {
+					Object[] frame = SocketFrames.read(input);
+					handleResponse(frame);
+				} catch (IOException e) {
 					System.err.println("Cannot read server response");
 					quit = true;
 				}
@@ -255,23 +355,32 @@ public class SocketClient extends AbstractClient {
 					break;
 				}
 			}
-			closeSafely(inputStream, "I/O error occurs when closing input stream");
-			closeSafely(outputStream, "I/O error occurs when closing output stream");
-			closeSafely(socketClient, "I/O error occurs when closing socket");
+			closeSafely(input, "I/O error occurs when closing input stream");
+			closeSafely(output, "I/O error occurs when closing output stream");
+			closeSafely(socket, "I/O error occurs when closing socket");
+
+			// La connessione non e' stata sostituita da una ripresa della
+			// sessione: il Client prova a riprenderla.
+			if (socket == socketClient)
+				getController().onConnectionLost();
 		}
 
 		/**
 		 * Gestisce la risposta ricevuta dal Server ed invoca il metodo
 		 * associatogli nella "responseMap".
 		 * 
-		 * @param object
-		 *            intestazione della risposta ricevuta dal server (es.
-		 *            {@link SocketConstants}).
+		 * @param frame
+		 *            messaggio ricevuto dal server: intestazione (es.
+		 *            {@link SocketConstants}) seguita dal contenuto.
 		 */
-		private void handleResponse(Object object) {
-			ResponseHandlerInterface handler = responseMap.get(object);
+		private void handleResponse(Object[] frame) {
+			ResponseHandlerInterface handler = frame.length > 0 ? responseMap.get(frame[0]) : null;
 			if (handler != null) {
-				handler.handle();
+				try {
+					handler.handle(frame);
+				} catch (ClassCastException | ArrayIndexOutOfBoundsException e) {
+					System.err.println("Exception while handling server message");
+				}
 			}
 		}
 
@@ -301,8 +410,11 @@ public class SocketClient extends AbstractClient {
 
 		/**
 		 * Gestisce la risposta del Server.
+		 * 
+		 * @param frame
+		 *            messaggio ricevuto (intestazione + contenuto).
 		 */
-		void handle();
+		void handle(Object[] frame);
 	}
 
 }
\ No newline at end of file
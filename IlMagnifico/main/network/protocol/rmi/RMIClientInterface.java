@@ -23,6 +23,18 @@ public interface RMIClientInterface extends Remote {
 	 */
 	void notifyChatMessage(String author, String message) throws RemoteException;
 
+	/**
+	 * Notifica al giocatore un gruppo di messaggi ricevuti sulla chat.
+	 * 
+	 * @param authors
+	 *            nomi dei giocatori che hanno inviato i messaggi.
+	 * @param messages
+	 *            corpi dei messaggi ricevuti (nello stesso ordine).
+	 * @throws RemoteException
+	 *             se il giocatore non e' raggiungibile dal server.
+	 */
+	void notifyChatMessages(String[] authors, String[] messages) throws RemoteException;
+
 	/**
 	 * Notifica aggiornamento stato partita
 	 * 
@@ -31,6 +43,17 @@ public interface RMIClientInterface extends Remote {
 	 */
 	void notifyGameUpdate(UpdateStats update) throws RemoteException;
 
+	/**
+	 * Heartbeat usato dal server per verificare che il giocatore sia ancora
+	 * raggiungibile (e misurare il tempo di andata e ritorno).
+	 * 
+	 * @param timestamp
+	 *            istante di invio dell'heartbeat.
+	 * @throws RemoteException
+	 *             se il giocatore non e' raggiungibile dal server.
+	 */
+	void notifyHeartbeat(long timestamp) throws RemoteException;
+
 	/**
 	 * Metodo per il "debug"
 	 * 
@@ -32,6 +32,33 @@ public interface RMIServerInterface extends Remote {
 	 */
 	String sendLoginRequest(String nickname, RMIClientInterface player) throws IOException;
 
+	/**
+	 * Metodo remoto per riprendere la sessione di un Giocatore dopo una
+	 * disconnessione (senza un nuovo login).
+	 * 
+	 * @param sessionToken
+	 *            token di sessione ricevuto al login.
+	 * @param player
+	 *            nuovo riferimento remoto del giocatore.
+	 * @return token di sessione (invariato).
+	 * @throws LoginException
+	 *             se il token non corrisponde ad alcuna sessione.
+	 * @throws RemoteException
+	 *             se il server non e' raggiungibile.
+	 */
+	String sendResumeRequest(String sessionToken, RMIClientInterface player) throws IOException;
+
+	/**
+	 * Metodo remoto per richiedere lo stato completo della partita dopo aver
+	 * perso un aggiornamento.
+	 * 
+	 * @param sessionToken
+	 *            token del giocatore che sta facendo la richiesta.
+	 * @throws RemoteException
+	 *             se il server non e' raggiungibile.
+	 */
+	void sendResyncRequest(String sessionToken) throws IOException;
+
 	/**
 	 * Metodo Remoto per inviare un messaggio di chat a tutti i giocatori o ad
 	 * uno specifico player.
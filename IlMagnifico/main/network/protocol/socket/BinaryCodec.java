@@ -0,0 +1,225 @@
+package main.network.protocol.socket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe di utilita' con i tipi elementari del formato binario dei messaggi
+ * socket (vedi {@link SocketFrames}): interi a lunghezza variabile (varint,
+ * con codifica "zigzag" per i valori negativi), stringhe UTF-8 ed enumerativi
+ * codificati tramite il loro ordinale. Il valore null e' sempre codificato
+ * con 0.
+ */
+public class BinaryCodec {
+
+	/**
+	 * Lunghezza massima (in byte) accettata per stringhe e blocchi.
+	 */
+	private static final int MAX_LENGTH = SocketFrames.MAX_FRAME_LENGTH;
+
+	/**
+	 * Numero massimo di elementi accettato per un array di enumerativi (e
+	 * capacita' iniziale massima delle liste lette).
+	 */
+	private static final int MAX_ELEMENTS = 64;
+
+	/**
+	 * Costruttore privato.
+	 */
+	private BinaryCodec() {
+		// Questa classe non e' stata progettata per essere istanziata.
+	}
+
+	/**
+	 * Scrive un intero (1 byte per valori compresi tra -64 e 63).
+	 */
+	public static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		writeVarLong(out, value);
+	}
+
+	/**
+	 * Legge un intero scritto con {@link #writeVarInt}.
+	 */
+	public static int readVarInt(DataInputStream in) throws IOException {
+		long value = readVarLong(in);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+			throw new StreamCorruptedException("Invalid varint: " + value);
+		return (int) value;
+	}
+
+	/**
+	 * Scrive un intero lungo (codifica "zigzag" + 7 bit per byte).
+	 */
+	public static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0) {
+			out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.writeByte((int) zigzag);
+	}
+
+	/**
+	 * Legge un intero lungo scritto con {@link #writeVarLong}.
+	 */
+	public static long readVarLong(DataInputStream in) throws IOException {
+		long zigzag = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			zigzag |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+		}
+		throw new StreamCorruptedException("Varint too long");
+	}
+
+	/**
+	 * Scrive una stringa (anche null).
+	 */
+	public static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			writeVarInt(out, 0);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(out, bytes.length + 1);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Legge una stringa scritta con {@link #writeString}.
+	 */
+	public static String readString(DataInputStream in) throws IOException {
+		int length = readLength(in);
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Scrive una lista di stringhe (anche null).
+	 */
+	public static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+		writeVarInt(out, values == null ? 0 : values.size() + 1);
+		if (values != null)
+			for (String value : values)
+				writeString(out, value);
+	}
+
+	/**
+	 * Legge una lista di stringhe scritta con {@link #writeStrings}.
+	 */
+	public static ArrayList<String> readStrings(DataInputStream in) throws IOException {
+		int size = readLength(in);
+		if (size < 0)
+			return null;
+		ArrayList<String> values = new ArrayList<>(Math.min(size, MAX_ELEMENTS));
+		for (int i = 0; i < size; i++)
+			values.add(readString(in));
+		return values;
+	}
+
+	/**
+	 * Scrive un enumerativo (anche null) tramite il suo ordinale.
+	 */
+	public static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+		writeVarInt(out, value == null ? 0 : value.ordinal() + 1);
+	}
+
+	/**
+	 * Legge un enumerativo scritto con {@link #writeEnum}.
+	 */
+	public static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> type) throws IOException {
+		int ordinal = readVarInt(in) - 1;
+		if (ordinal < 0)
+			return null;
+		E[] values = type.getEnumConstants();
+		if (ordinal >= values.length)
+			throw new StreamCorruptedException("Invalid " + type.getSimpleName() + ": " + ordinal);
+		return values[ordinal];
+	}
+
+	/**
+	 * Scrive un array di enumerativi (anche null).
+	 */
+	public static void writeEnums(DataOutputStream out, Enum<?>[] values) throws IOException {
+		writeVarInt(out, values == null ? 0 : values.length + 1);
+		if (values != null)
+			for (Enum<?> value : values)
+				writeEnum(out, value);
+	}
+
+	/**
+	 * Legge un array di enumerativi scritto con {@link #writeEnums}.
+	 */
+	public static <E extends Enum<E>> E[] readEnums(DataInputStream in, Class<E> type) throws IOException {
+		int size = readLength(in);
+		if (size < 0)
+			return null;
+		if (size > MAX_ELEMENTS)
+			throw new StreamCorruptedException("Too many values: " + size);
+		@SuppressWarnings("unchecked")
+		E[] values = (E[]) Array.newInstance(type, size);
+		for (int i = 0; i < size; i++)
+			values[i] = readEnum(in, type);
+		return values;
+	}
+
+	/**
+	 * Scrive un oggetto del modello (es. carte e scomuniche) che non ha uno
+	 * schema binario, tramite serializzazione Java. Oggetti scritti nello
+	 * stesso blocco mantengono i riferimenti reciproci.
+	 */
+	public static void writeSerialized(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			writeVarInt(out, 0);
+			return;
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		try (ObjectOutputStream objectOut = new ObjectOutputStream(buffer)) {
+			objectOut.writeObject(value);
+		}
+		writeVarInt(out, buffer.size() + 1);
+		buffer.writeTo(out);
+	}
+
+	/**
+	 * Legge un oggetto scritto con {@link #writeSerialized}.
+	 */
+	public static Object readSerialized(DataInputStream in) throws IOException {
+		int length = readLength(in);
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return objectIn.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new StreamCorruptedException(e.toString());
+		}
+	}
+
+	/**
+	 * Legge una lunghezza (o dimensione) scritta come "valore + 1".
+	 *
+	 * @return la lunghezza, oppure -1 se il valore era null.
+	 */
+	private static int readLength(DataInputStream in) throws IOException {
+		int length = readVarInt(in) - 1;
+		if (length < -1 || length > MAX_LENGTH)
+			throw new StreamCorruptedException("Invalid length: " + length);
+		return length;
+	}
+}
@@ -14,13 +14,20 @@ public class SocketConstants {
 	public static final String LOGIN_REQUEST = "loginRequest";
 	public static final String GAME_ACTION = "gameAction";
 	public static final String CHAT_MESSAGE = "chatMessage";
+	public static final String RESUME_REQUEST = "resumeRequest";
+	public static final String RESYNC_REQUEST = "resyncRequest";
+
+	// Intestazioni richieste/risposte (Client e Server).
+	public static final String HEARTBEAT = "heartbeat";
 
 	// Intestazioni risposte (Server).
 	public static final String ACTION_NOT_VALID = "actionNotValid";
+	public static final String CHAT_MESSAGES = "chatMessages";
 
 	// Codici di risposta del server.
 	public static final int RESPONSE_OK = 200;
 	public static final int RESPONSE_PLAYER_ALREADY_EXISTS = 401;
+	public static final int RESPONSE_SESSION_NOT_FOUND = 404;
 
 	/**
 	 * Costruttore privato.
@@ -0,0 +1,212 @@
+package main.network.protocol.socket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.util.List;
+
+import main.network.server.game.UpdateStats;
+
+/**
+ * Classe di utilita' per la codifica dei messaggi scambiati tramite socket.
+ * Ogni messaggio (intestazione + contenuto, vedi {@link SocketConstants}) viene
+ * codificato in un formato binario compatto e versionato (vedi
+ * {@link BinaryCodec} e {@link UpdateStats#writeTo}) e preceduto dalla sua
+ * lunghezza in byte, cosi' che possa essere letto anche da un Server non
+ * bloccante (NIO).
+ * <p>
+ * Formato: [lunghezza (4 byte)] [versione (1 byte)] [tipo (1 byte)] [campi
+ * del messaggio, vedi la tabella dei tipi].
+ */
+public class SocketFrames {
+
+	/**
+	 * Numero di byte usati per codificare la lunghezza di un messaggio.
+	 */
+	public static final int HEADER_LENGTH = 4;
+
+	/**
+	 * Lunghezza massima (in byte) accettata per un singolo messaggio.
+	 */
+	public static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+	/**
+	 * Versione del formato dei messaggi.
+	 */
+	public static final int VERSION = 1;
+
+	// Tipi di messaggio.
+	private static final int RESPONSE = 0; // [codice]
+	private static final int LOGIN_REQUEST = 1; // [nickname]
+	private static final int CHAT_MESSAGE = 2; // [destinatario/mittente, messaggio]
+	private static final int GAME_ACTION = 3; // [UpdateStats]
+	private static final int ACTION_NOT_VALID = 4; // [codice d'errore]
+	private static final int SESSION_RESPONSE = 5; // [codice, token di sessione]
+	private static final int RESUME_REQUEST = 6; // [token di sessione]
+	private static final int HEARTBEAT = 7; // [istante]
+	private static final int CHAT_MESSAGES = 8; // [mittenti, messaggi]
+	private static final int RESYNC_REQUEST = 9; // []
+
+	/**
+	 * Costruttore privato.
+	 */
+	private SocketFrames() {
+		// Questa classe non e' stata progettata per essere istanziata.
+	}
+
+	/**
+	 * Codifica un messaggio.
+	 *
+	 * @param frame
+	 *            oggetti (intestazione + contenuto) che compongono il
+	 *            messaggio; un messaggio che inizia con un intero e' un
+	 *            codice di risposta (es. {@link SocketConstants#RESPONSE_OK}),
+	 *            eventualmente seguito dal token di sessione.
+	 * @return il messaggio codificato (lunghezza + contenuto).
+	 * @throws IOException
+	 *             se il messaggio non e' previsto dal protocollo.
+	 */
+	public static byte[] encode(Object... frame) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+		DataOutputStream out = new DataOutputStream(buffer);
+		out.writeInt(0);
+		out.writeByte(VERSION);
+
+		Object header = frame[0];
+		if (header instanceof Integer && frame.length > 1) {
+			out.writeByte(SESSION_RESPONSE);
+			BinaryCodec.writeVarInt(out, (Integer) header);
+			BinaryCodec.writeString(out, (String) frame[1]);
+		} else if (header instanceof Integer) {
+			out.writeByte(RESPONSE);
+			BinaryCodec.writeVarInt(out, (Integer) header);
+		} else if (SocketConstants.LOGIN_REQUEST.equals(header)) {
+			out.writeByte(LOGIN_REQUEST);
+			BinaryCodec.writeString(out, (String) frame[1]);
+		} else if (SocketConstants.CHAT_MESSAGE.equals(header)) {
+			out.writeByte(CHAT_MESSAGE);
+			BinaryCodec.writeString(out, (String) frame[1]);
+			BinaryCodec.writeString(out, (String) frame[2]);
+		} else if (SocketConstants.GAME_ACTION.equals(header)) {
+			out.writeByte(GAME_ACTION);
+			((UpdateStats) frame[1]).writeTo(out);
+		} else if (SocketConstants.ACTION_NOT_VALID.equals(header)) {
+			out.writeByte(ACTION_NOT_VALID);
+			BinaryCodec.writeString(out, (String) frame[1]);
+		} else if (SocketConstants.RESUME_REQUEST.equals(header)) {
+			out.writeByte(RESUME_REQUEST);
+			BinaryCodec.writeString(out, (String) frame[1]);
+		} else if (SocketConstants.RESYNC_REQUEST.equals(header)) {
+			out.writeByte(RESYNC_REQUEST);
+		} else if (SocketConstants.HEARTBEAT.equals(header)) {
+			out.writeByte(HEARTBEAT);
+			BinaryCodec.writeVarLong(out, (Long) frame[1]);
+		} else if (SocketConstants.CHAT_MESSAGES.equals(header)) {
+			out.writeByte(CHAT_MESSAGES);
+			BinaryCodec.writeStrings(out, strings(frame[1]));
+			BinaryCodec.writeStrings(out, strings(frame[2]));
+		} else {
+			throw new NotSerializableException("Unknown message: " + header);
+		}
+		out.flush();
+
+		byte[] bytes = buffer.toByteArray();
+		int length = bytes.length - HEADER_LENGTH;
+		bytes[0] = (byte) (length >>> 24);
+		bytes[1] = (byte) (length >>> 16);
+		bytes[2] = (byte) (length >>> 8);
+		bytes[3] = (byte) length;
+		return bytes;
+	}
+
+	/**
+	 * Decodifica il contenuto di un messaggio (senza la lunghezza).
+	 *
+	 * @param bytes
+	 *            buffer contenente il messaggio.
+	 * @param offset
+	 *            posizione del primo byte del contenuto.
+	 * @param length
+	 *            lunghezza del contenuto.
+	 * @return gli oggetti (intestazione + contenuto) che compongono il
+	 *         messaggio.
+	 * @throws IOException
+	 *             se il messaggio non e' valido.
+	 */
+	public static Object[] decode(byte[] bytes, int offset, int length) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, length));
+		int version = in.readUnsignedByte();
+		if (version != VERSION)
+			throw new StreamCorruptedException("Unsupported frame version: " + version);
+
+		int type = in.readUnsignedByte();
+		switch (type) {
+		case RESPONSE:
+			return new Object[] { BinaryCodec.readVarInt(in) };
+		case LOGIN_REQUEST:
+			return new Object[] { SocketConstants.LOGIN_REQUEST, BinaryCodec.readString(in) };
+		case CHAT_MESSAGE:
+			return new Object[] { SocketConstants.CHAT_MESSAGE, BinaryCodec.readString(in), BinaryCodec.readString(in) };
+		case GAME_ACTION:
+			return new Object[] { SocketConstants.GAME_ACTION, UpdateStats.readFrom(in) };
+		case ACTION_NOT_VALID:
+			return new Object[] { SocketConstants.ACTION_NOT_VALID, BinaryCodec.readString(in) };
+		case SESSION_RESPONSE:
+			return new Object[] { BinaryCodec.readVarInt(in), BinaryCodec.readString(in) };
+		case RESUME_REQUEST:
+			return new Object[] { SocketConstants.RESUME_REQUEST, BinaryCodec.readString(in) };
+		case RESYNC_REQUEST:
+			return new Object[] { SocketConstants.RESYNC_REQUEST };
+		case HEARTBEAT:
+			return new Object[] { SocketConstants.HEARTBEAT, BinaryCodec.readVarLong(in) };
+		case CHAT_MESSAGES:
+			return new Object[] { SocketConstants.CHAT_MESSAGES, BinaryCodec.readStrings(in), BinaryCodec.readStrings(in) };
+		default:
+			throw new StreamCorruptedException("Unknown frame type: " + type);
+		}
+	}
+
+	/**
+	 * Converte un campo del messaggio in una lista di stringhe.
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<String> strings(Object field) {
+		return (List<String>) field;
+	}
+
+	/**
+	 * Legge (in modo bloccante) un messaggio dallo stream.
+	 *
+	 * @param in
+	 *            stream di ingresso.
+	 * @return gli oggetti (intestazione + contenuto) che compongono il
+	 *         messaggio.
+	 * @throws IOException
+	 *             se lo stream e' stato chiuso o il messaggio non e' valido.
+	 */
+	public static Object[] read(DataInputStream in) throws IOException {
+		int length = checkLength(in.readInt());
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return decode(bytes, 0, length);
+	}
+
+	/**
+	 * Controlla che la lunghezza di un messaggio sia valida.
+	 *
+	 * @param length
+	 *            lunghezza letta dall'intestazione del messaggio.
+	 * @return la lunghezza stessa.
+	 * @throws StreamCorruptedException
+	 *             se la lunghezza non e' valida.
+	 */
+	public static int checkLength(int length) throws StreamCorruptedException {
+		if (length <= 0 || length > MAX_FRAME_LENGTH)
+			throw new StreamCorruptedException("Invalid frame length: " + length);
+		return length;
+	}
+}
@@ -0,0 +1,118 @@
+package main.network.server;
+
+import java.util.Collection;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import main.network.NetworkException;
+import main.network.server.game.RemotePlayer;
+
+/**
+ * Controllo periodico (vedi {@link ServerThreads#SCHEDULER}) della
+ * raggiungibilita' dei giocatori connessi: ad ogni controllo viene inviato un
+ * heartbeat ad ogni giocatore online (vedi
+ * {@link RemotePlayer#sendHeartbeat(long)}), mentre i giocatori da cui non
+ * viene ricevuto alcun messaggio entro il tempo massimo vengono disconnessi,
+ * senza attendere che la connessione venga chiusa dal sistema operativo.
+ */
+public class HeartbeatMonitor implements Runnable {
+
+	/**
+	 * Giocatori da controllare.
+	 */
+	private final Supplier<? extends Collection<? extends RemotePlayer>> players;
+
+	/**
+	 * Intervallo (in millisecondi) tra due controlli.
+	 */
+	private final long period;
+
+	/**
+	 * Tempo massimo (in nanosecondi) senza messaggi dal client prima che il
+	 * giocatore venga disconnesso.
+	 */
+	private final long timeout;
+
+	/**
+	 * Programmazione dei controlli sullo scheduler condiviso.
+	 */
+	private ScheduledFuture<?> future;
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param players
+	 *            giocatori da controllare (letti ad ogni controllo).
+	 * @param period
+	 *            intervallo (in millisecondi) tra due controlli.
+	 * @param timeout
+	 *            tempo massimo (in millisecondi) senza messaggi dal client.
+	 */
+	public HeartbeatMonitor(Supplier<? extends Collection<? extends RemotePlayer>> players, long period,
+			long timeout) {
+		this.players = players;
+		this.period = period;
+		this.timeout = TimeUnit.MILLISECONDS.toNanos(timeout);
+	}
+
+	/**
+	 * Avvia i controlli periodici (se non sono gia' stati avviati).
+	 */
+	public synchronized void start() {
+		if (future == null)
+			future = ServerThreads.SCHEDULER.scheduleAtFixedRate(this, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Interrompe i controlli periodici.
+	 */
+	public synchronized void stop() {
+		if (future != null) {
+			future.cancel(false);
+			future = null;
+		}
+	}
+
+	/**
+	 * Esegue un controllo (invocato dallo scheduler).
+	 */
+	@Override
+	public void run() {
+		try {
+			check(System.nanoTime());
+		} catch (RuntimeException e) {
+			// Un'eccezione annullerebbe tutti i controlli successivi.
+			System.err.println("Heartbeat check failed (" + e + ")");
+		}
+	}
+
+	/**
+	 * Controlla tutti i giocatori online: disconnette quelli da cui non viene
+	 * ricevuto alcun messaggio da piu' del tempo massimo e invia un heartbeat
+	 * agli altri.
+	 * 
+	 * @param now
+	 *            istante del controllo (vedi {@link System#nanoTime()}).
+	 * @return numero di giocatori disconnessi.
+	 */
+	public int check(long now) {
+		int expired = 0;
+		for (RemotePlayer player : players.get()) {
+			if (!player.isOnline())
+				continue;
+			if (now - player.getLastSeen() > timeout) {
+				System.err.println("PLAYER_TIMEOUT: \"" + player.getNome() + "\"");
+				player.disconnect();
+				expired++;
+				continue;
+			}
+			try {
+				player.sendHeartbeat(now);
+			} catch (NetworkException e) {
+				// Il giocatore e' gia' stato impostato come offline.
+			}
+		}
+		return expired;
+	}
+}
@@ -37,6 +37,33 @@ public interface IServer {
 	 */
 	RemotePlayer getPlayer(String nickname);
 
+	/**
+	 * Ritorna il giocatore associato al token di sessione fornito.
+	 * 
+	 * @param sessionToken
+	 *            token assegnato al giocatore durante il login.
+	 * @return il giocatore remoto associato (se trovato).
+	 */
+	RemotePlayer getPlayerBySession(String sessionToken);
+
+	/**
+	 * Completa la ripresa della sessione di un giocatore che si e' ricollegato
+	 * (dopo che il server Socket o RMI gli ha associato la nuova connessione).
+	 * 
+	 * @param remotePlayer
+	 *            giocatore che ha ripreso la sessione.
+	 */
+	void resumePlayer(RemotePlayer remotePlayer);
+
+	/**
+	 * Invia lo stato completo della partita in corso ad un giocatore il cui
+	 * Client ha perso un aggiornamento.
+	 * 
+	 * @param remotePlayer
+	 *            giocatore che ha richiesto lo stato completo.
+	 */
+	void resyncPlayer(RemotePlayer remotePlayer);
+
 	/**
 	 * Aggiunge il giocatore alla prima Stanza disponibile.
 	 * 
@@ -1,18 +1,24 @@
 package main.network.server;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.rmi.RemoteException;
-import java.util.ArrayList;
-import java.util.HashMap;
 
-import main.network.NetworkException;
 import main.network.exceptions.LoginException;
 import main.network.exceptions.PlayerNotFound;
+import main.network.server.cluster.ClusterNode;
+import main.network.server.game.BotPlayer;
+import main.network.server.game.ChatChannel;
+import main.network.server.game.ChatMessage;
 import main.network.server.game.RemotePlayer;
 import main.network.server.game.Room;
+import main.network.server.game.RoomDirectory;
 import main.network.server.game.exceptions.CreateRoomException;
 import main.network.server.game.exceptions.JoinRoomException;
 import main.network.server.game.exceptions.RoomFullException;
 import main.network.server.rmi.RMIServer;
+import main.network.server.socket.NioSocketServer;
 import main.network.server.socket.SocketServer;
 import main.util.Costants;
 
@@ -42,30 +48,39 @@ public class Server implements IServer {
 	public static final int MAX_ROOM_PLAYERS = Costants.ROOM_MAX_PLAYERS;
 
 	/**
-	 * MUTEX per evitare la concorrenza tra giocatori durante il login.
+	 * Giocatori connessi con il server (per nickname e token di sessione),
+	 * condivisi dai server Socket e RMI.
 	 */
-	private static final Object PLAYERS_MUTEX = new Object();
+	private final SessionRegistry sessions;
 
 	/**
-	 * MUTEX per evitare la concorrenza tra giocatori durante l'aggiunta ad una
-	 * stanza
+	 * Elenco di tutte le Stanze presenti sul Server, indicizzate per posti
+	 * liberi.
 	 */
-	private static final Object ROOMS_MUTEX = new Object();
+	private final RoomDirectory rooms;
 
 	/**
-	 * Giocatori connessi con il server <nickname, RemotePlayer>.
+	 * Canale della chat usato per i messaggi a tutti i giocatori connessi e
+	 * per i messaggi privati (vedi {@link ChatChannel}).
 	 */
-	private HashMap<String, RemotePlayer> players;
+	private final ChatChannel lobby;
 
 	/**
-	 * Lista di tutte le Stanze presenti sul Server.
+	 * Controllo periodico della raggiungibilita' dei giocatori (vedi
+	 * {@link HeartbeatMonitor}).
 	 */
-	private ArrayList<Room> rooms;
+	private final HeartbeatMonitor heartbeat;
+
+	/**
+	 * Nodo del cluster gestito dal Server (null se il Server non fa parte di
+	 * un cluster, vedi {@link ClusterNode}).
+	 */
+	private volatile ClusterNode cluster;
 
 	/**
 	 * Socket server.
 	 */
-	private SocketServer socketServer;
+	private AbstractServer socketServer;
 
 	/**
 	 * RMI server.
@@ -78,15 +93,30 @@ public class Server implements IServer {
 	private static final String ID = Costants.SERVER;
 
 	/**
-	 * Crea una nuova istanza della classe.
+	 * Crea una nuova istanza della classe (in modalita' {@link ServerMode#NIO}).
 	 * 
 	 * @throws ServerException
 	 *             se si verifica un errore.
 	 */
 	public Server() throws ServerException {
-		players = new HashMap<>();
-		rooms = new ArrayList<>();
-		socketServer = new SocketServer(this);
+		this(ServerMode.NIO);
+	}
+
+	/**
+	 * Crea una nuova istanza della classe.
+	 * 
+	 * @param mode
+	 *            modalita' di esecuzione del Server (vedi {@link ServerMode}).
+	 * @throws ServerException
+	 *             se si verifica un errore.
+	 */
+	public Server(ServerMode mode) throws ServerException {
+		sessions = new SessionRegistry();
+		rooms = new RoomDirectory(MAX_ROOM_PLAYERS);
+		lobby = new ChatChannel(sessions::getPlayers);
+		heartbeat = new HeartbeatMonitor(sessions::getPlayers, Costants.HEARTBEAT_PERIOD, Costants.HEARTBEAT_TIMEOUT);
+		mode = ServerThreads.setMode(mode);
+		socketServer = mode == ServerMode.NIO ? new NioSocketServer(this) : new SocketServer(this);
 		rmiServer = new RMIServer(this);
 	}
 
@@ -98,24 +128,44 @@ public class Server implements IServer {
 	 */
 	public static void main(String[] args) {
 		int socketPort = SOCKET_PORT, rmiPort = RMI_PORT;
+		ServerMode mode = ServerMode.NIO;
+		Path journalDirectory = null;
+		Path recordDirectory = null;
+		int botWaitingTime = 0;
 
 		// Check if arguments were passed in
 		if (args.length != 0) {
 			try {
 				socketPort = Integer.parseInt(args[0]);
 				rmiPort = Integer.parseInt(args[1]);
+				if (args.length > 2)
+					mode = ServerMode.valueOf(args[2].toUpperCase());
+				if (args.length > 3)
+					journalDirectory = Paths.get(args[3]);
+				if (args.length > 4)
+					recordDirectory = Paths.get(args[4]);
+				if (args.length > 5)
+					botWaitingTime = Integer.parseInt(args[5]);
 			} catch (Exception e) {
-				System.out.println("Proper usage is: [socketPort rmiPort]");
+				System.out.println("Proper usage is: "
+						+ "[socketPort rmiPort [nio|thread|virtual [journalDirectory [recordDirectory [botWaitingTime]]]]]");
 				System.exit(0);
 			}
 		}
 
 		try {
-			Server server = new Server();
+			Server server = new Server(mode);
+			if (journalDirectory != null)
+				server.setJournalDirectory(journalDirectory);
+			if (recordDirectory != null)
+				server.setRecordDirectory(recordDirectory);
+			if (botWaitingTime > 0)
+				server.setBotWaitingTime(botWaitingTime);
 			server.startServer(socketPort, rmiPort);
 
 			System.out.print("\nServer listening at: ");
-			System.out.println("127.0.0.1" + " (rmi: " + rmiPort + ", socket: " + socketPort + ")");
+			System.out.println("127.0.0.1" + " (rmi: " + rmiPort + ", socket: " + socketPort + ", mode: "
+					+ ServerThreads.getMode() + ")");
 			System.out.println();
 		} catch (ServerException e) {
 			e.printStackTrace();
@@ -148,6 +198,7 @@ public class Server implements IServer {
 	public void startRMIServer(int rmiPort) throws ServerException {
 		System.out.println("Starting RMI Server...");
 		rmiServer.startServer(rmiPort);
+		heartbeat.start();
 	}
 
 	/**
@@ -161,6 +212,132 @@ public class Server implements IServer {
 	public void startSocketServer(int socketPort) throws ServerException {
 		System.out.println("Starting Socket Server...");
 		socketServer.startServer(socketPort);
+		heartbeat.start();
+	}
+
+	/**
+	 * Aggiunge il Server ad un cluster: i nickname vengono riservati
+	 * sull'intero cluster e i messaggi privati possono raggiungere i
+	 * giocatori collegati agli altri nodi.
+	 * 
+	 * @param cluster
+	 *            nodo del cluster gestito dal Server.
+	 */
+	public void setCluster(ClusterNode cluster) {
+		this.cluster = cluster;
+	}
+
+	/**
+	 * Abilita il journal delle partite (vedi
+	 * {@link main.network.server.game.GameJournal}) e ripristina le partite
+	 * registrate nella cartella prima di un riavvio del Server: i giocatori
+	 * vengono registrati come offline con il token di sessione che avevano
+	 * in precedenza, e riprendono la partita ricollegandosi.
+	 * 
+	 * @param journalDirectory
+	 *            cartella in cui scrivere il journal delle partite.
+	 * @throws ServerException
+	 *             se la cartella non puo' essere letta.
+	 */
+	public void setJournalDirectory(Path journalDirectory) throws ServerException {
+		rooms.setJournalDirectory(journalDirectory, Costants.JOURNAL_SNAPSHOT_INTERVAL);
+		try {
+			int restored = 0;
+			for (Room room : rooms.restoreRooms()) {
+				for (RemotePlayer player : room.getPlayers()) {
+					if (player instanceof BotPlayer)
+						continue;
+					if (cluster != null) {
+						// Il giocatore resta offline finche' non riprende la
+						// sessione.
+						cluster.reservePlayer(player.getNome());
+						cluster.setPlayerOnline(player.getNome(), false);
+						player.setDisconnectListener(this::onPlayerDisconnected);
+					}
+					sessions.restore(player);
+				}
+				restored++;
+			}
+			System.out.println("Restored " + restored + " games from: " + journalDirectory);
+		} catch (IOException e) {
+			throw new ServerException("Cannot read journal directory", e);
+		}
+	}
+
+	/**
+	 * Abilita il salvataggio delle partite terminate (vedi
+	 * {@link main.network.server.game.GameRecord}), che possono essere
+	 * riprodotte con {@link main.network.server.game.GameReplay}.
+	 * 
+	 * @param recordDirectory
+	 *            cartella in cui salvare le partite.
+	 */
+	public void setRecordDirectory(Path recordDirectory) {
+		rooms.setRecordDirectory(recordDirectory);
+	}
+
+	/**
+	 * Abilita i bot (vedi {@link main.network.server.game.BotPlayer}), che
+	 * occupano i posti rimasti liberi nelle nuove Stanze dopo il tempo di
+	 * attesa indicato.
+	 * 
+	 * @param botWaitingTime
+	 *            tempo di attesa in secondi (0 per disabilitare i bot).
+	 */
+	public void setBotWaitingTime(int botWaitingTime) {
+		rooms.setBotWaitingTime(botWaitingTime);
+	}
+
+	/**
+	 * Ritorna il numero di giocatori collegati al Server.
+	 * 
+	 * @return numero di giocatori.
+	 */
+	public int getPlayerCount() {
+		return sessions.size();
+	}
+
+	/**
+	 * Ritorna il numero di giocatori collegati al Server che sono gia' stati
+	 * aggiunti ad una Stanza.
+	 * 
+	 * @return numero di giocatori.
+	 */
+	public int getSeatedPlayerCount() {
+		int count = 0;
+		for (RemotePlayer player : sessions.getPlayers())
+			if (player.getRoom() != null)
+				count++;
+		return count;
+	}
+
+	/**
+	 * Ritorna il numero di posti liberi nelle Stanze aperte del Server.
+	 * 
+	 * @return posti liberi.
+	 */
+	public int getOpenSeats() {
+		return rooms.getOpenSeats();
+	}
+
+	/**
+	 * Consegna un messaggio di chat privato inviato da un giocatore collegato
+	 * ad un altro nodo del cluster.
+	 * 
+	 * @param author
+	 *            nome del MITTENTE del messaggio.
+	 * @param receiver
+	 *            nome del DESTINATARIO del messaggio.
+	 * @param message
+	 *            messaggio da inviare.
+	 * @throws PlayerNotFound
+	 *             se il destinatario non e' collegato al Server.
+	 */
+	public void deliverChatMessage(String author, String receiver, String message) throws PlayerNotFound {
+		RemotePlayer remotePlayer = sessions.getPlayer(receiver);
+		if (remotePlayer == null)
+			throw new PlayerNotFound();
+		lobby.post(new ChatMessage(author, message, null, remotePlayer));
 	}
 
 	/////////////////////////////////////////////////////////////////////////////////////////
@@ -177,23 +354,31 @@ public class Server implements IServer {
 	 *            riferimento al giocatore che ha effettuato la richiesta (es.
 	 *            {@link RMIPlayer}, {@link SocketPlayer}).
 	 * @throws LoginException
-	 *             se esiste gia' un altro giocatore con il nome fornito.
+	 *             se esiste gia' un altro giocatore con il nome fornito (sul
+	 *             Server o, per un nodo del cluster, sull'intero cluster).
 	 */
 	@Override
 	public void loginPlayer(String nickname, RemotePlayer player) throws LoginException {
-		synchronized (PLAYERS_MUTEX) {
-			System.out.println("New login request: " + nickname);
-			String player_id = "[" + nickname.toUpperCase() + "]";
-
-			if (!players.containsKey(nickname) && nickname.length() > 0) {
-				player.setNome(nickname);
-				players.put(nickname, player);
-				System.out.println(player_id + " Succesfully logged in!");
-			} else {
-				System.out.println(player_id + " Already logged in!");
-				throw new LoginException();
+		System.out.println("New login request: " + nickname);
+		String player_id = "[" + nickname.toUpperCase() + "]";
+
+		try {
+			// Il nickname viene riservato sul cluster solamente dopo il login
+			// sul nodo, e resta riservato finche' la sessione puo' essere
+			// ripresa (anche dopo una disconnessione).
+			sessions.login(nickname, player);
+			if (cluster != null) {
+				if (!cluster.reservePlayer(nickname)) {
+					sessions.logout(player);
+					throw new LoginException();
+				}
+				player.setDisconnectListener(this::onPlayerDisconnected);
 			}
+		} catch (LoginException e) {
+			System.out.println(player_id + " Already logged in!");
+			throw e;
 		}
+		System.out.println(player_id + " Succesfully logged in!");
 	}
 
 	/**
@@ -205,51 +390,95 @@ public class Server implements IServer {
 	 */
 	@Override
 	public RemotePlayer getPlayer(String nickname) {
-		return players.get(nickname);
+		return sessions.getPlayer(nickname);
+	}
+
+	/**
+	 * Ritorna il giocatore associato al token di sessione fornito.
+	 * 
+	 * @param sessionToken
+	 *            token assegnato al giocatore durante il login.
+	 * @return il giocatore remoto associato (se trovato).
+	 */
+	@Override
+	public RemotePlayer getPlayerBySession(String sessionToken) {
+		return sessions.getPlayerBySession(sessionToken);
+	}
+
+	/**
+	 * Completa la ripresa della sessione di un giocatore che si e' ricollegato:
+	 * il giocatore resta nella propria Stanza e riceve lo stato completo della
+	 * partita in corso (vedi {@link Room#resumePlayer(RemotePlayer)}).
+	 * 
+	 * @param remotePlayer
+	 *            giocatore che ha ripreso la sessione.
+	 */
+	@Override
+	public void resumePlayer(RemotePlayer remotePlayer) {
+		remotePlayer.setOnline(true);
+		remotePlayer.touch();
+		System.out.println("[" + remotePlayer.getNome().toUpperCase() + "] Session resumed");
+		if (cluster != null)
+			cluster.setPlayerOnline(remotePlayer.getNome(), true);
+		Room room = remotePlayer.getRoom();
+		if (room != null)
+			room.resumePlayer(remotePlayer);
+	}
+
+	/**
+	 * Metodo invocato quando un giocatore di un nodo del cluster si disconnette
+	 * (vedi {@link RemotePlayer#markOffline()}): il giocatore non viene piu'
+	 * conteggiato nel carico del nodo finche' non riprende la sessione.
+	 * 
+	 * @param remotePlayer
+	 *            giocatore disconnesso.
+	 */
+	private void onPlayerDisconnected(RemotePlayer remotePlayer) {
+		if (cluster != null)
+			cluster.setPlayerOnline(remotePlayer.getNome(), false);
+	}
+
+	/**
+	 * Invia lo stato completo della partita in corso ad un giocatore il cui
+	 * Client ha perso un aggiornamento (vedi
+	 * {@link Room#resyncPlayer(RemotePlayer)}).
+	 * 
+	 * @param remotePlayer
+	 *            giocatore che ha richiesto lo stato completo.
+	 */
+	@Override
+	public void resyncPlayer(RemotePlayer remotePlayer) {
+		Room room = remotePlayer.getRoom();
+		if (room != null)
+			room.resyncPlayer(remotePlayer);
 	}
 
 	/**
-	 * Aggiunge il giocatore alla prima Stanza disponibile.
+	 * Aggiunge il giocatore alla Stanza aperta con meno posti liberi (vedi
+	 * {@link RoomDirectory}), oppure ad una nuova Stanza.
 	 * 
 	 * @param remotePlayer
 	 *            giocatore remoto da aggiungere.
 	 * @throws JoinRoomException
-	 *             se non � stata trovata alcuna stanza disponibile.
+	 *             se non e' stata trovata alcuna stanza disponibile (ed e'
+	 *             quindi stata creata una nuova Stanza).
 	 */
 	@Override
 	public void joinFirstAvailableRoom(RemotePlayer remotePlayer) throws JoinRoomException {
-		synchronized (ROOMS_MUTEX) {
+		try {
+			System.out.println("Trying joining it to a room...");
+			rooms.joinOpenRoom(remotePlayer);
+		} catch (RoomFullException e) {
 			try {
-				System.out.println("Trying joining it to a room...");
-				joinLastRoom(remotePlayer);
-			} catch (RoomFullException e) {
-				try {
-					createNewRoom(remotePlayer, MAX_ROOM_PLAYERS, MIN_ROOM_PLAYERS);
-					System.out.println("Succesfully created a room!");
-				} catch (CreateRoomException e1) {
-					// e1.printStackTrace();
-				}
-				throw new JoinRoomException(e);
+				createNewRoom(remotePlayer, MAX_ROOM_PLAYERS, MIN_ROOM_PLAYERS);
+				System.out.println("Succesfully created a room!");
+			} catch (CreateRoomException e1) {
+				// e1.printStackTrace();
 			}
-		}
-	}
-
-	/**
-	 * Aggiunge il giocatore alla prima Stanza disponibile (l'ultima della
-	 * lista).
-	 * 
-	 * @param player
-	 *            riferimento al giocatore che ha fatto la richiesta.
-	 * @throws RoomFullException
-	 *             se la Stanza e' non disponibile.
-	 */
-	private void joinLastRoom(RemotePlayer player) throws RoomFullException {
-		Room lastRoom = rooms.isEmpty() ? null : rooms.get(rooms.size() - 1);
-		if (lastRoom != null) {
-			lastRoom.joinPlayer(player);
-			player.setRoom(lastRoom);
-		} else {
-			throw new RoomFullException("No available room found!");
+			throw new JoinRoomException(e);
+		} finally {
+			if (cluster != null)
+				cluster.notifyLoadChanged();
 		}
 	}
 
@@ -266,33 +495,27 @@ public class Server implements IServer {
 	 */
 	@Override
 	public void createNewRoom(RemotePlayer remotePlayer, int maxPlayers, int minPlayers) throws CreateRoomException {
-		synchronized (ROOMS_MUTEX) {
-			boolean hasJoinRoom = false;
-			try {
-				joinLastRoom(remotePlayer);
-				hasJoinRoom = true;
-			} catch (RoomFullException e) {
-				System.err.println("No room has been created in the meanwhile, Player is going to create his room");
-			}
-			if (!hasJoinRoom) {
-				Room room = new Room(remotePlayer, maxPlayers, minPlayers);
-				rooms.add(room);
-				remotePlayer.setRoom(room);
-
-				try {
-					remotePlayer.onChatMessage(ID,
-							"You have succesfully created and joined to room #" + room.getRoomNumber() + "!");
-				} catch (NetworkException e) {
-					e.printStackTrace();
-				}
-			} else {
-				throw new CreateRoomException();
-			}
+		boolean hasJoinRoom = false;
+		try {
+			rooms.joinOpenRoom(remotePlayer);
+			hasJoinRoom = true;
+		} catch (RoomFullException e) {
+			System.err.println("No room has been created in the meanwhile, Player is going to create his room");
+		}
+		if (!hasJoinRoom) {
+			Room room = rooms.createRoom(remotePlayer, maxPlayers, minPlayers);
+			lobby.post(new ChatMessage(ID,
+					"You have succesfully created and joined to room #" + room.getRoomNumber() + "!", null,
+					remotePlayer));
+		} else {
+			throw new CreateRoomException();
 		}
 	}
 
 	/**
 	 * Invia un messaggio di chat a tutti i giocatori o un giocatore specifico.
+	 * Il messaggio viene solamente accodato: la consegna avviene sui Thread
+	 * della chat (vedi {@link ChatChannel}).
 	 * 
 	 * @param player
 	 *            MITTENTE del messaggio.
@@ -313,17 +536,13 @@ public class Server implements IServer {
 
 		/* Send a UNICAST message */
 		if (receiver != null) {
-			for (RemotePlayer remotePlayer : players.values()) {
-				if (receiver.equals(remotePlayer.getNome())) {
-					try {
-						remotePlayer.onChatMessage(author, message);
-					} catch (NetworkException e) {
-						e.printStackTrace();
-					}
-					return;
-				}
-			}
-			throw new PlayerNotFound();
+			RemotePlayer remotePlayer = sessions.getPlayer(receiver);
+			// Giocatore collegato ad un altro nodo del cluster
+			if (remotePlayer == null && cluster != null)
+				remotePlayer = cluster.getRemotePlayer(receiver);
+			if (remotePlayer == null)
+				throw new PlayerNotFound();
+			lobby.post(new ChatMessage(author, message, player, remotePlayer));
 		}
 		/* Send a BROADCAST message */
 		else {
@@ -334,14 +553,7 @@ public class Server implements IServer {
 				room.sendChatMessage(player, receiver, message);
 			// Altrimenti invio a tutti i giocatori connessi
 			else
-				players.entrySet().stream().filter(remotePlayer -> (remotePlayer.getValue() != player))
-						.forEach(remotePlayer -> {
-							try {
-								remotePlayer.getValue().onChatMessage(author, message);
-							} catch (NetworkException e) {
-								e.printStackTrace();
-							}
-						});
+				lobby.post(new ChatMessage(author, message, player, null));
 		}
 	}
 
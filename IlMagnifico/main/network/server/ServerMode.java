@@ -0,0 +1,25 @@
+package main.network.server;
+
+/**
+ * Modalita' di esecuzione del Server, selezionabile all'avvio (vedi
+ * {@link Server#main(String[])}).
+ */
+public enum ServerMode {
+
+	/**
+	 * Connessioni Socket gestite da pochi Thread non bloccanti (NIO), Stanze
+	 * gestite da Thread "classici".
+	 */
+	NIO,
+
+	/**
+	 * Un Thread "classico" per ogni connessione Socket e per ogni Stanza.
+	 */
+	THREAD,
+
+	/**
+	 * Un Thread virtuale per ogni connessione Socket e per ogni Stanza
+	 * (richiede Java 21 o successivo, altrimenti equivale a {@link #THREAD}).
+	 */
+	VIRTUAL
+}
@@ -0,0 +1,182 @@
+package main.network.server;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import main.util.Costants;
+
+/**
+ * Thread condivisi dal Server: un esecutore per le attivita' di lunga durata
+ * (connessioni Socket, partite, countdown) e un unico scheduler per i timer di
+ * tutte le Stanze. In modalita' {@link ServerMode#VIRTUAL} le attivita' vengono
+ * eseguite su Thread virtuali, cosi' che un singolo Server possa gestire
+ * migliaia di Stanze in attesa senza esaurire i Thread di sistema.
+ */
+public class ServerThreads {
+
+	/**
+	 * Scheduler condiviso da tutte le Stanze (sostituisce un {@link java.util.Timer} per
+	 * Stanza). Si limita a "svegliare" le attivita', che vengono poi eseguite
+	 * da {@link #execute(Runnable)}.
+	 */
+	public static final ScheduledExecutorService SCHEDULER = Executors
+			.newSingleThreadScheduledExecutor(daemonFactory("server-scheduler"));
+
+	/**
+	 * Esecutore dedicato alla consegna dei messaggi di chat (vedi
+	 * {@link main.network.server.game.ChatChannel}), separato da quello delle
+	 * connessioni e delle partite.
+	 */
+	private static final ExecutorService CHAT = Executors.newFixedThreadPool(Costants.CHAT_THREADS,
+			daemonFactory("server-chat"));
+
+	/**
+	 * Esecutore dedicato alle decisioni dei bot (vedi
+	 * {@link main.network.server.game.BotPlayer}): i bot di tutte le Stanze
+	 * non usano piu' di {@link Costants#BOT_THREADS} Thread.
+	 */
+	private static final ExecutorService BOTS = Executors.newFixedThreadPool(Costants.BOT_THREADS,
+			daemonFactory("server-bot"));
+
+	/**
+	 * Esecutore delle strategie dei bot, separato da {@link #BOTS}: il bot
+	 * attende la decisione per un tempo limitato, e una strategia bloccata
+	 * occupa solo uno dei {@link Costants#BOT_THREADS} Thread di questo
+	 * esecutore (le decisioni successive restano in coda, e i bot che le
+	 * attendono usano la strategia di riserva allo scadere del tempo).
+	 */
+	private static final ExecutorService BOT_DECISIONS = Executors.newFixedThreadPool(Costants.BOT_THREADS,
+			daemonFactory("server-bot-decision"));
+
+	/**
+	 * Modalita' di esecuzione corrente.
+	 */
+	private static ServerMode mode = ServerMode.NIO;
+
+	/**
+	 * Esecutore delle attivita' (vedi {@link #setMode(ServerMode)}).
+	 */
+	private static ExecutorService executor = Executors.newCachedThreadPool(daemonFactory("server-worker"));
+
+	/**
+	 * Costruttore privato.
+	 */
+	private ServerThreads() {
+		// Questa classe non e' stata progettata per essere istanziata.
+	}
+
+	/**
+	 * Imposta la modalita' di esecuzione. Le attivita' gia' avviate non
+	 * vengono spostate.
+	 *
+	 * @param serverMode
+	 *            modalita' richiesta.
+	 * @return la modalita' effettivamente usata ({@link ServerMode#VIRTUAL}
+	 *         non e' disponibile prima di Java 21).
+	 */
+	public static synchronized ServerMode setMode(ServerMode serverMode) {
+		ExecutorService virtual = serverMode == ServerMode.VIRTUAL ? newVirtualThreadExecutor() : null;
+		if (serverMode == ServerMode.VIRTUAL && virtual == null) {
+			System.err.println("Virtual threads are not supported by this JVM, using platform threads");
+			serverMode = ServerMode.THREAD;
+		}
+		if (virtual != null) {
+			executor = virtual;
+		} else if (mode == ServerMode.VIRTUAL) {
+			executor = Executors.newCachedThreadPool(daemonFactory("server-worker"));
+		}
+		mode = serverMode;
+		return mode;
+	}
+
+	/**
+	 * Ritorna la modalita' di esecuzione corrente.
+	 *
+	 * @return mode
+	 */
+	public static synchronized ServerMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Esegue un'attivita' su un Thread dedicato (virtuale o meno, a seconda
+	 * della modalita' corrente).
+	 *
+	 * @param task
+	 *            attivita' da eseguire.
+	 */
+	public static void execute(Runnable task) {
+		ExecutorService current;
+		synchronized (ServerThreads.class) {
+			current = executor;
+		}
+		current.execute(task);
+	}
+
+	/**
+	 * Esegue un'attivita' di consegna dei messaggi di chat.
+	 *
+	 * @param task
+	 *            attivita' da eseguire.
+	 */
+	public static void executeChat(Runnable task) {
+		CHAT.execute(task);
+	}
+
+	/**
+	 * Esegue un'attivita' di un bot.
+	 *
+	 * @param task
+	 *            attivita' da eseguire.
+	 */
+	public static void executeBot(Runnable task) {
+		BOTS.execute(task);
+	}
+
+	/**
+	 * Esegue la decisione di un bot (vedi {@link #BOT_DECISIONS}).
+	 *
+	 * @param decision
+	 *            decisione da eseguire.
+	 * @return il risultato della decisione.
+	 */
+	public static <T> Future<T> submitBotDecision(Callable<T> decision) {
+		return BOT_DECISIONS.submit(decision);
+	}
+
+	/**
+	 * Crea (se supportato dalla JVM) un esecutore che avvia un Thread virtuale
+	 * per ogni attivita'.
+	 *
+	 * @return l'esecutore, oppure null se i Thread virtuali non sono
+	 *         supportati.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Crea una "factory" di Thread demone con il nome indicato.
+	 *
+	 * @param name
+	 *            prefisso del nome dei Thread.
+	 * @return la factory.
+	 */
+	private static ThreadFactory daemonFactory(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return task -> {
+			Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
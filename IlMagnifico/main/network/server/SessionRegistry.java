@@ -0,0 +1,139 @@
+package main.network.server;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import main.network.exceptions.LoginException;
+import main.network.server.game.RemotePlayer;
+import main.util.Costants;
+
+/**
+ * Registro dei giocatori connessi, condiviso dai server Socket e RMI. Ogni
+ * giocatore e' raggiungibile in tempo costante sia tramite il nickname sia
+ * tramite il token di sessione assegnato al login. Le mappe sono concorrenti
+ * (con lock distribuiti sui singoli "bucket"), per cui login contemporanei con
+ * nickname diversi non si bloccano a vicenda e le letture non richiedono
+ * alcun lock.
+ */
+public class SessionRegistry {
+
+	/**
+	 * Giocatori connessi <nickname, RemotePlayer>.
+	 */
+	private final ConcurrentHashMap<String, RemotePlayer> playersByNickname;
+
+	/**
+	 * Giocatori connessi <token di sessione, RemotePlayer>.
+	 */
+	private final ConcurrentHashMap<String, RemotePlayer> playersBySession;
+
+	/**
+	 * Costruttore.
+	 */
+	public SessionRegistry() {
+		playersByNickname = new ConcurrentHashMap<>();
+		playersBySession = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Registra il giocatore con il nickname fornito e gli assegna un nuovo
+	 * token di sessione univoco.
+	 *
+	 * @param nickname
+	 *            nome con cui il giocatore vorrebbe essere identificato sul
+	 *            server.
+	 * @param player
+	 *            giocatore che ha effettuato la richiesta.
+	 * @return il token di sessione assegnato al giocatore.
+	 * @throws LoginException
+	 *             se il nickname e' vuoto, e' riservato ai bot (vedi
+	 *             {@link Costants#BOT_NAME}) o se esiste gia' un altro
+	 *             giocatore con il nome fornito.
+	 */
+	public String login(String nickname, RemotePlayer player) throws LoginException {
+		if (nickname == null || nickname.isEmpty() || nickname.startsWith(Costants.BOT_NAME)
+				|| playersByNickname.putIfAbsent(nickname, player) != null)
+			throw new LoginException();
+
+		player.setNome(nickname);
+		String sessionToken = UUID.randomUUID().toString();
+		player.setSessionToken(sessionToken);
+		playersBySession.put(sessionToken, player);
+		return sessionToken;
+	}
+
+	/**
+	 * Registra un giocatore ripristinato dal journal di una partita (vedi
+	 * {@link main.network.server.game.GameJournal}) con il nickname e il
+	 * token di sessione che aveva prima del riavvio del Server, cosi' che
+	 * possa riprendere la sessione.
+	 *
+	 * @param player
+	 *            giocatore ripristinato.
+	 * @return "True" se il giocatore e' stato registrato, "False" se il
+	 *         nickname e' gia' in uso.
+	 */
+	public boolean restore(RemotePlayer player) {
+		if (playersByNickname.putIfAbsent(player.getNome(), player) != null)
+			return false;
+		if (player.getSessionToken() != null)
+			playersBySession.put(player.getSessionToken(), player);
+		return true;
+	}
+
+	/**
+	 * Annulla il login del giocatore (es. se il nickname non puo' essere
+	 * riservato sull'intero cluster), liberandone il nickname e il token di
+	 * sessione.
+	 *
+	 * @param player
+	 *            giocatore registrato con {@link #login(String, RemotePlayer)}.
+	 */
+	public void logout(RemotePlayer player) {
+		if (player.getNome() != null)
+			playersByNickname.remove(player.getNome(), player);
+		if (player.getSessionToken() != null)
+			playersBySession.remove(player.getSessionToken(), player);
+	}
+
+	/**
+	 * Ritorna il giocatore associato al nome richiesto.
+	 *
+	 * @param nickname
+	 *            nome associato al giocatore.
+	 * @return il giocatore (null se non trovato).
+	 */
+	public RemotePlayer getPlayer(String nickname) {
+		return nickname == null ? null : playersByNickname.get(nickname);
+	}
+
+	/**
+	 * Ritorna il giocatore associato al token di sessione fornito.
+	 *
+	 * @param sessionToken
+	 *            token assegnato al giocatore durante il login.
+	 * @return il giocatore (null se non trovato).
+	 */
+	public RemotePlayer getPlayerBySession(String sessionToken) {
+		return sessionToken == null ? null : playersBySession.get(sessionToken);
+	}
+
+	/**
+	 * Ritorna una vista (non bloccante) dei giocatori connessi.
+	 *
+	 * @return giocatori connessi.
+	 */
+	public Collection<RemotePlayer> getPlayers() {
+		return playersByNickname.values();
+	}
+
+	/**
+	 * Ritorna il numero di giocatori connessi.
+	 *
+	 * @return numero di giocatori.
+	 */
+	public int size() {
+		return playersByNickname.size();
+	}
+}
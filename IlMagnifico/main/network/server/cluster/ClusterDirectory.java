@@ -0,0 +1,328 @@
+package main.network.server.cluster;
+
+import java.io.IOException;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import main.network.NetworkException;
+import main.network.server.Server;
+import main.network.server.ServerException;
+import main.util.Costants;
+
+/**
+ * Elenco dei nodi del cluster: i nuovi giocatori vengono instradati verso il
+ * nodo meno carico (vedi {@link #route()}), dove eseguono il login e vengono
+ * aggiunti ad una Stanza; i nickname sono univoci sull'intero cluster e i
+ * messaggi di chat privati raggiungono i giocatori collegati agli altri nodi
+ * (vedi {@link #locatePlayer(String)}). L'elenco non gestisce alcuna partita:
+ * le Stanze restano sui singoli nodi.
+ */
+public class ClusterDirectory implements ClusterDirectoryInterface {
+
+	/**
+	 * Nome con cui l'elenco viene registrato nel Registry RMI.
+	 */
+	public static final String NAME = "ClusterDirectory";
+
+	/**
+	 * Numero massimo di giocatori per Stanza (uguale su tutti i nodi).
+	 */
+	private static final int MAX_ROOM_PLAYERS = Server.MAX_ROOM_PLAYERS;
+
+	/**
+	 * Tempo massimo (in nanosecondi) senza aggiornamenti del carico prima che
+	 * un nodo venga escluso dall'instradamento.
+	 */
+	private static final long NODE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(Costants.CLUSTER_NODE_TIMEOUT);
+
+	/**
+	 * Tempo massimo (in nanosecondi) entro cui un giocatore instradato verso
+	 * un nodo deve eseguire il login, dopo il quale non viene piu' conteggiato
+	 * sul nodo (es. Client chiuso prima del login).
+	 */
+	private static final long ROUTE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(Costants.CLUSTER_ROUTE_TIMEOUT);
+
+	/**
+	 * Stato di un nodo visto dall'elenco.
+	 */
+	private static class NodeState {
+
+		private final ClusterNodeInfo info;
+
+		private final ClusterNodeInterface node;
+
+		/**
+		 * Giocatori online che hanno eseguito il login sul nodo (vedi
+		 * {@link ClusterDirectory#reservePlayer(String, String)} e
+		 * {@link ClusterDirectory#setPlayerOnline(String, String, boolean)}).
+		 */
+		private int reserved;
+
+		/**
+		 * Istanti in cui sono stati instradati verso il nodo i giocatori che
+		 * non hanno ancora eseguito il login, in ordine (vedi
+		 * {@link #expirePending(long)}).
+		 */
+		private final ArrayDeque<Long> pending = new ArrayDeque<>();
+
+		/**
+		 * Giocatori e posti liberi comunicati con l'ultimo aggiornamento del
+		 * carico.
+		 */
+		private int reportedPlayers;
+
+		private int reportedOpenSeats;
+
+		/**
+		 * Istante dell'ultimo aggiornamento del carico.
+		 */
+		private long lastReport;
+
+		private NodeState(ClusterNodeInfo info, ClusterNodeInterface node) {
+			this.info = info;
+			this.node = node;
+			this.lastReport = System.nanoTime();
+		}
+
+		/**
+		 * Ritorna i giocatori collegati o instradati verso il nodo.
+		 */
+		private int getPlayers() {
+			return reserved + pending.size();
+		}
+
+		/**
+		 * Rimuove i giocatori instradati verso il nodo da piu' di
+		 * {@link ClusterDirectory#ROUTE_TIMEOUT} senza eseguire il login.
+		 */
+		private void expirePending(long now) {
+			while (!pending.isEmpty() && now - pending.peekFirst() > ROUTE_TIMEOUT)
+				pending.pollFirst();
+		}
+
+		/**
+		 * Stima i posti liberi nelle Stanze aperte del nodo: ai posti
+		 * comunicati con l'ultimo aggiornamento vengono tolti quelli occupati
+		 * dai giocatori arrivati in seguito (che riempiono le Stanze aperte e
+		 * poi ne creano di nuove).
+		 */
+		private int getOpenSeats() {
+			int arrived = getPlayers() - reportedPlayers;
+			if (arrived <= reportedOpenSeats)
+				return reportedOpenSeats - Math.max(0, arrived);
+			int seats = (arrived - reportedOpenSeats) % MAX_ROOM_PLAYERS;
+			return seats == 0 ? 0 : MAX_ROOM_PLAYERS - seats;
+		}
+	}
+
+	/**
+	 * MUTEX per l'accesso allo stato dei nodi.
+	 */
+	private final Object NODES_MUTEX = new Object();
+
+	/**
+	 * Nodi registrati <nome, stato>, nell'ordine di registrazione.
+	 */
+	private final LinkedHashMap<String, NodeState> nodes = new LinkedHashMap<>();
+
+	/**
+	 * Nodo a cui e' collegato ogni giocatore <nickname, nome del nodo>.
+	 */
+	private final ConcurrentHashMap<String, String> players = new ConcurrentHashMap<>();
+
+	/**
+	 * Giocatori disconnessi dal proprio nodo: il nickname resta riservato
+	 * finche' la sessione puo' essere ripresa, ma il giocatore non viene
+	 * conteggiato nel carico del nodo (accesso tramite {@link #NODES_MUTEX}).
+	 */
+	private final Set<String> offline = new HashSet<>();
+
+	/**
+	 * Avvia l'elenco esportandolo nel Registry RMI alla porta indicata.
+	 * 
+	 * @param port
+	 *            porta del Registry.
+	 * @throws ServerException
+	 *             se l'elenco non puo' essere esportato.
+	 */
+	public void start(int port) throws ServerException {
+		try {
+			Registry registry;
+			try {
+				registry = LocateRegistry.createRegistry(port);
+			} catch (RemoteException e) {
+				registry = LocateRegistry.getRegistry(port);
+			}
+			registry.rebind(NAME, UnicastRemoteObject.exportObject(this, 0));
+		} catch (RemoteException e) {
+			throw new ServerException("Cluster directory not loaded", e);
+		}
+	}
+
+	/**
+	 * Metodo statico per eseguire l'elenco dei nodi.
+	 * 
+	 * @param args
+	 *            [porta del Registry]
+	 */
+	public static void main(String[] args) {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : Costants.CLUSTER_DIRECTORY_PORT;
+		try {
+			new ClusterDirectory().start(port);
+			System.out.println("Cluster directory listening at: 127.0.0.1 (rmi: " + port + ")");
+		} catch (ServerException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Chiede all'elenco dei nodi il nodo a cui collegarsi (usato dai Client).
+	 * 
+	 * @param host
+	 *            indirizzo dell'elenco.
+	 * @param port
+	 *            porta del Registry dell'elenco.
+	 * @return indirizzo del nodo scelto.
+	 * @throws NetworkException
+	 *             se l'elenco non e' raggiungibile o non e' attivo alcun nodo.
+	 */
+	public static ClusterNodeInfo locateNode(String host, int port) throws NetworkException {
+		try {
+			Registry registry = LocateRegistry.getRegistry(host, port);
+			return ((ClusterDirectoryInterface) registry.lookup(NAME)).route();
+		} catch (NetworkException e) {
+			throw e;
+		} catch (IOException | NotBoundException e) {
+			throw new NetworkException(e);
+		}
+	}
+
+	/**
+	 * Ritorna i nodi attualmente registrati.
+	 * 
+	 * @return indirizzi dei nodi.
+	 */
+	public List<ClusterNodeInfo> getNodes() {
+		synchronized (NODES_MUTEX) {
+			List<ClusterNodeInfo> list = new ArrayList<>();
+			for (NodeState state : nodes.values())
+				list.add(state.info);
+			return list;
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////
+	// Metodi invocati dai nodi e dai Client (vedi ClusterDirectoryInterface)
+	/////////////////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public void registerNode(ClusterNodeInfo info, ClusterNodeInterface node) {
+		synchronized (NODES_MUTEX) {
+			nodes.put(info.getNodeId(), new NodeState(info, node));
+		}
+		System.out.println("[CLUSTER] Node registered: " + info);
+	}
+
+	@Override
+	public void reportLoad(String nodeId, int players, int openSeats) {
+		synchronized (NODES_MUTEX) {
+			NodeState state = nodes.get(nodeId);
+			if (state != null) {
+				state.reportedPlayers = players;
+				state.reportedOpenSeats = openSeats;
+				state.lastReport = System.nanoTime();
+			}
+		}
+	}
+
+	/**
+	 * Sceglie il nodo attivo con posti liberi in una Stanza aperta (cosi' che
+	 * le Stanze si riempiano e le partite inizino) e, a parita', con meno
+	 * giocatori; se nessun nodo ha posti liberi sceglie il nodo con meno
+	 * giocatori, dove verra' creata una nuova Stanza. Il giocatore instradato
+	 * viene conteggiato sul nodo scelto finche' non esegue il login (al piu'
+	 * per {@link Costants#CLUSTER_ROUTE_TIMEOUT} millisecondi).
+	 * 
+	 * @return indirizzo del nodo scelto.
+	 * @throws NetworkException
+	 *             se non e' attivo alcun nodo.
+	 */
+	@Override
+	public ClusterNodeInfo route() throws NetworkException {
+		long now = System.nanoTime();
+		synchronized (NODES_MUTEX) {
+			NodeState best = null;
+			for (NodeState state : nodes.values()) {
+				state.expirePending(now);
+				if (now - state.lastReport > NODE_TIMEOUT)
+					continue;
+				if (best == null || isLessLoaded(state, best))
+					best = state;
+			}
+			if (best == null)
+				throw new NetworkException("No cluster node available");
+
+			best.pending.addLast(now);
+			return best.info;
+		}
+	}
+
+	/**
+	 * Confronta il carico di due nodi (vedi {@link #route()}).
+	 */
+	private static boolean isLessLoaded(NodeState state, NodeState other) {
+		boolean open = state.getOpenSeats() > 0;
+		if (open != other.getOpenSeats() > 0)
+			return open;
+		return state.getPlayers() < other.getPlayers();
+	}
+
+	@Override
+	public boolean reservePlayer(String nickname, String nodeId) {
+		if (nickname == null || nickname.isEmpty() || players.putIfAbsent(nickname, nodeId) != null)
+			return false;
+		synchronized (NODES_MUTEX) {
+			NodeState state = nodes.get(nodeId);
+			if (state != null) {
+				state.reserved++;
+				state.pending.pollFirst();
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void setPlayerOnline(String nickname, String nodeId, boolean online) {
+		if (!nodeId.equals(players.get(nickname)))
+			return;
+		synchronized (NODES_MUTEX) {
+			NodeState state = nodes.get(nodeId);
+			if (online ? offline.remove(nickname) : offline.add(nickname)) {
+				if (state != null)
+					state.reserved = Math.max(0, state.reserved + (online ? 1 : -1));
+			}
+		}
+	}
+
+	@Override
+	public ClusterNodeInterface locatePlayer(String nickname) {
+		String nodeId = players.get(nickname);
+		if (nodeId == null)
+			return null;
+		synchronized (NODES_MUTEX) {
+			NodeState state = nodes.get(nodeId);
+			return state == null ? null : state.node;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package main.network.server.cluster;
+
+import java.io.IOException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+import main.network.NetworkException;
+
+/**
+ * Interfaccia remota dell'elenco dei nodi del cluster (vedi
+ * {@link ClusterDirectory}), usata dai nodi e dai Client.
+ */
+public interface ClusterDirectoryInterface extends Remote {
+
+	/**
+	 * Registra un nodo nel cluster.
+	 * 
+	 * @param info
+	 *            indirizzo del nodo.
+	 * @param node
+	 *            interfaccia remota del nodo.
+	 * @throws RemoteException
+	 *             se l'elenco non e' raggiungibile.
+	 */
+	void registerNode(ClusterNodeInfo info, ClusterNodeInterface node) throws RemoteException;
+
+	/**
+	 * Aggiorna il carico di un nodo (inviato periodicamente da ogni nodo, che
+	 * viene considerato attivo finche' continua ad inviarlo).
+	 * 
+	 * @param nodeId
+	 *            nome del nodo.
+	 * @param players
+	 *            giocatori collegati al nodo.
+	 * @param openSeats
+	 *            posti liberi nelle Stanze aperte del nodo.
+	 * @throws RemoteException
+	 *             se l'elenco non e' raggiungibile.
+	 */
+	void reportLoad(String nodeId, int players, int openSeats) throws RemoteException;
+
+	/**
+	 * Sceglie il nodo a cui un nuovo giocatore deve collegarsi (login e
+	 * assegnazione della Stanza).
+	 * 
+	 * @return indirizzo del nodo scelto.
+	 * @throws NetworkException
+	 *             se non e' attivo alcun nodo.
+	 * @throws RemoteException
+	 *             se l'elenco non e' raggiungibile.
+	 */
+	ClusterNodeInfo route() throws IOException;
+
+	/**
+	 * Riserva un nickname per l'intero cluster.
+	 * 
+	 * @param nickname
+	 *            nome richiesto dal giocatore.
+	 * @param nodeId
+	 *            nodo a cui e' collegato il giocatore.
+	 * @return "True" se il nickname non era ancora stato usato.
+	 * @throws RemoteException
+	 *             se l'elenco non e' raggiungibile.
+	 */
+	boolean reservePlayer(String nickname, String nodeId) throws RemoteException;
+
+	/**
+	 * Aggiorna lo stato della connessione di un giocatore collegato ad un nodo:
+	 * un giocatore disconnesso non viene conteggiato nel carico del nodo, ma il
+	 * suo nickname resta riservato finche' la sessione puo' essere ripresa.
+	 * 
+	 * @param nickname
+	 *            nome del giocatore.
+	 * @param nodeId
+	 *            nodo a cui e' collegato il giocatore.
+	 * @param online
+	 *            "True" se il giocatore ha ripreso la sessione, "False" se si e'
+	 *            disconnesso.
+	 * @throws RemoteException
+	 *             se l'elenco non e' raggiungibile.
+	 */
+	void setPlayerOnline(String nickname, String nodeId, boolean online) throws RemoteException;
+
+	/**
+	 * Ritorna il nodo a cui e' collegato un giocatore.
+	 * 
+	 * @param nickname
+	 *            nome del giocatore.
+	 * @return interfaccia remota del nodo (null se il giocatore non e' stato
+	 *         trovato).
+	 * @throws RemoteException
+	 *             se l'elenco non e' raggiungibile.
+	 */
+	ClusterNodeInterface locatePlayer(String nickname) throws RemoteException;
+}
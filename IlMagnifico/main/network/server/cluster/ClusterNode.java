@@ -0,0 +1,250 @@
+package main.network.server.cluster;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import main.network.exceptions.PlayerNotFound;
+import main.network.server.Server;
+import main.network.server.ServerException;
+import main.network.server.ServerMode;
+import main.network.server.ServerThreads;
+import main.network.server.game.RemotePlayer;
+import main.util.Costants;
+
+/**
+ * Nodo del cluster: un {@link Server} che si registra presso l'elenco dei nodi
+ * (vedi {@link ClusterDirectory}), gli comunica periodicamente il proprio
+ * carico, riserva i nickname sull'intero cluster e inoltra i messaggi di chat
+ * privati ai giocatori collegati agli altri nodi.
+ */
+public class ClusterNode implements ClusterNodeInterface {
+
+	/**
+	 * Server gestito dal nodo.
+	 */
+	private final Server server;
+
+	/**
+	 * Indirizzo del nodo.
+	 */
+	private final ClusterNodeInfo info;
+
+	/**
+	 * Interfaccia remota dell'elenco dei nodi.
+	 */
+	private ClusterDirectoryInterface directory;
+
+	/**
+	 * Giocatori collegati agli altri nodi a cui sono stati inviati messaggi
+	 * <nickname, giocatore> (un giocatore non cambia nodo).
+	 */
+	private final ConcurrentHashMap<String, ClusterPlayer> remotePlayers = new ConcurrentHashMap<>();
+
+	/**
+	 * Stato della connessione dei giocatori del nodo non ancora comunicato
+	 * all'elenco dei nodi <nickname, online> (vedi
+	 * {@link #setPlayerOnline(String, boolean)}).
+	 */
+	private final ConcurrentHashMap<String, Boolean> playerStatus = new ConcurrentHashMap<>();
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param server
+	 *            server gestito dal nodo.
+	 * @param info
+	 *            indirizzo del nodo.
+	 */
+	public ClusterNode(Server server, ClusterNodeInfo info) {
+		this.server = server;
+		this.info = info;
+	}
+
+	/**
+	 * Registra il nodo presso l'elenco dei nodi e avvia l'invio periodico del
+	 * carico (vedi {@link ServerThreads#SCHEDULER}).
+	 * 
+	 * @param host
+	 *            indirizzo dell'elenco dei nodi.
+	 * @param port
+	 *            porta del Registry dell'elenco dei nodi.
+	 * @throws ServerException
+	 *             se l'elenco non e' raggiungibile.
+	 */
+	public void join(String host, int port) throws ServerException {
+		try {
+			directory = (ClusterDirectoryInterface) LocateRegistry.getRegistry(host, port)
+					.lookup(ClusterDirectory.NAME);
+			ClusterNodeInterface stub = (ClusterNodeInterface) UnicastRemoteObject.exportObject(this, 0);
+			server.setCluster(this);
+			directory.registerNode(info, stub);
+		} catch (RemoteException | NotBoundException e) {
+			throw new ServerException("Cannot join cluster", e);
+		}
+		ServerThreads.SCHEDULER.scheduleAtFixedRate(() -> ServerThreads.execute(this::reportLoad),
+				Costants.CLUSTER_REPORT_PERIOD, Costants.CLUSTER_REPORT_PERIOD, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Metodo statico per eseguire un nodo del cluster.
+	 * 
+	 * @param args
+	 *            [numero del nodo [indirizzo e porta dell'elenco dei nodi
+	 *            [porta Socket, porta RMI]]]: le porte predefinite del nodo
+	 *            sono quelle del Server spostate di
+	 *            {@link Costants#CLUSTER_PORT_STEP} per ogni nodo.
+	 */
+	public static void main(String[] args) {
+		int index = 1;
+		String directoryHost = Costants.SERVER_ADDRESS;
+		int directoryPort = Costants.CLUSTER_DIRECTORY_PORT;
+		int socketPort, rmiPort;
+		try {
+			if (args.length > 0)
+				index = Integer.parseInt(args[0]);
+			if (args.length > 2) {
+				directoryHost = args[1];
+				directoryPort = Integer.parseInt(args[2]);
+			}
+			socketPort = Server.SOCKET_PORT + index * Costants.CLUSTER_PORT_STEP;
+			rmiPort = Server.RMI_PORT + index * Costants.CLUSTER_PORT_STEP;
+			if (args.length > 4) {
+				socketPort = Integer.parseInt(args[3]);
+				rmiPort = Integer.parseInt(args[4]);
+			}
+		} catch (NumberFormatException e) {
+			System.out.println("Proper usage is: [nodeIndex [directoryHost directoryPort [socketPort rmiPort]]]");
+			return;
+		}
+
+		try {
+			Server server = new Server(ServerMode.NIO);
+			server.startServer(socketPort, rmiPort);
+			ClusterNode node = new ClusterNode(server,
+					new ClusterNodeInfo("node" + index, Costants.SERVER_ADDRESS, socketPort, rmiPort));
+			node.join(directoryHost, directoryPort);
+			System.out.println("Cluster node listening at: " + node.info);
+		} catch (ServerException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Invia all'elenco dei nodi il carico attuale del nodo. Gli invii avvengono
+	 * uno alla volta, cosi' che l'ultimo carico ricevuto dall'elenco sia anche
+	 * il piu' recente; vengono conteggiati solamente i giocatori gia' entrati
+	 * in una Stanza, coerenti con i posti liberi comunicati.
+	 */
+	private synchronized void reportLoad() {
+		try {
+			directory.reportLoad(info.getNodeId(), server.getSeatedPlayerCount(), server.getOpenSeats());
+		} catch (RemoteException e) {
+			System.err.println("[CLUSTER] Cannot report load (" + e.getMessage() + ")");
+		}
+	}
+
+	/**
+	 * Invia all'elenco dei nodi il carico attuale del nodo senza attendere
+	 * l'aggiornamento periodico (invocato dopo che un giocatore e' entrato in
+	 * una Stanza, cosi' che giocatori e posti liberi comunicati siano
+	 * coerenti).
+	 */
+	public void notifyLoadChanged() {
+		ServerThreads.execute(this::reportLoad);
+	}
+
+	/**
+	 * Riserva un nickname sull'intero cluster (invocato al login, dopo il
+	 * controllo sul nodo). Se l'elenco dei nodi non e' raggiungibile il
+	 * nickname viene controllato solamente sul nodo, cosi' che il nodo
+	 * continui ad accettare giocatori: in questo caso lo stesso nickname puo'
+	 * essere usato da giocatori collegati a nodi diversi.
+	 * 
+	 * @param nickname
+	 *            nome richiesto dal giocatore.
+	 * @return "True" se il nickname puo' essere usato.
+	 */
+	public boolean reservePlayer(String nickname) {
+		try {
+			return directory.reservePlayer(nickname, info.getNodeId());
+		} catch (RemoteException e) {
+			System.err.println("[CLUSTER] Cannot reserve nickname (" + e.getMessage() + ")");
+			return true;
+		}
+	}
+
+	/**
+	 * Comunica all'elenco dei nodi che un giocatore del nodo si e' disconnesso
+	 * o ha ripreso la sessione, cosi' che venga conteggiato nel carico del
+	 * nodo solamente se online. L'invio avviene fuori dal Thread chiamante (es.
+	 * l'EventLoop che ha rilevato la disconnessione).
+	 * 
+	 * @param nickname
+	 *            nome del giocatore.
+	 * @param online
+	 *            "True" se il giocatore e' online.
+	 */
+	public void setPlayerOnline(String nickname, boolean online) {
+		playerStatus.put(nickname, online);
+		ServerThreads.execute(() -> sendPlayerStatus(nickname));
+	}
+
+	/**
+	 * Invia all'elenco dei nodi l'ultimo stato della connessione del giocatore
+	 * (se non e' gia' stato inviato): gli invii avvengono uno alla volta, cosi'
+	 * che una disconnessione seguita da una ripresa della sessione non arrivi
+	 * all'elenco in ordine inverso.
+	 */
+	private synchronized void sendPlayerStatus(String nickname) {
+		Boolean online = playerStatus.remove(nickname);
+		if (online == null)
+			return;
+		try {
+			directory.setPlayerOnline(nickname, info.getNodeId(), online);
+		} catch (RemoteException e) {
+			System.err.println("[CLUSTER] Cannot update player status (" + e.getMessage() + ")");
+		}
+	}
+
+	/**
+	 * Ritorna un giocatore collegato ad un altro nodo del cluster.
+	 * 
+	 * @param nickname
+	 *            nome del giocatore.
+	 * @return il giocatore (null se non e' collegato ad alcun nodo).
+	 */
+	public RemotePlayer getRemotePlayer(String nickname) {
+		ClusterPlayer player = remotePlayers.get(nickname);
+		if (player != null)
+			return player;
+		try {
+			ClusterNodeInterface node = directory.locatePlayer(nickname);
+			if (node == null)
+				return null;
+			player = new ClusterPlayer(nickname, node);
+			ClusterPlayer previous = remotePlayers.putIfAbsent(nickname, player);
+			return previous != null ? previous : player;
+		} catch (RemoteException e) {
+			System.err.println("[CLUSTER] Cannot locate player (" + e.getMessage() + ")");
+			return null;
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////
+	// Metodi invocati dagli altri nodi (vedi ClusterNodeInterface)
+	/////////////////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public String getNodeId() {
+		return info.getNodeId();
+	}
+
+	@Override
+	public void deliverChatMessage(String author, String receiver, String message) throws PlayerNotFound {
+		server.deliverChatMessage(author, receiver, message);
+	}
+}
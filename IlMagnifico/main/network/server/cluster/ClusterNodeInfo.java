@@ -0,0 +1,76 @@
+package main.network.server.cluster;
+
+import java.io.Serializable;
+
+/**
+ * Indirizzo di un nodo del cluster (vedi {@link ClusterNode}): e' il risultato
+ * dell'instradamento di un nuovo giocatore (vedi
+ * {@link ClusterDirectoryInterface#route()}).
+ */
+public class ClusterNodeInfo implements Serializable {
+
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = 4317201915563728491L;
+
+	/**
+	 * Nome che identifica il nodo nel cluster.
+	 */
+	private final String nodeId;
+
+	/**
+	 * Indirizzo del nodo.
+	 */
+	private final String host;
+
+	/**
+	 * Porta del server Socket del nodo.
+	 */
+	private final int socketPort;
+
+	/**
+	 * Porta del server RMI del nodo.
+	 */
+	private final int rmiPort;
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param nodeId
+	 *            nome che identifica il nodo nel cluster.
+	 * @param host
+	 *            indirizzo del nodo.
+	 * @param socketPort
+	 *            porta del server Socket del nodo.
+	 * @param rmiPort
+	 *            porta del server RMI del nodo.
+	 */
+	public ClusterNodeInfo(String nodeId, String host, int socketPort, int rmiPort) {
+		this.nodeId = nodeId;
+		this.host = host;
+		this.socketPort = socketPort;
+		this.rmiPort = rmiPort;
+	}
+
+	public String getNodeId() {
+		return this.nodeId;
+	}
+
+	public String getHost() {
+		return this.host;
+	}
+
+	public int getSocketPort() {
+		return this.socketPort;
+	}
+
+	public int getRmiPort() {
+		return this.rmiPort;
+	}
+
+	@Override
+	public String toString() {
+		return nodeId + " (" + host + ", socket: " + socketPort + ", rmi: " + rmiPort + ")";
+	}
+}
@@ -0,0 +1,38 @@
+package main.network.server.cluster;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+import main.network.exceptions.PlayerNotFound;
+
+/**
+ * Interfaccia remota di un nodo del cluster, usata dagli altri nodi (vedi
+ * {@link ClusterNode}).
+ */
+public interface ClusterNodeInterface extends Remote {
+
+	/**
+	 * Ritorna il nome che identifica il nodo nel cluster.
+	 * 
+	 * @return nome del nodo.
+	 * @throws RemoteException
+	 *             se il nodo non e' raggiungibile.
+	 */
+	String getNodeId() throws RemoteException;
+
+	/**
+	 * Consegna un messaggio di chat privato ad un giocatore collegato al nodo.
+	 * 
+	 * @param author
+	 *            nome del MITTENTE del messaggio (collegato ad un altro nodo).
+	 * @param receiver
+	 *            nome del DESTINATARIO del messaggio.
+	 * @param message
+	 *            messaggio da inviare.
+	 * @throws PlayerNotFound
+	 *             se il destinatario non e' collegato al nodo.
+	 * @throws RemoteException
+	 *             se il nodo non e' raggiungibile.
+	 */
+	void deliverChatMessage(String author, String receiver, String message) throws RemoteException, PlayerNotFound;
+}
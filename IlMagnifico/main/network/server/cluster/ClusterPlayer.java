@@ -0,0 +1,79 @@
+package main.network.server.cluster;
+
+import java.rmi.RemoteException;
+
+import main.network.NetworkException;
+import main.network.exceptions.PlayerNotFound;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.UpdateStats;
+
+/**
+ * Giocatore collegato ad un altro nodo del cluster: i messaggi di chat privati
+ * inviati al giocatore vengono inoltrati al suo nodo (vedi
+ * {@link ClusterNodeInterface#deliverChatMessage}), attraverso il normale
+ * canale della chat del Server (e quindi nell'ordine in cui sono stati
+ * inviati).
+ */
+class ClusterPlayer extends RemotePlayer {
+
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = -3032604806335419722L;
+
+	/**
+	 * Interfaccia remota del nodo a cui e' collegato il giocatore.
+	 */
+	private final transient ClusterNodeInterface node;
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param nickname
+	 *            nome del giocatore.
+	 * @param node
+	 *            nodo a cui e' collegato il giocatore.
+	 */
+	ClusterPlayer(String nickname, ClusterNodeInterface node) {
+		this.node = node;
+		setNome(nickname);
+	}
+
+	/**
+	 * Inoltra un messaggio di chat al nodo del giocatore.
+	 * 
+	 * @param author
+	 *            nome del giocatore MITTENTE del messaggio.
+	 * @param message
+	 *            messaggio da inviare.
+	 * @throws NetworkException
+	 *             se il nodo non e' raggiungibile o il giocatore non e' piu'
+	 *             collegato al nodo.
+	 */
+	@Override
+	public void onChatMessage(String author, String message) throws NetworkException {
+		try {
+			node.deliverChatMessage(author, getNome(), message);
+		} catch (PlayerNotFound e) {
+			throw e;
+		} catch (RemoteException e) {
+			throw new NetworkException(e);
+		}
+	}
+
+	/**
+	 * Gli aggiornamenti della partita vengono inviati dal nodo del giocatore.
+	 */
+	@Override
+	public void onGameUpdate(UpdateStats update) throws NetworkException {
+		throw new NetworkException("Player is connected to another node");
+	}
+
+	/**
+	 * Metodo per il "debug"
+	 */
+	@Override
+	public void send(Object object) throws RemoteException {
+		node.getNodeId();
+	}
+}
@@ -0,0 +1,244 @@
+package main.network.server.game;
+
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import main.model.Giocatore;
+import main.network.NetworkException;
+import main.network.server.ServerThreads;
+import main.network.server.game.exceptions.GameException;
+import main.util.Costants;
+
+/**
+ * Giocatore controllato dal Server, senza Client ne' connessione, aggiunto
+ * alle Stanze che restano in attesa di giocatori (vedi
+ * {@link RoomDirectory#setBotWaitingTime(int)}). Ad ogni aggiornamento della
+ * partita il bot controlla se deve giocare (mossa o rapporto vaticano) e
+ * sceglie l'azione con la propria {@link PlayerStrategy}, sull'esecutore
+ * dedicato ai bot (vedi {@link ServerThreads#executeBot(Runnable)}).
+ *
+ * La strategia decide su una copia della partita (vedi {@link Game#copia()}),
+ * senza il lock della partita: se impiega piu' di
+ * {@link Costants#BOT_DECISION_BUDGET} ms per decidere, fallisce o sceglie
+ * un'azione non valida, il bot usa la {@link CouncilStrategy} (sempre valida,
+ * eseguita con il lock della partita) fino alla fine della partita. Una
+ * decisione scaduta puo' proseguire solo sulla propria copia. Se anche la
+ * strategia di riserva fallisce la decisione viene ripetuta piu' tardi.
+ */
+public class BotPlayer extends RemotePlayer {
+
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = 3820573312849961720L;
+
+	/**
+	 * Contatore dei bot creati (usato per assegnare il nome di ogni bot).
+	 */
+	private static final AtomicInteger BOT_COUNTER = new AtomicInteger();
+
+	/**
+	 * Tempo massimo (in nanosecondi) di una decisione della strategia.
+	 */
+	private static final long DECISION_BUDGET = Costants.BOT_DECISION_BUDGET * 1000000L;
+
+	/**
+	 * Strategia usata quando la strategia del bot non e' utilizzabile.
+	 */
+	private static final PlayerStrategy FALLBACK = new CouncilStrategy();
+
+	/**
+	 * Strategia del bot (null dopo la deserializzazione, es. partita
+	 * ripristinata dal journal: viene usata {@link #FALLBACK}).
+	 */
+	private transient PlayerStrategy strategy;
+
+	/**
+	 * Ultima decisione della strategia (vedi
+	 * {@link ServerThreads#submitBotDecision}): finche' non termina non ne
+	 * viene avviata un'altra.
+	 */
+	private transient Future<UpdateStats> decision;
+
+	/**
+	 * Flag che indica se una decisione e' gia' stata programmata.
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	/**
+	 * Costruttore.
+	 */
+	public BotPlayer() {
+		this(FALLBACK);
+	}
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param strategy
+	 *            strategia usata per scegliere le azioni.
+	 */
+	public BotPlayer(PlayerStrategy strategy) {
+		super();
+		setNome(Costants.BOT_NAME + BOT_COUNTER.incrementAndGet());
+		this.strategy = strategy;
+	}
+
+	@Override
+	public void onChatMessage(String author, String message) throws NetworkException {
+
+	}
+
+	/**
+	 * Programma una decisione del bot (gli aggiornamenti ricevuti nel
+	 * frattempo non programmano altre decisioni).
+	 */
+	@Override
+	public void onGameUpdate(UpdateStats update) throws NetworkException {
+		if (scheduled.compareAndSet(false, true))
+			ServerThreads.executeBot(this::play);
+	}
+
+	@Override
+	public void send(Object object) throws RemoteException {
+
+	}
+
+	/**
+	 * Esegue le azioni del bot fintanto che e' il suo turno (es. pagamento
+	 * dei servitori seguito dal posizionamento del famigliare). Il lock della
+	 * partita viene preso per copiare la partita e per eseguire l'azione
+	 * scelta, non durante la decisione della strategia.
+	 */
+	private void play() {
+		scheduled.set(false);
+		Room room = getRoom();
+		Game game = room != null ? room.getGame() : null;
+		if (game == null)
+			return;
+		while (true) {
+			Future<UpdateStats> pending;
+			synchronized (game) {
+				if (game.isGameEnded() || !isTurnOf(game))
+					return;
+				pending = submitDecision(game);
+			}
+			UpdateStats action = pending != null ? awaitDecision(pending) : null;
+			boolean chosen = action != null;
+			if (Thread.currentThread().isInterrupted())
+				return;
+			synchronized (game) {
+				// Nel frattempo la partita puo' essere avanzata (es. partita
+				// terminata da un altro Thread)
+				if (game.isGameEnded() || !isTurnOf(game))
+					return;
+				try {
+					if (action == null)
+						action = FALLBACK.nextAction(game, this);
+					game.performGameAction(this, action);
+				} catch (GameException | RuntimeException e) {
+					if (!chosen) {
+						room.log("\"" + getNome() + "\" cannot play (" + e.getMessage() + "), retrying");
+						retry();
+						return;
+					}
+					room.log("\"" + getNome() + "\" switches strategy (" + e.getMessage() + ")");
+					strategy = FALLBACK;
+					try {
+						game.performGameAction(this, FALLBACK.nextAction(game, this));
+					} catch (GameException | RuntimeException fallback) {
+						room.log("\"" + getNome() + "\" cannot play (" + fallback.getMessage() + "), retrying");
+						retry();
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Programma una nuova decisione dopo {@link Costants#BOT_DECISION_BUDGET}
+	 * ms, cosi' che la partita non resti bloccata sul turno del bot.
+	 */
+	private void retry() {
+		if (scheduled.compareAndSet(false, true))
+			ServerThreads.SCHEDULER.schedule(() -> ServerThreads.executeBot(this::play),
+					Costants.BOT_DECISION_BUDGET, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Avvia la decisione della strategia su una copia della partita (invocato
+	 * con il lock della partita).
+	 *
+	 * @return la decisione avviata, oppure null se deve essere usata la
+	 *         strategia di riserva.
+	 */
+	private Future<UpdateStats> submitDecision(Game game) {
+		PlayerStrategy current = strategy;
+		if (current == null || current == FALLBACK)
+			return null;
+		if (decision != null && !decision.isDone()) {
+			// Una decisione scaduta e' ancora in esecuzione (sulla propria
+			// copia della partita)
+			strategy = FALLBACK;
+			return null;
+		}
+		Game copia;
+		try {
+			copia = game.copia();
+		} catch (IOException e) {
+			getRoom().log("\"" + getNome() + "\" switches strategy (" + e.getMessage() + ")");
+			strategy = FALLBACK;
+			return null;
+		}
+		RemotePlayer self = null;
+		for (Giocatore giocatore : copia.getGiocatori())
+			if (giocatore.getNome().equals(getNome()))
+				self = (RemotePlayer) giocatore;
+		RemotePlayer player = self;
+		decision = ServerThreads.submitBotDecision(() -> current.nextAction(copia, player));
+		return decision;
+	}
+
+	/**
+	 * Attende la decisione della strategia, sostituendo la strategia se
+	 * supera il tempo massimo di decisione o se fallisce.
+	 *
+	 * @return l'azione scelta, oppure null se deve essere usata la strategia
+	 *         di riserva (o se il Thread e' stato interrotto).
+	 */
+	private UpdateStats awaitDecision(Future<UpdateStats> pending) {
+		try {
+			return pending.get(DECISION_BUDGET, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			pending.cancel(true);
+			getRoom().log("\"" + getNome() + "\" exceeded its decision budget, switching strategy");
+		} catch (ExecutionException e) {
+			getRoom().log("\"" + getNome() + "\" switches strategy (" + e.getCause().getMessage() + ")");
+		} catch (InterruptedException e) {
+			pending.cancel(true);
+			Thread.currentThread().interrupt();
+		}
+		strategy = FALLBACK;
+		return null;
+	}
+
+	/**
+	 * Ritorna "True" se il bot deve eseguire la prossima azione (i giocatori
+	 * che devono eseguire il rapporto vaticano giocano per primi, vedi
+	 * {@link GameRunner}).
+	 */
+	private boolean isTurnOf(Game game) {
+		List<Giocatore> vaticano = game.getGiocatoriRapportoVaticano();
+		if (!vaticano.isEmpty())
+			return vaticano.contains(this);
+		return game.getGiocatoreDiTurno() == this;
+	}
+}
@@ -0,0 +1,121 @@
+package main.network.server.game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import main.network.server.ServerThreads;
+
+/**
+ * Canale di chat (di una Stanza o dell'intero Server). I messaggi vengono
+ * accodati senza bloccare il Thread che li invia (es. il Thread che gestisce
+ * le richieste di un Client) e consegnati dall'esecutore della chat (vedi
+ * {@link ServerThreads#executeChat(Runnable)}): tutti i messaggi accodati nel
+ * frattempo vengono consegnati insieme, leggendo una sola volta l'elenco dei
+ * destinatari del canale. I messaggi di un canale vengono consegnati
+ * nell'ordine in cui sono stati accodati: ogni destinatario li riceve dalla
+ * propria coda (vedi {@link ChatOutbox}), con un solo invio per consegna, cosi'
+ * che un Client lento non rallenti la chat degli altri giocatori.
+ */
+public class ChatChannel implements Runnable {
+
+	/**
+	 * Destinatari dei messaggi in broadcast.
+	 */
+	private final Supplier<? extends Collection<? extends RemotePlayer>> recipients;
+
+	/**
+	 * Messaggi in attesa di essere consegnati.
+	 */
+	private final Queue<ChatMessage> pending;
+
+	/**
+	 * Flag che indica se la consegna dei messaggi e' gia' stata programmata.
+	 */
+	private final AtomicBoolean scheduled;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param recipients
+	 *            destinatari dei messaggi in broadcast (letti ad ogni
+	 *            consegna).
+	 */
+	public ChatChannel(Supplier<? extends Collection<? extends RemotePlayer>> recipients) {
+		this.recipients = recipients;
+		this.pending = new ConcurrentLinkedQueue<>();
+		this.scheduled = new AtomicBoolean();
+	}
+
+	/**
+	 * Accoda un messaggio da consegnare.
+	 *
+	 * @param message
+	 *            messaggio da consegnare.
+	 */
+	public void post(ChatMessage message) {
+		pending.offer(message);
+		if (scheduled.compareAndSet(false, true))
+			ServerThreads.executeChat(this);
+	}
+
+	/**
+	 * Consegna i messaggi accodati (eseguito dall'esecutore della chat).
+	 */
+	@Override
+	public void run() {
+		do {
+			List<ChatMessage> batch = new ArrayList<>();
+			ChatMessage message;
+			while ((message = pending.poll()) != null)
+				batch.add(message);
+			deliver(batch);
+			scheduled.set(false);
+		} while (!pending.isEmpty() && scheduled.compareAndSet(false, true));
+	}
+
+	/**
+	 * Consegna un gruppo di messaggi ai rispettivi destinatari: i messaggi di
+	 * ciascun destinatario vengono accodati insieme nella sua coda.
+	 *
+	 * @param batch
+	 *            messaggi da consegnare (in ordine di invio).
+	 */
+	private void deliver(List<ChatMessage> batch) {
+		Map<RemotePlayer, List<ChatMessage>> outgoing = new LinkedHashMap<>();
+		Collection<? extends RemotePlayer> all = null;
+		for (ChatMessage message : batch) {
+			if (message.getReceiver() != null) {
+				add(outgoing, message.getReceiver(), message);
+				continue;
+			}
+			Collection<? extends RemotePlayer> players = message.getRecipients();
+			if (players == null) {
+				if (all == null)
+					all = recipients.get();
+				players = all;
+			}
+			for (RemotePlayer player : players)
+				if (player != message.getSender())
+					add(outgoing, player, message);
+		}
+		for (Map.Entry<RemotePlayer, List<ChatMessage>> entry : outgoing.entrySet())
+			entry.getKey().getChatOutbox().post(entry.getValue());
+	}
+
+	/**
+	 * Aggiunge un messaggio a quelli di un giocatore (i giocatori offline
+	 * vengono ignorati).
+	 */
+	private static void add(Map<RemotePlayer, List<ChatMessage>> outgoing, RemotePlayer player,
+			ChatMessage message) {
+		if (player.isOnline())
+			outgoing.computeIfAbsent(player, p -> new ArrayList<>(1)).add(message);
+	}
+}
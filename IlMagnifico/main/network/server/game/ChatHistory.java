@@ -0,0 +1,63 @@
+package main.network.server.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cronologia della chat di una Stanza: buffer circolare di dimensione fissa
+ * che conserva solamente gli ultimi messaggi (i piu' vecchi vengono
+ * sovrascritti).
+ */
+public class ChatHistory {
+
+	/**
+	 * Messaggi memorizzati.
+	 */
+	private final ChatMessage[] messages;
+
+	/**
+	 * Posizione in cui verra' scritto il prossimo messaggio.
+	 */
+	private int next;
+
+	/**
+	 * Numero di messaggi memorizzati.
+	 */
+	private int size;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param capacity
+	 *            numero massimo di messaggi memorizzati.
+	 */
+	public ChatHistory(int capacity) {
+		this.messages = new ChatMessage[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Aggiunge un messaggio alla cronologia.
+	 *
+	 * @param message
+	 *            messaggio da aggiungere.
+	 */
+	public synchronized void add(ChatMessage message) {
+		messages[next] = message;
+		next = (next + 1) % messages.length;
+		if (size < messages.length)
+			size++;
+	}
+
+	/**
+	 * Ritorna i messaggi memorizzati, dal piu' vecchio al piu' recente.
+	 *
+	 * @return messaggi memorizzati.
+	 */
+	public synchronized List<ChatMessage> getMessages() {
+		List<ChatMessage> list = new ArrayList<>(size);
+		int first = (next - size + messages.length) % messages.length;
+		for (int i = 0; i < size; i++)
+			list.add(messages[(first + i) % messages.length]);
+		return list;
+	}
+}
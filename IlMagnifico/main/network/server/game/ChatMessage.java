@@ -0,0 +1,130 @@
+package main.network.server.game;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import main.network.protocol.socket.SocketConstants;
+import main.network.protocol.socket.SocketFrames;
+
+/**
+ * Messaggio di chat in attesa di essere consegnato (vedi {@link ChatChannel}).
+ * E' immutabile: lo stesso messaggio viene consegnato a tutti i destinatari di
+ * un broadcast.
+ */
+public final class ChatMessage {
+
+	/**
+	 * Nome del MITTENTE mostrato ai destinatari.
+	 */
+	private final String author;
+
+	/**
+	 * Testo del messaggio.
+	 */
+	private final String message;
+
+	/**
+	 * Giocatore che ha inviato il messaggio (escluso dal broadcast), null per
+	 * i messaggi del Server o della Stanza.
+	 */
+	private final RemotePlayer sender;
+
+	/**
+	 * DESTINATARIO del messaggio, null per i messaggi in broadcast.
+	 */
+	private final RemotePlayer receiver;
+
+	/**
+	 * Destinatari di un messaggio in broadcast, letti al momento dell'invio
+	 * (null per usare i destinatari del canale al momento della consegna).
+	 */
+	private final Collection<? extends RemotePlayer> recipients;
+
+	/**
+	 * Messaggio codificato per i Client Socket (calcolato una sola volta per
+	 * tutti i destinatari).
+	 */
+	private volatile byte[] socketFrame;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param author
+	 *            nome del MITTENTE mostrato ai destinatari.
+	 * @param message
+	 *            testo del messaggio.
+	 * @param sender
+	 *            giocatore che ha inviato il messaggio (null se inviato dal
+	 *            Server).
+	 * @param receiver
+	 *            DESTINATARIO del messaggio (null per inviarlo in broadcast).
+	 */
+	public ChatMessage(String author, String message, RemotePlayer sender, RemotePlayer receiver) {
+		this(author, message, sender, receiver, null);
+	}
+
+	/**
+	 * Crea un messaggio in broadcast ai destinatari indicati.
+	 *
+	 * @param author
+	 *            nome del MITTENTE mostrato ai destinatari.
+	 * @param message
+	 *            testo del messaggio.
+	 * @param sender
+	 *            giocatore che ha inviato il messaggio (null se inviato dal
+	 *            Server).
+	 * @param recipients
+	 *            destinatari del messaggio (il mittente viene escluso).
+	 * @return il messaggio creato.
+	 */
+	public static ChatMessage toPlayers(String author, String message, RemotePlayer sender,
+			Collection<? extends RemotePlayer> recipients) {
+		return new ChatMessage(author, message, sender, null, recipients);
+	}
+
+	private ChatMessage(String author, String message, RemotePlayer sender, RemotePlayer receiver,
+			Collection<? extends RemotePlayer> recipients) {
+		this.author = author;
+		this.message = message;
+		this.sender = sender;
+		this.receiver = receiver;
+		this.recipients = recipients;
+	}
+
+	public String getAuthor() {
+		return this.author;
+	}
+
+	public String getMessage() {
+		return this.message;
+	}
+
+	public RemotePlayer getSender() {
+		return this.sender;
+	}
+
+	public RemotePlayer getReceiver() {
+		return this.receiver;
+	}
+
+	public Collection<? extends RemotePlayer> getRecipients() {
+		return this.recipients;
+	}
+
+	/**
+	 * Ritorna il messaggio codificato per i Client Socket.
+	 *
+	 * @return [CHAT_MESSAGE, author, message] codificato (vedi
+	 *         {@link SocketFrames}).
+	 * @throws IOException
+	 *             se il messaggio non puo' essere codificato.
+	 */
+	public byte[] getSocketFrame() throws IOException {
+		byte[] frame = this.socketFrame;
+		if (frame == null) {
+			frame = SocketFrames.encode(SocketConstants.CHAT_MESSAGE, author, message);
+			this.socketFrame = frame;
+		}
+		return frame;
+	}
+}
@@ -0,0 +1,92 @@
+package main.network.server.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import main.network.NetworkException;
+import main.network.server.ServerThreads;
+import main.util.Costants;
+
+/**
+ * Coda dei messaggi di chat di un singolo giocatore: i canali (vedi
+ * {@link ChatChannel}) vi accodano i messaggi senza attendere, e i messaggi
+ * accodati nel frattempo vengono consegnati insieme (vedi
+ * {@link RemotePlayer#onChatMessages(List)}), cosi' che un Client lento
+ * ritardi solamente la propria chat.
+ */
+class ChatOutbox implements Runnable {
+
+	/**
+	 * Numero massimo di messaggi in attesa di essere consegnati.
+	 */
+	private static final int CAPACITY = Costants.CHAT_OUTBOX_SIZE;
+
+	/**
+	 * Giocatore destinatario dei messaggi.
+	 */
+	private final RemotePlayer player;
+
+	/**
+	 * Messaggi in attesa di essere consegnati.
+	 */
+	private final BlockingQueue<ChatMessage> messages = new LinkedBlockingQueue<>(CAPACITY);
+
+	/**
+	 * Flag che indica se la consegna e' gia' stata programmata.
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param player
+	 *            giocatore destinatario dei messaggi.
+	 */
+	ChatOutbox(RemotePlayer player) {
+		this.player = player;
+	}
+
+	/**
+	 * Accoda i messaggi senza attendere. Se la coda e' piena i messaggi in
+	 * eccesso vengono scartati.
+	 * 
+	 * @param batch
+	 *            messaggi da consegnare (in ordine di invio).
+	 */
+	void post(List<ChatMessage> batch) {
+		int dropped = 0;
+		for (ChatMessage message : batch)
+			if (!messages.offer(message))
+				dropped++;
+		if (dropped > 0)
+			System.err.println("Player \"" + player.getNome() + "\" is lagging, dropping " + dropped
+					+ " chat messages");
+		if (scheduled.compareAndSet(false, true))
+			ServerThreads.executeChat(this);
+	}
+
+	/**
+	 * Consegna i messaggi accodati con un solo invio.
+	 */
+	@Override
+	public void run() {
+		try {
+			List<ChatMessage> batch = new ArrayList<>();
+			messages.drainTo(batch);
+			if (!batch.isEmpty() && player.isOnline())
+				player.onChatMessages(batch);
+		} catch (NetworkException e) {
+			messages.clear();
+			System.err.println("PLAYER_DISCONNECTED: \"" + player.getNome() + "\"\n(" + e.getMessage() + ")");
+		} finally {
+			scheduled.set(false);
+			// Un messaggio potrebbe essere stato accodato dopo l'ultimo
+			// controllo, senza programmare una nuova consegna.
+			if (!messages.isEmpty() && scheduled.compareAndSet(false, true))
+				ServerThreads.executeChat(this);
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package main.network.server.game;
+
+import main.model.Famigliare;
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+
+/**
+ * Strategia elementare, sempre valida: ogni famigliare viene posizionato nel
+ * Palazzo del Consiglio scegliendo due servitori (quello neutrale paga prima
+ * un servitore) e la Chiesa viene sempre sostenuta.
+ */
+public class CouncilStrategy implements PlayerStrategy {
+
+	@Override
+	public UpdateStats nextAction(Game game, RemotePlayer player) {
+		UpdateStats action;
+		if (game.getGiocatoriRapportoVaticano().contains(player)) {
+			action = new UpdateStats(EAzioniGiocatore.SostegnoChiesa);
+			action.supportaChiesa(true);
+			return action;
+		}
+
+		Famigliare famigliare = null;
+		for (int i = 0; i < 4 && famigliare == null; i++)
+			if (!player.getFamigliare(i).getPosizionato())
+				famigliare = player.getFamigliare(i);
+		if (famigliare.getValore() == 0) {
+			action = new UpdateStats(EAzioniGiocatore.Famigliare);
+			action.setServitoriDaPagare(1);
+		} else {
+			action = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+			action.setSceltaConsiglio(ESceltePrivilegioDelConsiglio.Servitori);
+		}
+		action.setColorePedina(famigliare.getColoreFamigliare());
+		return action;
+	}
+}
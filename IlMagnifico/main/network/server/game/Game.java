@@ -1,7 +1,11 @@
 package main.network.server.game;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
 
 import main.model.Giocatore;
 import main.model.Partita;
@@ -38,6 +42,25 @@ public class Game extends Partita {
 	 */
 	private final HashMap<Object, ResponseHandler> responseMap;
 
+	/**
+	 * Journal su cui vengono registrate le azioni e i lanci dei dadi (null se
+	 * il journal non e' abilitato, vedi {@link GameJournal}).
+	 */
+	private GameJournal journal;
+
+	/**
+	 * Lanci dei dadi registrati nel journal, usati al posto di nuovi lanci
+	 * durante il ripristino della partita (vedi
+	 * {@link #replay(List, Queue)}).
+	 */
+	private Queue<int[]> recordedDice;
+
+	/**
+	 * Registrazione della partita (seme e azioni accettate, vedi
+	 * {@link GameRecord}); null per le partite senza Stanza.
+	 */
+	private GameRecord record;
+
 	/**
 	 * Costruttore.
 	 * 
@@ -55,6 +78,89 @@ public class Game extends Partita {
 		loadResponses();
 	}
 
+	/**
+	 * Costruttore di una partita senza Stanza (es. riprodotta da
+	 * {@link GameReplay}): gli aggiornamenti non vengono inviati e la partita
+	 * non viene registrata.
+	 * 
+	 * @param players
+	 *            giocatori della partita.
+	 */
+	public Game(List<? extends RemotePlayer> players) {
+		giocatori.addAll(players);
+
+		responseMap = new HashMap<>();
+		loadResponses();
+	}
+
+	/**
+	 * Costruttore usato per ripristinare una partita dal journal della
+	 * Stanza (o da un keyframe di {@link GameReplay}).
+	 * 
+	 * @param room
+	 *            Stanza in cui la partita e' in atto (null se la partita non
+	 *            ha una Stanza).
+	 * @param snapshot
+	 *            stato della partita (vedi {@link GameSnapshot}).
+	 */
+	Game(Room room, GameSnapshot snapshot) {
+		this.room = room;
+		this.mazzo = snapshot.mazzo;
+		this.giocatori = snapshot.giocatori;
+		this.giocatoriRapportoVaticano = snapshot.giocatoriRapportoVaticano;
+		this.rapportoVaticanoEseguito = snapshot.rapportoVaticanoEseguito;
+		this.giocatoreDiTurno = snapshot.giocatoreDiTurno;
+		this.spazioAzione = snapshot.spazioAzione;
+		this.scomuniche = snapshot.scomuniche;
+		this.turno = snapshot.turno;
+		this.periodo = snapshot.periodo;
+		this.partitaTerminata = snapshot.partitaTerminata;
+		this.seme = snapshot.seme;
+		this.random = snapshot.random;
+		this.record = snapshot.record;
+
+		responseMap = new HashMap<>();
+		loadResponses();
+	}
+
+	/**
+	 * Ritorna una copia della partita, senza Stanza ne' registrazione, che
+	 * puo' essere letta senza il lock della partita (es. dalle strategie dei
+	 * bot, vedi {@link BotPlayer}).
+	 * 
+	 * @return copia della partita.
+	 * @throws IOException
+	 *             se lo stato della partita non puo' essere copiato.
+	 */
+	synchronized Game copia() throws IOException {
+		GameSnapshot snapshot = toSnapshot();
+		snapshot.record = null;
+		return new Game(null, GameSnapshot.read(snapshot.write()));
+	}
+
+	/**
+	 * Ritorna lo stato completo della partita (vedi {@link GameSnapshot}).
+	 * 
+	 * @return stato della partita.
+	 */
+	GameSnapshot toSnapshot() {
+		GameSnapshot snapshot = new GameSnapshot();
+		snapshot.mazzo = this.mazzo;
+		snapshot.giocatori = this.giocatori;
+		snapshot.giocatoriRapportoVaticano = this.giocatoriRapportoVaticano;
+		snapshot.rapportoVaticanoEseguito = this.rapportoVaticanoEseguito;
+		snapshot.giocatoreDiTurno = this.giocatoreDiTurno;
+		snapshot.spazioAzione = this.spazioAzione;
+		snapshot.scomuniche = this.scomuniche;
+		snapshot.turno = this.turno;
+		snapshot.periodo = this.periodo;
+		snapshot.partitaTerminata = this.partitaTerminata;
+		snapshot.seme = this.seme;
+		snapshot.random = this.random;
+		snapshot.record = this.record;
+		return snapshot;
+	}
+
 	/**
 	 * Inizializza "responseMap" caricando tutti i possibili metodi di risposta
 	 * (chiamati da {@link ResponseHandler}).
@@ -77,6 +183,12 @@ public class Game extends Partita {
 	public void startNewGame() {
 		UpdateStats update;
 
+		if (room != null) {
+			List<String> players = new ArrayList<>();
+			for (Giocatore giocatore : giocatori)
+				players.add(giocatore.getNome());
+			this.record = new GameRecord(this.seme, players);
+		}
 		inizializzaPartita();
 		update = new UpdateStats(EFasiDiGioco.InizioPartita, this.giocatori);
 		update.setScomuniche(this.scomuniche);
@@ -97,6 +209,192 @@ public class Game extends Partita {
 		dispatchGameUpdate(update);
 	}
 
+	/**
+	 * Inizia a registrare la partita sul journal, scrivendo lo stato attuale
+	 * come primo snapshot (usato in {@link Room} dopo {@link #startNewGame()}
+	 * o dopo il ripristino della partita).
+	 * 
+	 * @param journal
+	 *            journal della partita.
+	 * @throws IOException
+	 *             se lo snapshot non puo' essere scritto (la partita prosegue
+	 *             senza journal).
+	 */
+	public synchronized void startJournal(GameJournal journal) throws IOException {
+		this.journal = journal;
+		try {
+			writeSnapshot();
+		} catch (IOException e) {
+			this.journal = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Interrompe la registrazione della partita ed elimina il journal (usato
+	 * alla fine della partita).
+	 */
+	public synchronized void deleteJournal() {
+		if (journal != null) {
+			journal.delete();
+			journal = null;
+		}
+	}
+
+	/**
+	 * Scrive lo stato completo della partita sul journal (compattandolo).
+	 * 
+	 * @throws IOException
+	 *             se lo snapshot non puo' essere scritto.
+	 */
+	private void writeSnapshot() throws IOException {
+		journal.snapshot(getJournalPlayers(), toSnapshot().write());
+	}
+
+	/**
+	 * Ritorna i giocatori della partita registrati nell'intestazione del
+	 * journal.
+	 */
+	private ArrayList<RemotePlayer> getJournalPlayers() {
+		ArrayList<RemotePlayer> players = new ArrayList<>();
+		for (Giocatore giocatore : giocatori)
+			players.add((RemotePlayer) giocatore);
+		return players;
+	}
+
+	/**
+	 * Registra un'azione accettata nella registrazione della partita e sul
+	 * journal. In caso di errore la partita prosegue senza journal.
+	 * 
+	 * @param remotePlayer
+	 *            giocatore che ha eseguito l'azione.
+	 * @param requestedAction
+	 *            azione richiesta dal giocatore.
+	 */
+	private void recordAction(RemotePlayer remotePlayer, UpdateStats requestedAction) {
+		if (record != null) {
+			try {
+				record.addAction(remotePlayer.getNome(), requestedAction);
+			} catch (IOException e) {
+				log("Game record disabled (" + e.getMessage() + ")");
+				record = null;
+			}
+		}
+		if (journal == null)
+			return;
+		try {
+			journal.appendAction(remotePlayer.getNome(), requestedAction);
+		} catch (IOException e) {
+			disableJournal(e);
+		}
+	}
+
+	/**
+	 * Compatta il journal ogni {@link main.util.Costants#JOURNAL_SNAPSHOT_INTERVAL}
+	 * azioni e lo elimina alla fine della partita. Durante l'azione viene
+	 * solamente serializzato lo stato della partita: il nuovo file del journal
+	 * viene scritto in background (vedi
+	 * {@link GameJournal#compact(java.util.Collection, byte[])}).
+	 */
+	private void checkpoint() {
+		if (journal == null)
+			return;
+		if (isPartitaFinita()) {
+			deleteJournal();
+		} else if (journal.needsSnapshot()) {
+			try {
+				journal.compact(getJournalPlayers(), toSnapshot().write());
+			} catch (IOException e) {
+				disableJournal(e);
+			}
+		}
+	}
+
+	private void disableJournal(IOException e) {
+		log("Journal disabled (" + e.getMessage() + ")");
+		journal.delete();
+		journal = null;
+	}
+
+	/**
+	 * Estrae i valori dei dadi registrandoli sul journal; durante il
+	 * ripristino della partita vengono invece usati i lanci registrati (il
+	 * generatore avanza comunque, per proseguire come la partita originale).
+	 */
+	@Override
+	protected int[] tiraDadi() {
+		int[] dadi = super.tiraDadi();
+		if (recordedDice != null && !recordedDice.isEmpty())
+			return recordedDice.poll();
+		if (journal != null) {
+			try {
+				journal.appendDice(dadi);
+			} catch (IOException e) {
+				disableJournal(e);
+			}
+		}
+		return dadi;
+	}
+
+	/**
+	 * Ripristina la partita riproducendo le azioni registrate nel journal dopo
+	 * l'ultimo snapshot, quindi invia ai giocatori lo stato attuale (che
+	 * riceveranno alla ripresa della sessione).
+	 * 
+	 * @param actions
+	 *            azioni registrate (vedi {@link GameJournal.Recovery}).
+	 * @param dice
+	 *            lanci dei dadi registrati.
+	 */
+	synchronized void replay(List<GameJournal.RecordedAction> actions, Queue<int[]> dice) {
+		this.recordedDice = new ArrayDeque<>(dice);
+		try {
+			for (GameJournal.RecordedAction action : actions) {
+				try {
+					performGameAction(getPlayer(action.getNickname()), action.getAction());
+				} catch (GameException e) {
+					log("Cannot replay action of \"" + action.getNickname() + "\" (" + e.getMessage() + ")");
+				}
+			}
+		} finally {
+			this.recordedDice = null;
+		}
+
+		UpdateStats update;
+		if (giocatoreDiTurno != null) {
+			update = new UpdateStats(EFasiDiGioco.MossaGiocatore, this.spazioAzione);
+			update.setNomeGiocatore(giocatoreDiTurno.getNome());
+		} else {
+			update = new UpdateStats(EFasiDiGioco.SostegnoChiesa, new ArrayList<>(giocatoriRapportoVaticano),
+					this.spazioAzione);
+		}
+		dispatchGameUpdate(update);
+	}
+
+	/**
+	 * Ritorna il giocatore della partita con il nome indicato.
+	 * 
+	 * @param nickname
+	 *            nome del giocatore.
+	 * @return il giocatore, oppure null se non partecipa alla partita.
+	 */
+	RemotePlayer getPlayer(String nickname) {
+		for (Giocatore giocatore : giocatori)
+			if (giocatore.getNome().equals(nickname))
+				return (RemotePlayer) giocatore;
+		return null;
+	}
+
+	/**
+	 * Ritorna la registrazione della partita.
+	 * 
+	 * @return la registrazione, oppure null se la partita non viene
+	 *         registrata.
+	 */
+	public GameRecord getRecord() {
+		return this.record;
+	}
+
 	/**
 	 * Blocca il Thread chiamante fintanto che la Partita e' ancora in corso
 	 * (usato in {@link Room})
@@ -110,6 +408,16 @@ public class Game extends Partita {
 		}
 	}
 
+	/**
+	 * Ritorna "True" se la Partita e' terminata (usato dalle partite senza
+	 * Stanza, vedi {@link GameRunner}).
+	 * 
+	 * @return "True" se la Partita e' terminata.
+	 */
+	public synchronized boolean isGameEnded() {
+		return isPartitaFinita();
+	}
+
 	/**
 	 * Sblocca i Thread che si sono messi in attesa della fine della Partita
 	 * (usato in {@link Room})
@@ -188,6 +496,10 @@ public class Game extends Partita {
 						update = new UpdateStats(EFasiDiGioco.FinePeriodo, this.spazioAzione);
 						dispatchGameUpdate(update);
 
+						// Concluso l'ultimo periodo (una scomunica per periodo)
+						if (this.periodo > this.scomuniche.length)
+							endGame();
+
 						if (!isPartitaFinita()) {
 							// avanzaPeriodo();
 							this.rapportoVaticanoEseguito = false;
@@ -219,7 +531,9 @@ public class Game extends Partita {
 	 * @param update
 	 */
 	private void dispatchGameUpdate(UpdateStats update) {
-		room.dispatchGameUpdate(update);
+		if (room == null)
+			return;
+		room.dispatchGameUpdate(update, this.giocatori, this.spazioAzione);
 
 		if (update.getAzioneGiocatore() != null)
 			log("\"" + update.getNomeGiocatore() + "\"" + " has performed: " + update.getAzioneGiocatore().toString());
@@ -239,7 +553,8 @@ public class Game extends Partita {
 	 * @param message
 	 */
 	public void log(String message) {
-		room.log(message);
+		if (room != null)
+			room.log(message);
 	}
 
 	/**
@@ -256,12 +571,16 @@ public class Game extends Partita {
 		if (isElegible(remotePlayer, e)) {
 			// Tenta di eseguire l'azione richiesta dal giocatore
 			UpdateStats update = handleResponse(remotePlayer, requestedAction);
+			// L'azione e' stata accettata: viene registrata prima dei lanci dei
+			// dadi che puo' provocare (vedi tiraDadi()).
+			recordAction(remotePlayer, requestedAction);
 			dispatchGameUpdate(update);
 
 			// Se tutto va a buon fine (azione valida = non scatena nessuna
 			// eccezione), fa avanzare lo stato interno della partita
 			// (es. notifico al prossimo giocatore che e' il suo turno).
 			andvanceInGameLogic(update.getAzioneGiocatore());
+			checkpoint();
 		} else {
 			throw new GameException(e.toString());
 		}
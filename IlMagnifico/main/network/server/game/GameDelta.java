@@ -0,0 +1,550 @@
+package main.network.server.game;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import main.model.Carta;
+import main.model.Contatori;
+import main.model.Edificio;
+import main.model.Famigliare;
+import main.model.Impresa;
+import main.model.Personaggio;
+import main.model.Plancia;
+import main.model.Punti;
+import main.model.Risorsa;
+import main.model.Scomunica;
+import main.model.SpazioAzione;
+import main.model.Territorio;
+import main.network.protocol.socket.BinaryCodec;
+
+/**
+ * Variazione dello stato della partita rispetto all'aggiornamento precedente
+ * (vedi {@link UpdateStats#getDelta()}). Contiene solamente le caselle dello
+ * {@link SpazioAzione} ed i contatori dei giocatori che sono cambiati; i
+ * famigliari vengono indicati per nome del giocatore e indice (vedi
+ * {@link Pedina}), cosi' che l'aggiornamento non trascini con se' l'intero
+ * grafo della partita.
+ */
+public class GameDelta implements Serializable {
+
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = -3518372624581846251L;
+
+	/**
+	 * Numero di piani delle torri (4 torri da 4 piani).
+	 */
+	static final int TORRI = 16;
+
+	/**
+	 * Numero di caselle del mercato.
+	 */
+	static final int MERCATO = 4;
+
+	/**
+	 * Indice della casella rotonda della zona raccolto.
+	 */
+	static final int RACCOLTO_ROTONDO = TORRI + MERCATO;
+
+	/**
+	 * Indice della casella rotonda della zona produzione.
+	 */
+	static final int PRODUZIONE_ROTONDA = RACCOLTO_ROTONDO + 1;
+
+	/**
+	 * Numero di caselle che possono ospitare un solo famigliare (piani delle
+	 * torri, mercato, raccolto e produzione rotondi).
+	 */
+	static final int CELLE = PRODUZIONE_ROTONDA + 1;
+
+	/**
+	 * Numero di contatori di un giocatore: 4 risorse, 3 tipi di punti, valore
+	 * e posizionamento dei 4 famigliari.
+	 */
+	static final int CONTATORI = Contatori.NUMERO + 8;
+
+	/**
+	 * Numero di sequenza dell'aggiornamento (consecutivo all'interno della
+	 * Stanza).
+	 */
+	private final long sequenza;
+
+	/**
+	 * Valore dei dadi (null se invariati).
+	 */
+	private int[] dadi;
+
+	/**
+	 * Caselle a famigliare singolo modificate (null = casella liberata).
+	 */
+	private HashMap<Integer, Pedina> celle;
+
+	/**
+	 * Carte dei piani delle torri modificate (null = carta presa).
+	 */
+	private HashMap<Integer, Carta> carte;
+
+	/**
+	 * Famigliari nella zona raccolto ovale (null se invariati).
+	 */
+	private Pedina[] raccoltoOvale;
+
+	/**
+	 * Famigliari nella zona produzione ovale (null se invariati).
+	 */
+	private Pedina[] produzioneOvale;
+
+	/**
+	 * Famigliari nel palazzo del consiglio (null se invariati).
+	 */
+	private Pedina[] palazzoDelConsiglio;
+
+	/**
+	 * Contatori dei giocatori modificati <"Nome","Contatori">.
+	 */
+	private HashMap<String, int[]> contatori;
+
+	/**
+	 * Carte aggiunte alle plance dei giocatori <"Nome","Carte">.
+	 */
+	private HashMap<String, ArrayList<Carta>> nuoveCarte;
+
+	/**
+	 * Scomuniche dei giocatori modificate <"Nome","Scomunica[]">.
+	 */
+	private HashMap<String, Scomunica[]> scomuniche;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param sequenza
+	 *            numero di sequenza dell'aggiornamento.
+	 */
+	GameDelta(long sequenza) {
+		this.sequenza = sequenza;
+	}
+
+	/**
+	 * Ritorna il numero di sequenza dell'aggiornamento.
+	 */
+	public long getSequenza() {
+		return sequenza;
+	}
+
+	/**
+	 * Applica la variazione alla copia locale della partita. Le mappe sono
+	 * quelle ricevute nell'ultimo aggiornamento completo (vedi
+	 * {@link UpdateStats#getFamiglieGiocatori()} e simili): i loro oggetti
+	 * vengono modificati senza essere sostituiti.
+	 *
+	 * @param spazioAzione
+	 *            copia locale dello {@link SpazioAzione}.
+	 * @param famiglie
+	 *            famigliari dei giocatori.
+	 * @param risorse
+	 *            risorse dei giocatori.
+	 * @param punti
+	 *            punti dei giocatori.
+	 * @param plance
+	 *            plance dei giocatori.
+	 * @param scomuniche
+	 *            scomuniche dei giocatori.
+	 */
+	public void applica(SpazioAzione spazioAzione, Map<String, Famigliare[]> famiglie, Map<String, Risorsa> risorse,
+			Map<String, Punti> punti, Map<String, Plancia> plance, Map<String, Scomunica[]> scomuniche) {
+		if (dadi != null)
+			for (int i = 0; i < dadi.length; i++)
+				spazioAzione.setValoreDadi(dadi[i], i);
+
+		if (celle != null)
+			for (Map.Entry<Integer, Pedina> cella : celle.entrySet())
+				setCella(spazioAzione, cella.getKey(), famigliare(famiglie, cella.getValue()));
+
+		if (carte != null)
+			for (Map.Entry<Integer, Carta> carta : carte.entrySet())
+				spazioAzione.setCartaTorre(carta.getValue(), carta.getKey());
+
+		if (raccoltoOvale != null)
+			sostituisci(spazioAzione.getZonaRaccoltoOvale(), famiglie, raccoltoOvale);
+		if (produzioneOvale != null)
+			sostituisci(spazioAzione.getZonaProduzioneOvale(), famiglie, produzioneOvale);
+		if (palazzoDelConsiglio != null)
+			sostituisci(spazioAzione.getPalazzoDelConsiglio(), famiglie, palazzoDelConsiglio);
+		if (raccoltoOvale != null || produzioneOvale != null || palazzoDelConsiglio != null)
+			spazioAzione.aggiornaIndice();
+
+		if (this.contatori != null)
+			for (Map.Entry<String, int[]> giocatore : this.contatori.entrySet()) {
+				String nome = giocatore.getKey();
+				int[] valori = giocatore.getValue();
+				Contatori contatori = risorse.get(nome).getContatori();
+				contatori.imposta(valori);
+				// risorse e punti ricevuti separatamente non condividono i contatori
+				if (punti.get(nome).getContatori() != contatori)
+					punti.get(nome).getContatori().imposta(valori);
+				Famigliare[] famiglia = famiglie.get(nome);
+				for (int i = 0; i < famiglia.length; i++) {
+					famiglia[i].setValore(valori[Contatori.NUMERO + i]);
+					famiglia[i].setPosizionato(valori[Contatori.NUMERO + 4 + i] != 0);
+				}
+			}
+
+		if (nuoveCarte != null)
+			for (Map.Entry<String, ArrayList<Carta>> giocatore : nuoveCarte.entrySet()) {
+				Plancia plancia = plance.get(giocatore.getKey());
+				for (Carta carta : giocatore.getValue()) {
+					if (carta instanceof Personaggio)
+						plancia.aggiungiPersonaggio((Personaggio) carta);
+					else if (carta instanceof Territorio)
+						plancia.aggiungiTerritorio((Territorio) carta);
+					else if (carta instanceof Edificio)
+						plancia.aggiungiEdificio((Edificio) carta);
+					else if (carta instanceof Impresa)
+						plancia.aggiungiImpresa((Impresa) carta);
+				}
+			}
+
+		if (this.scomuniche != null)
+			scomuniche.putAll(this.scomuniche);
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////
+	// Formato binario (vedi UpdateStats#writeTo)
+	/////////////////////////////////////////////////////////////////////////////////////////
+
+	// Campi presenti nella variazione (un bit per campo, vedi writeTo).
+	private static final int DADI = 1;
+	private static final int CELLE_MODIFICATE = 1 << 1;
+	private static final int CARTE = 1 << 2;
+	private static final int RACCOLTO_OVALE = 1 << 3;
+	private static final int PRODUZIONE_OVALE = 1 << 4;
+	private static final int PALAZZO = 1 << 5;
+	private static final int CONTATORI_MODIFICATI = 1 << 6;
+	private static final int NUOVE_CARTE = 1 << 7;
+	private static final int SCOMUNICHE = 1 << 8;
+
+	/**
+	 * Numero massimo di elementi (giocatori o famigliari in una zona) accettato
+	 * in lettura.
+	 */
+	private static final int MAX_ELEMENTI = 64;
+
+	/**
+	 * Scrive la variazione in formato binario: numero di sequenza, un intero
+	 * con un bit per ogni campo presente, seguito dai soli campi presenti. Le
+	 * carte e le scomuniche non hanno uno schema binario e vengono scritte
+	 * tramite serializzazione (vedi {@link BinaryCodec#writeSerialized}).
+	 *
+	 * @param out
+	 *            stream di uscita.
+	 * @throws IOException
+	 *             se si verifica un errore di scrittura.
+	 */
+	void writeTo(DataOutputStream out) throws IOException {
+		BinaryCodec.writeVarLong(out, sequenza);
+		int campi = (dadi != null ? DADI : 0) | (celle != null ? CELLE_MODIFICATE : 0)
+				| (carte != null ? CARTE : 0) | (raccoltoOvale != null ? RACCOLTO_OVALE : 0)
+				| (produzioneOvale != null ? PRODUZIONE_OVALE : 0) | (palazzoDelConsiglio != null ? PALAZZO : 0)
+				| (contatori != null ? CONTATORI_MODIFICATI : 0) | (nuoveCarte != null ? NUOVE_CARTE : 0)
+				| (scomuniche != null ? SCOMUNICHE : 0);
+		BinaryCodec.writeVarInt(out, campi);
+
+		if (dadi != null) {
+			BinaryCodec.writeVarInt(out, dadi.length);
+			for (int dado : dadi)
+				BinaryCodec.writeVarInt(out, dado);
+		}
+		if (celle != null) {
+			BinaryCodec.writeVarInt(out, celle.size());
+			for (Map.Entry<Integer, Pedina> cella : celle.entrySet()) {
+				BinaryCodec.writeVarInt(out, cella.getKey());
+				Pedina.writeTo(out, cella.getValue());
+			}
+		}
+		if (carte != null)
+			BinaryCodec.writeSerialized(out, carte);
+		if (raccoltoOvale != null)
+			Pedina.writeTo(out, raccoltoOvale);
+		if (produzioneOvale != null)
+			Pedina.writeTo(out, produzioneOvale);
+		if (palazzoDelConsiglio != null)
+			Pedina.writeTo(out, palazzoDelConsiglio);
+		if (contatori != null) {
+			BinaryCodec.writeVarInt(out, contatori.size());
+			for (Map.Entry<String, int[]> giocatore : contatori.entrySet()) {
+				BinaryCodec.writeString(out, giocatore.getKey());
+				for (int valore : giocatore.getValue())
+					BinaryCodec.writeVarInt(out, valore);
+			}
+		}
+		if (nuoveCarte != null)
+			BinaryCodec.writeSerialized(out, nuoveCarte);
+		if (scomuniche != null)
+			BinaryCodec.writeSerialized(out, scomuniche);
+	}
+
+	/**
+	 * Legge una variazione scritta con {@link #writeTo(DataOutputStream)}.
+	 *
+	 * @param in
+	 *            stream di ingresso.
+	 * @return la variazione letta.
+	 * @throws IOException
+	 *             se la variazione non e' valida.
+	 */
+	@SuppressWarnings("unchecked")
+	static GameDelta readFrom(DataInputStream in) throws IOException {
+		GameDelta delta = new GameDelta(BinaryCodec.readVarLong(in));
+		int campi = BinaryCodec.readVarInt(in);
+
+		try {
+			if ((campi & DADI) != 0) {
+				delta.dadi = new int[readSize(in, 3)];
+				for (int i = 0; i < delta.dadi.length; i++)
+					delta.dadi[i] = BinaryCodec.readVarInt(in);
+			}
+			if ((campi & CELLE_MODIFICATE) != 0) {
+				int size = readSize(in, CELLE);
+				for (int i = 0; i < size; i++) {
+					int cella = BinaryCodec.readVarInt(in);
+					if (cella < 0 || cella >= CELLE)
+						throw new StreamCorruptedException("Invalid cell: " + cella);
+					delta.setCella(cella, Pedina.readFrom(in));
+				}
+			}
+			if ((campi & CARTE) != 0)
+				delta.carte = (HashMap<Integer, Carta>) BinaryCodec.readSerialized(in);
+			if ((campi & RACCOLTO_OVALE) != 0)
+				delta.raccoltoOvale = Pedina.readArray(in);
+			if ((campi & PRODUZIONE_OVALE) != 0)
+				delta.produzioneOvale = Pedina.readArray(in);
+			if ((campi & PALAZZO) != 0)
+				delta.palazzoDelConsiglio = Pedina.readArray(in);
+			if ((campi & CONTATORI_MODIFICATI) != 0) {
+				int size = readSize(in, MAX_ELEMENTI);
+				for (int i = 0; i < size; i++) {
+					String giocatore = BinaryCodec.readString(in);
+					int[] valori = new int[CONTATORI];
+					for (int j = 0; j < valori.length; j++)
+						valori[j] = BinaryCodec.readVarInt(in);
+					delta.setContatori(giocatore, valori);
+				}
+			}
+			if ((campi & NUOVE_CARTE) != 0)
+				delta.nuoveCarte = (HashMap<String, ArrayList<Carta>>) BinaryCodec.readSerialized(in);
+			if ((campi & SCOMUNICHE) != 0)
+				delta.scomuniche = (HashMap<String, Scomunica[]>) BinaryCodec.readSerialized(in);
+		} catch (ClassCastException e) {
+			throw new StreamCorruptedException(e.toString());
+		}
+		return delta;
+	}
+
+	/**
+	 * Legge la dimensione di un array o di una mappa.
+	 *
+	 * @param max
+	 *            dimensione massima ammessa.
+	 */
+	private static int readSize(DataInputStream in, int max) throws IOException {
+		int size = BinaryCodec.readVarInt(in);
+		if (size < 0 || size > max)
+			throw new StreamCorruptedException("Invalid size: " + size);
+		return size;
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////
+	// Metodi usati dal Server per costruire la variazione (vedi GameDeltaEncoder)
+	/////////////////////////////////////////////////////////////////////////////////////////
+
+	void setDadi(int[] dadi) {
+		this.dadi = dadi;
+	}
+
+	void setCella(int cella, Pedina pedina) {
+		if (celle == null)
+			celle = new HashMap<>();
+		celle.put(cella, pedina);
+	}
+
+	void setCarta(int piano, Carta carta) {
+		if (carte == null)
+			carte = new HashMap<>();
+		carte.put(piano, carta);
+	}
+
+	void setRaccoltoOvale(Pedina[] pedine) {
+		this.raccoltoOvale = pedine;
+	}
+
+	void setProduzioneOvale(Pedina[] pedine) {
+		this.produzioneOvale = pedine;
+	}
+
+	void setPalazzoDelConsiglio(Pedina[] pedine) {
+		this.palazzoDelConsiglio = pedine;
+	}
+
+	void setContatori(String giocatore, int[] valori) {
+		if (contatori == null)
+			contatori = new HashMap<>();
+		contatori.put(giocatore, valori);
+	}
+
+	void setNuoveCarte(String giocatore, ArrayList<Carta> carte) {
+		if (nuoveCarte == null)
+			nuoveCarte = new HashMap<>();
+		nuoveCarte.put(giocatore, carte);
+	}
+
+	void setScomuniche(String giocatore, Scomunica[] valori) {
+		if (scomuniche == null)
+			scomuniche = new HashMap<>();
+		scomuniche.put(giocatore, valori);
+	}
+
+	/**
+	 * Ritorna il famigliare presente in una casella a famigliare singolo.
+	 *
+	 * @param spazioAzione
+	 *            tabellone di gioco.
+	 * @param cella
+	 *            indice della casella (0..{@link #CELLE}-1).
+	 */
+	static Famigliare getCella(SpazioAzione spazioAzione, int cella) {
+		if (cella < TORRI)
+			return spazioAzione.getFamigliareTorre(cella);
+		if (cella < RACCOLTO_ROTONDO)
+			return spazioAzione.getMercato()[cella - TORRI];
+		if (cella == RACCOLTO_ROTONDO)
+			return spazioAzione.getZonaRaccoltoRotonda();
+		return spazioAzione.getZonaProduzioneRotonda();
+	}
+
+	/**
+	 * Imposta il famigliare presente in una casella a famigliare singolo.
+	 */
+	private static void setCella(SpazioAzione spazioAzione, int cella, Famigliare famigliare) {
+		if (cella < TORRI)
+			spazioAzione.setFamigliareTorre(famigliare, cella);
+		else if (cella < RACCOLTO_ROTONDO)
+			spazioAzione.setMercato(famigliare, cella - TORRI);
+		else if (cella == RACCOLTO_ROTONDO)
+			spazioAzione.setZonaRaccoltoRotonda(famigliare);
+		else
+			spazioAzione.setZonaProduzioneRotonda(famigliare);
+	}
+
+	/**
+	 * Sostituisce il contenuto di una zona a piu' famigliari.
+	 */
+	private static void sostituisci(ArrayList<Famigliare> zona, Map<String, Famigliare[]> famiglie,
+			Pedina[] pedine) {
+		zona.clear();
+		for (Pedina pedina : pedine)
+			zona.add(famigliare(famiglie, pedina));
+	}
+
+	/**
+	 * Ritorna il famigliare locale indicato dalla pedina.
+	 */
+	private static Famigliare famigliare(Map<String, Famigliare[]> famiglie, Pedina pedina) {
+		if (pedina == null)
+			return null;
+		return famiglie.get(pedina.giocatore)[pedina.indice];
+	}
+
+	/**
+	 * Riferimento ad un famigliare: nome del giocatore a cui appartiene e
+	 * indice del famigliare (vedi {@link main.model.enums.EColoriPedine}).
+	 */
+	static class Pedina implements Serializable {
+
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 4915247087731286120L;
+
+		private final String giocatore;
+
+		private final int indice;
+
+		private Pedina(String giocatore, int indice) {
+			this.giocatore = giocatore;
+			this.indice = indice;
+		}
+
+		/**
+		 * Ritorna il riferimento al famigliare (null se il famigliare e'
+		 * null).
+		 */
+		static Pedina di(Famigliare famigliare) {
+			if (famigliare == null)
+				return null;
+			return new Pedina(famigliare.getGiocatore().getNome(),
+					famigliare.getColoreFamigliare().getIndiceColore());
+		}
+
+		/**
+		 * Scrive un riferimento (anche null): nome del giocatore e indice.
+		 */
+		static void writeTo(DataOutputStream out, Pedina pedina) throws IOException {
+			BinaryCodec.writeString(out, pedina == null ? null : pedina.giocatore);
+			if (pedina != null)
+				BinaryCodec.writeVarInt(out, pedina.indice);
+		}
+
+		/**
+		 * Scrive un array di riferimenti.
+		 */
+		static void writeTo(DataOutputStream out, Pedina[] pedine) throws IOException {
+			BinaryCodec.writeVarInt(out, pedine.length);
+			for (Pedina pedina : pedine)
+				writeTo(out, pedina);
+		}
+
+		/**
+		 * Legge un riferimento scritto con {@link #writeTo(DataOutputStream, Pedina)}.
+		 */
+		static Pedina readFrom(DataInputStream in) throws IOException {
+			String giocatore = BinaryCodec.readString(in);
+			if (giocatore == null)
+				return null;
+			int indice = BinaryCodec.readVarInt(in);
+			if (indice < 0 || indice > 3)
+				throw new StreamCorruptedException("Invalid familiar: " + indice);
+			return new Pedina(giocatore, indice);
+		}
+
+		/**
+		 * Legge un array di riferimenti scritto con
+		 * {@link #writeTo(DataOutputStream, Pedina[])}.
+		 */
+		static Pedina[] readArray(DataInputStream in) throws IOException {
+			Pedina[] pedine = new Pedina[readSize(in, MAX_ELEMENTI)];
+			for (int i = 0; i < pedine.length; i++)
+				pedine[i] = readFrom(in);
+			return pedine;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Pedina))
+				return false;
+			Pedina pedina = (Pedina) obj;
+			return indice == pedina.indice && giocatore.equals(pedina.giocatore);
+		}
+
+		@Override
+		public int hashCode() {
+			return giocatore.hashCode() * 31 + indice;
+		}
+	}
+}
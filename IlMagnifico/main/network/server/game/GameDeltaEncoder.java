@@ -0,0 +1,185 @@
+package main.network.server.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+import main.model.Carta;
+import main.model.Contatori;
+import main.model.Famigliare;
+import main.model.Giocatore;
+import main.model.Plancia;
+import main.model.Scomunica;
+import main.model.SpazioAzione;
+import main.network.server.game.GameDelta.Pedina;
+
+/**
+ * Costruisce le variazioni dello stato della partita (vedi {@link GameDelta})
+ * confrontando lo stato attuale con quello dell'ultima variazione prodotta.
+ * Ne esiste uno per {@link Room}: tutti i giocatori della Stanza ricevono la
+ * stessa sequenza di variazioni.
+ */
+class GameDeltaEncoder {
+
+	/**
+	 * Numero di sequenza dell'ultima variazione prodotta.
+	 */
+	private long sequenza;
+
+	/**
+	 * Ultimo valore dei dadi.
+	 */
+	private int[] dadi;
+
+	/**
+	 * Ultimi famigliari delle caselle a famigliare singolo.
+	 */
+	private final Pedina[] celle = new Pedina[GameDelta.CELLE];
+
+	/**
+	 * Ultime carte dei piani delle torri.
+	 */
+	private final Carta[] carte = new Carta[GameDelta.TORRI];
+
+	/**
+	 * Ultimi famigliari delle zone a piu' famigliari.
+	 */
+	private Pedina[] raccoltoOvale, produzioneOvale, palazzoDelConsiglio;
+
+	/**
+	 * Ultimi contatori dei giocatori.
+	 */
+	private final HashMap<String, int[]> contatori = new HashMap<>();
+
+	/**
+	 * Numero di carte (personaggi, territori, edifici, imprese) gia' inviate
+	 * per ogni plancia.
+	 */
+	private final HashMap<String, int[]> carteInPlancia = new HashMap<>();
+
+	/**
+	 * Ultime scomuniche dei giocatori.
+	 */
+	private final HashMap<String, Scomunica[]> scomuniche = new HashMap<>();
+
+	/**
+	 * Ritorna il numero di sequenza dell'ultima variazione prodotta.
+	 */
+	long getSequenza() {
+		return sequenza;
+	}
+
+	/**
+	 * Produce la variazione dello stato della partita rispetto alla chiamata
+	 * precedente.
+	 *
+	 * @param giocatori
+	 *            giocatori della partita.
+	 * @param spazioAzione
+	 *            tabellone di gioco.
+	 * @return la variazione (vedi {@link GameDelta}).
+	 */
+	GameDelta codifica(List<? extends Giocatore> giocatori, SpazioAzione spazioAzione) {
+		GameDelta delta = new GameDelta(++sequenza);
+
+		int[] valoreDadi = spazioAzione.getValoreDadi();
+		if (!Arrays.equals(dadi, valoreDadi)) {
+			dadi = valoreDadi.clone();
+			delta.setDadi(valoreDadi.clone());
+		}
+
+		for (int i = 0; i < GameDelta.CELLE; i++) {
+			Pedina pedina = Pedina.di(GameDelta.getCella(spazioAzione, i));
+			if (!Objects.equals(celle[i], pedina)) {
+				celle[i] = pedina;
+				delta.setCella(i, pedina);
+			}
+		}
+
+		for (int i = 0; i < GameDelta.TORRI; i++) {
+			Carta carta = spazioAzione.getCartaTorre(i);
+			if (carte[i] != carta) {
+				carte[i] = carta;
+				delta.setCarta(i, carta);
+			}
+		}
+
+		Pedina[] pedine = pedine(spazioAzione.getZonaRaccoltoOvale());
+		if (!Arrays.equals(raccoltoOvale, pedine))
+			delta.setRaccoltoOvale(raccoltoOvale = pedine);
+		pedine = pedine(spazioAzione.getZonaProduzioneOvale());
+		if (!Arrays.equals(produzioneOvale, pedine))
+			delta.setProduzioneOvale(produzioneOvale = pedine);
+		pedine = pedine(spazioAzione.getPalazzoDelConsiglio());
+		if (!Arrays.equals(palazzoDelConsiglio, pedine))
+			delta.setPalazzoDelConsiglio(palazzoDelConsiglio = pedine);
+
+		for (Giocatore giocatore : giocatori)
+			codificaGiocatore(delta, giocatore);
+
+		return delta;
+	}
+
+	/**
+	 * Aggiunge alla variazione i contatori, le nuove carte e le scomuniche del
+	 * giocatore (se modificati).
+	 */
+	private void codificaGiocatore(GameDelta delta, Giocatore giocatore) {
+		String nome = giocatore.getNome();
+
+		int[] valori = contatori(giocatore);
+		if (!Arrays.equals(contatori.get(nome), valori)) {
+			contatori.put(nome, valori);
+			delta.setContatori(nome, valori.clone());
+		}
+
+		Plancia plancia = giocatore.getPlancia();
+		List<List<? extends Carta>> mazzi = Arrays.asList(plancia.getPersonaggi(), plancia.getTerritori(),
+				plancia.getEdifici(), plancia.getImprese());
+		int[] inviate = carteInPlancia.computeIfAbsent(nome, n -> new int[mazzi.size()]);
+		ArrayList<Carta> nuove = new ArrayList<>();
+		for (int i = 0; i < mazzi.size(); i++) {
+			List<? extends Carta> mazzo = mazzi.get(i);
+			if (mazzo.size() > inviate[i]) {
+				nuove.addAll(mazzo.subList(inviate[i], mazzo.size()));
+				inviate[i] = mazzo.size();
+			}
+		}
+		if (!nuove.isEmpty())
+			delta.setNuoveCarte(nome, nuove);
+
+		Scomunica[] scomunicheGiocatore = new Scomunica[3];
+		for (int i = 0; i < scomunicheGiocatore.length; i++)
+			scomunicheGiocatore[i] = giocatore.getScomunica(i);
+		if (!Arrays.equals(scomuniche.get(nome), scomunicheGiocatore)) {
+			scomuniche.put(nome, scomunicheGiocatore);
+			delta.setScomuniche(nome, scomunicheGiocatore.clone());
+		}
+	}
+
+	/**
+	 * Ritorna i contatori del giocatore (vedi {@link GameDelta#CONTATORI}).
+	 */
+	private static int[] contatori(Giocatore giocatore) {
+		int[] valori = new int[GameDelta.CONTATORI];
+		giocatore.getContatori().copiaIn(valori, 0);
+		for (int i = 0; i < 4; i++) {
+			Famigliare famigliare = giocatore.getFamigliare(i);
+			valori[Contatori.NUMERO + i] = famigliare.getValore();
+			valori[Contatori.NUMERO + 4 + i] = famigliare.getPosizionato() ? 1 : 0;
+		}
+		return valori;
+	}
+
+	/**
+	 * Ritorna i riferimenti ai famigliari di una zona a piu' famigliari.
+	 */
+	private static Pedina[] pedine(List<Famigliare> zona) {
+		Pedina[] pedine = new Pedina[zona.size()];
+		for (int i = 0; i < pedine.length; i++)
+			pedine[i] = Pedina.di(zona.get(i));
+		return pedine;
+	}
+}
@@ -0,0 +1,829 @@
+package main.network.server.game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import main.network.server.ServerThreads;
+import main.util.Costants;
+
+/**
+ * Journal (write-ahead log) della partita di una Stanza, usato per ripristinare
+ * le partite in corso dopo un riavvio del Server. Il journal viene scritto su
+ * un file mappato in memoria: ogni record e' visibile al sistema operativo non
+ * appena viene scritto (e sopravvive quindi alla terminazione del processo),
+ * mentre la scrittura su disco avviene a gruppi di record (group commit), al
+ * piu' {@link Costants#JOURNAL_COMMIT_DELAY} ms dopo il primo record del
+ * gruppo.
+ *
+ * Ogni file inizia con l'intestazione ({@link #HEADER}) e con lo stato
+ * completo della partita ({@link #SNAPSHOT}), seguiti dalle azioni accettate
+ * ({@link #ACTION}) e dai lanci dei dadi ({@link #DICE}) nell'ordine in cui
+ * sono avvenuti. Ogni {@link Costants#JOURNAL_SNAPSHOT_INTERVAL} azioni il
+ * journal viene compattato: viene creato un nuovo file (generazione
+ * successiva) contenente solamente lo stato attuale della partita e il file
+ * precedente viene eliminato, per cui il ripristino riproduce al piu' un
+ * intervallo di azioni. La creazione e la scrittura su disco del nuovo file
+ * avvengono, come il group commit, fuori dalla partita e da
+ * {@link ServerThreads#SCHEDULER}, su un Thread di
+ * {@link ServerThreads#execute(Runnable)} (vedi
+ * {@link #compact(Collection, byte[])}).
+ *
+ * Formato di ogni record: [lunghezza, CRC32, tipo, contenuto]; una lunghezza
+ * nulla (spazio non ancora scritto) o un CRC errato (scrittura interrotta)
+ * indicano la fine del journal.
+ */
+public class GameJournal {
+
+	/**
+	 * Intestazione: [gameId, generazione, maxPlayers, minPlayers, numero di
+	 * giocatori, (nickname, token di sessione)...].
+	 */
+	static final byte HEADER = 1;
+
+	/**
+	 * Stato completo della partita (vedi {@link GameSnapshot}).
+	 */
+	static final byte SNAPSHOT = 2;
+
+	/**
+	 * Azione accettata: [nickname, {@link UpdateStats} richiesto].
+	 */
+	static final byte ACTION = 3;
+
+	/**
+	 * Lancio dei dadi: [nero, arancione, bianco].
+	 */
+	static final byte DICE = 4;
+
+	/**
+	 * Dimensione dell'intestazione di ogni record (lunghezza, CRC32, tipo).
+	 */
+	private static final int RECORD_HEADER = 9;
+
+	/**
+	 * Estensione del file di una nuova generazione in costruzione (ignorato
+	 * dal ripristino).
+	 */
+	private static final String TEMP_EXTENSION = ".tmp";
+
+	/**
+	 * Cartella in cui vengono scritti i journal.
+	 */
+	private final Path directory;
+
+	/**
+	 * Identificatore della partita (comune a tutte le generazioni del
+	 * journal).
+	 */
+	private final String gameId;
+
+	/**
+	 * Numero massimo di giocatori della Stanza.
+	 */
+	private final int maxPlayers;
+
+	/**
+	 * Numero minimo di giocatori della Stanza.
+	 */
+	private final int minPlayers;
+
+	/**
+	 * Numero di azioni dopo le quali il journal viene compattato.
+	 */
+	private final int snapshotInterval;
+
+	/**
+	 * Generazione del prossimo file del journal.
+	 */
+	private int generation;
+
+	/**
+	 * File attuale del journal (null prima del primo snapshot).
+	 */
+	private Path file;
+
+	private FileChannel channel;
+
+	/**
+	 * Regione del file mappata in memoria in cui vengono scritti i record.
+	 */
+	private MappedByteBuffer buffer;
+
+	/**
+	 * Numero di azioni registrate dopo l'ultimo snapshot.
+	 */
+	private int actions;
+
+	/**
+	 * Flag che indica se ci sono record non ancora scritti su disco (e se la
+	 * loro scrittura e' quindi gia' stata programmata).
+	 */
+	private boolean dirty;
+
+	/**
+	 * Posizione fino alla quale i record sono gia' stati scritti su disco.
+	 */
+	private int forced;
+
+	/**
+	 * Flag che indica se e' in corso una compattazione (vedi
+	 * {@link #compact(Collection, byte[])}).
+	 */
+	private boolean compacting;
+
+	/**
+	 * Buffer riutilizzato per codificare il contenuto dei record.
+	 */
+	private final RecordBuffer record = new RecordBuffer();
+
+	private final DataOutputStream out = new DataOutputStream(record);
+
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param directory
+	 *            cartella in cui scrivere il journal.
+	 * @param gameId
+	 *            identificatore della partita.
+	 * @param generation
+	 *            generazione del primo file del journal.
+	 * @param maxPlayers
+	 *            numero massimo di giocatori della Stanza.
+	 * @param minPlayers
+	 *            numero minimo di giocatori della Stanza.
+	 * @param snapshotInterval
+	 *            numero di azioni dopo le quali compattare il journal.
+	 */
+	GameJournal(Path directory, String gameId, int generation, int maxPlayers, int minPlayers,
+			int snapshotInterval) {
+		this.directory = directory;
+		this.gameId = gameId;
+		this.generation = generation;
+		this.maxPlayers = maxPlayers;
+		this.minPlayers = minPlayers;
+		this.snapshotInterval = Math.max(1, snapshotInterval);
+	}
+
+	/**
+	 * Crea il journal di una nuova partita.
+	 *
+	 * @param directory
+	 *            cartella in cui scrivere il journal.
+	 * @param maxPlayers
+	 *            numero massimo di giocatori della Stanza.
+	 * @param minPlayers
+	 *            numero minimo di giocatori della Stanza.
+	 * @param snapshotInterval
+	 *            numero di azioni dopo le quali compattare il journal.
+	 * @return il journal creato (il file viene creato con il primo snapshot).
+	 */
+	public static GameJournal create(Path directory, int maxPlayers, int minPlayers, int snapshotInterval) {
+		return new GameJournal(directory, UUID.randomUUID().toString(), 0, maxPlayers, minPlayers,
+				snapshotInterval);
+	}
+
+	/**
+	 * Ritorna il file attuale del journal.
+	 *
+	 * @return file del journal (null prima del primo snapshot).
+	 */
+	public synchronized Path getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Ritorna la generazione del prossimo file del journal (incrementata da
+	 * ogni snapshot).
+	 *
+	 * @return generazione del prossimo file.
+	 */
+	public synchronized int getGeneration() {
+		return this.generation;
+	}
+
+	/**
+	 * Ritorna "True" se sono state registrate abbastanza azioni da dover
+	 * compattare il journal (vedi {@link #compact(Collection, byte[])}) e non
+	 * e' gia' in corso una compattazione.
+	 *
+	 * @return "True" se e' necessario un nuovo snapshot.
+	 */
+	public synchronized boolean needsSnapshot() {
+		return !compacting && actions >= snapshotInterval;
+	}
+
+	/**
+	 * Attende la fine della compattazione in corso (se presente).
+	 *
+	 * @throws InterruptedException
+	 *             se il Thread viene interrotto durante l'attesa.
+	 */
+	public synchronized void awaitCompaction() throws InterruptedException {
+		while (compacting)
+			wait();
+	}
+
+	/**
+	 * Registra un'azione accettata dalla partita.
+	 *
+	 * @param nickname
+	 *            nome del giocatore che ha eseguito l'azione.
+	 * @param action
+	 *            azione richiesta dal giocatore.
+	 * @throws IOException
+	 *             se il record non puo' essere scritto.
+	 */
+	public synchronized void appendAction(String nickname, UpdateStats action) throws IOException {
+		record.reset();
+		out.writeUTF(nickname);
+		action.writeTo(out);
+		append(ACTION, record.array(), record.size());
+		actions++;
+	}
+
+	/**
+	 * Registra un lancio dei dadi.
+	 *
+	 * @param dadi
+	 *            valori dei dadi (nero, arancione, bianco).
+	 * @throws IOException
+	 *             se il record non puo' essere scritto.
+	 */
+	public synchronized void appendDice(int[] dadi) throws IOException {
+		record.reset();
+		for (int dado : dadi)
+			out.writeByte(dado);
+		append(DICE, record.array(), record.size());
+	}
+
+	/**
+	 * Scrive lo stato completo della partita in un nuovo file (generazione
+	 * successiva), lo scrive su disco ed elimina il file precedente (usato
+	 * per il primo snapshot, vedi {@link #compact(Collection, byte[])}
+	 * per le compattazioni successive).
+	 *
+	 * @param players
+	 *            giocatori della partita (nickname e token di sessione
+	 *            vengono scritti nell'intestazione).
+	 * @param state
+	 *            stato completo della partita (vedi {@link GameSnapshot}).
+	 * @throws IOException
+	 *             se il nuovo file non puo' essere scritto (il file
+	 *             precedente viene mantenuto).
+	 */
+	public synchronized void snapshot(Collection<? extends RemotePlayer> players, byte[] state) throws IOException {
+		Path previousFile = this.file;
+		FileChannel previousChannel = this.channel;
+		MappedByteBuffer previousBuffer = this.buffer;
+
+		Path next = directory.resolve(gameId + "-" + generation + Costants.JOURNAL_EXTENSION);
+		FileChannel nextChannel = FileChannel.open(next, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			this.channel = nextChannel;
+			this.buffer = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize(state));
+
+			byte[] header = encodeHeader(players, generation);
+			append(HEADER, header, header.length);
+			append(SNAPSHOT, state, state.length);
+			buffer.force();
+		} catch (IOException e) {
+			nextChannel.close();
+			Files.deleteIfExists(next);
+			this.channel = previousChannel;
+			this.buffer = previousBuffer;
+			throw e;
+		}
+
+		this.file = next;
+		this.generation++;
+		this.actions = 0;
+		this.dirty = false;
+		this.forced = buffer.position();
+		if (previousFile != null) {
+			previousChannel.close();
+			Files.deleteIfExists(previousFile);
+		}
+	}
+
+	/**
+	 * Compatta il journal senza bloccare la partita: viene solamente
+	 * codificata l'intestazione, mentre il nuovo file (generazione
+	 * successiva) viene creato e scritto su disco da un Thread di
+	 * {@link ServerThreads#execute(Runnable)}. I record registrati nel frattempo
+	 * vengono copiati nel nuovo file, che sostituisce il precedente solamente
+	 * quando contiene (su disco) tutti i record; in caso di errore si
+	 * continua a scrivere sul file precedente.
+	 *
+	 * @param players
+	 *            giocatori della partita (nickname e token di sessione
+	 *            vengono scritti nell'intestazione).
+	 * @param state
+	 *            stato completo della partita (vedi {@link GameSnapshot}), che
+	 *            non deve essere piu' modificato.
+	 * @throws IOException
+	 *             se il journal non e' aperto.
+	 */
+	public synchronized void compact(Collection<? extends RemotePlayer> players, byte[] state) throws IOException {
+		if (buffer == null)
+			throw new IOException("Journal is not open");
+		if (compacting)
+			return;
+		compacting = true;
+		actions = 0;
+		int nextGeneration = generation++;
+		byte[] header = encodeHeader(players, nextGeneration);
+		int from = buffer.position();
+		ServerThreads.execute(() -> writeGeneration(nextGeneration, header, state, from));
+	}
+
+	/**
+	 * Crea il file della nuova generazione del journal (vedi
+	 * {@link #compact(Collection, byte[])}): il file viene scritto su disco
+	 * fuori dal lock e rinominato (rendendolo visibile al ripristino) quando
+	 * non ci sono piu' record da copiare dal file precedente.
+	 *
+	 * @param nextGeneration
+	 *            generazione del nuovo file.
+	 * @param header
+	 *            intestazione codificata.
+	 * @param state
+	 *            stato completo della partita.
+	 * @param from
+	 *            posizione del primo record, nel file precedente, successivo
+	 *            allo stato della partita.
+	 */
+	private void writeGeneration(int nextGeneration, byte[] header, byte[] state, int from) {
+		String name = gameId + "-" + nextGeneration + Costants.JOURNAL_EXTENSION;
+		Path temp = directory.resolve(name + TEMP_EXTENSION);
+		Path next = directory.resolve(name);
+		FileChannel nextChannel = null;
+		Path previousFile;
+		FileChannel previousChannel;
+		try {
+			nextChannel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+			MappedByteBuffer nextBuffer = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize(state));
+			CRC32 checksum = new CRC32();
+			put(nextBuffer, checksum, HEADER, header, header.length);
+			put(nextBuffer, checksum, SNAPSHOT, state, state.length);
+
+			int copied = from;
+			while (true) {
+				nextBuffer.force();
+				synchronized (this) {
+					if (buffer == null) {
+						// Journal eliminato (es. fine della partita)
+						discard(nextChannel, temp);
+						return;
+					}
+					int end = buffer.position();
+					if (end == copied) {
+						Files.move(temp, next, StandardCopyOption.ATOMIC_MOVE);
+						previousFile = this.file;
+						previousChannel = this.channel;
+						this.file = next;
+						this.channel = nextChannel;
+						this.buffer = nextBuffer;
+						this.forced = nextBuffer.position();
+						compacting = false;
+						notifyAll();
+						break;
+					}
+					// Record registrati dopo lo stato della partita
+					if (nextBuffer.remaining() < end - copied) {
+						int position = nextBuffer.position();
+						nextBuffer = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+								Math.max(2L * nextBuffer.capacity(), (long) position + end - copied));
+						nextBuffer.position(position);
+					}
+					ByteBuffer records = buffer.duplicate();
+					records.position(copied).limit(end);
+					nextBuffer.put(records);
+					copied = end;
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot compact journal: " + next + " (" + e.getMessage() + ")");
+			synchronized (this) {
+				discard(nextChannel, temp);
+			}
+			return;
+		}
+
+		try {
+			previousChannel.close();
+			Files.deleteIfExists(previousFile);
+		} catch (IOException e) {
+			System.err.println("Cannot delete journal: " + previousFile + " (" + e.getMessage() + ")");
+		}
+	}
+
+	/**
+	 * Elimina il file di una compattazione non completata.
+	 */
+	private void discard(FileChannel nextChannel, Path temp) {
+		try {
+			if (nextChannel != null)
+				nextChannel.close();
+			Files.deleteIfExists(temp);
+		} catch (IOException e) {
+			System.err.println("Cannot delete journal: " + temp + " (" + e.getMessage() + ")");
+		}
+		compacting = false;
+		notifyAll();
+	}
+
+	/**
+	 * Codifica l'intestazione di un file del journal.
+	 */
+	private byte[] encodeHeader(Collection<? extends RemotePlayer> players, int fileGeneration) throws IOException {
+		record.reset();
+		out.writeUTF(gameId);
+		out.writeInt(fileGeneration);
+		out.writeByte(maxPlayers);
+		out.writeByte(minPlayers);
+		out.writeByte(players.size());
+		for (RemotePlayer player : players) {
+			out.writeUTF(player.getNome());
+			out.writeUTF(player.getSessionToken() != null ? player.getSessionToken() : "");
+		}
+		return record.toByteArray();
+	}
+
+	/**
+	 * Dimensione iniziale della regione mappata di un nuovo file.
+	 */
+	private static int segmentSize(byte[] state) {
+		return Math.max(Costants.JOURNAL_SEGMENT_SIZE, 2 * state.length);
+	}
+
+	/**
+	 * Chiude il journal ed elimina il file (es. alla fine della partita).
+	 */
+	public synchronized void delete() {
+		try {
+			if (channel != null)
+				channel.close();
+			if (file != null)
+				Files.deleteIfExists(file);
+		} catch (IOException e) {
+			System.err.println("Cannot delete journal: " + file + " (" + e.getMessage() + ")");
+		}
+		channel = null;
+		buffer = null;
+		file = null;
+	}
+
+	/**
+	 * Scrive un record nel journal.
+	 *
+	 * @param type
+	 *            tipo del record.
+	 * @param payload
+	 *            contenuto del record.
+	 * @param length
+	 *            lunghezza del contenuto.
+	 * @throws IOException
+	 *             se il journal non e' aperto o il record non puo' essere
+	 *             scritto.
+	 */
+	private void append(byte type, byte[] payload, int length) throws IOException {
+		if (buffer == null)
+			throw new IOException("Journal is not open");
+		ensureCapacity(RECORD_HEADER + length);
+		put(buffer, crc, type, payload, length);
+
+		if (!dirty) {
+			dirty = true;
+			ServerThreads.SCHEDULER.schedule(() -> ServerThreads.execute(this::commit), Costants.JOURNAL_COMMIT_DELAY,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Scrive un record nella regione mappata (che deve avere spazio
+	 * sufficiente).
+	 */
+	private static void put(MappedByteBuffer target, CRC32 checksum, byte type, byte[] payload, int length) {
+		checksum.reset();
+		checksum.update(type);
+		checksum.update(payload, 0, length);
+		int start = target.position();
+		target.position(start + 4);
+		target.putInt((int) checksum.getValue());
+		target.put(type);
+		target.put(payload, 0, length);
+		// La lunghezza viene scritta per ultima: un record e' visibile solo
+		// quando e' completo.
+		target.putInt(start, length);
+	}
+
+	/**
+	 * Estende la regione mappata del file se non c'e' abbastanza spazio per
+	 * il prossimo record.
+	 */
+	private void ensureCapacity(int needed) throws IOException {
+		if (buffer.remaining() >= needed)
+			return;
+		int position = buffer.position();
+		long size = Math.max(2L * buffer.capacity(), (long) position + needed);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		buffer.position(position);
+	}
+
+	/**
+	 * Scrive su disco tutti i record registrati dall'ultima scrittura (group
+	 * commit, programmato da {@link ServerThreads#SCHEDULER} ed eseguito da
+	 * {@link ServerThreads#execute(Runnable)}): viene scritta
+	 * solamente la parte del file modificata.
+	 */
+	private void commit() {
+		MappedByteBuffer toForce;
+		int from, to;
+		synchronized (this) {
+			if (!dirty || buffer == null)
+				return;
+			dirty = false;
+			toForce = buffer;
+			from = forced;
+			to = buffer.position();
+			forced = to;
+		}
+		// Fuori dal lock: la partita puo' continuare a registrare azioni.
+		toForce.force(from, to - from);
+	}
+
+	/**
+	 * Buffer che espone il proprio array (evita una copia per ogni record).
+	 */
+	private static class RecordBuffer extends ByteArrayOutputStream {
+
+		private byte[] array() {
+			return buf;
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////
+	// Ripristino
+	/////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Legge tutti i journal presenti nella cartella (per ogni partita viene
+	 * mantenuta solamente l'ultima generazione valida, le altre vengono
+	 * eliminate).
+	 *
+	 * @param directory
+	 *            cartella dei journal (creata se non esiste).
+	 * @return le partite da ripristinare.
+	 * @throws IOException
+	 *             se la cartella non puo' essere letta.
+	 */
+	public static List<Recovery> recover(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		Map<String, Recovery> games = new HashMap<>();
+		List<Path> superseded = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + Costants.JOURNAL_EXTENSION)) {
+			for (Path file : files) {
+				Recovery recovery;
+				try {
+					recovery = read(file);
+				} catch (IOException e) {
+					System.err.println("Invalid journal: " + file + " (" + e.getMessage() + ")");
+					continue;
+				}
+				Recovery other = games.get(recovery.gameId);
+				if (other == null || other.generation < recovery.generation) {
+					games.put(recovery.gameId, recovery);
+					if (other != null)
+						superseded.add(other.file);
+				} else {
+					superseded.add(file);
+				}
+			}
+		}
+		for (Path file : superseded)
+			Files.deleteIfExists(file);
+		// Compattazioni interrotte
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+				"*" + Costants.JOURNAL_EXTENSION + TEMP_EXTENSION)) {
+			for (Path file : files)
+				Files.deleteIfExists(file);
+		}
+		return new ArrayList<>(games.values());
+	}
+
+	/**
+	 * Legge un file del journal.
+	 *
+	 * @param file
+	 *            file da leggere.
+	 * @return la partita da ripristinare.
+	 * @throws IOException
+	 *             se il file non inizia con intestazione e snapshot validi.
+	 */
+	static Recovery read(Path file) throws IOException {
+		ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+		Recovery recovery = new Recovery(file);
+		CRC32 crc = new CRC32();
+		int records = 0;
+		while (data.remaining() >= RECORD_HEADER) {
+			int length = data.getInt();
+			if (length <= 0 || length > data.remaining() - 5)
+				break;
+			int checksum = data.getInt();
+			byte type = data.get();
+			byte[] payload = new byte[length];
+			data.get(payload);
+			crc.reset();
+			crc.update(type);
+			crc.update(payload);
+			if ((int) crc.getValue() != checksum)
+				break;
+
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+			if (records == 0 && type != HEADER || records == 1 && type != SNAPSHOT)
+				throw new IOException("Missing journal header");
+			switch (type) {
+			case HEADER:
+				recovery.gameId = in.readUTF();
+				recovery.generation = in.readInt();
+				recovery.maxPlayers = in.readUnsignedByte();
+				recovery.minPlayers = in.readUnsignedByte();
+				int players = in.readUnsignedByte();
+				for (int i = 0; i < players; i++)
+					recovery.sessionTokens.put(in.readUTF(), in.readUTF());
+				break;
+			case SNAPSHOT:
+				recovery.snapshot = payload;
+				break;
+			case ACTION:
+				recovery.actions.add(RecordedAction.readFrom(in));
+				break;
+			case DICE:
+				recovery.dice.add(new int[] { in.readByte(), in.readByte(), in.readByte() });
+				break;
+			default:
+				throw new IOException("Unknown journal record: " + type);
+			}
+			records++;
+		}
+		if (recovery.snapshot == null)
+			throw new IOException("Missing game snapshot");
+		return recovery;
+	}
+
+	/**
+	 * Azione registrata nel journal (o in una {@link GameRecord}).
+	 */
+	public static final class RecordedAction {
+
+		private final String nickname;
+
+		private final UpdateStats action;
+
+		private RecordedAction(String nickname, UpdateStats action) {
+			this.nickname = nickname;
+			this.action = action;
+		}
+
+		/**
+		 * Legge un'azione codificata come [nickname, {@link UpdateStats}].
+		 */
+		static RecordedAction readFrom(DataInputStream in) throws IOException {
+			return new RecordedAction(in.readUTF(), UpdateStats.readFrom(in));
+		}
+
+		public String getNickname() {
+			return this.nickname;
+		}
+
+		public UpdateStats getAction() {
+			return this.action;
+		}
+	}
+
+	/**
+	 * Partita letta da un journal: ultimo snapshot e record successivi.
+	 */
+	public static final class Recovery {
+
+		private final Path file;
+
+		private String gameId;
+
+		private int generation;
+
+		private int maxPlayers;
+
+		private int minPlayers;
+
+		/**
+		 * Token di sessione dei giocatori <nickname, token>.
+		 */
+		private final Map<String, String> sessionTokens = new HashMap<>();
+
+		private byte[] snapshot;
+
+		private final List<RecordedAction> actions = new ArrayList<>();
+
+		private final Queue<int[]> dice = new ArrayDeque<>();
+
+		private Recovery(Path file) {
+			this.file = file;
+		}
+
+		public Path getFile() {
+			return this.file;
+		}
+
+		public String getGameId() {
+			return this.gameId;
+		}
+
+		public int getMaxPlayers() {
+			return this.maxPlayers;
+		}
+
+		public int getMinPlayers() {
+			return this.minPlayers;
+		}
+
+		/**
+		 * Ritorna il token di sessione del giocatore.
+		 *
+		 * @param nickname
+		 *            nome del giocatore.
+		 * @return il token di sessione (null se il giocatore non aveva
+		 *         eseguito il login).
+		 */
+		public String getSessionToken(String nickname) {
+			String token = sessionTokens.get(nickname);
+			return token == null || token.isEmpty() ? null : token;
+		}
+
+		/**
+		 * Ritorna lo stato della partita al momento dell'ultimo snapshot.
+		 *
+		 * @return snapshot codificato (vedi {@link GameSnapshot#read(byte[])}).
+		 */
+		public byte[] getSnapshot() {
+			return this.snapshot;
+		}
+
+		/**
+		 * Ritorna le azioni registrate dopo l'ultimo snapshot.
+		 *
+		 * @return azioni in ordine di esecuzione.
+		 */
+		public List<RecordedAction> getActions() {
+			return this.actions;
+		}
+
+		/**
+		 * Ritorna i lanci dei dadi registrati dopo l'ultimo snapshot.
+		 *
+		 * @return lanci in ordine di esecuzione.
+		 */
+		public Queue<int[]> getDice() {
+			return this.dice;
+		}
+
+		/**
+		 * Crea il journal con cui proseguire la partita ripristinata (il
+		 * primo snapshot usera' la generazione successiva a quella letta).
+		 *
+		 * @param directory
+		 *            cartella dei journal.
+		 * @param snapshotInterval
+		 *            numero di azioni dopo le quali compattare il journal.
+		 * @return il nuovo journal.
+		 */
+		public GameJournal resume(Path directory, int snapshotInterval) {
+			return new GameJournal(directory, gameId, generation + 1, maxPlayers, minPlayers, snapshotInterval);
+		}
+	}
+}
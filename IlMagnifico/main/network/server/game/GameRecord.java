@@ -0,0 +1,191 @@
+package main.network.server.game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import main.model.Partita;
+import main.util.Costants;
+
+/**
+ * Registrazione di una partita: seme (vedi {@link Partita#setSeme(long)}),
+ * giocatori nell'ordine in cui sono entrati nella partita e azioni accettate.
+ * Dato che tutte le estrazioni casuali dipendono dal seme, la partita puo'
+ * essere rigiocata per intero a partire dalla registrazione (vedi
+ * {@link GameReplay}).
+ *
+ * Le azioni vengono codificate al momento della registrazione (gli
+ * {@link UpdateStats} ricevuti dai Client possono essere riusati), nello
+ * stesso formato delle azioni del journal (vedi {@link GameJournal}).
+ */
+public class GameRecord {
+
+	/**
+	 * Seme della partita.
+	 */
+	private final long seme;
+
+	/**
+	 * Nomi dei giocatori, nell'ordine precedente all'estrazione dell'ordine
+	 * di gioco.
+	 */
+	private final List<String> players;
+
+	/**
+	 * Azioni codificate: [nickname, {@link UpdateStats} richiesto]...
+	 */
+	private final ByteArrayOutputStream actions = new ByteArrayOutputStream();
+
+	private final DataOutputStream out = new DataOutputStream(actions);
+
+	/**
+	 * Numero di azioni registrate.
+	 */
+	private int size;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param seme
+	 *            seme della partita.
+	 * @param players
+	 *            nomi dei giocatori (prima dell'estrazione dell'ordine di
+	 *            gioco).
+	 */
+	public GameRecord(long seme, List<String> players) {
+		this.seme = seme;
+		this.players = Collections.unmodifiableList(new ArrayList<>(players));
+	}
+
+	/**
+	 * Registra un'azione accettata dalla partita.
+	 *
+	 * @param nickname
+	 *            nome del giocatore che ha eseguito l'azione.
+	 * @param action
+	 *            azione richiesta dal giocatore.
+	 * @throws IOException
+	 *             se l'azione non puo' essere codificata.
+	 */
+	public synchronized void addAction(String nickname, UpdateStats action) throws IOException {
+		out.writeUTF(nickname);
+		action.writeTo(out);
+		size++;
+	}
+
+	public long getSeme() {
+		return this.seme;
+	}
+
+	public List<String> getPlayers() {
+		return this.players;
+	}
+
+	public synchronized int size() {
+		return this.size;
+	}
+
+	/**
+	 * Decodifica le azioni registrate.
+	 *
+	 * @return azioni in ordine di esecuzione.
+	 * @throws IOException
+	 *             se le azioni non possono essere decodificate.
+	 */
+	public synchronized List<GameJournal.RecordedAction> getActions() throws IOException {
+		List<GameJournal.RecordedAction> list = new ArrayList<>(size);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(actions.toByteArray()));
+		for (int i = 0; i < size; i++)
+			list.add(GameJournal.RecordedAction.readFrom(in));
+		return list;
+	}
+
+	/**
+	 * Scrive la registrazione: [seme, numero di giocatori, nickname..., numero
+	 * di azioni, lunghezza delle azioni, azioni codificate].
+	 *
+	 * @param out
+	 *            stream di uscita.
+	 * @throws IOException
+	 *             se la scrittura non va a buon fine.
+	 */
+	public synchronized void writeTo(DataOutputStream out) throws IOException {
+		out.writeLong(seme);
+		out.writeByte(players.size());
+		for (String player : players)
+			out.writeUTF(player);
+		out.writeInt(size);
+		out.writeInt(actions.size());
+		actions.writeTo(out);
+	}
+
+	/**
+	 * Legge una registrazione scritta con {@link #writeTo(DataOutputStream)}.
+	 *
+	 * @param in
+	 *            stream di ingresso.
+	 * @return la registrazione letta.
+	 * @throws IOException
+	 *             se la lettura non va a buon fine.
+	 */
+	public static GameRecord readFrom(DataInputStream in) throws IOException {
+		long seme = in.readLong();
+		int count = in.readUnsignedByte();
+		List<String> players = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			players.add(in.readUTF());
+		GameRecord record = new GameRecord(seme, players);
+		record.size = in.readInt();
+		byte[] data = new byte[in.readInt()];
+		in.readFully(data);
+		record.actions.write(data);
+		return record;
+	}
+
+	/**
+	 * Salva la registrazione in un nuovo file della cartella (il file viene
+	 * scritto per intero prima di essere rinominato).
+	 *
+	 * @param directory
+	 *            cartella delle registrazioni (creata se non esiste).
+	 * @return il file creato.
+	 * @throws IOException
+	 *             se il file non puo' essere scritto.
+	 */
+	public Path save(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		String name = System.currentTimeMillis() + "-" + Long.toHexString(seme);
+		Path temporary = Files.createTempFile(directory, name, ".tmp");
+		try (DataOutputStream file = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+			writeTo(file);
+		}
+		return Files.move(temporary, directory.resolve(name + Costants.RECORD_EXTENSION),
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Legge una registrazione salvata con {@link #save(Path)}.
+	 *
+	 * @param file
+	 *            file della registrazione.
+	 * @return la registrazione letta.
+	 * @throws IOException
+	 *             se il file non puo' essere letto.
+	 */
+	public static GameRecord load(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			return readFrom(in);
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package main.network.server.game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import main.network.server.game.exceptions.GameException;
+
+/**
+ * Riproduce una partita registrata (vedi {@link GameRecord}) senza Stanza ne'
+ * Client, alla massima velocita' consentita dalla CPU: la partita viene
+ * rigiocata con lo stesso seme e le stesse azioni.
+ *
+ * Per posizionarsi su un punto qualsiasi della partita (vedi
+ * {@link #seek(int)} e {@link #seekTurn(int, int)}) vengono usati dei
+ * keyframe, cioe' lo stato completo della partita (vedi {@link GameSnapshot})
+ * all'inizio della partita e di ogni turno: viene ripristinato il keyframe
+ * precedente e vengono rigiocate solamente le azioni successive. I keyframe
+ * vengono creati alla prima ricerca.
+ */
+public class GameReplay {
+
+	/**
+	 * Partita registrata.
+	 */
+	private final GameRecord record;
+
+	/**
+	 * Azioni della partita (decodificate una sola volta).
+	 */
+	private final List<GameJournal.RecordedAction> actions;
+
+	/**
+	 * Keyframe della partita, in ordine di azione.
+	 */
+	private final List<Keyframe> keyframes = new ArrayList<>();
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param record
+	 *            partita da riprodurre.
+	 * @throws IOException
+	 *             se le azioni registrate non possono essere decodificate.
+	 */
+	public GameReplay(GameRecord record) throws IOException {
+		this.record = record;
+		this.actions = record.getActions();
+	}
+
+	/**
+	 * Ritorna il numero di azioni della partita.
+	 *
+	 * @return numero di azioni registrate.
+	 */
+	public int size() {
+		return actions.size();
+	}
+
+	/**
+	 * Riproduce l'intera partita.
+	 *
+	 * @return la partita al termine dell'ultima azione registrata.
+	 * @throws GameException
+	 *             se un'azione registrata non e' valida (la partita riprodotta
+	 *             non corrisponde a quella registrata).
+	 */
+	public Game run() throws GameException {
+		Game game = newGame();
+		perform(game, 0, actions.size());
+		return game;
+	}
+
+	/**
+	 * Ritorna la partita dopo il numero di azioni indicato.
+	 *
+	 * @param action
+	 *            numero di azioni da eseguire (da 0 a {@link #size()}).
+	 * @return la partita dopo le azioni indicate.
+	 * @throws IOException
+	 *             se un keyframe non puo' essere scritto o letto.
+	 * @throws GameException
+	 *             se un'azione registrata non e' valida.
+	 */
+	public Game seek(int action) throws IOException, GameException {
+		if (action < 0 || action > actions.size())
+			throw new IllegalArgumentException("Invalid action: " + action);
+		buildKeyframes();
+		Keyframe keyframe = keyframes.get(0);
+		for (Keyframe next : keyframes) {
+			if (next.action > action)
+				break;
+			keyframe = next;
+		}
+		Game game = keyframe.restore();
+		perform(game, keyframe.action, action);
+		return game;
+	}
+
+	/**
+	 * Ritorna la partita all'inizio del turno indicato.
+	 *
+	 * @param periodo
+	 *            periodo del turno.
+	 * @param turno
+	 *            turno (numerato dall'inizio della partita, vedi
+	 *            {@link Game#getTurno()}).
+	 * @return la partita all'inizio del turno, oppure null se il turno non e'
+	 *         stato giocato.
+	 * @throws IOException
+	 *             se un keyframe non puo' essere scritto o letto.
+	 * @throws GameException
+	 *             se un'azione registrata non e' valida.
+	 */
+	public Game seekTurn(int periodo, int turno) throws IOException, GameException {
+		buildKeyframes();
+		for (Keyframe keyframe : keyframes)
+			if (keyframe.periodo == periodo && keyframe.turno == turno)
+				return keyframe.restore();
+		return null;
+	}
+
+	/**
+	 * Ritorna il numero di keyframe creati.
+	 *
+	 * @return numero di keyframe (0 prima della prima ricerca).
+	 */
+	public int getKeyframes() {
+		return keyframes.size();
+	}
+
+	/**
+	 * Crea una nuova partita con i giocatori e il seme registrati.
+	 */
+	private Game newGame() {
+		List<HeadlessPlayer> players = new ArrayList<>();
+		for (String nickname : record.getPlayers())
+			players.add(new HeadlessPlayer(nickname));
+		Game game = new Game(players);
+		game.setSeme(record.getSeme());
+		game.startNewGame();
+		return game;
+	}
+
+	/**
+	 * Esegue le azioni registrate nell'intervallo [from, to).
+	 */
+	private void perform(Game game, int from, int to) throws GameException {
+		for (int i = from; i < to; i++) {
+			GameJournal.RecordedAction action = actions.get(i);
+			RemotePlayer player = game.getPlayer(action.getNickname());
+			if (player == null)
+				throw new GameException("Unknown player in game record: " + action.getNickname());
+			game.performGameAction(player, action.getAction());
+		}
+	}
+
+	/**
+	 * Rigioca la partita creando un keyframe all'inizio della partita e di
+	 * ogni turno.
+	 */
+	private void buildKeyframes() throws IOException, GameException {
+		if (!keyframes.isEmpty())
+			return;
+		Game game = newGame();
+		keyframes.add(new Keyframe(0, game));
+		for (int i = 0; i < actions.size(); i++) {
+			int periodo = game.getPeriodo();
+			int turno = game.getTurno();
+			perform(game, i, i + 1);
+			if (game.getPeriodo() != periodo || game.getTurno() != turno)
+				keyframes.add(new Keyframe(i + 1, game));
+		}
+	}
+
+	/**
+	 * Stato completo della partita dopo un certo numero di azioni.
+	 */
+	private static final class Keyframe {
+
+		/**
+		 * Numero di azioni eseguite.
+		 */
+		private final int action;
+
+		private final int periodo;
+
+		private final int turno;
+
+		/**
+		 * Stato codificato (vedi {@link GameSnapshot#write()}).
+		 */
+		private final byte[] state;
+
+		private Keyframe(int action, Game game) throws IOException {
+			this.action = action;
+			this.periodo = game.getPeriodo();
+			this.turno = game.getTurno();
+			this.state = game.toSnapshot().write();
+		}
+
+		/**
+		 * Ripristina una nuova partita dal keyframe.
+		 */
+		private Game restore() throws IOException {
+			return new Game(null, GameSnapshot.read(state));
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package main.network.server.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import main.model.Giocatore;
+import main.network.server.game.exceptions.GameException;
+import main.util.Costants;
+
+/**
+ * Esegue partite complete senza Stanza ne' Client (nessuna connessione RMI o
+ * Socket, nessun timer ne' attesa): ogni giocatore e' un
+ * {@link HeadlessPlayer} le cui azioni vengono scelte da una
+ * {@link PlayerStrategy}. Le partite possono essere eseguite su piu' Thread
+ * (una partita per Thread alla volta) misurando il numero di partite al
+ * secondo (vedi {@link Report}).
+ */
+public class GameRunner {
+
+	/**
+	 * Strategie dei giocatori, una per posto (l'ordine di gioco viene estratto
+	 * all'inizio della partita).
+	 */
+	private final PlayerStrategy[] strategies;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param strategies
+	 *            strategie dei giocatori (una per giocatore, da
+	 *            {@link Costants#ROOM_MIN_PLAYERS} a
+	 *            {@link Costants#ROOM_MAX_PLAYERS}).
+	 */
+	public GameRunner(PlayerStrategy... strategies) {
+		if (strategies.length < Costants.ROOM_MIN_PLAYERS || strategies.length > Costants.ROOM_MAX_PLAYERS)
+			throw new IllegalArgumentException("Invalid number of players: " + strategies.length);
+		this.strategies = strategies.clone();
+	}
+
+	/**
+	 * Gioca una partita completa.
+	 *
+	 * @param seme
+	 *            seme della partita (vedi {@link Game#setSeme(long)}).
+	 * @return la partita terminata.
+	 * @throws GameException
+	 *             se un giocatore non trova un'azione valida, se un'azione
+	 *             provoca un errore nella logica di gioco o se la partita non
+	 *             termina (vedi {@link Costants#RUNNER_MAX_ATTEMPTS} e
+	 *             {@link Costants#RUNNER_MAX_ACTIONS}).
+	 */
+	public Game play(long seme) throws GameException {
+		return play(seme, new Report(1));
+	}
+
+	private Game play(long seme, Report report) throws GameException {
+		List<HeadlessPlayer> players = new ArrayList<>(strategies.length);
+		for (int i = 0; i < strategies.length; i++)
+			players.add(new HeadlessPlayer("player" + (i + 1)));
+		Game game = new Game(players);
+		game.setSeme(seme);
+		game.startNewGame();
+
+		int actions = 0;
+		int attempts = 0;
+		while (!game.isGameEnded()) {
+			RemotePlayer player = nextPlayer(game);
+			UpdateStats action = strategies[players.indexOf(player)].nextAction(game, player);
+			try {
+				game.performGameAction(player, action);
+				actions++;
+				attempts = 0;
+			} catch (GameException e) {
+				report.rejected++;
+				if (++attempts >= Costants.RUNNER_MAX_ATTEMPTS)
+					throw new GameException("\"" + player.getNome() + "\" has no valid action (seed " + seme + "): "
+							+ e.getMessage());
+			} catch (RuntimeException e) {
+				// Errore nella logica di gioco: riproducibile con lo stesso seme
+				throw new GameException("Action of \"" + player.getNome() + "\" has failed (seed " + seme + ")", e);
+			}
+			if (actions > Costants.RUNNER_MAX_ACTIONS)
+				throw new GameException("Game has not ended after " + actions + " actions (seed " + seme + ")");
+		}
+		report.games++;
+		report.actions += actions;
+		return game;
+	}
+
+	/**
+	 * Ritorna il giocatore che deve eseguire la prossima azione (prima i
+	 * giocatori che devono eseguire il rapporto vaticano).
+	 */
+	private static RemotePlayer nextPlayer(Game game) {
+		List<Giocatore> vaticano = game.getGiocatoriRapportoVaticano();
+		if (!vaticano.isEmpty())
+			return (RemotePlayer) vaticano.get(0);
+		return (RemotePlayer) game.getGiocatoreDiTurno();
+	}
+
+	/**
+	 * Gioca le partite con i semi [seme, seme + games) distribuendole tra i
+	 * Thread indicati.
+	 *
+	 * @param seme
+	 *            seme della prima partita.
+	 * @param games
+	 *            numero di partite da giocare.
+	 * @param threads
+	 *            numero di Thread.
+	 * @return il resoconto delle partite giocate.
+	 * @throws GameException
+	 *             se una partita non puo' essere giocata (vedi
+	 *             {@link #play(long)}).
+	 * @throws InterruptedException
+	 *             se il Thread chiamante viene interrotto.
+	 */
+	public Report run(long seme, int games, int threads) throws GameException, InterruptedException {
+		Worker[] workers = new Worker[threads];
+		long start = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(seme, games, i, threads);
+			workers[i].start();
+		}
+		Report report = new Report(threads);
+		try {
+			for (Worker worker : workers) {
+				worker.join();
+				if (worker.error != null)
+					throw worker.error;
+				report.games += worker.report.games;
+				report.actions += worker.report.actions;
+				report.rejected += worker.report.rejected;
+			}
+		} finally {
+			// In caso di errore (o interruzione) i Thread rimasti non devono
+			// continuare a giocare dopo il ritorno del metodo.
+			stop(workers);
+		}
+		report.nanos = System.nanoTime() - start;
+		return report;
+	}
+
+	/**
+	 * Ferma i Thread indicati (alla fine della partita in corso) e ne attende
+	 * la terminazione.
+	 */
+	private static void stop(Worker[] workers) {
+		for (Worker worker : workers)
+			worker.cancelled = true;
+		boolean interrupted = false;
+		for (Worker worker : workers) {
+			while (worker.isAlive()) {
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Thread che gioca le partite [seme + index, seme + index + threads, ...].
+	 */
+	private class Worker extends Thread {
+
+		private final long seme;
+
+		private final int games;
+
+		private final int index;
+
+		private final int threads;
+
+		private final Report report = new Report(1);
+
+		private GameException error;
+
+		/**
+		 * Flag che indica se il Thread deve smettere di giocare.
+		 */
+		private volatile boolean cancelled;
+
+		private Worker(long seme, int games, int index, int threads) {
+			super("GameRunner-" + index);
+			this.seme = seme;
+			this.games = games;
+			this.index = index;
+			this.threads = threads;
+		}
+
+		@Override
+		public void run() {
+			try {
+				for (int i = index; i < games && !cancelled; i += threads)
+					play(seme + i, report);
+			} catch (GameException e) {
+				error = e;
+			}
+		}
+	}
+
+	/**
+	 * Resoconto delle partite giocate da {@link GameRunner#run(long, int, int)}.
+	 */
+	public static final class Report {
+
+		private final int threads;
+
+		private int games;
+
+		private long actions;
+
+		/**
+		 * Azioni non valide richieste dalle strategie.
+		 */
+		private long rejected;
+
+		private long nanos;
+
+		private Report(int threads) {
+			this.threads = threads;
+		}
+
+		public int getThreads() {
+			return this.threads;
+		}
+
+		public int getGames() {
+			return this.games;
+		}
+
+		public long getActions() {
+			return this.actions;
+		}
+
+		public long getRejected() {
+			return this.rejected;
+		}
+
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		/**
+		 * Ritorna il numero di partite giocate al secondo.
+		 *
+		 * @return partite al secondo.
+		 */
+		public double getGamesPerSecond() {
+			return nanos > 0 ? games * 1e9 / nanos : 0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d games on %d threads in %d ms: %.0f games/s, %.0f actions/s (%d rejected)", games,
+					threads, nanos / 1000000, getGamesPerSecond(), nanos > 0 ? actions * 1e9 / nanos : 0, rejected);
+		}
+	}
+
+	/**
+	 * Gioca le partite con la strategia {@link CouncilStrategy} su un Thread e
+	 * su tutti i processori disponibili.
+	 *
+	 * @param args
+	 *            [games [players]]
+	 */
+	public static void main(String[] args) {
+		int games = 10000, players = Costants.ROOM_MAX_PLAYERS;
+		try {
+			if (args.length > 0)
+				games = Integer.parseInt(args[0]);
+			if (args.length > 1)
+				players = Integer.parseInt(args[1]);
+		} catch (NumberFormatException e) {
+			System.out.println("Proper usage is: [games [players]]");
+			System.exit(0);
+		}
+
+		PlayerStrategy[] strategies = new PlayerStrategy[players];
+		for (int i = 0; i < players; i++)
+			strategies[i] = new CouncilStrategy();
+		GameRunner runner = new GameRunner(strategies);
+		int processors = Runtime.getRuntime().availableProcessors();
+		try {
+			// Riscaldamento
+			runner.run(0, games, processors);
+			System.out.println(runner.run(0, games, 1));
+			System.out.println(runner.run(0, games, processors));
+		} catch (GameException | InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package main.network.server.game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import main.model.Carta;
+import main.model.Giocatore;
+import main.model.Partita;
+import main.model.Scomunica;
+import main.model.SpazioAzione;
+import main.model.enums.ECarte;
+
+/**
+ * Stato completo di una {@link Game} scritto nel journal della Stanza (vedi
+ * {@link GameJournal}). Lo stato viene serializzato come un unico grafo di
+ * oggetti, per cui i riferimenti condivisi (es. lo {@link SpazioAzione} dei
+ * giocatori, il giocatore di turno) vengono mantenuti; costi ed effetti di
+ * carte e scomuniche non vengono serializzati, ma ricollegati per nome. Il
+ * mazzo (la parte piu' grande dello stato) viene scritto come elenco dei nomi
+ * delle carte, ricreate alla lettura. Lo stato comprende il generatore delle
+ * estrazioni casuali, per cui la partita ripristinata prosegue come la
+ * partita originale, e la registrazione della partita (vedi
+ * {@link GameRecord}).
+ */
+class GameSnapshot implements Serializable {
+
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = 2319846190442915733L;
+
+	transient ArrayList<Carta> mazzo;
+
+	ArrayList<Giocatore> giocatori;
+
+	ArrayList<Giocatore> giocatoriRapportoVaticano;
+
+	boolean rapportoVaticanoEseguito;
+
+	Giocatore giocatoreDiTurno;
+
+	SpazioAzione spazioAzione;
+
+	Scomunica[] scomuniche;
+
+	int turno;
+
+	int periodo;
+
+	boolean partitaTerminata;
+
+	long seme;
+
+	Random random;
+
+	/**
+	 * Registrazione della partita (null se la partita non viene registrata),
+	 * scritta nel formato di {@link GameRecord#writeTo(DataOutputStream)}.
+	 */
+	transient GameRecord record;
+
+	/**
+	 * Scrive lo stato, con il mazzo codificato come elenco di nomi.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(mazzo.size());
+		for (Carta carta : mazzo)
+			out.writeUTF(carta.getNome());
+		out.writeBoolean(record != null);
+		if (record != null)
+			record.writeTo(new DataOutputStream(out));
+	}
+
+	/**
+	 * Legge lo stato, ricreando le carte del mazzo (vedi
+	 * {@link Partita#creaCarta(ECarte)}).
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int size = in.readInt();
+		mazzo = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			ECarte carta = ECarte.getCarta(in.readUTF());
+			if (carta == null)
+				throw new IOException("Unknown card in game snapshot");
+			mazzo.add(Partita.creaCarta(carta));
+		}
+		if (in.readBoolean())
+			record = GameRecord.readFrom(new DataInputStream(in));
+	}
+
+	/**
+	 * Ritorna i giocatori della partita (gli oggetti {@link RemotePlayer}
+	 * deserializzati sono offline finche' il Client non riprende la sessione).
+	 *
+	 * @return giocatori della partita.
+	 */
+	List<RemotePlayer> getPlayers() {
+		List<RemotePlayer> players = new ArrayList<>();
+		for (Giocatore giocatore : giocatori)
+			players.add((RemotePlayer) giocatore);
+		return players;
+	}
+
+	/**
+	 * Codifica lo stato della partita.
+	 *
+	 * @return stato codificato.
+	 * @throws IOException
+	 *             se lo stato non puo' essere serializzato.
+	 */
+	byte[] write() throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(this);
+		}
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Decodifica lo stato di una partita scritto con {@link #write()}.
+	 *
+	 * @param data
+	 *            stato codificato.
+	 * @return lo stato della partita.
+	 * @throws IOException
+	 *             se lo stato non puo' essere letto.
+	 */
+	static GameSnapshot read(byte[] data) throws IOException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			return (GameSnapshot) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+	}
+}
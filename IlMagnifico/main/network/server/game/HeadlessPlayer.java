@@ -0,0 +1,44 @@
+package main.network.server.game;
+
+import java.rmi.RemoteException;
+
+import main.network.NetworkException;
+
+/**
+ * Giocatore senza Client associato, usato per giocare o riprodurre le partite
+ * senza Stanza (vedi {@link GameReplay}): i messaggi e gli aggiornamenti della
+ * partita vengono ignorati.
+ */
+public class HeadlessPlayer extends RemotePlayer {
+
+	/**
+	 * Serial Version UID
+	 */
+	private static final long serialVersionUID = -2087136250187305311L;
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param nickname
+	 *            nome del giocatore.
+	 */
+	public HeadlessPlayer(String nickname) {
+		super();
+		setNome(nickname);
+	}
+
+	@Override
+	public void onChatMessage(String author, String message) throws NetworkException {
+
+	}
+
+	@Override
+	public void onGameUpdate(UpdateStats update) throws NetworkException {
+
+	}
+
+	@Override
+	public void send(Object object) throws RemoteException {
+
+	}
+}
@@ -0,0 +1,121 @@
+package main.network.server.game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Aggiornamento completo dello stato della partita, costruito solamente alla
+ * consegna (vedi {@link PlayerMailbox}). La {@link Room} conserva una copia
+ * serializzata dello stato all'inizio della partita e le variazioni prodotte
+ * in seguito (vedi {@link GameDelta}): sotto i lock della Stanza vengono presi
+ * solamente i riferimenti a questi oggetti, che non vengono piu' modificati,
+ * mentre la copia dello stato viene letta e aggiornata fuori dai lock. La
+ * copia viene costruita una sola volta e condivisa tra i giocatori che la
+ * ricevono.
+ */
+class PendingSnapshot implements Supplier<UpdateStats> {
+
+	/**
+	 * Aggiornamento (senza stato della partita) a cui aggiungere lo stato.
+	 */
+	private final UpdateStats update;
+
+	/**
+	 * Stato completo della partita all'inizio della sequenza di variazioni
+	 * (vedi {@link #serializza(UpdateStats)}).
+	 */
+	private final byte[] base;
+
+	/**
+	 * Variazioni prodotte dopo lo stato {@link #base}.
+	 */
+	private final List<GameDelta> deltas;
+
+	/**
+	 * Numero di sequenza dello stato costruito.
+	 */
+	private final long sequenza;
+
+	/**
+	 * Aggiornamento completo (null finche' non viene richiesto).
+	 */
+	private UpdateStats snapshot;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param update
+	 *            aggiornamento a cui aggiungere lo stato della partita.
+	 * @param base
+	 *            stato serializzato all'inizio della sequenza di variazioni.
+	 * @param deltas
+	 *            variazioni successive allo stato serializzato (la lista non
+	 *            deve essere piu' modificata).
+	 * @param sequenza
+	 *            numero di sequenza dell'ultima variazione.
+	 */
+	PendingSnapshot(UpdateStats update, byte[] base, List<GameDelta> deltas, long sequenza) {
+		this.update = update;
+		this.base = base;
+		this.deltas = deltas;
+		this.sequenza = sequenza;
+	}
+
+	/**
+	 * Costruttore (aggiornamento completo gia' costruito).
+	 *
+	 * @param snapshot
+	 *            aggiornamento contenente lo stato completo della partita.
+	 */
+	PendingSnapshot(UpdateStats snapshot) {
+		this(snapshot, null, null, snapshot.getSequenza());
+		this.snapshot = snapshot;
+	}
+
+	/**
+	 * Ritorna l'aggiornamento completo, costruendolo alla prima chiamata.
+	 *
+	 * @return l'aggiornamento completo, oppure l'aggiornamento senza stato se
+	 *         la copia serializzata non e' leggibile.
+	 */
+	@Override
+	public synchronized UpdateStats get() {
+		if (snapshot == null) {
+			snapshot = new UpdateStats(update);
+			snapshot.setSequenza(sequenza);
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(base))) {
+				UpdateStats stato = (UpdateStats) in.readObject();
+				for (GameDelta delta : deltas)
+					delta.applica(stato.getSpazioAzione(), stato.getFamiglieGiocatori(), stato.getRisorseGiocatori(),
+							stato.getPuntiGiocatori(), stato.getPlanceGiocatori(), stato.getScomunicheGiocatori());
+				snapshot.impostaStato(stato);
+			} catch (IOException | ClassNotFoundException e) {
+				System.err.println("Cannot read game state (" + e.getMessage() + ")");
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Serializza lo stato completo della partita, usato come base degli
+	 * aggiornamenti completi successivi.
+	 *
+	 * @param stato
+	 *            aggiornamento contenente lo stato completo della partita.
+	 * @return lo stato serializzato.
+	 * @throws IOException
+	 *             se lo stato non e' serializzabile.
+	 */
+	static byte[] serializza(UpdateStats stato) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(stato);
+		}
+		return buffer.toByteArray();
+	}
+}
@@ -0,0 +1,152 @@
+package main.network.server.game;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import main.network.NetworkException;
+import main.network.server.ServerThreads;
+import main.util.Costants;
+
+/**
+ * Casella di posta di un singolo giocatore: gli aggiornamenti della partita
+ * vengono accodati dalla {@link Room} e consegnati al giocatore in modo
+ * asincrono (vedi {@link ServerThreads}), cosi' che un giocatore lento ritardi
+ * solamente se stesso e non l'intera Stanza.
+ */
+class PlayerMailbox implements Runnable {
+
+	/**
+	 * Numero massimo di aggiornamenti in attesa di essere consegnati.
+	 */
+	private static final int CAPACITY = Costants.ROOM_MAILBOX_SIZE;
+
+	/**
+	 * Giocatore destinatario degli aggiornamenti.
+	 */
+	private final RemotePlayer player;
+
+	/**
+	 * Stanza a cui notificare la disconnessione del giocatore.
+	 */
+	private final Room room;
+
+	/**
+	 * Aggiornamenti in attesa di essere consegnati.
+	 */
+	private final BlockingQueue<Supplier<UpdateStats>> updates = new LinkedBlockingQueue<>(CAPACITY);
+
+	/**
+	 * Flag che indica se la consegna e' gia' stata programmata.
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	/**
+	 * Flag che indica se il giocatore ha ricevuto tutti gli aggiornamenti a
+	 * partire dall'ultimo aggiornamento completo (e puo' quindi ricevere le
+	 * sole variazioni, vedi {@link GameDelta}).
+	 */
+	private volatile boolean sincronizzato;
+
+	/**
+	 * Costruttore.
+	 * 
+	 * @param player
+	 *            giocatore destinatario degli aggiornamenti.
+	 * @param room
+	 *            stanza in cui si trova il giocatore.
+	 */
+	PlayerMailbox(RemotePlayer player, Room room) {
+		this.player = player;
+		this.room = room;
+	}
+
+	/**
+	 * Ritorna true se il giocatore puo' ricevere le sole variazioni dello
+	 * stato della partita.
+	 */
+	boolean isSincronizzato() {
+		return sincronizzato;
+	}
+
+	/**
+	 * Richiede che il prossimo aggiornamento sia completo (es. all'inizio di
+	 * una nuova partita).
+	 */
+	void desincronizza() {
+		sincronizzato = false;
+	}
+
+	/**
+	 * Accoda un aggiornamento senza attendere. Se la casella e' piena scarta
+	 * gli aggiornamenti ancora in attesa: il giocatore non e' piu'
+	 * sincronizzato e dovra' ricevere un aggiornamento completo (vedi
+	 * {@link #postSnapshot}), cosi' che chi invia l'aggiornamento non venga
+	 * rallentato.
+	 * 
+	 * @param update
+	 *            aggiornamento da consegnare.
+	 * @return true se l'aggiornamento e' stato accodato.
+	 */
+	boolean post(UpdateStats update) {
+		if (!updates.offer(() -> update)) {
+			sincronizzato = false;
+			room.log("Player \"" + player.getNome() + "\" is lagging, dropping " + updates.size()
+					+ " pending updates");
+			updates.clear();
+			return false;
+		}
+		schedule();
+		return true;
+	}
+
+	/**
+	 * Accoda un aggiornamento completo, dopo il quale il giocatore potra'
+	 * ricevere nuovamente le sole variazioni. Lo stato viene costruito alla
+	 * consegna (vedi {@link PendingSnapshot}).
+	 * 
+	 * @param snapshot
+	 *            aggiornamento contenente lo stato completo della partita.
+	 */
+	void postSnapshot(PendingSnapshot snapshot) {
+		if (!updates.offer(snapshot)) {
+			updates.clear();
+			updates.offer(snapshot);
+		}
+		sincronizzato = true;
+		schedule();
+	}
+
+	/**
+	 * Programma la consegna degli aggiornamenti (se non e' gia' in corso).
+	 */
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true))
+			ServerThreads.execute(this);
+	}
+
+	/**
+	 * Consegna, in ordine, gli aggiornamenti accodati.
+	 */
+	@Override
+	public void run() {
+		try {
+			Supplier<UpdateStats> update;
+			while ((update = updates.poll()) != null)
+				player.onGameUpdate(update.get());
+		} catch (NetworkException e) {
+			// Alla ripresa della sessione il giocatore ricevera' lo stato
+			// completo della partita (vedi Room#resumePlayer).
+			updates.clear();
+			sincronizzato = false;
+			player.markOffline();
+		} finally {
+			scheduled.set(false);
+			// Un aggiornamento potrebbe essere stato accodato dopo l'ultimo
+			// controllo, senza programmare una nuova consegna.
+			if (!updates.isEmpty())
+				schedule();
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package main.network.server.game;
+
+/**
+ * Funzione di decisione di un giocatore senza Client (vedi {@link GameRunner}):
+ * sceglie la prossima azione da eseguire nella partita.
+ */
+@FunctionalInterface
+public interface PlayerStrategy {
+
+	/**
+	 * Sceglie la prossima azione del giocatore (invocato quando e' il turno
+	 * del giocatore o quando deve eseguire il rapporto vaticano). Se l'azione
+	 * non e' valida viene richiesta un'altra azione.
+	 *
+	 * @param game
+	 *            partita in corso (da non modificare).
+	 * @param player
+	 *            giocatore che deve eseguire l'azione.
+	 * @return l'azione richiesta dal giocatore.
+	 */
+	UpdateStats nextAction(Game game, RemotePlayer player);
+}
@@ -0,0 +1,124 @@
+package main.network.server.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+import main.model.GeneratoreMosse;
+import main.model.Mossa;
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+
+/**
+ * Strategia che sceglie a caso una delle mosse legali del giocatore (vedi
+ * {@link GeneratoreMosse}), preferendo le mosse che non richiedono di pagare
+ * servitori. Se la mossa scelta richiede dei servitori, viene prima richiesto
+ * il pagamento (la mossa viene poi scelta di nuovo tra quelle legali).
+ *
+ * La scelta dipende solamente dal seme della strategia e dallo stato della
+ * partita, per cui una partita puo' essere rigiocata con lo stesso seme (vedi
+ * {@link GameRunner#play(long)}).
+ */
+public class RandomStrategy implements PlayerStrategy {
+
+	/**
+	 * Seme della strategia.
+	 */
+	private final long seme;
+
+	/**
+	 * Servitori (prima del raddoppio della scomunica) sotto i quali vengono
+	 * preferite le mosse che fanno guadagnare servitori.
+	 */
+	private static final int RISERVA = 2;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param seme
+	 *            seme della strategia.
+	 */
+	public RandomStrategy(long seme) {
+		this.seme = seme;
+	}
+
+	@Override
+	public UpdateStats nextAction(Game game, RemotePlayer player) {
+		UpdateStats action;
+		if (game.getGiocatoriRapportoVaticano().contains(player)) {
+			action = new UpdateStats(EAzioniGiocatore.SostegnoChiesa);
+			action.supportaChiesa(random(game, player, 0).nextBoolean());
+			return action;
+		}
+
+		List<Mossa> mosse = game.getMosseLegali(player);
+		if (mosse.isEmpty())
+			return new CouncilStrategy().nextAction(game, player);
+
+		// Mosse del famigliare con meno mosse legali (es. il famigliare neutrale
+		// che richiede servitori)
+		int[] perColore = new int[4];
+		for (Mossa mossa : mosse)
+			perColore[mossa.getColore().getIndiceColore()]++;
+		int colore = -1;
+		for (int i = 0; i < perColore.length; i++)
+			if (perColore[i] > 0 && (colore < 0 || perColore[i] < perColore[colore]))
+				colore = i;
+		final int famigliare = colore;
+		mosse = filter(mosse, mossa -> mossa.getColore().getIndiceColore() == famigliare);
+		// Senza servitori di riserva il famigliare neutrale non puo' essere
+		// posizionato (non esiste un'azione per passare il turno)
+		if (player.getRisorse().getServitori() < player.getCostoServitori(RISERVA))
+			mosse = filter(mosse, RandomStrategy::givesServants);
+		mosse = filter(mosse, mossa -> mossa.getServitori() == 0);
+
+		Mossa mossa = mosse.get(random(game, player, mosse.size()).nextInt(mosse.size()));
+		if (mossa.getServitori() > 0) {
+			action = new UpdateStats(EAzioniGiocatore.Famigliare);
+			action.aumentaValorePedina(mossa.getColore(), mossa.getServitori());
+			return action;
+		}
+		return new UpdateStats(mossa);
+	}
+
+	/**
+	 * Ritorna le mosse che rispettano la condizione, oppure tutte le mosse se
+	 * nessuna la rispetta.
+	 */
+	private static List<Mossa> filter(List<Mossa> mosse, Predicate<Mossa> condizione) {
+		List<Mossa> filtrate = new ArrayList<>(mosse.size());
+		for (Mossa mossa : mosse)
+			if (condizione.test(mossa))
+				filtrate.add(mossa);
+		return filtrate.isEmpty() ? mosse : filtrate;
+	}
+
+	/**
+	 * Ritorna "True" se la mossa fa guadagnare servitori.
+	 */
+	private static boolean givesServants(Mossa mossa) {
+		if (mossa.getAzione() == EAzioniGiocatore.Mercato && mossa.getPosizione() == 1)
+			return true;
+		ESceltePrivilegioDelConsiglio[] privilegi = mossa.getPrivilegi();
+		if (privilegi != null)
+			for (ESceltePrivilegioDelConsiglio privilegio : privilegi)
+				if (privilegio == ESceltePrivilegioDelConsiglio.Servitori)
+					return true;
+		return false;
+	}
+
+	/**
+	 * Ritorna un generatore casuale che dipende dal seme della strategia e
+	 * dallo stato della partita.
+	 */
+	private SplittableRandom random(Game game, RemotePlayer player, int mosse) {
+		long stato = game.getSeme();
+		stato = stato * 31 + game.getPeriodo();
+		stato = stato * 31 + game.getTurno();
+		stato = stato * 31 + player.getNome().hashCode();
+		stato = stato * 31 + player.getRisorse().getServitori();
+		stato = stato * 31 + mosse;
+		return new SplittableRandom(seme ^ stato);
+	}
+}
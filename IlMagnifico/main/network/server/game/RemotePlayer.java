@@ -1,6 +1,8 @@
 package main.network.server.game;
 
 import java.rmi.RemoteException;
+import java.util.List;
+import java.util.function.Consumer;
 
 import main.model.Giocatore;
 import main.network.NetworkException;
@@ -19,19 +21,51 @@ public abstract class RemotePlayer extends Giocatore {
 	/**
 	 * Flag che indica se il giocatore e' online.
 	 */
-	private boolean isOnline;
+	private volatile boolean isOnline;
+
+	/**
+	 * Istante (vedi {@link System#nanoTime()}) in cui e' stato ricevuto
+	 * l'ultimo messaggio dal client associato al giocatore.
+	 */
+	private transient volatile long lastSeen;
+
+	/**
+	 * Tempo di andata e ritorno (in nanosecondi) misurato con l'ultimo
+	 * heartbeat (-1 se non e' ancora stato misurato).
+	 */
+	private transient volatile long roundTripTime = -1;
 
 	/**
 	 * Riferimento alla Stanza dove il giocatore è stato inserito.
 	 */
 	private transient Room room;
 
+	/**
+	 * Token di sessione assegnato al giocatore durante il login (vedi
+	 * {@link main.network.server.SessionRegistry}).
+	 */
+	private transient String sessionToken;
+
+	/**
+	 * Coda dei messaggi di chat da consegnare al giocatore (creata al primo
+	 * messaggio, vedi {@link #getChatOutbox()}).
+	 */
+	private transient volatile ChatOutbox chatOutbox;
+
+	/**
+	 * Azione eseguita ad ogni disconnessione del giocatore (es. per
+	 * aggiornare il carico del nodo del cluster, vedi
+	 * {@link main.network.server.cluster.ClusterNode}).
+	 */
+	private transient volatile Consumer<RemotePlayer> disconnectListener;
+
 	/**
 	 * Costruttore Astratto.
 	 */
 	protected RemotePlayer() {
 		super();
 		setOnline(true);
+		touch();
 	}
 
 	/**
@@ -54,6 +88,26 @@ public abstract class RemotePlayer extends Giocatore {
 		return this.room;
 	}
 
+	/**
+	 * Imposta il token di sessione assegnato al giocatore.
+	 * 
+	 * @param sessionToken
+	 *            token di sessione univoco.
+	 */
+	public void setSessionToken(String sessionToken) {
+		this.sessionToken = sessionToken;
+	}
+
+	/**
+	 * Ritorna il token di sessione assegnato al giocatore durante il login.
+	 * 
+	 * @return il token di sessione (null se il giocatore non ha eseguito il
+	 *         login).
+	 */
+	public String getSessionToken() {
+		return this.sessionToken;
+	}
+
 	/**
 	 * Imposta il flag online usato per determinare lo stato della connessione
 	 * con il client associato al giocatore.
@@ -74,6 +128,100 @@ public abstract class RemotePlayer extends Giocatore {
 		return this.isOnline;
 	}
 
+	/**
+	 * Imposta l'azione eseguita ad ogni disconnessione del giocatore (vedi
+	 * {@link #markOffline()}).
+	 * 
+	 * @param disconnectListener
+	 *            azione eseguita con il giocatore disconnesso.
+	 */
+	public void setDisconnectListener(Consumer<RemotePlayer> disconnectListener) {
+		this.disconnectListener = disconnectListener;
+	}
+
+	/**
+	 * Imposta il giocatore come non piu' raggiungibile e lo notifica agli altri
+	 * giocatori della Stanza (una sola volta per ogni disconnessione).
+	 * 
+	 * @return "True" se il giocatore era ancora online.
+	 */
+	public boolean markOffline() {
+		synchronized (this) {
+			if (!this.isOnline)
+				return false;
+			this.isOnline = false;
+		}
+		Room currentRoom = this.room;
+		if (currentRoom != null)
+			currentRoom.notifyPlayerDisconnected(this);
+		Consumer<RemotePlayer> listener = this.disconnectListener;
+		if (listener != null)
+			listener.accept(this);
+		return true;
+	}
+
+	/**
+	 * Chiude la comunicazione con il client associato al giocatore (es.
+	 * quando non risponde piu' agli heartbeat, vedi
+	 * {@link main.network.server.HeartbeatMonitor}).
+	 */
+	public void disconnect() {
+		markOffline();
+	}
+
+	/**
+	 * Registra la ricezione di un messaggio dal client associato al giocatore.
+	 */
+	public void touch() {
+		this.lastSeen = System.nanoTime();
+	}
+
+	/**
+	 * Ritorna l'istante in cui e' stato ricevuto l'ultimo messaggio dal client.
+	 * 
+	 * @return istante in nanosecondi (vedi {@link System#nanoTime()}).
+	 */
+	public long getLastSeen() {
+		return this.lastSeen;
+	}
+
+	/**
+	 * Ritorna il tempo di andata e ritorno misurato con l'ultimo heartbeat.
+	 * 
+	 * @return tempo in nanosecondi (-1 se non e' ancora stato misurato).
+	 */
+	public long getRoundTripTime() {
+		return this.roundTripTime;
+	}
+
+	/**
+	 * Registra la risposta del client ad un heartbeat.
+	 * 
+	 * @param timestamp
+	 *            istante in cui e' stato inviato l'heartbeat (vedi
+	 *            {@link #sendHeartbeat(long)}).
+	 */
+	public void onHeartbeat(long timestamp) {
+		long now = System.nanoTime();
+		this.roundTripTime = now - timestamp;
+		this.lastSeen = now;
+	}
+
+	/**
+	 * Invia un heartbeat al client associato al giocatore, che dovra'
+	 * rispondere con lo stesso istante (vedi {@link #onHeartbeat(long)}). Di
+	 * default il giocatore risponde immediatamente (es. giocatori senza
+	 * connessione).
+	 * 
+	 * @param timestamp
+	 *            istante di invio (vedi {@link System#nanoTime()}).
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	public void sendHeartbeat(long timestamp) throws NetworkException {
+		onHeartbeat(timestamp);
+	}
+
 	/**
 	 * Invia un messaggio sulla chat del giocatore.
 	 * 
@@ -86,6 +234,53 @@ public abstract class RemotePlayer extends Giocatore {
 	 */
 	public abstract void onChatMessage(String author, String message) throws NetworkException;
 
+	/**
+	 * Invia un messaggio sulla chat del giocatore (invocato da
+	 * {@link ChatChannel}).
+	 * 
+	 * @param message
+	 *            messaggio da inviare.
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	public void onChatMessage(ChatMessage message) throws NetworkException {
+		onChatMessage(message.getAuthor(), message.getMessage());
+	}
+
+	/**
+	 * Invia un gruppo di messaggi sulla chat del giocatore (invocato da
+	 * {@link ChatOutbox}). Di default i messaggi vengono inviati uno alla
+	 * volta.
+	 * 
+	 * @param messages
+	 *            messaggi da inviare (in ordine di invio).
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	public void onChatMessages(List<ChatMessage> messages) throws NetworkException {
+		for (ChatMessage message : messages)
+			onChatMessage(message);
+	}
+
+	/**
+	 * Ritorna la coda dei messaggi di chat da consegnare al giocatore.
+	 * 
+	 * @return chatOutbox
+	 */
+	ChatOutbox getChatOutbox() {
+		ChatOutbox outbox = this.chatOutbox;
+		if (outbox == null) {
+			synchronized (this) {
+				outbox = this.chatOutbox;
+				if (outbox == null) {
+					outbox = new ChatOutbox(this);
+					this.chatOutbox = outbox;
+				}
+			}
+		}
+		return outbox;
+	}
+
 	/**
 	 * Invia al giocatore un aggiornamento sullo stato della partita.
 	 * 
@@ -1,13 +1,22 @@
 package main.network.server.game;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import main.model.Giocatore;
+import main.model.SpazioAzione;
 import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EFasiDiGioco;
 import main.model.errors.Errors;
-import main.network.NetworkException;
 import main.network.exceptions.PlayerNotFound;
 import main.network.server.game.exceptions.GameException;
+import main.network.server.ServerThreads;
 import main.network.server.game.exceptions.RoomFullException;
 import main.network.server.rmi.RMIPlayer;
 import main.network.server.socket.SocketPlayer;
@@ -26,10 +35,15 @@ public class Room {
 	private final boolean LOG_ENABLED = Costants.ROOM_ENABLE_LOG;
 
 	/**
-	 * Numero identificatore della singola stanza (incrementato ogni volta che
-	 * viene creata una nuova Stanza)
+	 * Contatore delle Stanze create (usato per assegnare il numero
+	 * identificatore di ogni nuova Stanza).
 	 */
-	private static int roomNumber = 0;
+	private static final AtomicInteger ROOM_COUNTER = new AtomicInteger();
+
+	/**
+	 * Numero identificatore della singola stanza.
+	 */
+	private final int roomNumber;
 
 	/**
 	 * Numero minimo di giocatori affinche' possa partire una partita.
@@ -56,9 +70,16 @@ public class Room {
 
 	/**
 	 * MUTEX per evitare la concorrenza tra giocatori durante l'accesso alla
-	 * Stanza.
+	 * Stanza (uno per Stanza: l'accesso a Stanze diverse non si blocca a
+	 * vicenda).
+	 */
+	private final Object ROOM_MUTEX = new Object();
+
+	/**
+	 * Elenco delle Stanze in cui la Stanza viene indicizzata quando si riapre
+	 * (null se la Stanza non appartiene ad alcun elenco).
 	 */
-	private static final Object ROOM_MUTEX = new Object();
+	private RoomDirectory directory;
 
 	/**
 	 * Lista di giocatori che sono stati aggiunti alla Stanza (vedi
@@ -67,9 +88,61 @@ public class Room {
 	private final ArrayList<RemotePlayer> players;
 
 	/**
-	 * Timer utilizzato per i countdown all'interno della Stanza.
+	 * Countdown attualmente programmato all'interno della Stanza (vedi
+	 * {@link ServerThreads#SCHEDULER}).
+	 */
+	private ScheduledFuture<?> countDown;
+
+	/**
+	 * Casella di posta di ogni giocatore, per la consegna asincrona degli
+	 * aggiornamenti della partita (vedi {@link PlayerMailbox}).
+	 */
+	private final Map<RemotePlayer, PlayerMailbox> mailboxes = new ConcurrentHashMap<>();
+
+	/**
+	 * Costruttore delle variazioni dello stato della partita inviate ai
+	 * giocatori (vedi {@link GameDelta}).
+	 */
+	private GameDeltaEncoder deltaEncoder = new GameDeltaEncoder();
+
+	/**
+	 * MUTEX usato per inviare gli aggiornamenti della partita nello stesso
+	 * ordine in cui vengono prodotte le variazioni.
+	 */
+	private final Object UPDATE_MUTEX = new Object();
+
+	/**
+	 * Ultimo aggiornamento inviato ai giocatori (usato per inviare lo stato
+	 * completo ai giocatori che riprendono la sessione, vedi
+	 * {@link #resumePlayer(RemotePlayer)}).
+	 */
+	private UpdateStats lastUpdate;
+
+	/**
+	 * Stato completo della partita, serializzato alla prima variazione
+	 * prodotta dal {@link #deltaEncoder} (vedi {@link PendingSnapshot}).
+	 */
+	private byte[] baseState;
+
+	/**
+	 * Variazioni prodotte dopo {@link #baseState}: gli aggiornamenti completi
+	 * vengono ricostruiti a partire da queste, senza copiare lo stato della
+	 * partita sotto i lock.
+	 */
+	private final List<GameDelta> deltas = new ArrayList<>();
+
+	/**
+	 * Canale della chat della Stanza (vedi {@link ChatChannel}). I messaggi in
+	 * broadcast vengono inviati ai giocatori presenti al momento dell'invio,
+	 * mentre chi si aggiunge in seguito riceve la cronologia.
+	 */
+	private final ChatChannel chat = new ChatChannel(this::getPlayersSnapshot);
+
+	/**
+	 * Ultimi messaggi inviati nella chat della Stanza (inviati ai giocatori che
+	 * si aggiungono alla Stanza).
 	 */
-	private Timer timer;
+	private final ChatHistory chatHistory = new ChatHistory(Costants.ROOM_CHAT_HISTORY);
 
 	/**
 	 * Flag usato per indicare quando una Stanza e' ancora aperta (True) o
@@ -100,7 +173,7 @@ public class Room {
 	 */
 	public Room(RemotePlayer player, int maxPlayers, int minPlayers) {
 
-		roomNumber++;
+		roomNumber = ROOM_COUNTER.incrementAndGet();
 
 		if (maxPlayers < this.maxPlayers)
 			this.maxPlayers = maxPlayers;
@@ -122,6 +195,36 @@ public class Room {
 		return roomNumber;
 	}
 
+	/**
+	 * Imposta l'elenco delle Stanze che indicizza questa Stanza.
+	 * 
+	 * @param directory
+	 *            elenco delle Stanze (vedi {@link RoomDirectory}).
+	 */
+	void setDirectory(RoomDirectory directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Ritorna la partita in corso nella Stanza.
+	 * 
+	 * @return la partita (null se nessuna partita e' in corso).
+	 */
+	public Game getGame() {
+		return this.game;
+	}
+
+	/**
+	 * Ritorna il numero di posti ancora liberi nella Stanza.
+	 * 
+	 * @return posti liberi (0 se la Stanza e' chiusa).
+	 */
+	public int getFreeSeats() {
+		synchronized (ROOM_MUTEX) {
+			return canJoin ? Math.max(0, maxPlayers - players.size()) : 0;
+		}
+	}
+
 	/*
 	 * Ritorna lo stato della Stanza.
 	 * 
@@ -141,6 +244,27 @@ public class Room {
 		return this.players;
 	}
 
+	/**
+	 * Ritorna una copia della lista dei giocatori presenti nella Stanza (che
+	 * puo' essere letta mentre altri giocatori si aggiungono).
+	 * 
+	 * @return List<RemotePlayer>
+	 */
+	List<RemotePlayer> getPlayersSnapshot() {
+		synchronized (ROOM_MUTEX) {
+			return new ArrayList<>(players);
+		}
+	}
+
+	/**
+	 * Ritorna la cronologia della chat della Stanza.
+	 * 
+	 * @return chatHistory
+	 */
+	public ChatHistory getChatHistory() {
+		return this.chatHistory;
+	}
+
 	/**
 	 * Aggiunge un giocatore alla Stanza .
 	 * 
@@ -152,13 +276,13 @@ public class Room {
 	 *             partecipare.
 	 */
 	public void joinPlayer(RemotePlayer player) throws RoomFullException {
+		String message = "Succesfully joined " + player.getNome() + " to room #" + roomNumber + "!";
 		synchronized (ROOM_MUTEX) {
 			if (canJoin) {
 				players.add(player);
-
-				String message = "Succesfully joined " + player.getNome() + " to room #" + roomNumber + "!";
 				logToPlayer(player, message);
-				System.out.println(message);
+				for (ChatMessage old : chatHistory.getMessages())
+					chat.post(new ChatMessage(old.getAuthor(), old.getMessage(), null, player));
 
 				if (players.size() == maxPlayers) {
 					canJoin = false;
@@ -171,33 +295,35 @@ public class Room {
 				throw new RoomFullException();
 			}
 		}
+		log(message);
 	}
 
 	/**
 	 * Resetta il timer se programmato.
 	 */
 	private void resetTimer() {
-		if (timer != null) {
-			timer.cancel();
-			timer.purge();
+		if (countDown != null) {
+			countDown.cancel(false);
 		}
 	}
 
 	/**
-	 * Fa partire il timer di conteggio per l'inizio della partita.
+	 * Fa partire il timer di conteggio per l'inizio della partita (puo' essere
+	 * ridefinito dalle sottoclassi, es. per non avviare alcuna partita).
 	 *
 	 * @param waitingTime
 	 *            tempo da attendere prima dell'inizio del gioco.
 	 */
-	private void startCountDownTimer(int waitingTime) {
+	protected void startCountDownTimer(int waitingTime) {
 		int countDownDelay = 1000, countDownPeriod = 1000;
 		int countDownInterval = waitingTime;
 
 		logToAllPlayers("Game will start in " + countDownInterval + "sec...");
 
-		timer = new Timer();
-		timer.scheduleAtFixedRate(new RoomCountDownHandler(countDownInterval, new RoomGameHandler(), null),
-				countDownDelay, countDownPeriod);
+		RoomCountDownHandler handler = new RoomCountDownHandler(countDownInterval, new RoomGameHandler(), null);
+		countDown = ServerThreads.SCHEDULER.scheduleAtFixedRate(() -> ServerThreads.execute(handler), countDownDelay,
+				countDownPeriod, TimeUnit.MILLISECONDS);
+		handler.setFuture(countDown);
 	}
 
 	/**
@@ -210,11 +336,7 @@ public class Room {
 	 * @param message
 	 */
 	private void logToPlayer(RemotePlayer player, String message) {
-		try {
-			player.onChatMessage(ID, message);
-		} catch (NetworkException e) {
-			System.err.println("PLAYER_DISCONNECTED: \"" + player.getNome() + "\"\n(" + e.getMessage() + ")");
-		}
+		chat.post(new ChatMessage(ID, message, null, player));
 	}
 
 	/**
@@ -226,9 +348,7 @@ public class Room {
 	 * @param message
 	 */
 	private void logToAllPlayers(String message) {
-		players.stream().forEach(remotePlayer -> {
-			logToPlayer(remotePlayer, message);
-		});
+		chat.post(ChatMessage.toPlayers(ID, message, null, getPlayersSnapshot()));
 		log(message);
 	}
 
@@ -242,15 +362,15 @@ public class Room {
 	 * @param message
 	 */
 	private void logToAllPlayersExceptOne(RemotePlayer expectThisPlayer, String message) {
-		players.stream().forEach(remotePlayer -> {
-			if (!remotePlayer.equals(expectThisPlayer))
-				logToPlayer(remotePlayer, message);
-		});
+		chat.post(ChatMessage.toPlayers(ID, message, expectThisPlayer, getPlayersSnapshot()));
 		log(message);
 	}
 
 	/**
 	 * Invia un messaggio di chat a tutti i giocatori o un giocatore specifico.
+	 * Il messaggio viene consegnato in modo asincrono (vedi
+	 * {@link ChatChannel}); i messaggi in broadcast vengono inoltre aggiunti
+	 * alla cronologia della Stanza.
 	 * 
 	 * @param player
 	 *            MITTENTE del messaggio.
@@ -265,36 +385,221 @@ public class Room {
 	 */
 	public void sendChatMessage(RemotePlayer player, String receiver, String message) throws PlayerNotFound {
 		if (receiver != null) {
-			for (RemotePlayer remotePlayer : players) {
+			for (RemotePlayer remotePlayer : getPlayersSnapshot()) {
 				if (receiver.equals(remotePlayer.getNome())) {
-					try {
-						remotePlayer.onChatMessage(player.getNome(), message);
-					} catch (NetworkException e) {
-						logToAllPlayersExceptOne(player, "PLAYER_DISCONNECTED: \"" + player.getNome() + "\"");
-					}
+					chat.post(new ChatMessage(player.getNome(), message, player, remotePlayer));
 					return;
 				}
 			}
 			throw new PlayerNotFound();
 		} else {
-			players.stream().filter(remotePlayer -> remotePlayer != player).forEach(remotePlayer -> {
+			// destinatari e cronologia sotto lo stesso lock di joinPlayer: chi
+			// entra riceve il messaggio in diretta o dalla cronologia
+			synchronized (ROOM_MUTEX) {
+				ChatMessage chatMessage = ChatMessage.toPlayers(player.getNome(), message, player,
+						new ArrayList<>(players));
+				chatHistory.add(chatMessage);
+				chat.post(chatMessage);
+			}
+		}
+	}
+
+	/**
+	 * Invia un aggiornamento dello stato partita a tutti i giocatori della
+	 * Stanza, senza attendere che venga consegnato. Ai giocatori viene inviata
+	 * solamente la variazione dello stato rispetto all'aggiornamento
+	 * precedente (vedi {@link GameDelta}); lo stato completo viene inviato
+	 * solo all'inizio della partita o ai giocatori rimasti indietro (vedi
+	 * {@link PlayerMailbox}).
+	 * 
+	 * @param update
+	 *            aggiornamento da inviare (vedi {@link UpdateStats}).
+	 * @param giocatori
+	 *            giocatori della partita.
+	 * @param spazioAzione
+	 *            {@link SpazioAzione} aggiornato.
+	 */
+	/* public */ void dispatchGameUpdate(UpdateStats update, ArrayList<Giocatore> giocatori,
+			SpazioAzione spazioAzione) {
+		synchronized (UPDATE_MUTEX) {
+			if (update.getAzioneServer() == EFasiDiGioco.InizioPartita) {
+				deltaEncoder = new GameDeltaEncoder();
+				mailboxes.values().forEach(PlayerMailbox::desincronizza);
+			}
+
+			UpdateStats delta = new UpdateStats(update);
+			delta.setDelta(deltaEncoder.codifica(giocatori, spazioAzione));
+			lastUpdate = delta;
+			if (deltaEncoder.getSequenza() == 1) {
+				// L'unica copia dello stato presa sotto i lock, all'inizio
+				// della partita (o della partita ripristinata).
+				UpdateStats completo = new UpdateStats(update);
+				completo.impostaStato(giocatori, spazioAzione);
+				baseState = null;
+				deltas.clear();
 				try {
-					remotePlayer.onChatMessage(player.getNome(), message);
-				} catch (NetworkException e) {
-					logToAllPlayersExceptOne(player, "PLAYER_DISCONNECTED: \"" + player.getNome() + "\"");
+					baseState = PendingSnapshot.serializza(completo);
+				} catch (IOException e) {
+					log("Cannot copy game state (" + e.getMessage() + ")");
+				}
+			} else {
+				deltas.add(delta.getDelta());
+			}
+
+			PendingSnapshot snapshot = null;
+			for (RemotePlayer player : players) {
+				PlayerMailbox mailbox = mailboxes.computeIfAbsent(player, p -> new PlayerMailbox(p, this));
+				if (!player.isOnline()) {
+					// Ricevera' lo stato completo alla ripresa della sessione.
+					mailbox.desincronizza();
+					continue;
+				}
+				if (!mailbox.isSincronizzato() || !mailbox.post(delta)) {
+					if (snapshot == null && baseState != null) {
+						snapshot = pendingSnapshot(update);
+					} else if (snapshot == null) {
+						// Stato non serializzabile: viene inviato senza copia.
+						UpdateStats completo = new UpdateStats(update);
+						completo.impostaStato(giocatori, spazioAzione);
+						completo.setSequenza(deltaEncoder.getSequenza());
+						snapshot = new PendingSnapshot(completo);
+					}
+					mailbox.postSnapshot(snapshot);
 				}
-			});
+			}
+		}
+	}
+
+	/**
+	 * Notifica agli altri giocatori della Stanza che un giocatore non e' piu'
+	 * raggiungibile.
+	 * 
+	 * @param player
+	 *            giocatore disconnesso.
+	 */
+	void notifyPlayerDisconnected(RemotePlayer player) {
+		logToAllPlayersExceptOne(player,
+				ANSI.YELLOW + "PLAYER_DISCONNECTED: \"" + player.getNome() + "\"" + ANSI.RESET);
+	}
+
+	/**
+	 * Metodo invocato quando un giocatore riprende la sessione dopo una
+	 * disconnessione: lo notifica agli altri giocatori e, se e' in corso una
+	 * partita, invia al giocatore lo stato completo (dopo il quale ricevera'
+	 * nuovamente le sole variazioni).
+	 * 
+	 * @param player
+	 *            giocatore che ha ripreso la sessione.
+	 */
+	public void resumePlayer(RemotePlayer player) {
+		logToAllPlayersExceptOne(player,
+				ANSI.GREEN + "PLAYER_RECONNECTED: \"" + player.getNome() + "\"" + ANSI.RESET);
+		sendSnapshot(player);
+	}
+
+	/**
+	 * Metodo invocato quando il Client di un giocatore ha perso un
+	 * aggiornamento (es. variazione ricevuta fuori sequenza): se e' in corso
+	 * una partita, invia al giocatore lo stato completo.
+	 * 
+	 * @param player
+	 *            giocatore che ha richiesto lo stato completo.
+	 */
+	public void resyncPlayer(RemotePlayer player) {
+		log("Player \"" + player.getNome() + "\" is out of sync, sending game state");
+		sendSnapshot(player);
+	}
+
+	/**
+	 * Accoda lo stato completo della partita in corso (se presente) nella
+	 * casella del giocatore.
+	 * 
+	 * @param player
+	 *            giocatore destinatario.
+	 */
+	private void sendSnapshot(RemotePlayer player) {
+		if (this.game == null)
+			return;
+		synchronized (UPDATE_MUTEX) {
+			if (lastUpdate == null || baseState == null)
+				return;
+			mailboxes.computeIfAbsent(player, p -> new PlayerMailbox(p, this))
+					.postSnapshot(pendingSnapshot(lastUpdate));
 		}
 	}
 
-	/* public */ void dispatchGameUpdate(UpdateStats update) {
-		players.stream().forEach(p -> {
+	/**
+	 * Ripristina la partita della Stanza dal journal dopo un riavvio del
+	 * Server (usato in {@link RoomDirectory#restoreRooms()}): i giocatori
+	 * vengono aggiunti alla Stanza come offline, le azioni registrate dopo
+	 * l'ultimo snapshot vengono riprodotte e la partita prosegue su un nuovo
+	 * journal.
+	 * 
+	 * @param snapshot
+	 *            stato della partita al momento dell'ultimo snapshot.
+	 * @param recovery
+	 *            partita letta dal journal (vedi {@link GameJournal}).
+	 */
+	void restoreGame(GameSnapshot snapshot, GameJournal.Recovery recovery) {
+		synchronized (ROOM_MUTEX) {
+			canJoin = false;
+			for (RemotePlayer player : snapshot.getPlayers()) {
+				if (!players.contains(player))
+					players.add(player);
+				player.setRoom(this);
+				player.setSessionToken(recovery.getSessionToken(player.getNome()));
+				// I bot non hanno un Client e continuano subito a giocare.
+				player.setOnline(player instanceof BotPlayer);
+			}
+		}
+
+		Game restored = new Game(this, snapshot);
+		restored.replay(recovery.getActions(), recovery.getDice());
+		this.game = restored;
+		log("Game restored (" + recovery.getActions().size() + " actions replayed)");
+
+		GameJournal journal = newJournal(recovery);
+		if (journal != null) {
 			try {
-				p.onGameUpdate(update);
-			} catch (NetworkException e) {
-				logToAllPlayersExceptOne(p, ANSI.YELLOW + "PLAYER_DISCONNECTED: \"" + p.getNome() + "\"" + ANSI.RESET);
+				restored.startJournal(journal);
+				Files.deleteIfExists(recovery.getFile());
+			} catch (IOException e) {
+				log("Journal disabled (" + e.getMessage() + ")");
 			}
-		});
+		}
+		ServerThreads.execute(new RoomGameHandler(true));
+	}
+
+	/**
+	 * Crea il journal della partita della Stanza (vedi {@link GameJournal}).
+	 * 
+	 * @param recovery
+	 *            partita ripristinata da proseguire (null per una nuova
+	 *            partita).
+	 * @return il journal, oppure null se il journal non e' abilitato.
+	 */
+	private GameJournal newJournal(GameJournal.Recovery recovery) {
+		Path journalDirectory = directory != null ? directory.getJournalDirectory() : null;
+		if (journalDirectory == null)
+			return null;
+		int snapshotInterval = directory.getSnapshotInterval();
+		if (recovery != null)
+			return recovery.resume(journalDirectory, snapshotInterval);
+		return GameJournal.create(journalDirectory, maxPlayers, minPlayers, snapshotInterval);
+	}
+
+	/**
+	 * Prepara l'aggiornamento completo da inviare ai giocatori, costruito alla
+	 * consegna a partire da {@link #baseState} e dalle variazioni successive
+	 * (vedi {@link PendingSnapshot}). Deve essere invocato tenendo
+	 * {@link #UPDATE_MUTEX}.
+	 * 
+	 * @param update
+	 *            aggiornamento a cui aggiungere lo stato della partita.
+	 * @return l'aggiornamento completo.
+	 */
+	private PendingSnapshot pendingSnapshot(UpdateStats update) {
+		return new PendingSnapshot(update, baseState, new ArrayList<>(deltas), deltaEncoder.getSequenza());
 	}
 
 	/**
@@ -343,19 +648,66 @@ public class Room {
 	 * della Stanza (una Partita alla volta per Stanza).
 	 */
 	private class RoomGameHandler implements Runnable {
+
+		/**
+		 * Flag che indica se la partita e' gia' stata ripristinata dal journal
+		 * (e non deve quindi essere creata).
+		 */
+		private final boolean restored;
+
+		private RoomGameHandler() {
+			this(false);
+		}
+
+		private RoomGameHandler(boolean restored) {
+			this.restored = restored;
+		}
+
 		/**
-		 * Metodo chiamato dal {@link TimerTask} quando scade il timer.
+		 * Metodo chiamato dal {@link RoomCountDownHandler} quando scade il
+		 * timer.
 		 */
 		@Override
 		public void run() {
-			initializeRoomHandler();
+			if (!restored) {
+				initializeRoomHandler();
 
-			Room.this.game.startNewGame();
+				Room.this.game.startNewGame();
+				startJournal();
+			}
 			Room.this.game.waitGameEnd();
 
 			cleanRoomHandler();
 		}
 
+		/**
+		 * Inizia a registrare la nuova partita sul journal (se abilitato).
+		 */
+		private void startJournal() {
+			GameJournal journal = newJournal(null);
+			if (journal == null)
+				return;
+			try {
+				Room.this.game.startJournal(journal);
+			} catch (IOException e) {
+				log("Journal disabled (" + e.getMessage() + ")");
+			}
+		}
+
+		/**
+		 * Salva la registrazione della partita terminata (se abilitato).
+		 */
+		private void saveRecord(Game game) {
+			Path recordDirectory = directory != null ? directory.getRecordDirectory() : null;
+			if (recordDirectory == null || game.getRecord() == null)
+				return;
+			try {
+				log("Game saved: " + game.getRecord().save(recordDirectory));
+			} catch (IOException e) {
+				log("Cannot save game (" + e.getMessage() + ")");
+			}
+		}
+
 		/**
 		 * Inizializza una nuova Partita chiudendo l'accesso alla Stanza a nuovi
 		 * Client.
@@ -381,19 +733,23 @@ public class Room {
 		 */
 		private void cleanRoomHandler() {
 			log("Deleting game session");
+			Room.this.game.deleteJournal();
+			saveRecord(Room.this.game);
 			Room.this.game = null;
 
 			log("Ending room thread, opening room");
 			synchronized (ROOM_MUTEX) {
 				canJoin = true;
 			}
+			if (directory != null)
+				directory.index(Room.this);
 		}
 	}
 
 	/**
 	 * Classe per la gestione di countdown e relativa notifica ai giocatori
 	 */
-	private class RoomCountDownHandler extends TimerTask {
+	private class RoomCountDownHandler implements Runnable {
 
 		/**
 		 * Thread da eseguire allo scadere del countdown.
@@ -411,6 +767,16 @@ public class Room {
 		 */
 		private RemotePlayer player;
 
+		/**
+		 * Programmazione del countdown sullo scheduler condiviso.
+		 */
+		private ScheduledFuture<?> future;
+
+		/**
+		 * Flag che indica se il countdown e' gia' terminato.
+		 */
+		private boolean expired;
+
 		/**
 		 * Costruttore.
 		 * 
@@ -429,10 +795,13 @@ public class Room {
 		}
 
 		/**
-		 * Metodo chiamato dal {@link TimerTask}.
+		 * Metodo chiamato ad ogni "tick" del countdown (vedi
+		 * {@link ServerThreads#SCHEDULER}).
 		 */
 		@Override
-		public void run() {
+		public synchronized void run() {
+			if (this.expired)
+				return;
 			int interval = setInterval();
 			if (this.player == null) {
 				logToAllPlayers(String.valueOf(interval));
@@ -441,21 +810,35 @@ public class Room {
 			}
 
 			if (this.interval == 0) {
-				Thread t = new Thread(task);
-				t.start();
+				this.expired = true;
+				ServerThreads.execute(task);
 			}
 		}
 
 		/**
-		 * Decrementa il contatore.
+		 * Imposta la programmazione del countdown (per poterla annullare allo
+		 * scadere).
+		 * 
+		 * @param future
+		 *            programmazione sullo scheduler condiviso.
+		 */
+		private synchronized void setFuture(ScheduledFuture<?> future) {
+			this.future = future;
+		}
+
+		/**
+		 * Decrementa il contatore (senza scendere sotto lo zero, es.
+		 * {@link Room#START_IMMEDIATELY}).
 		 * 
 		 * @return interval valore attuale del countdown
 		 */
 		private final int setInterval() {
-			if (interval == 1)
-				timer.cancel();
-			return --interval;
+			if (interval <= 1 && future != null)
+				future.cancel(false);
+			if (interval > 0)
+				interval--;
+			return interval;
 		}
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,351 @@
+package main.network.server.game;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import main.network.server.ServerThreads;
+import main.network.server.game.exceptions.RoomFullException;
+import main.util.Costants;
+
+/**
+ * Elenco delle Stanze del Server, usato per assegnare i nuovi giocatori ad
+ * una Stanza. Le Stanze aperte sono indicizzate per numero di posti liberi (a
+ * partire dalle Stanze piu' piene, cosi' che le partite possano iniziare il
+ * prima possibile): ogni giocatore estrae una Stanza dall'indice e si
+ * aggiunge ad essa bloccando solamente la Stanza scelta, per cui giocatori
+ * diversi si aggiungono contemporaneamente a Stanze diverse. Dopo ogni
+ * variazione dei posti liberi (ingresso di un giocatore, Stanza riaperta alla
+ * fine di una partita) la Stanza viene indicizzata di nuovo in base ai posti
+ * liberi letti sotto il lock dell'indice.
+ */
+public class RoomDirectory {
+
+	/**
+	 * Interfaccia usata per creare le nuove Stanze.
+	 */
+	@FunctionalInterface
+	public interface RoomFactory {
+		/**
+		 * Crea una nuova Stanza.
+		 *
+		 * @param player
+		 *            giocatore che crea la Stanza.
+		 * @param maxPlayers
+		 *            numero massimo di giocatori.
+		 * @param minPlayers
+		 *            numero minimo di giocatori.
+		 * @return la Stanza creata.
+		 */
+		Room create(RemotePlayer player, int maxPlayers, int minPlayers);
+	}
+
+	/**
+	 * Stanze aperte, indicizzate per numero di posti liberi (la posizione 0
+	 * non e' usata).
+	 */
+	private final Queue<Room>[] openRooms;
+
+	/**
+	 * Stanze attualmente presenti in {@link #openRooms}, con i posti liberi
+	 * della coda in cui si trovano (ogni Stanza compare al piu' una volta).
+	 * Come {@link #openRooms}, viene modificato solo tenendo il lock di
+	 * {@link #openRooms}.
+	 */
+	private final Map<Room, Integer> indexedRooms;
+
+	/**
+	 * Tutte le Stanze create.
+	 */
+	private final Queue<Room> rooms;
+
+	/**
+	 * Costruttore usato per creare le nuove Stanze.
+	 */
+	private final RoomFactory factory;
+
+	/**
+	 * Cartella in cui le Stanze scrivono il journal delle partite (null se il
+	 * journal non e' abilitato, vedi {@link GameJournal}).
+	 */
+	private volatile Path journalDirectory;
+
+	/**
+	 * Numero di azioni dopo le quali il journal di una partita viene
+	 * compattato.
+	 */
+	private volatile int snapshotInterval = Costants.JOURNAL_SNAPSHOT_INTERVAL;
+
+	/**
+	 * Cartella in cui le Stanze salvano le partite terminate (null se le
+	 * partite non vengono salvate, vedi {@link GameRecord}).
+	 */
+	private volatile Path recordDirectory;
+
+	/**
+	 * Tempo di attesa (in secondi) dopo il quale i posti liberi di una nuova
+	 * Stanza vengono occupati da bot (0 se i bot non sono abilitati, vedi
+	 * {@link BotPlayer}).
+	 */
+	private volatile int botWaitingTime = Costants.BOT_WAITING_TIME;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param maxPlayers
+	 *            numero massimo di giocatori gestibili da una Stanza.
+	 */
+	public RoomDirectory(int maxPlayers) {
+		this(maxPlayers, Room::new);
+	}
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param maxPlayers
+	 *            numero massimo di giocatori gestibili da una Stanza.
+	 * @param factory
+	 *            costruttore delle nuove Stanze.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public RoomDirectory(int maxPlayers, RoomFactory factory) {
+		this.openRooms = new Queue[Math.max(2, maxPlayers)];
+		for (int i = 0; i < openRooms.length; i++)
+			openRooms[i] = new ConcurrentLinkedQueue<>();
+		this.indexedRooms = new HashMap<>();
+		this.rooms = new ConcurrentLinkedQueue<>();
+		this.factory = factory;
+	}
+
+	/**
+	 * Aggiunge il giocatore alla Stanza aperta con meno posti liberi.
+	 *
+	 * @param player
+	 *            giocatore da aggiungere.
+	 * @return la Stanza a cui e' stato aggiunto il giocatore.
+	 * @throws RoomFullException
+	 *             se non e' stata trovata alcuna Stanza aperta.
+	 */
+	public Room joinOpenRoom(RemotePlayer player) throws RoomFullException {
+		Room room;
+		while ((room = takeOpenRoom()) != null) {
+			try {
+				room.joinPlayer(player);
+			} catch (RoomFullException e) {
+				// Stanza chiusa nel frattempo: verra' indicizzata di nuovo
+				// quando si riaprira'.
+				continue;
+			}
+			player.setRoom(room);
+			index(room);
+			return room;
+		}
+		throw new RoomFullException("No available room found!");
+	}
+
+	/**
+	 * Estrae dall'indice la Stanza aperta con meno posti liberi.
+	 *
+	 * @return la Stanza estratta, oppure null se non ci sono Stanze aperte.
+	 */
+	private Room takeOpenRoom() {
+		synchronized (openRooms) {
+			for (int seats = 1; seats < openRooms.length; seats++) {
+				Room room = openRooms[seats].poll();
+				if (room != null) {
+					indexedRooms.remove(room);
+					return room;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Crea una nuova Stanza con il giocatore fornito e la indicizza tra le
+	 * Stanze aperte.
+	 *
+	 * @param player
+	 *            giocatore che crea la Stanza.
+	 * @param maxPlayers
+	 *            numero massimo di giocatori per la Stanza.
+	 * @param minPlayers
+	 *            numero minimo di giocatori per la Stanza.
+	 * @return la Stanza creata.
+	 */
+	public Room createRoom(RemotePlayer player, int maxPlayers, int minPlayers) {
+		Room room = factory.create(player, maxPlayers, minPlayers);
+		room.setDirectory(this);
+		rooms.add(room);
+		player.setRoom(room);
+		index(room);
+		int waitingTime = botWaitingTime;
+		if (waitingTime > 0)
+			ServerThreads.SCHEDULER.schedule(() -> ServerThreads.execute(() -> fillWithBots(room)), waitingTime,
+					TimeUnit.SECONDS);
+		return room;
+	}
+
+	/**
+	 * Occupa con dei bot i posti liberi della Stanza (se e' ancora aperta e
+	 * contiene almeno un giocatore online): la partita inizia non appena la
+	 * Stanza e' piena.
+	 *
+	 * @param room
+	 *            Stanza da riempire.
+	 */
+	private void fillWithBots(Room room) {
+		boolean online = false;
+		for (RemotePlayer player : room.getPlayersSnapshot())
+			online |= player.isOnline() && !(player instanceof BotPlayer);
+		if (!online)
+			return;
+		for (int seats = room.getFreeSeats(); seats > 0; seats--) {
+			BotPlayer bot = new BotPlayer();
+			try {
+				room.joinPlayer(bot);
+			} catch (RoomFullException e) {
+				// La Stanza si e' riempita (o chiusa) nel frattempo.
+				return;
+			}
+			bot.setRoom(room);
+		}
+		index(room);
+	}
+
+	/**
+	 * Indicizza la Stanza in base ai suoi posti liberi attuali: se e' gia'
+	 * indicizzata con un numero di posti diverso viene spostata, se e' chiusa
+	 * viene rimossa dall'indice. I posti liberi vengono letti tenendo il lock
+	 * dell'indice, per cui l'ultima indicizzazione usa sempre il numero di
+	 * posti piu' recente.
+	 *
+	 * @param room
+	 *            Stanza da indicizzare.
+	 */
+	void index(Room room) {
+		synchronized (openRooms) {
+			int seats = Math.min(room.getFreeSeats(), openRooms.length - 1);
+			Integer indexed = indexedRooms.get(room);
+			if (indexed != null && indexed == seats)
+				return;
+			if (indexed != null) {
+				openRooms[indexed].remove(room);
+				indexedRooms.remove(room);
+			}
+			if (seats > 0) {
+				openRooms[seats].offer(room);
+				indexedRooms.put(room, seats);
+			}
+		}
+	}
+
+	/**
+	 * Abilita il journal delle partite delle Stanze (vedi {@link GameJournal}).
+	 *
+	 * @param journalDirectory
+	 *            cartella in cui scrivere il journal delle partite.
+	 * @param snapshotInterval
+	 *            numero di azioni dopo le quali compattare il journal.
+	 */
+	public void setJournalDirectory(Path journalDirectory, int snapshotInterval) {
+		this.snapshotInterval = snapshotInterval;
+		this.journalDirectory = journalDirectory;
+	}
+
+	Path getJournalDirectory() {
+		return this.journalDirectory;
+	}
+
+	int getSnapshotInterval() {
+		return this.snapshotInterval;
+	}
+
+	/**
+	 * Abilita il salvataggio delle partite terminate (vedi {@link GameRecord}
+	 * e {@link GameReplay}).
+	 *
+	 * @param recordDirectory
+	 *            cartella in cui salvare le partite.
+	 */
+	public void setRecordDirectory(Path recordDirectory) {
+		this.recordDirectory = recordDirectory;
+	}
+
+	Path getRecordDirectory() {
+		return this.recordDirectory;
+	}
+
+	/**
+	 * Abilita l'aggiunta di bot alle nuove Stanze (vedi {@link BotPlayer}).
+	 *
+	 * @param botWaitingTime
+	 *            tempo di attesa (in secondi) dopo il quale i posti liberi
+	 *            vengono occupati da bot (0 per disabilitare i bot).
+	 */
+	public void setBotWaitingTime(int botWaitingTime) {
+		this.botWaitingTime = botWaitingTime;
+	}
+
+	/**
+	 * Ripristina le partite registrate nella cartella del journal (es. dopo
+	 * un riavvio del Server): per ogni partita viene creata una Stanza chiusa
+	 * con i giocatori offline, in attesa che riprendano la sessione.
+	 *
+	 * @return le Stanze ripristinate.
+	 * @throws IOException
+	 *             se la cartella del journal non puo' essere letta.
+	 */
+	public List<Room> restoreRooms() throws IOException {
+		List<Room> restored = new ArrayList<>();
+		if (journalDirectory == null)
+			return restored;
+		for (GameJournal.Recovery recovery : GameJournal.recover(journalDirectory)) {
+			GameSnapshot snapshot;
+			try {
+				snapshot = GameSnapshot.read(recovery.getSnapshot());
+			} catch (IOException e) {
+				System.err.println("Cannot restore game: " + recovery.getFile() + " (" + e.getMessage() + ")");
+				continue;
+			}
+			List<RemotePlayer> players = snapshot.getPlayers();
+			Room room = factory.create(players.get(0), recovery.getMaxPlayers(), recovery.getMinPlayers());
+			room.setDirectory(this);
+			rooms.add(room);
+			room.restoreGame(snapshot, recovery);
+			restored.add(room);
+		}
+		return restored;
+	}
+
+	/**
+	 * Ritorna il numero totale di posti liberi nelle Stanze aperte.
+	 *
+	 * @return posti liberi.
+	 */
+	public int getOpenSeats() {
+		List<Room> open;
+		synchronized (openRooms) {
+			open = new ArrayList<>(indexedRooms.keySet());
+		}
+		int seats = 0;
+		for (Room room : open)
+			seats += room.getFreeSeats();
+		return seats;
+	}
+
+	/**
+	 * Ritorna tutte le Stanze create.
+	 *
+	 * @return Stanze create.
+	 */
+	public Queue<Room> getRooms() {
+		return rooms;
+	}
+}
@@ -1,11 +1,17 @@
 package main.network.server.game;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StreamCorruptedException;
 import java.util.ArrayList;
 import java.util.HashMap;
 
 import main.model.Famigliare;
+import main.model.GeneratoreMosse;
 import main.model.Giocatore;
+import main.model.Mossa;
 import main.model.Plancia;
 import main.model.Punti;
 import main.model.Risorsa;
@@ -18,6 +24,8 @@ import main.model.enums.EEffettiPermanenti;
 import main.model.enums.EFasiDiGioco;
 import main.model.enums.ESceltePrivilegioDelConsiglio;
 import main.model.enums.EColoriGiocatori;
+import main.network.protocol.socket.BinaryCodec;
+import main.network.protocol.socket.SocketFrames;
 
 public class UpdateStats implements Serializable {
 
@@ -204,6 +212,25 @@ public class UpdateStats implements Serializable {
 	 */
 	private Scomunica[] scomuniche;
 
+	/**
+	 * Numero di sequenza dell'aggiornamento (tipicamente settato lato Server,
+	 * consecutivo all'interno della Stanza).
+	 */
+	private long sequenza;
+
+	/**
+	 * Variazione dello stato della partita rispetto all'aggiornamento
+	 * precedente (vedi {@link GameDelta}). Se null l'aggiornamento contiene lo
+	 * stato completo della partita. (tipicamente settato lato Server).
+	 */
+	private GameDelta delta;
+
+	/**
+	 * Usato per la decodifica (vedi {@link #readFrom(DataInputStream)}).
+	 */
+	private UpdateStats() {
+	}
+
 	/**
 	 * Usato dal client per richiedere di svolgere una azione.
 	 * 
@@ -213,6 +240,22 @@ public class UpdateStats implements Serializable {
 		this.azioneGiocatore = azioneRichiesta;
 	}
 
+	/**
+	 * Usato per richiedere lo spostamento di una mossa legale (vedi
+	 * {@link GeneratoreMosse}). I servitori della mossa devono essere pagati
+	 * prima, con un'azione di tipo {@link EAzioniGiocatore#Famigliare}.
+	 * 
+	 * @param mossa
+	 */
+	public UpdateStats(Mossa mossa) {
+		this.azioneGiocatore = mossa.getAzione();
+		this.colorePedinaSpostata = mossa.getColore();
+		this.posizionePedinaSpostata = mossa.getPosizione();
+		if (mossa.getCosto() != null)
+			this.scelteCosti = new ECostiCarte[] { mossa.getCosto() };
+		this.sceltePrivilegiConsiglio = mossa.getPrivilegi();
+	}
+
 	/**
 	 * Usato dal server per inviare evoluzione stato della partita.
 	 * 
@@ -273,7 +316,74 @@ public class UpdateStats implements Serializable {
 
 	public UpdateStats(EFasiDiGioco fase, ArrayList<Giocatore> giocatori) {
 		this.faseDiGioco = fase;
+		impostaGiocatori(giocatori);
+	}
+
+	/**
+	 * Costruttore (copia dell'aggiornamento senza lo stato della partita, che
+	 * viene sostituito da una variazione, vedi {@link GameDelta}).
+	 * 
+	 * @param update
+	 *            aggiornamento da copiare.
+	 */
+	UpdateStats(UpdateStats update) {
+		this.azioneGiocatore = update.azioneGiocatore;
+		this.nomeGiocatore = update.nomeGiocatore;
+		this.colorePedinaSpostata = update.colorePedinaSpostata;
+		this.posizionePedinaSpostata = update.posizionePedinaSpostata;
+		this.sceltePrivilegiConsiglio = update.sceltePrivilegiConsiglio;
+		this.scelteCosti = update.scelteCosti;
+		this.scelteEffettiPermanenti = update.scelteEffettiPermanenti;
+		this.servitoriDaPagare = update.servitoriDaPagare;
+		this.supportoChiesa = update.supportoChiesa;
+		this.faseDiGioco = update.faseDiGioco;
+		if (update.nomiGiocatori != null)
+			this.nomiGiocatori = new ArrayList<String>(update.nomiGiocatori);
+		this.coloreGiocatore = update.coloreGiocatore;
+		this.scomuniche = update.scomuniche;
+	}
+
+	/**
+	 * Imposta lo stato completo della partita (usato per gli aggiornamenti
+	 * completi inviati ai giocatori che devono ancora ricevere la partita o
+	 * che sono rimasti indietro).
+	 * 
+	 * @param giocatori
+	 *            giocatori della partita.
+	 * @param spazioAzione
+	 *            {@link SpazioAzione} aggiornato.
+	 */
+	void impostaStato(ArrayList<Giocatore> giocatori, SpazioAzione spazioAzione) {
+		impostaGiocatori(giocatori);
+		this.spazioAzione = spazioAzione;
+	}
 
+	/**
+	 * Imposta lo stato completo della partita contenuto in un altro
+	 * aggiornamento (vedi {@link PendingSnapshot}).
+	 *
+	 * @param stato
+	 *            aggiornamento contenente lo stato completo della partita.
+	 */
+	void impostaStato(UpdateStats stato) {
+		this.nomiGiocatori = stato.nomiGiocatori;
+		this.puntiGiocatori = stato.puntiGiocatori;
+		this.risorseGiocatori = stato.risorseGiocatori;
+		this.planceGiocatori = stato.planceGiocatori;
+		this.famiglieGiocatori = stato.famiglieGiocatori;
+		this.scomunicheGiocatori = stato.scomunicheGiocatori;
+		this.coloriGiocatori = stato.coloriGiocatori;
+		this.spazioAzione = stato.spazioAzione;
+	}
+
+	/**
+	 * Imposta nomi, punti, risorse, plance, famigliari, scomuniche e colori
+	 * dei giocatori.
+	 * 
+	 * @param giocatori
+	 *            giocatori della partita.
+	 */
+	private void impostaGiocatori(ArrayList<Giocatore> giocatori) {
 		this.nomiGiocatori = new ArrayList<String>();
 
 		this.puntiGiocatori = new HashMap<String, Punti>();
@@ -556,6 +666,183 @@ public class UpdateStats implements Serializable {
 		return this.coloriGiocatori;
 	}
 
+	/**
+	 * Ritorna il numero di sequenza dell'aggiornamento. (tipicamente settato
+	 * lato Server).
+	 */
+	public long getSequenza() {
+		return this.sequenza;
+	}
+
+	/**
+	 * Ritorna la variazione dello stato della partita rispetto
+	 * all'aggiornamento precedente (vedi {@link GameDelta}), oppure null se
+	 * l'aggiornamento contiene lo stato completo. (tipicamente settato lato
+	 * Server).
+	 */
+	public GameDelta getDelta() {
+		return this.delta;
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////
+	// Formato binario (vedi SocketFrames)
+	/////////////////////////////////////////////////////////////////////////////////////////
+
+	// Campi presenti nell'aggiornamento (un bit per campo, vedi writeTo).
+	private static final int AZIONE = 1;
+	private static final int NOME = 1 << 1;
+	private static final int PEDINA = 1 << 2;
+	private static final int POSIZIONE = 1 << 3;
+	private static final int PRIVILEGI = 1 << 4;
+	private static final int COSTI = 1 << 5;
+	private static final int EFFETTI = 1 << 6;
+	private static final int SERVITORI = 1 << 7;
+	private static final int CHIESA = 1 << 8;
+	private static final int FASE = 1 << 9;
+	private static final int NOMI = 1 << 10;
+	private static final int COLORE = 1 << 11;
+	private static final int SEQUENZA = 1 << 12;
+	private static final int DELTA = 1 << 13;
+	private static final int SCOMUNICHE = 1 << 14;
+	private static final int STATO = 1 << 15;
+
+	/**
+	 * Scrive l'aggiornamento nel formato binario dei messaggi socket (vedi
+	 * {@link SocketFrames}): un intero con un bit per ogni campo presente,
+	 * seguito dai soli campi presenti. Lo stato completo della partita (es.
+	 * {@link SpazioAzione}, {@link Plancia}), inviato solo negli aggiornamenti
+	 * completi, non ha uno schema binario e viene scritto in un unico blocco
+	 * serializzato, cosi' da mantenere i riferimenti tra i suoi oggetti.
+	 * 
+	 * @param out
+	 *            stream di uscita.
+	 * @throws IOException
+	 *             se si verifica un errore di scrittura.
+	 */
+	public void writeTo(DataOutputStream out) throws IOException {
+		Object[] stato = { puntiGiocatore, risorseGiocatore, planciaGiocatore, famigliaGiocatore,
+				scomunicheGiocatore, puntiGiocatori, risorseGiocatori, planceGiocatori, famiglieGiocatori,
+				scomunicheGiocatori, coloriGiocatori, spazioAzione };
+		boolean conStato = false;
+		for (Object campo : stato)
+			conStato |= campo != null;
+
+		int campi = (azioneGiocatore != null ? AZIONE : 0) | (nomeGiocatore != null ? NOME : 0)
+				| (colorePedinaSpostata != null ? PEDINA : 0) | (posizionePedinaSpostata != 0 ? POSIZIONE : 0)
+				| (sceltePrivilegiConsiglio != null ? PRIVILEGI : 0) | (scelteCosti != null ? COSTI : 0)
+				| (scelteEffettiPermanenti != null ? EFFETTI : 0) | (servitoriDaPagare != 0 ? SERVITORI : 0)
+				| (supportoChiesa ? CHIESA : 0) | (faseDiGioco != null ? FASE : 0)
+				| (nomiGiocatori != null ? NOMI : 0) | (coloreGiocatore != null ? COLORE : 0)
+				| (sequenza != 0 ? SEQUENZA : 0) | (delta != null ? DELTA : 0)
+				| (scomuniche != null ? SCOMUNICHE : 0) | (conStato ? STATO : 0);
+		BinaryCodec.writeVarInt(out, campi);
+
+		if (azioneGiocatore != null)
+			BinaryCodec.writeEnum(out, azioneGiocatore);
+		if (nomeGiocatore != null)
+			BinaryCodec.writeString(out, nomeGiocatore);
+		if (colorePedinaSpostata != null)
+			BinaryCodec.writeEnum(out, colorePedinaSpostata);
+		if (posizionePedinaSpostata != 0)
+			BinaryCodec.writeVarInt(out, posizionePedinaSpostata);
+		if (sceltePrivilegiConsiglio != null)
+			BinaryCodec.writeEnums(out, sceltePrivilegiConsiglio);
+		if (scelteCosti != null)
+			BinaryCodec.writeEnums(out, scelteCosti);
+		if (scelteEffettiPermanenti != null)
+			BinaryCodec.writeEnums(out, scelteEffettiPermanenti);
+		if (servitoriDaPagare != 0)
+			BinaryCodec.writeVarInt(out, servitoriDaPagare);
+		if (faseDiGioco != null)
+			BinaryCodec.writeEnum(out, faseDiGioco);
+		if (nomiGiocatori != null)
+			BinaryCodec.writeStrings(out, nomiGiocatori);
+		if (coloreGiocatore != null)
+			BinaryCodec.writeEnum(out, coloreGiocatore);
+		if (sequenza != 0)
+			BinaryCodec.writeVarLong(out, sequenza);
+		if (delta != null)
+			delta.writeTo(out);
+		if (scomuniche != null)
+			BinaryCodec.writeSerialized(out, scomuniche);
+		if (conStato)
+			BinaryCodec.writeSerialized(out, stato);
+	}
+
+	/**
+	 * Legge un aggiornamento scritto con {@link #writeTo(DataOutputStream)}.
+	 * 
+	 * @param in
+	 *            stream di ingresso.
+	 * @return l'aggiornamento letto.
+	 * @throws IOException
+	 *             se l'aggiornamento non e' valido.
+	 */
+	@SuppressWarnings("unchecked")
+	public static UpdateStats readFrom(DataInputStream in) throws IOException {
+		UpdateStats update = new UpdateStats();
+		int campi = BinaryCodec.readVarInt(in);
+
+		try {
+			if ((campi & AZIONE) != 0)
+				update.azioneGiocatore = BinaryCodec.readEnum(in, EAzioniGiocatore.class);
+			if ((campi & NOME) != 0)
+				update.nomeGiocatore = BinaryCodec.readString(in);
+			if ((campi & PEDINA) != 0)
+				update.colorePedinaSpostata = BinaryCodec.readEnum(in, EColoriPedine.class);
+			if ((campi & POSIZIONE) != 0)
+				update.posizionePedinaSpostata = BinaryCodec.readVarInt(in);
+			if ((campi & PRIVILEGI) != 0)
+				update.sceltePrivilegiConsiglio = BinaryCodec.readEnums(in, ESceltePrivilegioDelConsiglio.class);
+			if ((campi & COSTI) != 0)
+				update.scelteCosti = BinaryCodec.readEnums(in, ECostiCarte.class);
+			if ((campi & EFFETTI) != 0)
+				update.scelteEffettiPermanenti = BinaryCodec.readEnums(in, EEffettiPermanenti.class);
+			if ((campi & SERVITORI) != 0)
+				update.servitoriDaPagare = BinaryCodec.readVarInt(in);
+			update.supportoChiesa = (campi & CHIESA) != 0;
+			if ((campi & FASE) != 0)
+				update.faseDiGioco = BinaryCodec.readEnum(in, EFasiDiGioco.class);
+			if ((campi & NOMI) != 0)
+				update.nomiGiocatori = BinaryCodec.readStrings(in);
+			if ((campi & COLORE) != 0)
+				update.coloreGiocatore = BinaryCodec.readEnum(in, EColoriGiocatori.class);
+			if ((campi & SEQUENZA) != 0)
+				update.sequenza = BinaryCodec.readVarLong(in);
+			if ((campi & DELTA) != 0)
+				update.delta = GameDelta.readFrom(in);
+			if ((campi & SCOMUNICHE) != 0)
+				update.scomuniche = (Scomunica[]) BinaryCodec.readSerialized(in);
+			if ((campi & STATO) != 0) {
+				Object[] stato = (Object[]) BinaryCodec.readSerialized(in);
+				update.puntiGiocatore = (Punti) stato[0];
+				update.risorseGiocatore = (Risorsa) stato[1];
+				update.planciaGiocatore = (Plancia) stato[2];
+				update.famigliaGiocatore = (Famigliare[]) stato[3];
+				update.scomunicheGiocatore = (Scomunica[]) stato[4];
+				update.puntiGiocatori = (HashMap<String, Punti>) stato[5];
+				update.risorseGiocatori = (HashMap<String, Risorsa>) stato[6];
+				update.planceGiocatori = (HashMap<String, Plancia>) stato[7];
+				update.famiglieGiocatori = (HashMap<String, Famigliare[]>) stato[8];
+				update.scomunicheGiocatori = (HashMap<String, Scomunica[]>) stato[9];
+				update.coloriGiocatori = (HashMap<String, EColoriGiocatori>) stato[10];
+				update.spazioAzione = (SpazioAzione) stato[11];
+			}
+		} catch (ClassCastException | ArrayIndexOutOfBoundsException e) {
+			throw new StreamCorruptedException(e.toString());
+		}
+		return update;
+	}
+
+	void setSequenza(long sequenza) {
+		this.sequenza = sequenza;
+	}
+
+	void setDelta(GameDelta delta) {
+		this.delta = delta;
+		this.sequenza = delta.getSequenza();
+	}
+
 	///////////////////////////////////////////////////////////////////
 	// TODO: verificare quale dei seguenti metodi è possibile cancellare
 	///////////////////////////////////////////////////////////////////
@@ -615,4 +902,8 @@ public class UpdateStats implements Serializable {
 		this.nomeGiocatore = nomeGiocatore;
 	}
 
+	public void setSpazioAzione(SpazioAzione spazioAzione) {
+		this.spazioAzione = spazioAzione;
+	}
+
 }
@@ -1,10 +1,13 @@
 package main.network.server.rmi;
 
 import java.rmi.RemoteException;
+import java.util.List;
 
 import main.model.Giocatore;
 import main.network.NetworkException;
 import main.network.protocol.rmi.RMIClientInterface;
+import main.network.server.ServerThreads;
+import main.network.server.game.ChatMessage;
 import main.network.server.game.RemotePlayer;
 import main.network.server.game.UpdateStats;
 
@@ -22,7 +25,7 @@ public class RMIPlayer extends RemotePlayer {
 	/**
 	 * Interfaccia Remota per invocare i metodi presenti sul {@link RMIClient}.
 	 */
-	private transient RMIClientInterface clientInterface;
+	private transient volatile RMIClientInterface clientInterface;
 
 	/**
 	 * Crea una nuova istanza RMIPlayer.
@@ -34,6 +37,19 @@ public class RMIPlayer extends RemotePlayer {
 		clientInterface = playerInterface;
 	}
 
+	/**
+	 * Associa al giocatore la nuova interfaccia remota del Client (ripresa
+	 * della sessione) e lo imposta nuovamente come online.
+	 * 
+	 * @param playerInterface
+	 *            interfaccia remota del Client.
+	 */
+	void rebind(RMIClientInterface playerInterface) {
+		clientInterface = playerInterface;
+		touch();
+		setOnline(true);
+	}
+
 	/**
 	 * Invia un messaggio sulla chat del giocatore.
 	 * 
@@ -49,6 +65,32 @@ public class RMIPlayer extends RemotePlayer {
 		try {
 			clientInterface.notifyChatMessage(author, message);
 		} catch (RemoteException e) {
+			markOffline();
+			throw new NetworkException(e);
+		}
+	}
+
+	/**
+	 * Invia un gruppo di messaggi sulla chat del giocatore con una sola
+	 * chiamata remota.
+	 * 
+	 * @param messages
+	 *            messaggi da inviare (in ordine di invio).
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	@Override
+	public void onChatMessages(List<ChatMessage> messages) throws NetworkException {
+		String[] authors = new String[messages.size()];
+		String[] texts = new String[messages.size()];
+		for (int i = 0; i < authors.length; i++) {
+			authors[i] = messages.get(i).getAuthor();
+			texts[i] = messages.get(i).getMessage();
+		}
+		try {
+			clientInterface.notifyChatMessages(authors, texts);
+		} catch (RemoteException e) {
+			markOffline();
 			throw new NetworkException(e);
 		}
 	}
@@ -67,10 +109,33 @@ public class RMIPlayer extends RemotePlayer {
 		try {
 			clientInterface.notifyGameUpdate(update);
 		} catch (RemoteException e) {
+			markOffline();
 			throw new NetworkException(e);
 		}
 	}
 
+	/**
+	 * Invia un heartbeat al Client. L'invocazione remota e' bloccante, quindi
+	 * viene eseguita da un Thread del Server (vedi {@link ServerThreads}): il
+	 * tempo di andata e ritorno corrisponde alla durata dell'invocazione.
+	 * 
+	 * @param timestamp
+	 *            istante di invio.
+	 */
+	@Override
+	public void sendHeartbeat(long timestamp) {
+		RMIClientInterface current = clientInterface;
+		ServerThreads.execute(() -> {
+			try {
+				current.notifyHeartbeat(timestamp);
+				onHeartbeat(timestamp);
+			} catch (RemoteException e) {
+				if (current == clientInterface)
+					markOffline();
+			}
+		});
+	}
+
 	/**
 	 * Metodo per il "debug"
 	 */
@@ -5,8 +5,6 @@ import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
-import java.util.HashMap;
-import java.util.UUID;
 
 import main.network.exceptions.LoginException;
 import main.network.protocol.rmi.RMIClientInterface;
@@ -26,13 +24,6 @@ import main.util.Costants;
  */
 public class RMIServer extends AbstractServer implements RMIServerInterface {
 
-	/**
-	 * Mappa di tutti i giocatori che hanno eseguito il login al quale e' stato
-	 * un token di sessione univoco (necessario per identificare il giocatore
-	 * remoto ogni volta che fa una richiesta verso il Server).
-	 */
-	protected final HashMap<String, String> sessionTokens;
-
 	/**
 	 * ID usato per identificare il server nelle comunicazioni
 	 */
@@ -46,7 +37,6 @@ public class RMIServer extends AbstractServer implements RMIServerInterface {
 	 */
 	public RMIServer(IServer controller) {
 		super(controller);
-		sessionTokens = new HashMap<>();
 	}
 
 	/**
@@ -93,14 +83,19 @@ public class RMIServer extends AbstractServer implements RMIServerInterface {
 	}
 
 	/**
-	 * Ritorna il Giocatore Remoto associato al token di sessione fornito.
+	 * Ritorna il Giocatore Remoto associato al token di sessione fornito (il
+	 * token viene assegnato al login dal registro delle sessioni del Server).
+	 * Ogni richiesta conferma inoltre che il giocatore e' raggiungibile.
 	 * 
 	 * @param sessionToken
 	 *            token fornito con la richiesta.
 	 * @return il giocatore remoto associato.
 	 */
 	protected RemotePlayer getPlayer(String sessionToken) {
-		return getController().getPlayer(sessionTokens.get(sessionToken));
+		RemotePlayer remotePlayer = getController().getPlayerBySession(sessionToken);
+		if (remotePlayer != null)
+			remotePlayer.touch();
+		return remotePlayer;
 	}
 
 	/////////////////////////////////////////////////////////////////////////////////////////
@@ -125,19 +120,55 @@ public class RMIServer extends AbstractServer implements RMIServerInterface {
 	 */
 	@Override
 	public String sendLoginRequest(String nickname, RMIClientInterface player) throws IOException {
-		getController().loginPlayer(nickname, new RMIPlayer(player));
-		// generate new unique session token
-		String sessionToken = UUID.randomUUID().toString();
-		sessionTokens.put(sessionToken, nickname);
+		RMIPlayer remotePlayer = new RMIPlayer(player);
+		getController().loginPlayer(nickname, remotePlayer);
+		String sessionToken = remotePlayer.getSessionToken();
 
 		try {
-			getController().joinFirstAvailableRoom(getPlayer(sessionToken));
+			getController().joinFirstAvailableRoom(remotePlayer);
 		} catch (JoinRoomException e) {
 			// e.printStackTrace();
 		}
 		return sessionToken;
 	}
 
+	/**
+	 * Metodo remoto per riprendere la sessione di un Giocatore dopo una
+	 * disconnessione: il giocatore resta nella propria Stanza e riceve lo
+	 * stato completo della partita in corso.
+	 * 
+	 * @param sessionToken
+	 *            token di sessione ricevuto al login.
+	 * @param player
+	 *            nuovo riferimento remoto del giocatore.
+	 * @return token di sessione (invariato).
+	 * @throws LoginException
+	 *             se il token non corrisponde ad alcuna sessione RMI.
+	 */
+	@Override
+	public String sendResumeRequest(String sessionToken, RMIClientInterface player) throws IOException {
+		RemotePlayer remotePlayer = getController().getPlayerBySession(sessionToken);
+		if (!(remotePlayer instanceof RMIPlayer))
+			throw new LoginException("Session not found");
+		((RMIPlayer) remotePlayer).rebind(player);
+		getController().resumePlayer(remotePlayer);
+		return sessionToken;
+	}
+
+	/**
+	 * Metodo remoto per richiedere lo stato completo della partita dopo aver
+	 * perso un aggiornamento.
+	 * 
+	 * @param sessionToken
+	 *            token del giocatore che sta facendo la richiesta.
+	 */
+	@Override
+	public void sendResyncRequest(String sessionToken) throws IOException {
+		RemotePlayer remotePlayer = getPlayer(sessionToken);
+		if (remotePlayer != null)
+			getController().resyncPlayer(remotePlayer);
+	}
+
 	/**
 	 * Metodo Remoto per inviare un messaggio di chat a tutti i giocatori o ad
 	 * uno specifico player.
@@ -0,0 +1,461 @@
+package main.network.server.socket;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import main.network.NetworkException;
+import main.network.protocol.socket.SocketFrames;
+import main.network.server.AbstractServer;
+import main.network.server.IServer;
+import main.network.server.ServerException;
+import main.network.server.ServerThreads;
+import main.util.Costants;
+
+/**
+ * Estende {@link AbstractServer} per consentire di implementare la
+ * comunicazione Client/Server con i {@link SocketClient} in modo non bloccante
+ * (NIO). Le connessioni vengono distribuite su un piccolo numero fisso di
+ * Thread (vedi {@link EventLoop}), ognuno dei quali gestisce lettura,
+ * decodifica dei messaggi (vedi {@link SocketFrames}) e scrittura per tutte le
+ * connessioni che gli sono state assegnate. Le richieste decodificate vengono
+ * gestite fuori dall'EventLoop (vedi {@link ServerThreads}), in ordine per
+ * ogni connessione, cosi' che un'azione lenta non blocchi le altre
+ * connessioni.
+ */
+public class NioSocketServer extends AbstractServer {
+
+	/**
+	 * ID usato per identificare il server nelle comunicazioni
+	 */
+	private static final String SOCKET_ID = Costants.SOCKET_SERVER_ID;
+
+	/**
+	 * Dimensione iniziale del buffer di lettura di ogni connessione.
+	 */
+	private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+	/**
+	 * Numero massimo di byte in attesa di essere inviati su una connessione:
+	 * un Client che non legge piu' viene disconnesso.
+	 */
+	private static final long WRITE_QUEUE_BYTES = Costants.SOCKET_WRITE_QUEUE_BYTES;
+
+	/**
+	 * Canale su cui il Server accetta nuove connessioni.
+	 */
+	private ServerSocketChannel serverChannel;
+
+	/**
+	 * Thread che gestiscono le connessioni.
+	 */
+	private EventLoop[] eventLoops;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param controller
+	 *            interfaccia del Server (es. {@link Server}).
+	 */
+	public NioSocketServer(IServer controller) {
+		super(controller);
+	}
+
+	/**
+	 * Avvia il Server per le connessioni Socket.
+	 *
+	 * @param port
+	 *            numero di porta da usare.
+	 * @throws ServerException
+	 *             se si verifica un errore.
+	 */
+	@Override
+	public void startServer(int port) throws ServerException {
+		try {
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.bind(new InetSocketAddress(port));
+
+			eventLoops = new EventLoop[Costants.SOCKET_EVENT_LOOPS];
+			for (int i = 0; i < eventLoops.length; i++) {
+				eventLoops[i] = new EventLoop(i);
+				eventLoops[i].start();
+			}
+
+			System.out.println(SOCKET_ID + " OK (NIO, " + eventLoops.length + " event loops)");
+			new SocketRequestListener().start();
+		} catch (IOException e) {
+			throw new ServerException("I/O exception occurs while starting Socket server", e);
+		}
+	}
+
+	/**
+	 * Thread per la ricezione di nuove richieste di connessione tramite Socket,
+	 * che vengono assegnate a turno ai vari {@link EventLoop}.
+	 */
+	private class SocketRequestListener extends Thread {
+
+		/**
+		 * Loop che attende nuovi Client e li assegna ad un {@link EventLoop}.
+		 */
+		@Override
+		public void run() {
+			int next = 0;
+			while (true) {
+				try {
+					SocketChannel channel = serverChannel.accept();
+					channel.configureBlocking(false);
+					eventLoops[next].register(channel);
+					next = (next + 1) % eventLoops.length;
+				} catch (IOException e) {
+					e.printStackTrace();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Thread che gestisce, tramite un {@link Selector}, un insieme di
+	 * connessioni.
+	 */
+	private class EventLoop extends Thread {
+
+		/**
+		 * Selettore dei canali pronti per la lettura o la scrittura.
+		 */
+		private final Selector selector;
+
+		/**
+		 * Operazioni richieste da altri Thread, da eseguire sul Thread
+		 * dell'EventLoop (es. registrazione di un nuovo canale).
+		 */
+		private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Costruttore.
+		 *
+		 * @param index
+		 *            numero identificativo dell'EventLoop.
+		 * @throws IOException
+		 *             se non e' possibile aprire il selettore.
+		 */
+		EventLoop(int index) throws IOException {
+			super("socket-event-loop-" + index);
+			this.selector = Selector.open();
+			setDaemon(true);
+		}
+
+		/**
+		 * Esegue l'operazione sul Thread dell'EventLoop.
+		 *
+		 * @param task
+		 *            operazione da eseguire.
+		 */
+		void execute(Runnable task) {
+			if (Thread.currentThread() == this) {
+				task.run();
+			} else {
+				tasks.offer(task);
+				selector.wakeup();
+			}
+		}
+
+		/**
+		 * Assegna un nuovo canale all'EventLoop.
+		 *
+		 * @param channel
+		 *            canale (non bloccante) del Client.
+		 */
+		void register(SocketChannel channel) {
+			execute(() -> {
+				try {
+					NioConnection connection = new NioConnection(this, channel);
+					connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+				} catch (IOException e) {
+					System.err.println(SOCKET_ID + " cannot register connection");
+				}
+			});
+		}
+
+		/**
+		 * Loop che attende che i canali siano pronti e gestisce letture e
+		 * scritture.
+		 */
+		@Override
+		public void run() {
+			while (true) {
+				try {
+					selector.select();
+
+					Runnable task;
+					while ((task = tasks.poll()) != null)
+						task.run();
+
+					Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext()) {
+						SelectionKey key = keys.next();
+						keys.remove();
+						NioConnection connection = (NioConnection) key.attachment();
+						if (key.isValid() && key.isReadable())
+							connection.read();
+						if (key.isValid() && key.isWritable())
+							connection.write();
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Singola connessione non bloccante. Tutte le operazioni sul canale vengono
+	 * eseguite dal relativo {@link EventLoop}; gli altri Thread si limitano ad
+	 * accodare i messaggi da inviare.
+	 */
+	private class NioConnection implements SocketConnection {
+
+		/**
+		 * EventLoop a cui e' assegnata la connessione.
+		 */
+		private final EventLoop loop;
+
+		/**
+		 * Canale del Client.
+		 */
+		private final SocketChannel channel;
+
+		/**
+		 * Chiave di registrazione del canale nel selettore.
+		 */
+		private SelectionKey key;
+
+		/**
+		 * Buffer dei byte ricevuti e non ancora decodificati.
+		 */
+		private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+		/**
+		 * Coda dei messaggi in uscita verso il Client.
+		 */
+		private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Byte dei messaggi in {@link #writeQueue} (vedi
+		 * {@link #WRITE_QUEUE_BYTES}).
+		 */
+		private final AtomicLong queuedBytes = new AtomicLong();
+
+		/**
+		 * Flag che indica se la connessione e' gia' stata chiusa per aver
+		 * superato {@link #WRITE_QUEUE_BYTES}.
+		 */
+		private final AtomicBoolean overflow = new AtomicBoolean();
+
+		/**
+		 * Flag che indica se la scrittura e' gia' stata richiesta all'EventLoop.
+		 */
+		private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+		/**
+		 * Stato della connessione.
+		 */
+		private volatile boolean open = true;
+
+		/**
+		 * Gestore dei messaggi di richiesta del Client.
+		 */
+		private final SocketRequestDispatcher dispatcher;
+
+		/**
+		 * Richieste decodificate (e chiusura della connessione) in attesa di
+		 * essere gestite dal {@link #dispatcher}, nell'ordine di arrivo.
+		 */
+		private final Queue<Runnable> requests = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Flag che indica se la gestione delle richieste e' gia' stata
+		 * programmata.
+		 */
+		private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+		/**
+		 * Costruttore.
+		 *
+		 * @param loop
+		 *            EventLoop a cui e' assegnata la connessione.
+		 * @param channel
+		 *            canale del Client.
+		 */
+		NioConnection(EventLoop loop, SocketChannel channel) {
+			this.loop = loop;
+			this.channel = channel;
+			this.dispatcher = new SocketRequestDispatcher(getController(), new SocketPlayer(this));
+		}
+
+		@Override
+		public void send(byte[] frame) throws NetworkException {
+			if (!open)
+				throw new NetworkException("Connection closed");
+			if (queuedBytes.addAndGet(frame.length) > WRITE_QUEUE_BYTES) {
+				queuedBytes.addAndGet(-frame.length);
+				if (overflow.compareAndSet(false, true)) {
+					System.err.println(SOCKET_ID + " Player is not reading, disconnecting");
+					loop.execute(this::disconnect);
+				}
+				throw new NetworkException("Too many pending messages");
+			}
+			writeQueue.offer(ByteBuffer.wrap(frame));
+			if (writeScheduled.compareAndSet(false, true))
+				loop.execute(this::enableWrite);
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			if (open) {
+				open = false;
+				loop.execute(this::closeChannel);
+			}
+		}
+
+		/**
+		 * Richiede al selettore di segnalare quando il canale e' pronto per la
+		 * scrittura.
+		 */
+		private void enableWrite() {
+			if (key.isValid())
+				key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		}
+
+		/**
+		 * Legge i byte disponibili sul canale e gestisce tutti i messaggi
+		 * completi ricevuti.
+		 */
+		private void read() {
+			try {
+				if (channel.read(readBuffer) < 0)
+					throw new IOException("Connection closed by client");
+
+				readBuffer.flip();
+				while (readBuffer.remaining() >= SocketFrames.HEADER_LENGTH) {
+					int length = SocketFrames.checkLength(readBuffer.getInt(readBuffer.position()));
+					int frameLength = SocketFrames.HEADER_LENGTH + length;
+					if (readBuffer.remaining() < frameLength)
+						break;
+					int offset = readBuffer.arrayOffset() + readBuffer.position() + SocketFrames.HEADER_LENGTH;
+					Object[] frame = SocketFrames.decode(readBuffer.array(), offset, length);
+					readBuffer.position(readBuffer.position() + frameLength);
+					dispatch(() -> dispatcher.handleClientRequest(frame));
+				}
+				readBuffer.compact();
+
+				// Messaggio piu' grande del buffer: lo ingrandisce.
+				if (!readBuffer.hasRemaining()) {
+					ByteBuffer bigger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+					readBuffer.flip();
+					bigger.put(readBuffer);
+					readBuffer = bigger;
+				}
+			} catch (IOException e) {
+				System.err.println(e);
+				disconnect();
+			}
+		}
+
+		/**
+		 * Smette di leggere e scrivere sul canale, che viene chiuso dal
+		 * dispatcher dopo le richieste ancora in coda (eseguito
+		 * dall'EventLoop).
+		 */
+		private void disconnect() {
+			if (key.isValid())
+				key.interestOps(0);
+			dispatch(dispatcher::connectionClosed);
+		}
+
+		/**
+		 * Accoda una richiesta e ne programma la gestione fuori dall'EventLoop
+		 * (se non e' gia' in corso).
+		 *
+		 * @param request
+		 *            richiesta da gestire.
+		 */
+		private void dispatch(Runnable request) {
+			requests.offer(request);
+			if (dispatchScheduled.compareAndSet(false, true))
+				ServerThreads.execute(this::handleRequests);
+		}
+
+		/**
+		 * Gestisce, in ordine, le richieste accodate.
+		 */
+		private void handleRequests() {
+			try {
+				Runnable request;
+				while ((request = requests.poll()) != null)
+					request.run();
+			} finally {
+				dispatchScheduled.set(false);
+				// Una richiesta potrebbe essere stata accodata dopo l'ultimo
+				// controllo, senza programmare una nuova gestione.
+				if (!requests.isEmpty() && dispatchScheduled.compareAndSet(false, true))
+					ServerThreads.execute(this::handleRequests);
+			}
+		}
+
+		/**
+		 * Scrive sul canale i messaggi in coda, finche' il canale li accetta.
+		 */
+		private void write() {
+			try {
+				ByteBuffer buffer;
+				while ((buffer = writeQueue.peek()) != null) {
+					channel.write(buffer);
+					if (buffer.hasRemaining())
+						return;
+					writeQueue.poll();
+					queuedBytes.addAndGet(-buffer.capacity());
+				}
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+				writeScheduled.set(false);
+				// Un messaggio potrebbe essere stato accodato dopo l'ultimo
+				// controllo, senza richiedere una nuova scrittura.
+				if (!writeQueue.isEmpty() && writeScheduled.compareAndSet(false, true))
+					enableWrite();
+			} catch (IOException e) {
+				System.err.println(SOCKET_ID + " Player is disconnected");
+				disconnect();
+			}
+		}
+
+		/**
+		 * Chiude il canale (eseguito dall'EventLoop).
+		 */
+		private void closeChannel() {
+			if (key != null)
+				key.cancel();
+			writeQueue.clear();
+			queuedBytes.set(0);
+			try {
+				channel.close();
+			} catch (IOException e) {
+				System.err.println("I/O error occurs when closing socket");
+			}
+		}
+	}
+}
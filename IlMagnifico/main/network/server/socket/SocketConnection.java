@@ -0,0 +1,36 @@
+package main.network.server.socket;
+
+import main.network.NetworkException;
+
+/**
+ * Canale di uscita di una singola connessione Socket, usato da
+ * {@link SocketPlayer} per inviare messaggi al Client. Ogni implementazione
+ * (es. {@link SocketServer}, {@link NioSocketServer}) gestisce la scrittura sul
+ * proprio Socket.
+ */
+interface SocketConnection {
+
+	/**
+	 * Accoda un messaggio gia' codificato (vedi
+	 * {@link main.network.protocol.socket.SocketFrames}) da inviare
+	 * al Client.
+	 * 
+	 * @param frame
+	 *            messaggio codificato.
+	 * @throws NetworkException
+	 *             se la connessione e' stata chiusa.
+	 */
+	void send(byte[] frame) throws NetworkException;
+
+	/**
+	 * Ritorna lo stato della connessione.
+	 * 
+	 * @return "True" se la connessione e' ancora aperta.
+	 */
+	boolean isOpen();
+
+	/**
+	 * Chiude la connessione con il Client.
+	 */
+	void close();
+}
@@ -1,12 +1,15 @@
 package main.network.server.socket;
 
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
 
 import main.model.Giocatore;
 import main.network.NetworkException;
 import main.network.protocol.socket.SocketConstants;
+import main.network.protocol.socket.SocketFrames;
+import main.network.server.game.ChatMessage;
 import main.network.server.game.RemotePlayer;
 import main.network.server.game.UpdateStats;
 
@@ -22,39 +25,137 @@ public class SocketPlayer extends RemotePlayer {
 	private static final long serialVersionUID = -5294571565976357669L;
 
 	/**
-	 * Stream di Output per l'invio di oggetti serializzati al Client.
+	 * Connessione attraverso la quale vengono inviati i messaggi al Client
+	 * (sostituita quando il Client riprende la sessione da una nuova
+	 * connessione, vedi {@link #rebind(SocketConnection)}).
 	 */
-	private final transient ObjectOutputStream outputStream;
+	private transient volatile SocketConnection connection;
 
 	/**
-	 * MUTEX per evitare la concorrenza tra Thread durante la scrittura sul
-	 * flusso di uscita del Socket.
+	 * Crea un'istanza SocketPlayer.
+	 *
+	 * @param connection
+	 *            connessione usata per l'invio dei messaggi al Client (vedi
+	 *            {@link SocketConnection}).
 	 */
-	private final transient Object OUTPUT_MUTEX;
+	SocketPlayer(SocketConnection connection) {
+		this.connection = connection;
+	}
 
 	/**
-	 * Crea un'istanza SocketPlayer.
-	 * 
-	 * @param outputStream
-	 *            stream di uscita (per l'invio di oggetti serializzati al
-	 *            Client.).
-	 * @param OUTPUT_MUTEX
-	 *            per evitare la concorrenza tra Thread durante la scrittura sul
-	 *            flusso di uscita del Socket.
-	 * @throws IOException
-	 *             se si verifica un errore durante l'inizializzazione dello
-	 *             Stream di Output.
+	 * Ritorna la connessione attualmente associata al giocatore.
+	 *
+	 * @return connessione usata per l'invio dei messaggi al Client.
+	 */
+	SocketConnection getConnection() {
+		return this.connection;
+	}
+
+	/**
+	 * Associa al giocatore la nuova connessione del Client (ripresa della
+	 * sessione) e lo imposta nuovamente come online.
+	 *
+	 * @param connection
+	 *            nuova connessione del Client.
+	 * @return la connessione usata in precedenza.
+	 */
+	synchronized SocketConnection rebind(SocketConnection connection) {
+		SocketConnection previous = this.connection;
+		this.connection = connection;
+		touch();
+		setOnline(true);
+		return previous;
+	}
+
+	/**
+	 * Codifica e accoda un messaggio da inviare al Client. La codifica avviene
+	 * nel Thread chiamante, quindi il messaggio rispecchia lo stato della
+	 * partita al momento della chiamata anche se l'invio e' asincrono.
+	 *
+	 * @param frame
+	 *            oggetti (intestazione + contenuto) che compongono il
+	 *            messaggio.
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	void sendFrame(Object... frame) throws NetworkException {
+		try {
+			sendEncoded(SocketFrames.encode(frame));
+		} catch (NetworkException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new NetworkException(e);
+		}
+	}
+
+	/**
+	 * Accoda un messaggio gia' codificato da inviare al Client.
+	 *
+	 * @param frame
+	 *            messaggio codificato (vedi {@link SocketFrames}).
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	private void sendEncoded(byte[] frame) throws NetworkException {
+		SocketConnection current = this.connection;
+		if (!isOnline() || !current.isOpen()) {
+			markOffline();
+			throw new NetworkException("Player is disconnected");
+		}
+		try {
+			current.send(frame);
+		} catch (NetworkException e) {
+			markOffline();
+			throw e;
+		}
+	}
+
+	/**
+	 * Chiude la connessione con il Client.
+	 */
+	@Override
+	public void disconnect() {
+		markOffline();
+		SocketConnection current = this.connection;
+		// Nessuna connessione per i giocatori ripristinati dal journal.
+		if (current != null)
+			current.close();
+	}
+
+	/**
+	 * Chiude una connessione del Client: il giocatore viene impostato come
+	 * offline solamente se la connessione e' ancora quella associatagli (e
+	 * non e' quindi gia' stata sostituita da una ripresa della sessione).
+	 *
+	 * @param from
+	 *            connessione chiusa.
 	 */
-	SocketPlayer(ObjectOutputStream outputStream, Object OUTPUT_MUTEX) throws IOException {
-		this.outputStream = outputStream;
-		this.outputStream.flush();
+	void disconnect(SocketConnection from) {
+		synchronized (this) {
+			if (from != this.connection) {
+				from.close();
+				return;
+			}
+		}
+		disconnect();
+	}
 
-		this.OUTPUT_MUTEX = OUTPUT_MUTEX;
+	/**
+	 * Invia un heartbeat al Client, che rispondera' con lo stesso istante.
+	 *
+	 * @param timestamp
+	 *            istante di invio.
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	@Override
+	public void sendHeartbeat(long timestamp) throws NetworkException {
+		sendFrame(SocketConstants.HEARTBEAT, timestamp);
 	}
 
 	/**
 	 * Invia un messaggio sulla chat del giocatore.
-	 * 
+	 *
 	 * @param author
 	 *            nome del giocatore MITTENTE del messaggio.
 	 * @param message
@@ -64,39 +165,65 @@ public class SocketPlayer extends RemotePlayer {
 	 */
 	@Override
 	public void onChatMessage(String author, String message) throws NetworkException {
-		synchronized (OUTPUT_MUTEX) {
-			try {
-				outputStream.writeObject(SocketConstants.CHAT_MESSAGE);
-				outputStream.writeObject(author);
-				outputStream.writeObject(message);
-				outputStream.flush();
-			} catch (IOException e) {
-				throw new NetworkException(e);
-			}
+		sendFrame(SocketConstants.CHAT_MESSAGE, author, message);
+	}
+
+	/**
+	 * Invia un messaggio sulla chat del giocatore, gia' codificato una sola
+	 * volta per tutti i destinatari.
+	 *
+	 * @param message
+	 *            messaggio da inviare.
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	@Override
+	public void onChatMessage(ChatMessage message) throws NetworkException {
+		try {
+			sendEncoded(message.getSocketFrame());
+		} catch (NetworkException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new NetworkException(e);
 		}
 	}
 
+	/**
+	 * Invia un gruppo di messaggi sulla chat del giocatore con un solo
+	 * messaggio Socket (vedi {@link SocketConstants#CHAT_MESSAGES}).
+	 *
+	 * @param messages
+	 *            messaggi da inviare (in ordine di invio).
+	 * @throws NetworkException
+	 *             se il client non e' raggiungibile.
+	 */
+	@Override
+	public void onChatMessages(List<ChatMessage> messages) throws NetworkException {
+		if (messages.size() == 1) {
+			onChatMessage(messages.get(0));
+			return;
+		}
+		List<String> authors = new ArrayList<>(messages.size());
+		List<String> texts = new ArrayList<>(messages.size());
+		for (ChatMessage message : messages) {
+			authors.add(message.getAuthor());
+			texts.add(message.getMessage());
+		}
+		sendFrame(SocketConstants.CHAT_MESSAGES, authors, texts);
+	}
+
 	/**
 	 * Invia al giocatore un aggiornamento sullo stato della partita.
-	 * 
+	 *
 	 * @param update
 	 *            {@link UpdateStats}
-	 * 
+	 *
 	 * @throws NetworkException
 	 *             se il client non e' raggiungibile.
 	 */
 	@Override
 	public void onGameUpdate(UpdateStats update) throws NetworkException {
-		synchronized (OUTPUT_MUTEX) {
-			try {
-				outputStream.writeObject(SocketConstants.GAME_ACTION);
-				outputStream.writeObject(update);
-				outputStream.flush();
-				outputStream.reset();
-			} catch (IOException e) {
-				throw new NetworkException(e);
-			}
-		}
+		sendFrame(SocketConstants.GAME_ACTION, update);
 	}
 
 	/**
@@ -0,0 +1,277 @@
+package main.network.server.socket;
+
+import java.util.HashMap;
+
+import main.model.errors.Errors;
+import main.network.NetworkException;
+import main.network.exceptions.LoginException;
+import main.network.exceptions.PlayerNotFound;
+import main.network.protocol.socket.SocketConstants;
+import main.network.server.IServer;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.UpdateStats;
+import main.network.server.game.exceptions.GameException;
+import main.network.server.game.exceptions.JoinRoomException;
+import main.util.Costants;
+
+/**
+ * Gestisce i messaggi di richiesta ricevuti da un singolo Client Socket,
+ * indipendentemente dal modo in cui vengono letti dal Socket (vedi
+ * {@link SocketServer} e {@link NioSocketServer}).
+ */
+class SocketRequestDispatcher {
+
+	/**
+	 * ID usato per identificare il server nelle comunicazioni
+	 */
+	private static final String SOCKET_ID = Costants.SOCKET_SERVER_ID;
+
+	/**
+	 * Interfaccia utilizzata per comunicare con il Server (es.
+	 * {@link Server}).
+	 */
+	private final IServer server;
+
+	/**
+	 * Connessione gestita dal dispatcher.
+	 */
+	private final SocketConnection connection;
+
+	/**
+	 * Giocatore Remoto associato alla connessione (sostituito dal giocatore
+	 * della sessione ripresa, vedi {@link #sendResumeRequest(Object[])}).
+	 */
+	private volatile SocketPlayer socketPlayer;
+
+	/**
+	 * Mappa di tutti i metodi di risposta definiti sul server.
+	 */
+	private final HashMap<Object, RequestHandlerInterface> requestMap;
+
+	/**
+	 * Costruttore.
+	 *
+	 * @param server
+	 *            interfaccia del Server (es. {@link Server}).
+	 * @param socketPlayer
+	 *            giocatore remoto associato alla connessione.
+	 */
+	SocketRequestDispatcher(IServer server, SocketPlayer socketPlayer) {
+		this.server = server;
+		this.connection = socketPlayer.getConnection();
+		this.socketPlayer = socketPlayer;
+
+		requestMap = new HashMap<>();
+		loadRequests();
+	}
+
+	/**
+	 * Inizializza "requestMap" caricando tutti i possibili metodi di risposta.
+	 */
+	private void loadRequests() {
+		requestMap.put(SocketConstants.LOGIN_REQUEST, this::sendLoginRequest);
+		requestMap.put(SocketConstants.CHAT_MESSAGE, this::sendChatMessage);
+		requestMap.put(SocketConstants.GAME_ACTION, this::sendGameActionRequest);
+		requestMap.put(SocketConstants.RESUME_REQUEST, this::sendResumeRequest);
+		requestMap.put(SocketConstants.RESYNC_REQUEST, this::sendResyncRequest);
+		requestMap.put(SocketConstants.HEARTBEAT, this::notifyHeartbeat);
+	}
+
+	/**
+	 * Ritorna il giocatore remoto associato alla connessione.
+	 *
+	 * @return socketPlayer
+	 */
+	SocketPlayer getPlayer() {
+		return this.socketPlayer;
+	}
+
+	/**
+	 * Metodo invocato quando la connessione viene chiusa: il giocatore viene
+	 * disconnesso solamente se non ha gia' ripreso la sessione da un'altra
+	 * connessione.
+	 */
+	void connectionClosed() {
+		this.socketPlayer.disconnect(connection);
+	}
+
+	/**
+	 * Gestisce la richiesta ricevuta dal Client ed invoca il metodo
+	 * associatogli nella "requestMap".
+	 *
+	 * @param frame
+	 *            messaggio ricevuto: intestazione (es. {@link SocketConstants})
+	 *            seguita dal contenuto.
+	 */
+	void handleClientRequest(Object[] frame) {
+		if (frame.length == 0)
+			return;
+		this.socketPlayer.touch();
+		RequestHandlerInterface handler = requestMap.get(frame[0]);
+		if (handler != null) {
+			try {
+				handler.handle(frame);
+			} catch (ClassCastException | ArrayIndexOutOfBoundsException e) {
+				System.err.println("Exception while handling client request");
+			}
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////
+	// Metodi "invocati" dal Client (basato su RMIServerInterface)
+	/////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Prova a fare eseguire il login sul Server con il nickname fornito.
+	 *
+	 * @param frame
+	 *            [LOGIN_REQUEST, nickname]
+	 */
+	private void sendLoginRequest(Object[] frame) {
+		String nickname = (String) frame[1];
+
+		int responseCode;
+		try {
+			server.loginPlayer(nickname, this.socketPlayer);
+			responseCode = SocketConstants.RESPONSE_OK;
+		} catch (LoginException e) {
+			System.err.println(SOCKET_ID + " LoginException");
+			responseCode = SocketConstants.RESPONSE_PLAYER_ALREADY_EXISTS;
+		}
+		try {
+			if (responseCode == SocketConstants.RESPONSE_OK)
+				this.socketPlayer.sendFrame(responseCode, this.socketPlayer.getSessionToken());
+			else
+				this.socketPlayer.sendFrame(responseCode);
+		} catch (NetworkException e) {
+			System.err.println(SOCKET_ID + " Player is disconnected");
+			return;
+		}
+
+		if (responseCode != SocketConstants.RESPONSE_PLAYER_ALREADY_EXISTS) {
+			try {
+				server.joinFirstAvailableRoom(this.socketPlayer);
+			} catch (JoinRoomException e) {
+				// e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Riprende la sessione di un giocatore disconnesso (con un solo scambio di
+	 * messaggi): la connessione viene associata al giocatore, che resta nella
+	 * propria Stanza e riceve lo stato completo della partita in corso.
+	 *
+	 * @param frame
+	 *            [RESUME_REQUEST, sessionToken]
+	 */
+	private void sendResumeRequest(Object[] frame) {
+		String sessionToken = (String) frame[1];
+		RemotePlayer player = server.getPlayerBySession(sessionToken);
+		if (!(player instanceof SocketPlayer)) {
+			System.err.println(SOCKET_ID + " Session not found");
+			try {
+				this.socketPlayer.sendFrame(SocketConstants.RESPONSE_SESSION_NOT_FOUND);
+			} catch (NetworkException e) {
+				System.err.println(SOCKET_ID + " Player is disconnected");
+			}
+			return;
+		}
+
+		SocketPlayer resumed = (SocketPlayer) player;
+		SocketConnection previous = resumed.rebind(connection);
+		// La vecchia connessione potrebbe essere ancora aperta (es. il Client
+		// si e' ricollegato prima che il Server rilevasse la disconnessione).
+		if (previous != null && previous != connection)
+			previous.close();
+		this.socketPlayer = resumed;
+		try {
+			resumed.sendFrame(SocketConstants.RESPONSE_OK, sessionToken);
+		} catch (NetworkException e) {
+			System.err.println(SOCKET_ID + " Player is disconnected");
+			return;
+		}
+		server.resumePlayer(resumed);
+	}
+
+	/**
+	 * Invia lo stato completo della partita al Client che ha perso un
+	 * aggiornamento.
+	 *
+	 * @param frame
+	 *            [RESYNC_REQUEST]
+	 */
+	private void sendResyncRequest(Object[] frame) {
+		server.resyncPlayer(this.socketPlayer);
+	}
+
+	/**
+	 * Registra la risposta del Client ad un heartbeat.
+	 *
+	 * @param frame
+	 *            [HEARTBEAT, timestamp]
+	 */
+	private void notifyHeartbeat(Object[] frame) {
+		this.socketPlayer.onHeartbeat((long) frame[1]);
+	}
+
+	/**
+	 * Invia un messaggio in chat ad altri giocatori o un giocatore specifico.
+	 *
+	 * @param frame
+	 *            [CHAT_MESSAGE, receiver, message]
+	 */
+	private void sendChatMessage(Object[] frame) {
+		String receiver = (String) frame[1];
+		String message = (String) frame[2];
+		try {
+			server.sendChatMessage(this.socketPlayer, receiver, message);
+		} catch (PlayerNotFound e) {
+			System.err.println(SOCKET_ID + " cannot dispatch message to a player that cannot be found");
+		}
+	}
+
+	/**
+	 * Invia una una richiesta di esecuzione di un'azione di gioco.
+	 *
+	 * @param frame
+	 *            [GAME_ACTION, action]
+	 */
+	private void sendGameActionRequest(Object[] frame) {
+		try {
+			UpdateStats action = (UpdateStats) frame[1];
+			this.socketPlayer.getRoom().performGameAction(this.socketPlayer, action);
+		} catch (GameException e) {
+			notifyActionNotValid(e.getMessage());
+		}
+	}
+
+	/**
+	 * Notifica al Client che si e' verificato un errore.
+	 *
+	 * @param errorCode
+	 *            codice d'errore che lo identifica (vedi {@link Errors}).
+	 */
+	private void notifyActionNotValid(String errorCode) {
+		try {
+			this.socketPlayer.sendFrame(SocketConstants.ACTION_NOT_VALID, errorCode);
+		} catch (NetworkException e) {
+			System.err.println(SOCKET_ID + " Player is disconnected");
+		}
+	}
+
+	/**
+	 * Interfaccia utilizzata "come" l'interfaccia {@link Runnable}.
+	 */
+	@FunctionalInterface
+	private interface RequestHandlerInterface {
+
+		/**
+		 * Gestisce la richiesta del Client.
+		 *
+		 * @param frame
+		 *            messaggio ricevuto (intestazione + contenuto).
+		 */
+		void handle(Object[] frame);
+	}
+}
@@ -3,28 +3,28 @@ package main.network.server.socket;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.HashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
-import main.model.errors.Errors;
-import main.network.exceptions.LoginException;
-import main.network.exceptions.PlayerNotFound;
-import main.network.protocol.socket.SocketConstants;
+import main.network.NetworkException;
+import main.network.protocol.socket.SocketFrames;
 import main.network.server.AbstractServer;
 import main.network.server.IServer;
 import main.network.server.ServerException;
-import main.network.server.game.UpdateStats;
-import main.network.server.game.exceptions.GameException;
-import main.network.server.game.exceptions.JoinRoomException;
+import main.network.server.ServerThreads;
 import main.util.Costants;
 
 /**
  * Estende {@link AbstractServer} per consentire di implementare la
- * comunicazione Client/Server con i {@link SocketClient}.
+ * comunicazione Client/Server con i {@link SocketClient}. Ogni connessione e'
+ * gestita da un proprio Thread, virtuale o meno a seconda della modalita' del
+ * Server (vedi {@link ServerThreads}, e {@link NioSocketServer} per la versione
+ * non bloccante).
  */
 public class SocketServer extends AbstractServer {
 
@@ -40,7 +40,7 @@ public class SocketServer extends AbstractServer {
 
 	/**
 	 * Costruttore.
-	 * 
+	 *
 	 * @param controller
 	 *            interfaccia del Server (es. {@link Server}).
 	 */
@@ -50,7 +50,7 @@ public class SocketServer extends AbstractServer {
 
 	/**
 	 * Avvia il Server per le connessioni Socket.
-	 * 
+	 *
 	 * @param port
 	 *            numero di porta da usare.
 	 * @throws ServerException
@@ -82,7 +82,7 @@ public class SocketServer extends AbstractServer {
 				try {
 					Socket socket = serverSocket.accept();
 					// System.out.println("New socket request");
-					new RequestHandler(getController(), socket).start();
+					ServerThreads.execute(new RequestHandler(getController(), socket));
 				} catch (IOException e) {
 					e.printStackTrace();
 					break;
@@ -92,15 +92,10 @@ public class SocketServer extends AbstractServer {
 	}
 
 	/**
-	 * Thread per la gestione delle richieste Client.
+	 * Attivita' (eseguita su un Thread dedicato) per la gestione delle
+	 * richieste Client.
 	 */
-	public static class RequestHandler extends Thread {
-
-		/**
-		 * Interfaccia utilizzata per comunicare con il Server (es.
-		 * {@link Server}).
-		 */
-		private final transient IServer server;
+	public static class RequestHandler implements Runnable {
 
 		/**
 		 * Socket attraverso il quale il giocatore puo' comunicare con il Server
@@ -109,36 +104,23 @@ public class SocketServer extends AbstractServer {
 		private final transient Socket socket;
 
 		/**
-		 * Stream di Input per la ricezione degli oggetti serializzati dal
-		 * Client.
-		 */
-		private final transient ObjectInputStream inputStream;
-
-		/**
-		 * Stream di Output per l'invio di oggetti serializzati al Client.
-		 */
-		private final transient ObjectOutputStream outputStream;
-
-		/**
-		 * MUTEX per evitare la concorrenza tra Thread durante la scrittura sul
-		 * flusso di uscita del Socket.
+		 * Stream di Input per la ricezione dei messaggi dal Client.
 		 */
-		private static final Object OUTPUT_MUTEX = new Object();
+		private final transient DataInputStream inputStream;
 
 		/**
-		 * Giocatore Remoto associato al Thread.
+		 * Connessione usata per l'invio dei messaggi al Client.
 		 */
-		private SocketPlayer socketPlayer;
+		private final transient StreamConnection connection;
 
 		/**
-		 * Mappa di tutti i metodi di risposta definiti sul server (vedi
-		 * {@link SocketRequestListener}).
+		 * Gestore dei messaggi di richiesta del Client.
 		 */
-		private final HashMap<Object, RequestHandlerInterface> requestMap;
+		private final SocketRequestDispatcher dispatcher;
 
 		/**
 		 * Costruttore.
-		 * 
+		 *
 		 * @param controller
 		 *            interfaccia del Server (es. {@link Server}).
 		 * @param socket
@@ -146,24 +128,10 @@ public class SocketServer extends AbstractServer {
 		 * @throws IOException
 		 */
 		public RequestHandler(IServer controller, Socket socket) throws IOException {
-			this.server = controller;
 			this.socket = socket;
-			this.outputStream = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
-			this.outputStream.flush();
-			this.inputStream = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
-
-			requestMap = new HashMap<>();
-			loadRequests();
-		}
-
-		/**
-		 * Inizializza "responseMap" caricando tutti i possibili metodi di
-		 * risposta (chiamati da {@link SocketRequestListener}).
-		 */
-		private void loadRequests() {
-			requestMap.put(SocketConstants.LOGIN_REQUEST, this::sendLoginRequest);
-			requestMap.put(SocketConstants.CHAT_MESSAGE, this::sendChatMessage);
-			requestMap.put(SocketConstants.GAME_ACTION, this::sendGameActionRequest);
+			this.inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			this.connection = new StreamConnection(new BufferedOutputStream(socket.getOutputStream()));
+			this.dispatcher = new SocketRequestDispatcher(controller, new SocketPlayer(connection));
 		}
 
 		/////////////////////////////////////////////////////////////////////////////////////////
@@ -171,161 +139,127 @@ public class SocketServer extends AbstractServer {
 		/////////////////////////////////////////////////////////////////////////////////////////
 
 		/**
-		 * Associa un {@link SocketPlayer} al Client e resta in ascolto sullo
-		 * Stream di Input in attesa di messaggi di richiesta.
+		 * Avvia il Thread di scrittura della connessione e resta in ascolto
+		 * sullo Stream di Input in attesa di messaggi di richiesta.
 		 */
 		@Override
 		public void run() {
+			ServerThreads.execute(connection);
 			try {
-				this.socketPlayer = new SocketPlayer(outputStream, OUTPUT_MUTEX);
-				try {
-					// noinspection InfiniteLoopStatement
-					while (true) {
-						Object object = inputStream.readObject();
-						handleClientRequest(object);
-					}
-				} catch (IOException | ClassNotFoundException e) {
-					System.err.println(e);
-				} finally {
-					closeSafely(inputStream, "I/O error occurs when closing input stream");
-					closeSafely(outputStream, "I/O error occurs when closing output stream");
-					closeSafely(socket, "I/O error occurs when closing socket");
+				// noinspection InfiniteLoopStatement
+				while (true) {
+					Object[] frame = SocketFrames.read(inputStream);
+					dispatcher.handleClientRequest(frame);
 				}
 			} catch (IOException e) {
-				e.printStackTrace();
+				System.err.println(e);
+			} finally {
+				dispatcher.connectionClosed();
+				closeSafely(inputStream, "I/O error occurs when closing input stream");
+				closeSafely(socket, "I/O error occurs when closing socket");
 			}
 		}
+	}
+
+	/**
+	 * Connessione "bloccante": i messaggi vengono accodati e inviati al Client
+	 * da un Thread dedicato, in modo che un Client lento non rallenti la
+	 * scrittura verso gli altri.
+	 */
+	private static class StreamConnection implements SocketConnection, Runnable {
 
 		/**
-		 * Chiude correttamente la connessione Socket.
-		 * 
-		 * @param closeable
-		 *            oggetto che implementa l'interfaccia {@link Closeable}.
-		 * @param message
-		 *            messaggio da stampare nel caso si scateni un eccezione
-		 *            durante il tentativo di chiusura dell'oggetto.
+		 * Messaggio "vuoto" usato per terminare il Thread di scrittura.
 		 */
-		private void closeSafely(Closeable closeable, String message) {
-			try {
-				closeable.close();
-			} catch (IOException e) {
-				System.err.println(message);
-			}
-		}
+		private static final byte[] END_OF_STREAM = new byte[0];
 
 		/**
-		 * Gestisce la richiesta ricevuta dal Client ed invoca il metodo
-		 * associatogli nella "responseMap".
-		 * 
-		 * @param object
-		 *            intestazione della risposta ricevuta dal server (es.
-		 *            {@link SocketConstants}).
+		 * Stream di Output per l'invio dei messaggi al Client.
 		 */
-		private void handleClientRequest(Object object) {
-			RequestHandlerInterface handler = requestMap.get(object);
-			if (handler != null) {
-				synchronized (OUTPUT_MUTEX) {
-					handler.handle();
-				}
-			}
-		}
-
-		/////////////////////////////////////////////////////////////////////////////////////////
-		// Metodi "invocati" dal Client (basato su RMIServerInterface)
-		/////////////////////////////////////////////////////////////////////////////////////////
+		private final OutputStream outputStream;
 
 		/**
-		 * Prova a fare eseguire il login sul Server con il nickname fornito.
+		 * Coda dei messaggi in uscita verso il Client.
 		 */
-		private void sendLoginRequest() {
-			try {
-				String nickname = (String) inputStream.readObject();
+		private final BlockingQueue<byte[]> outboundQueue = new LinkedBlockingQueue<>();
 
-				int responseCode;
-				try {
-					server.loginPlayer(nickname, this.socketPlayer);
-					responseCode = SocketConstants.RESPONSE_OK;
-				} catch (LoginException e) {
-					System.err.println(SOCKET_ID + " LoginException");
-					responseCode = SocketConstants.RESPONSE_PLAYER_ALREADY_EXISTS;
-				}
-				outputStream.writeObject(responseCode);
-				outputStream.flush();
+		/**
+		 * Stato della connessione.
+		 */
+		private volatile boolean open = true;
 
-				if (responseCode != SocketConstants.RESPONSE_PLAYER_ALREADY_EXISTS) {
-					try {
-						server.joinFirstAvailableRoom(this.socketPlayer);
-					} catch (JoinRoomException e) {
-						//e.printStackTrace();
-					}
-				}
+		/**
+		 * Costruttore.
+		 *
+		 * @param outputStream
+		 *            stream di uscita del Socket.
+		 */
+		StreamConnection(OutputStream outputStream) {
+			this.outputStream = outputStream;
+		}
 
-			} catch (ClassNotFoundException | ClassCastException | IOException e) {
-				System.err.println("Exception while handling client request");
-			}
+		@Override
+		public void send(byte[] frame) throws NetworkException {
+			if (!open)
+				throw new NetworkException("Connection closed");
+			outboundQueue.offer(frame);
 		}
 
-		/**
-		 * Invia un messaggio in chat ad altri giocatori o un giocatore
-		 * specifico.
-		 */
-		private void sendChatMessage() {
-			try {
-				String receiver = (String) inputStream.readObject();
-				String message = (String) inputStream.readObject();
-				try {
-					server.sendChatMessage(this.socketPlayer, receiver, message);
-				} catch (PlayerNotFound e) {
-					System.err.println(SOCKET_ID + " cannot dispatch message to a player that cannot be found");
-				}
-			} catch (ClassNotFoundException | ClassCastException | IOException e) {
-				System.err.println("Exception while handling client request");
-			}
+		@Override
+		public boolean isOpen() {
+			return open;
 		}
 
-		/**
-		 * Invia una una richiesta di esecuzione di un'azione di gioco.
-		 */
-		private void sendGameActionRequest() {
-			try {
-				UpdateStats action = (UpdateStats) inputStream.readObject();
-				this.socketPlayer.getRoom().performGameAction(this.socketPlayer, action);
-			} catch (GameException e) {
-				notifyActionNotValid(e.getMessage());
-			} catch (ClassNotFoundException | ClassCastException | IOException e) {
-				System.err.println("Exception while handling client request");
-			}
+		@Override
+		public void close() {
+			open = false;
+			outboundQueue.offer(END_OF_STREAM);
 		}
 
 		/**
-		 * Notifica al Client che si � verificato un errore.
-		 * 
-		 * @param errorCode
-		 *            codice d'errore che lo identifica (vedi {@link Errors}).
+		 * Loop che preleva i messaggi dalla coda e li scrive sul flusso di
+		 * uscita del Socket.
 		 */
-		private void notifyActionNotValid(String errorCode) {
-			synchronized (OUTPUT_MUTEX) {
-				try {
-					outputStream.writeObject(SocketConstants.ACTION_NOT_VALID);
-					outputStream.writeObject(errorCode);
-					outputStream.flush();
-				} catch (IOException e) {
-					System.err.println(SOCKET_ID + " Player is disconnected");
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					byte[] frame = outboundQueue.take();
+					if (frame == END_OF_STREAM)
+						break;
+					// Unico Thread a scrivere sul Socket: non serve alcun MUTEX.
+					outputStream.write(frame);
+					// Svuota il buffer solo quando non ci sono altri messaggi
+					// in attesa.
+					if (outboundQueue.isEmpty())
+						outputStream.flush();
 				}
+			} catch (IOException e) {
+				System.err.println(SOCKET_ID + " Player is disconnected");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				open = false;
+				outboundQueue.clear();
+				closeSafely(outputStream, "I/O error occurs when closing output stream");
 			}
 		}
-
 	}
 
 	/**
-	 * Interfaccia utilizzata "come" l'interfaccia {@link Runnable}.
+	 * Chiude correttamente la connessione Socket.
+	 *
+	 * @param closeable
+	 *            oggetto che implementa l'interfaccia {@link Closeable}.
+	 * @param message
+	 *            messaggio da stampare nel caso si scateni un eccezione
+	 *            durante il tentativo di chiusura dell'oggetto.
 	 */
-	@FunctionalInterface
-	private interface RequestHandlerInterface {
-
-		/**
-		 * Gestisce la richiesta del Client.
-		 */
-		void handle();
+	private static void closeSafely(Closeable closeable, String message) {
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			System.err.println(message);
+		}
 	}
-}
\ No newline at end of file
+}
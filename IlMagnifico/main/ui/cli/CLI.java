@@ -6,6 +6,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Timer;
+import java.util.TimerTask;
 
 import main.model.Carta;
 import main.model.Edificio;
@@ -43,12 +45,24 @@ import main.util.Costants;
  *
  */
 public class CLI implements IClient {
+	/**
+	 * Parametro della riga di comando per collegarsi ad un cluster (vedi
+	 * {@link main.network.server.cluster.ClusterDirectory}).
+	 */
+	public static final String CLUSTER_OPTION = "-cluster";
+
 	public static Scanner scanner = new Scanner(System.in);
 	public static String inText;
 
 	static Client client;
 	static IClient ui;
 
+	/**
+	 * Porta dell'elenco dei nodi del cluster (0 per collegarsi direttamente al
+	 * Server, vedi {@link #mainClusterClient(String, int)}).
+	 */
+	private static int directoryPort;
+
 	/**
 	 * Get Singleton Client
 	 * 
@@ -83,7 +97,10 @@ public class CLI implements IClient {
 		int socketPort = Costants.SOCKET_PORT, rmiPort = Costants.RMI_PORT;
 
 		// Check if arguments were passed in
-		if (args.length != 0) {
+		if (args.length != 0 && args[0].equals(CLUSTER_OPTION)) {
+			mainClusterClient(args);
+			return;
+		} else if (args.length != 0) {
 			try {
 				serverAddress = args[0];
 				socketPort = Integer.parseInt(args[1]);
@@ -123,6 +140,39 @@ public class CLI implements IClient {
 		mainClient(serverAddress, socketPort, rmiPort, null);
 	}
 
+	/**
+	 * Start Client (RMI or Socket) collegato al nodo del cluster scelto
+	 * dall'elenco dei nodi.
+	 * 
+	 * @param directoryAddress
+	 * @param directoryPort
+	 */
+	public static void mainClusterClient(String directoryAddress, int directoryPort) {
+		CLI.directoryPort = directoryPort;
+		mainClient(directoryAddress, 0, 0, null);
+	}
+
+	/**
+	 * Start Client collegato al cluster a partire dai parametri della riga di
+	 * comando ({@value #CLUSTER_OPTION} ["directoryAddress" directoryPort]).
+	 * 
+	 * @param args
+	 */
+	public static void mainClusterClient(String[] args) {
+		String directoryAddress = Costants.SERVER_ADDRESS;
+		int port = Costants.CLUSTER_DIRECTORY_PORT;
+		try {
+			if (args.length > 1)
+				directoryAddress = args[1];
+			if (args.length > 2)
+				port = Integer.parseInt(args[2]);
+		} catch (NumberFormatException e) {
+			System.out.println("Proper usage is: " + CLUSTER_OPTION + " [\"directoryAddress\" directoryPort]");
+			System.exit(0);
+		}
+		mainClusterClient(directoryAddress, port);
+	}
+
 	/**
 	 * Start Client (RMI or Socket) (ritorna l'oggetto {@link Client} creato,
 	 * usato in {@link UsernameFrame}).
@@ -156,7 +206,10 @@ public class CLI implements IClient {
 			try {
 				attempts--;
 				Client client = getClient();
-				client.startClient(inText, serverAddress, socketPort, rmiPort);
+				if (directoryPort > 0)
+					client.startClusterClient(inText, serverAddress, directoryPort);
+				else
+					client.startClient(inText, serverAddress, socketPort, rmiPort);
 				success = true;
 			} catch (ClientException e) {
 				if (attempts > 0) {
@@ -1185,6 +1238,49 @@ public class CLI implements IClient {
 		printDices(27, printSep1, printSep2);
 	}
 
+	/**
+	 * Stampa i dadi uno alla volta, a distanza di
+	 * {@link Costants#DICE_REVEAL_DELAY} millisecondi l'uno dall'altro (il
+	 * Server li lancia tutti insieme, l'attesa e' solo "scenografica"). I dadi
+	 * vengono stampati da un {@link Timer}, cosi' che il metodo ritorni
+	 * subito (es. se invocato dal Thread che riceve gli aggiornamenti).
+	 * 
+	 * @param leftPadding
+	 *            spaziatura a sinistra.
+	 */
+	public static void rollDices(int leftPadding) {
+		Client client = getClient();
+		SpazioAzione board = client.getGameBoard();
+
+		try {
+			int[] dadi = board.getValoreDadi().clone();
+			String[] formati = { " %-13s", " %-18s", " %-15s" };
+			String[] nomi = { "Black = ", "Orange = ", "White = " };
+
+			System.out.print(ANSI.YELLOW);
+			System.out.format("%-" + leftPadding + "s", "Dices: ");
+			System.out.print(ANSI.RESET);
+			System.out.flush();
+			Timer timer = new Timer(true);
+			for (int i = 0; i < dadi.length; i++) {
+				final int lanciato = i;
+				timer.schedule(new TimerTask() {
+					@Override
+					public void run() {
+						System.out.format(" " + formati[lanciato], nomi[lanciato] + dadi[lanciato]);
+						if (lanciato == dadi.length - 1) {
+							System.out.println();
+							timer.cancel();
+						}
+						System.out.flush();
+					}
+				}, (long) (i + 1) * Costants.DICE_REVEAL_DELAY);
+			}
+		} catch (NullPointerException e) {
+			System.err.println("EXCPETION:" + e.getMessage());
+		}
+	}
+
 	private static void printPawns(boolean printSep1, boolean printSep2) {
 		try {
 
@@ -1832,7 +1928,7 @@ public class CLI implements IClient {
 
 	@Override
 	public void onTurnStarted(UpdateStats update) {
-		CLI.printDices(10, false, false);
+		CLI.rollDices(10);
 	}
 
 	@Override
@@ -1846,6 +1942,11 @@ public class CLI implements IClient {
 		CLI.printPlayersNames(10, false, false);
 	}
 
+	@Override
+	public void onConnectionLost() {
+		System.out.println(ANSI.RED + "Connection lost, trying to resume session..." + ANSI.RESET);
+	}
+
 	@Override
 	public void onNotify(Object object) throws RemoteException {
 		System.out.println(object.toString());
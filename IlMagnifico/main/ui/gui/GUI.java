@@ -1937,17 +1937,49 @@ public class GUI extends JFrame implements IClient {
 
 	@Override
 	public void onTurnStarted(UpdateStats update) {
-		if (nomeGiocatore.equals(getClient().getPlayerTurn())) {
+		if (nomeGiocatore.equals(getClient().getPlayerTurn()))
 			famigliareSelezionato = null;
-			lblTextLogger.setForeground(Color.GREEN);
-			lblTextLogger.setText("IT'S YOUR TURN");
-		} else {
-			lblTextLogger.setForeground(Color.RED);
-			lblTextLogger.setText(getClient().getPlayerTurn() + "'S TURN");
-		}
-		lblTextLogger.setVisible(true);
 
 		aggiornamento(update);
+		mostraDadi(getClient().getGameBoard().getValoreDadi());
+	}
+
+	/**
+	 * Mostra i dadi appena lanciati uno alla volta (a distanza di
+	 * {@link Costants#DICE_REVEAL_DELAY} millisecondi), poi il giocatore di
+	 * turno.
+	 * 
+	 * @param dadi
+	 *            valori dei dadi (nero, arancione, bianco).
+	 */
+	private void mostraDadi(int[] dadi) {
+		String[] nomi = { "BLACK ", "ORANGE ", "WHITE " };
+		Timer timer = new Timer();
+		for (int i = 0; i <= dadi.length; i++) {
+			final int lanciati = i;
+			timer.schedule(new TimerTask() {
+				@Override
+				public void run() {
+					if (lanciati < dadi.length) {
+						StringBuilder testo = new StringBuilder("DICES:");
+						for (int j = 0; j <= lanciati; j++)
+							testo.append("  ").append(nomi[j]).append(dadi[j]);
+						lblTextLogger.setForeground(Color.YELLOW);
+						lblTextLogger.setText(testo.toString());
+					} else {
+						if (nomeGiocatore.equals(getClient().getPlayerTurn())) {
+							lblTextLogger.setForeground(Color.GREEN);
+							lblTextLogger.setText("IT'S YOUR TURN");
+						} else {
+							lblTextLogger.setForeground(Color.RED);
+							lblTextLogger.setText(getClient().getPlayerTurn() + "'S TURN");
+						}
+						timer.cancel();
+					}
+					lblTextLogger.setVisible(true);
+				}
+			}, (long) i * Costants.DICE_REVEAL_DELAY);
+		}
 	}
 
 	@Override
@@ -1970,6 +2002,13 @@ public class GUI extends JFrame implements IClient {
 		aggiornamento(update);
 	}
 
+	@Override
+	public void onConnectionLost() {
+		lblTextLogger.setForeground(Color.RED);
+		lblTextLogger.setText("Connection lost, trying to resume session...");
+		lblTextLogger.setVisible(true);
+	}
+
 	@Override
 	public void onNotify(Object object) throws RemoteException {
 		// TODO Auto-generated method stub
@@ -23,16 +23,51 @@ public class Costants {
 			+ SERVER.substring(1).toLowerCase() + "]" + ANSI.RESET;
 	public static final String RMI_SERVER_ID = ANSI.WHITE + "[RMI " + SERVER.substring(0, 1).toUpperCase()
 			+ SERVER.substring(1).toLowerCase() + "]" + ANSI.RESET;
+	public static final int SOCKET_EVENT_LOOPS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	public static final int SOCKET_WRITE_QUEUE_BYTES = 1 << 20;
+	public static final int CHAT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+	public static final int CHAT_OUTBOX_SIZE = 256;
+	public static final int HEARTBEAT_PERIOD = 2000;
+	public static final int HEARTBEAT_TIMEOUT = 6000;
+
+	// Cluster
+	public static final int CLUSTER_DIRECTORY_PORT = 1100;
+	public static final int CLUSTER_PORT_STEP = 10;
+	public static final int CLUSTER_REPORT_PERIOD = 1000;
+	public static final int CLUSTER_NODE_TIMEOUT = 5000;
+	public static final int CLUSTER_ROUTE_TIMEOUT = 10000;
 
 	// Stanza
 	public static final int ROOM_MIN_PLAYERS = 2;
 	public static final int ROOM_MAX_PLAYERS = 4;
 	public static final int ROOM_WAITING_TIME = 1;
 	public static final boolean ROOM_ENABLE_LOG = true;
+	public static final int ROOM_MAILBOX_SIZE = 64;
+	public static final int ROOM_CHAT_HISTORY = 50;
+
+	// Journal
+	public static final String JOURNAL_EXTENSION = ".journal";
+	public static final int JOURNAL_SEGMENT_SIZE = 1 << 20;
+	public static final int JOURNAL_COMMIT_DELAY = 5;
+	public static final int JOURNAL_SNAPSHOT_INTERVAL = 64;
+
+	// Registrazione delle partite
+	public static final String RECORD_EXTENSION = ".game";
+
+	// Partite senza Stanza
+	public static final int RUNNER_MAX_ACTIONS = 10000;
+	public static final int RUNNER_MAX_ATTEMPTS = 100;
+
+	// Bot
+	public static final String BOT_NAME = "[BOT]";
+	public static final int BOT_WAITING_TIME = 0;
+	public static final int BOT_THREADS = 1;
+	public static final int BOT_DECISION_BUDGET = 5;
 
 	// Gioco
 	public static final String GAME_ID = ANSI.CYAN + "[" + GAME + "]" + ANSI.RESET;
 	public static final String ROOM_ID = ANSI.YELLOW + "[" + ROOM + "]" + ANSI.RESET;
+	public static final int DICE_REVEAL_DELAY = 500;
 
 	// CLI
 	public static final String ROW_SEPARATOR = "-----------------------------------------------------------------------------------------------------------------------------------";
@@ -0,0 +1,232 @@
+package test.model.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.model.Carta;
+import main.model.ContestoEffetto;
+import main.model.Edificio;
+import main.model.Effetto;
+import main.model.Giocatore;
+import main.model.Impresa;
+import main.model.Personaggio;
+import main.model.Territorio;
+import main.model.UtilEffetto;
+import main.model.enums.ECarte;
+
+public class EffettiBenchmarkTest {
+
+	/**
+	 * Numero di carte per tipo sulla plancia (plancia piena).
+	 */
+	private static final int CARTE_PER_TIPO = 6;
+
+	/**
+	 * Numero di iterazioni usate per misurare i tempi.
+	 */
+	private static final int ITERATIONS = 200000;
+
+	/**
+	 * Effetto permanente di una carta della plancia, con il contesto della
+	 * sua attivazione.
+	 */
+	private static class Attivazione {
+
+		private final Effetto effetto;
+
+		private final ContestoEffetto contesto;
+
+		private Attivazione(Effetto effetto, ContestoEffetto contesto) {
+			this.effetto = effetto;
+			this.contesto = contesto;
+		}
+	}
+
+	/**
+	 * Confronta l'attivazione degli effetti permanenti di una plancia piena
+	 * tramite la tabella dei metodi con la catena di if sul numero
+	 * dell'effetto usata in precedenza. Misura inoltre Raccolto e Produzione
+	 * del giocatore.
+	 */
+	@Test
+	public void testPermanentEffectDispatch() {
+		Giocatore giocatore = giocatoreConPlanciaPiena();
+		List<Attivazione> attivazioni = new ArrayList<>();
+		List<Carta> carte = new ArrayList<>();
+		carte.addAll(giocatore.getPlancia().getTerritori());
+		carte.addAll(giocatore.getPlancia().getPersonaggi());
+		carte.addAll(giocatore.getPlancia().getEdifici());
+		carte.addAll(giocatore.getPlancia().getImprese());
+		for (Carta carta : carte)
+			for (Effetto effetto : effettiPermanenti(carta))
+				attivazioni.add(new Attivazione(effetto,
+						new ContestoEffetto(giocatore, giocatore.getFamigliare(0), carta)));
+		assertEquals(4 * CARTE_PER_TIPO, carte.size());
+		assertFalse(attivazioni.isEmpty());
+
+		// Riscaldamento
+		for (int i = 0; i < ITERATIONS; i++) {
+			tabella(attivazioni);
+			catena(attivazioni);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			tabella(attivazioni);
+		long tabella = (System.nanoTime() - start) / ITERATIONS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			catena(attivazioni);
+		long catena = (System.nanoTime() - start) / ITERATIONS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			giocatore.raccolto(6);
+			giocatore.produzione(6, null);
+		}
+		long raccoltoProduzione = (System.nanoTime() - start) / ITERATIONS;
+
+		System.out.println("[EFFECTS] " + attivazioni.size() + " permanent effects per board: table " + tabella
+				+ " ns, if-chain " + catena + " ns | harvest + production " + raccoltoProduzione + " ns");
+	}
+
+	/**
+	 * Misura i controlli dei costi (tutte le carte del mazzo), la copia dei
+	 * contatori nel famigliare temporaneo e l'applicazione di una variazione
+	 * di risorse e punti.
+	 */
+	@Test
+	public void testCostChecks() {
+		List<Carta> mazzo = new PartitaMazzo().getMazzo();
+		Giocatore giocatore = new Giocatore();
+		giocatore.getRisorse().setMonete(5);
+		giocatore.getRisorse().setLegno(3);
+		giocatore.getRisorse().setPietre(2);
+		giocatore.getRisorse().setServitori(3);
+		giocatore.getPunti().setPuntiMilitari(6);
+		Effetto effetto = new Effetto(0, null, 1, 0, -1, 0, 1, 0, 0, 0);
+		ContestoEffetto contesto = new ContestoEffetto(giocatore, giocatore.getFamigliare(0), null);
+		UtilEffetto utilEffetto = new UtilEffetto();
+		int acquisibili = 0;
+
+		long acquisibile = 0, copia = 0, variazione = 0;
+		// la prima ripetizione e' il riscaldamento
+		for (int ripetizione = 0; ripetizione < 2; ripetizione++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++)
+				for (int j = 0; j < mazzo.size(); j++)
+					if (mazzo.get(j).acquisibile(giocatore))
+						acquisibili++;
+			acquisibile = (System.nanoTime() - start) * 10 / ITERATIONS / mazzo.size();
+
+			start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++)
+				giocatore.getFamigliare(0).mergeFamigliari(giocatore.getFamigliare(0).clonaFamigliare());
+			copia = (System.nanoTime() - start) / ITERATIONS;
+
+			start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				utilEffetto.aggiungiRisorse(contesto, effetto);
+				giocatore.getRisorse().setPietre(2);
+			}
+			variazione = (System.nanoTime() - start) / ITERATIONS;
+		}
+		assertTrue(acquisibili > 0);
+
+		System.out.println("[COUNTERS] " + mazzo.size() + " cards: acquisibile " + acquisibile / 10 + "."
+				+ acquisibile % 10 + " ns/card | clone + merge " + copia + " ns | aggiungiRisorse " + variazione
+				+ " ns");
+	}
+
+	private static void tabella(List<Attivazione> attivazioni) {
+		for (Attivazione attivazione : attivazioni)
+			attivazione.effetto.attiva(attivazione.contesto);
+	}
+
+	/**
+	 * Selezione del metodo usata in precedenza da Carta.attivaEffettoSingolo.
+	 */
+	private static void catena(List<Attivazione> attivazioni) {
+		UtilEffetto utilEffetto = new UtilEffetto();
+		for (Attivazione attivazione : attivazioni) {
+			ContestoEffetto contesto = attivazione.contesto;
+			Effetto effetto = attivazione.effetto;
+			int numero = effetto.getNumeroEffetto();
+			if (numero == 0)
+				utilEffetto.aggiungiRisorse(contesto, effetto);
+			else if (numero == 3)
+				utilEffetto.eseguiPrivilegioDelConsiglio(contesto, effetto);
+			else if (numero == 4)
+				utilEffetto.aumentaDiDueAzione(contesto, effetto);
+			else if (numero == 5)
+				utilEffetto.aumentaDiTreAzione(contesto, effetto);
+			else if (numero == 6)
+				utilEffetto.eseguiEffettoImmediatoRaccolto(contesto, effetto);
+			else if (numero == 7)
+				utilEffetto.eseguiEffettoImmediatoProduzioneValoreTre(contesto, effetto);
+			else if (numero == 8)
+				utilEffetto.eseguiEffettoImmediatoProduzioneValoreQuattro(contesto, effetto);
+			else if (numero == 9)
+				utilEffetto.duePVxedificio(contesto, effetto);
+			else if (numero == 10)
+				utilEffetto.duePVxpersonaggio(contesto, effetto);
+			else if (numero == 11)
+				utilEffetto.duePVximpresa(contesto, effetto);
+			else if (numero == 12)
+				utilEffetto.duePVxterritorio(contesto, effetto);
+			else if (numero == 13)
+				utilEffetto.unPVxpersonaggio(contesto, effetto);
+			else if (numero == 14)
+				utilEffetto.unPVximpresa(contesto, effetto);
+			else if (numero == 15)
+				utilEffetto.unaMonetaxterritorio(contesto, effetto);
+			else if (numero == 16)
+				utilEffetto.unaMonetaxedificio(contesto, effetto);
+			else if (numero == 17)
+				utilEffetto.unPVxduePM(contesto, effetto);
+			else if (numero == 18)
+				utilEffetto.decrementaDiQuattroAzione(contesto, effetto);
+			else if (numero == 19)
+				utilEffetto.decrementaDiTreAzione(contesto, effetto);
+			else if (numero == 20)
+				utilEffetto.decrementaDiUnoAzione(contesto, effetto);
+			else if (numero == 23)
+				utilEffetto.scontoUnaMoneta(contesto, effetto);
+			else if (numero == 24)
+				utilEffetto.scontoLegnoEPietra(contesto, effetto);
+			else if (numero == 25)
+				utilEffetto.prendiCartaSenzaFamigliareQuattro(contesto, effetto);
+		}
+	}
+
+	/**
+	 * Ritorna un giocatore con {@link #CARTE_PER_TIPO} carte per tipo.
+	 */
+	private static Giocatore giocatoreConPlanciaPiena() {
+		Giocatore giocatore = new Giocatore();
+		int[] carte = new int[4];
+		for (Carta carta : new PartitaMazzo().getMazzo()) {
+			if (carta instanceof Territorio && carte[0]++ < CARTE_PER_TIPO)
+				giocatore.getPlancia().aggiungiTerritorio((Territorio) carta);
+			if (carta instanceof Personaggio && carte[1]++ < CARTE_PER_TIPO)
+				giocatore.getPlancia().aggiungiPersonaggio((Personaggio) carta);
+			if (carta instanceof Edificio && carte[2]++ < CARTE_PER_TIPO)
+				giocatore.getPlancia().aggiungiEdificio((Edificio) carta);
+			if (carta instanceof Impresa && carte[3]++ < CARTE_PER_TIPO)
+				giocatore.getPlancia().aggiungiImpresa((Impresa) carta);
+		}
+		return giocatore;
+	}
+
+	private static List<Effetto> effettiPermanenti(Carta carta) {
+		for (ECarte ecarta : ECarte.values())
+			if (ecarta.getNome().equals(carta.getNome()))
+				return ecarta.getEffettiPermanenti();
+		return new ArrayList<>();
+	}
+}
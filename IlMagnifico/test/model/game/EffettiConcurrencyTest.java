@@ -0,0 +1,130 @@
+package test.model.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import main.model.Carta;
+import main.model.Famigliare;
+import main.model.Giocatore;
+import main.model.Scomunica;
+import main.model.enums.EAzioniGioco;
+import main.model.enums.EScomuniche;
+import main.model.exceptions.NoEnoughResourcesException;
+
+public class EffettiConcurrencyTest {
+
+	/**
+	 * Numero di partite eseguite contemporaneamente.
+	 */
+	private static final int PARTITE = 16;
+
+	/**
+	 * Numero di volte che ogni partita valuta tutte le carte e le scomuniche.
+	 */
+	private static final int ROUND = 30;
+
+	/**
+	 * Test che esegue molte partite contemporaneamente: ognuna acquista tutte
+	 * le carte del proprio mazzo ed attiva i loro effetti e quelli delle
+	 * scomuniche. Gli effetti sono condivisi tra le partite, per cui ogni
+	 * valutazione deve dare lo stesso risultato di una valutazione
+	 * sequenziale.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testParallelGames() throws InterruptedException {
+		List<int[]> attesi = valutaPartita();
+		assertEquals(attesi.size(), valutaPartita().size());
+
+		AtomicInteger differenze = new AtomicInteger();
+		List<Throwable> errori = new ArrayList<>();
+		CountDownLatch partenza = new CountDownLatch(1);
+		Thread[] partite = new Thread[PARTITE];
+		for (int i = 0; i < PARTITE; i++) {
+			partite[i] = new Thread(() -> {
+				try {
+					partenza.await();
+					for (int r = 0; r < ROUND; r++) {
+						List<int[]> risultati = valutaPartita();
+						for (int j = 0; j < attesi.size(); j++)
+							if (!Arrays.equals(attesi.get(j), risultati.get(j)))
+								differenze.incrementAndGet();
+					}
+				} catch (Throwable e) {
+					synchronized (errori) {
+						errori.add(e);
+					}
+				}
+			});
+			partite[i].start();
+		}
+		partenza.countDown();
+		for (Thread partita : partite)
+			partita.join();
+
+		assertTrue(errori.toString(), errori.isEmpty());
+		assertEquals(0, differenze.get());
+	}
+
+	/**
+	 * Acquista ogni carta di un nuovo mazzo con un nuovo giocatore ed attiva
+	 * tutti i suoi effetti, poi attiva ogni scomunica su ogni azione.
+	 *
+	 * @return lo stato finale (risorse, punti e valore del famigliare) di ogni
+	 *         giocatore.
+	 */
+	private static List<int[]> valutaPartita() {
+		List<int[]> risultati = new ArrayList<>();
+		for (Carta carta : new PartitaMazzo().getMazzo()) {
+			Giocatore giocatore = nuovoGiocatore();
+			Famigliare famigliare = giocatore.getFamigliare(0);
+			if (carta.acquisibile(giocatore)) {
+				try {
+					carta.acquisizione(giocatore, null);
+				} catch (NoEnoughResourcesException e) {
+					fail(carta.getNome() + " is acquirable but cannot be paid");
+				}
+				carta.effettoImmediato(giocatore, famigliare, carta);
+			}
+			for (EAzioniGioco azione : EAzioniGioco.values())
+				carta.attivaOnAzione(giocatore, azione, famigliare, carta);
+			risultati.add(stato(giocatore, famigliare));
+		}
+		for (EScomuniche tessera : EScomuniche.values()) {
+			Giocatore giocatore = nuovoGiocatore();
+			Famigliare famigliare = giocatore.getFamigliare(0);
+			Scomunica scomunica = new Scomunica(tessera.getNome(), tessera.getPeriodo(), tessera.getEffetto());
+			for (EAzioniGioco azione : EAzioniGioco.values())
+				scomunica.attivaOnAzione(giocatore, azione, famigliare, null);
+			risultati.add(stato(giocatore, famigliare));
+		}
+		return risultati;
+	}
+
+	private static Giocatore nuovoGiocatore() {
+		Giocatore giocatore = new Giocatore();
+		giocatore.getRisorse().cambiaMonete(10);
+		giocatore.getRisorse().cambiaLegno(10);
+		giocatore.getRisorse().cambiaPietre(10);
+		giocatore.getRisorse().cambiaServitori(10);
+		giocatore.getPunti().cambiaPuntiMilitari(10);
+		giocatore.getPunti().cambiaPuntiVittoria(10);
+		giocatore.getFamigliare(0).cambiaValore(5);
+		return giocatore;
+	}
+
+	private static int[] stato(Giocatore giocatore, Famigliare famigliare) {
+		return new int[] { giocatore.getRisorse().getMonete(), giocatore.getRisorse().getLegno(),
+				giocatore.getRisorse().getPietre(), giocatore.getRisorse().getServitori(),
+				giocatore.getPunti().getPuntiVittoria(), giocatore.getPunti().getPuntiMilitari(),
+				giocatore.getPunti().getPuntiFede(), famigliare.getValore() };
+	}
+}
@@ -0,0 +1,204 @@
+package test.model.game;
+
+import static org.junit.Assert.*;
+import static test.network.server.game.GameStates.describe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.model.Carta;
+import main.model.Famigliare;
+import main.model.GeneratoreMosse;
+import main.model.Giocatore;
+import main.model.Mossa;
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EColoriPedine;
+import main.model.enums.ECostiCarte;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+import main.network.server.game.Game;
+import main.network.server.game.HeadlessPlayer;
+import main.network.server.game.PlayerStrategy;
+import main.network.server.game.RandomStrategy;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.UpdateStats;
+import main.network.server.game.exceptions.GameException;
+
+public class GeneratoreMosseTest {
+
+	/**
+	 * Numero di generazioni usate per misurare la velocita' del generatore.
+	 */
+	private static final int GENERAZIONI = 20000;
+
+	/**
+	 * Ogni quante azioni della partita vengono controllate le mosse generate.
+	 */
+	private static final int CONTROLLI = 7;
+
+	/**
+	 * Test che verifica, durante alcune partite giocate con la
+	 * {@link RandomStrategy}, che il generatore non modifichi la partita e che
+	 * le mosse generate siano esattamente quelle accettate dalla partita:
+	 * ogni mossa generata viene eseguita su una copia della partita (pagando
+	 * prima i servitori) e ogni spostamento non generato senza servitori viene
+	 * rifiutato.
+	 */
+	@Test
+	public void testMosseLegali() throws GameException {
+		for (long seme = 0; seme < 3; seme++) {
+			List<Object[]> azioni = new ArrayList<>();
+			Game game = newGame(seme, 3, azioni);
+			PlayerStrategy strategy = new RandomStrategy(seme);
+			while (!game.isGameEnded()) {
+				RemotePlayer player = nextPlayer(game);
+				if (azioni.size() % CONTROLLI == 0 && game.getGiocatoriRapportoVaticano().isEmpty()) {
+					String stato = describe(game);
+					List<Mossa> mosse = game.getMosseLegali(player);
+					assertEquals(stato, describe(game));
+					assertFalse(mosse.isEmpty());
+					checkMosse(seme, 3, azioni, player.getNome(), mosse);
+				}
+				UpdateStats action = strategy.nextAction(game, player);
+				game.performGameAction(player, action);
+				azioni.add(new Object[] { player.getNome(), action });
+			}
+		}
+	}
+
+	/**
+	 * Test che verifica che solamente il giocatore di turno abbia delle mosse
+	 * legali.
+	 */
+	@Test
+	public void testGiocatoreDiTurno() throws GameException {
+		Game game = newGame(1, 2, new ArrayList<>());
+		for (Giocatore giocatore : game.getGiocatori()) {
+			assertNotEquals(giocatore == game.getGiocatoreDiTurno(), game.getMosseLegali(giocatore).isEmpty());
+			assertFalse(GeneratoreMosse.generaMosse(giocatore).isEmpty());
+		}
+	}
+
+	/**
+	 * Misura il numero di generazioni al secondo (inizio della partita, 4
+	 * giocatori).
+	 */
+	@Test
+	public void testVelocita() throws GameException {
+		Game game = newGame(5, 4, new ArrayList<>());
+		Giocatore giocatore = game.getGiocatoreDiTurno();
+		List<Mossa> mosse = new ArrayList<>();
+		for (int i = 0; i < GENERAZIONI; i++) {
+			mosse.clear();
+			GeneratoreMosse.generaMosse(giocatore, mosse);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < GENERAZIONI; i++) {
+			mosse.clear();
+			GeneratoreMosse.generaMosse(giocatore, mosse);
+		}
+		long nanos = System.nanoTime() - start;
+		System.out.println(String.format("[MOSSE] %d moves: %d generations/s (%d us/generation)", mosse.size(),
+				GENERAZIONI * 1000000000L / nanos, nanos / GENERAZIONI / 1000));
+	}
+
+	/**
+	 * Controlla le mosse generate su copie della partita (vedi
+	 * {@link #testMosseLegali()}).
+	 */
+	private static void checkMosse(long seme, int giocatori, List<Object[]> azioni, String nome, List<Mossa> mosse)
+			throws GameException {
+		List<String> generate = new ArrayList<>();
+		for (Mossa mossa : mosse) {
+			generate.add(mossa.toString());
+			Game copia = newGame(seme, giocatori, azioni);
+			RemotePlayer player = getPlayer(copia, nome);
+			if (mossa.getServitori() > 0) {
+				UpdateStats servitori = new UpdateStats(EAzioniGiocatore.Famigliare);
+				servitori.aumentaValorePedina(mossa.getColore(), mossa.getServitori());
+				copia.performGameAction(player, servitori);
+			}
+			copia.performGameAction(player, new UpdateStats(mossa));
+		}
+
+		Game copia = newGame(seme, giocatori, azioni);
+		for (Mossa mossa : candidate(getPlayer(copia, nome))) {
+			if (generate.contains(mossa.toString()))
+				continue;
+			try {
+				copia.performGameAction(getPlayer(copia, nome), new UpdateStats(mossa));
+				fail("Move not generated: " + mossa + " in " + generate);
+			} catch (GameException e) {
+				// Mossa non legale
+			}
+		}
+	}
+
+	/**
+	 * Tutti gli spostamenti senza servitori dei famigliari non posizionati.
+	 */
+	private static List<Mossa> candidate(Giocatore giocatore) {
+		List<Mossa> candidate = new ArrayList<>();
+		ESceltePrivilegioDelConsiglio[] privilegi = ESceltePrivilegioDelConsiglio.values();
+		for (EColoriPedine colore : EColoriPedine.values()) {
+			Famigliare famigliare = giocatore.getFamigliare(colore.getIndiceColore());
+			if (famigliare.getPosizionato())
+				continue;
+			for (int posizione = 0; posizione < 16; posizione++) {
+				Carta carta = giocatore.getSpazioAzione().getCartaTorre(posizione);
+				List<ECostiCarte> costi = new ArrayList<>();
+				if (carta != null && carta.getCostiCarta().size() > 1)
+					costi.addAll(carta.getCostiCarta());
+				else
+					costi.add(null);
+				for (ECostiCarte costo : costi)
+					candidate.add(new Mossa(EAzioniGiocatore.Torre, colore, posizione, costo, null, 0));
+			}
+			for (int posizione = 0; posizione < 3; posizione++)
+				candidate.add(new Mossa(EAzioniGiocatore.Mercato, colore, posizione, null, null, 0));
+			for (int i = 0; i < privilegi.length; i++) {
+				candidate.add(new Mossa(EAzioniGiocatore.PalazzoConsiglio, colore, 0, null,
+						new ESceltePrivilegioDelConsiglio[] { privilegi[i] }, 0));
+				for (int j = i + 1; j < privilegi.length; j++)
+					candidate.add(new Mossa(EAzioniGiocatore.Mercato, colore, 3, null,
+							new ESceltePrivilegioDelConsiglio[] { privilegi[i], privilegi[j] }, 0));
+			}
+			for (EAzioniGiocatore azione : Arrays.asList(EAzioniGiocatore.Raccolto, EAzioniGiocatore.RaccoltoOvale,
+					EAzioniGiocatore.Produzione, EAzioniGiocatore.ProduzioneOvale))
+				candidate.add(new Mossa(azione, colore, 0, null, null, 0));
+		}
+		return candidate;
+	}
+
+	/**
+	 * Crea una partita senza Stanza ed esegue le azioni indicate ([nome del
+	 * giocatore, azione]).
+	 */
+	private static Game newGame(long seme, int giocatori, List<Object[]> azioni) throws GameException {
+		List<HeadlessPlayer> players = new ArrayList<>();
+		for (int i = 0; i < giocatori; i++)
+			players.add(new HeadlessPlayer("player" + (i + 1)));
+		Game game = new Game(players);
+		game.setSeme(seme);
+		game.startNewGame();
+		for (Object[] azione : azioni)
+			game.performGameAction(getPlayer(game, (String) azione[0]), (UpdateStats) azione[1]);
+		return game;
+	}
+
+	private static RemotePlayer getPlayer(Game game, String nome) {
+		for (Giocatore giocatore : game.getGiocatori())
+			if (giocatore.getNome().equals(nome))
+				return (RemotePlayer) giocatore;
+		return null;
+	}
+
+	private static RemotePlayer nextPlayer(Game game) {
+		List<Giocatore> vaticano = game.getGiocatoriRapportoVaticano();
+		if (!vaticano.isEmpty())
+			return (RemotePlayer) vaticano.get(0);
+		return (RemotePlayer) game.getGiocatoreDiTurno();
+	}
+}
@@ -2,10 +2,28 @@ package test.model.game;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.junit.Test;
 
+import main.model.Contatori;
+import main.model.ContestoEffetto;
+import main.model.Edificio;
+import main.model.Effetto;
 import main.model.Famigliare;
 import main.model.Giocatore;
+import main.model.Personaggio;
+import main.model.Plancia;
+import main.model.Scomunica;
+import main.model.UtilEffetto;
+import main.model.enums.EAzioniGioco;
+import main.model.enums.EScomuniche;
 import main.model.exceptions.NoEnoughResourcesException;
 
 public class GiocatoreTest {
@@ -74,4 +92,167 @@ public class GiocatoreTest {
 		}
 		assertTrue(controlloEccezione == true);
 	}
+
+	/**
+	 * Test che verifica che risorse e punti condividano i contatori del
+	 * giocatore e che le variazioni (singole e complessive) applichino il
+	 * malus della scomunica del primo periodo
+	 */
+	@Test
+	public void testContatori() {
+		Giocatore giocatore = new Giocatore();
+		Contatori contatori = giocatore.getContatori();
+		giocatore.getRisorse().setMonete(3);
+		giocatore.getPunti().setPuntiMilitari(5);
+		assertEquals(3, contatori.get(Contatori.MONETE));
+		assertEquals(5, contatori.get(Contatori.PUNTI_MILITARI));
+		assertEquals(0, giocatore.getMalusRicezione());
+
+		giocatore.setScomunica(0, new Scomunica("malus", 1,
+				Arrays.asList(new Effetto(0, EAzioniGioco.RiceviMonete, 0, 0, 0, 0, 0, 0, 0, 0),
+						new Effetto(0, EAzioniGioco.RiceviPM, 0, 0, 0, 0, 0, 0, 0, 0))));
+		assertEquals(1 << Contatori.MONETE | 1 << Contatori.PUNTI_MILITARI, giocatore.getMalusRicezione());
+		giocatore.getRisorse().cambiaMonete(2);
+		giocatore.getRisorse().cambiaMonete(-1);
+		giocatore.getPunti().cambiaPuntiMilitari(1);
+		assertEquals(3, giocatore.getRisorse().getMonete());
+		assertEquals(5, giocatore.getPunti().getPuntiMilitari());
+
+		// l'effetto non viene applicato se il giocatore non ha le risorse da
+		// spendere
+		UtilEffetto util = new UtilEffetto();
+		ContestoEffetto contesto = new ContestoEffetto(giocatore, giocatore.getFamigliare(0), null);
+		assertFalse(util.aggiungiRisorse(contesto, new Effetto(0, null, 2, 0, 0, -1, 3, 0, 0, 0)));
+		assertEquals(3, giocatore.getRisorse().getMonete());
+		giocatore.getRisorse().setServitori(1);
+		assertTrue(util.aggiungiRisorse(contesto, new Effetto(0, null, 2, 0, 0, -1, 3, 2, 0, 0)));
+		assertEquals(4, giocatore.getRisorse().getMonete());
+		assertEquals(0, giocatore.getRisorse().getServitori());
+		assertEquals(3, giocatore.getPunti().getPuntiVittoria());
+		assertEquals(6, giocatore.getPunti().getPuntiMilitari());
+	}
+
+	/**
+	 * Test che verifica l'indice degli effetti permanenti dei personaggi per
+	 * azione, anche quando la lista dei personaggi viene modificata
+	 * direttamente
+	 */
+	@Test
+	public void testEffettiPersonaggi() {
+		Effetto raccolto = new Effetto(4, EAzioniGioco.Raccolto, 0, 0, 0, 0, 0, 0, 0, 0);
+		Effetto torre = new Effetto(0, EAzioniGioco.EffettoTorre, 0, 0, 0, 0, 0, 0, 0, 0);
+		Effetto produzione = new Effetto(4, EAzioniGioco.Produzione, 0, 0, 0, 0, 0, 0, 0, 0);
+		Giocatore giocatore = new Giocatore();
+		Plancia plancia = giocatore.getPlancia();
+		assertEquals(0, plancia.getEffettiPersonaggi(EAzioniGioco.Raccolto).length);
+
+		plancia.aggiungiPersonaggio(personaggio(raccolto, torre));
+		plancia.aggiungiPersonaggio(personaggio(produzione, raccolto));
+		assertArrayEquals(new Effetto[] { raccolto, raccolto }, plancia.getEffettiPersonaggi(EAzioniGioco.Raccolto));
+		assertArrayEquals(new Effetto[] { torre }, plancia.getEffettiPersonaggi(EAzioniGioco.EffettoTorre));
+		assertEquals(0, plancia.getEffettiPersonaggi(EAzioniGioco.Mercato).length);
+
+		// gli effetti attivati modificano il famigliare (+2 per ogni effetto)
+		Famigliare famigliare = new Famigliare(giocatore, 1, false);
+		famigliare.controlloEffettiPermanentiOnFamigliare(famigliare, EAzioniGioco.Raccolto);
+		assertEquals(5, famigliare.getValore());
+
+		plancia.getPersonaggi().remove(0);
+		assertArrayEquals(new Effetto[] { raccolto }, plancia.getEffettiPersonaggi(EAzioniGioco.Raccolto));
+		assertEquals(0, plancia.getEffettiPersonaggi(EAzioniGioco.EffettoTorre).length);
+
+		// sostituzione di una carta senza cambiare il numero dei personaggi
+		plancia.getPersonaggi().set(0, personaggio(torre));
+		assertEquals(0, plancia.getEffettiPersonaggi(EAzioniGioco.Raccolto).length);
+		assertArrayEquals(new Effetto[] { torre }, plancia.getEffettiPersonaggi(EAzioniGioco.EffettoTorre));
+	}
+
+	/**
+	 * Test che verifica che la produzione tramite la resa della plancia
+	 * attivi gli effetti delle carte nel loro ordine (una conversione non
+	 * ancora pagabile non viene eseguita), applichi il malus per ogni effetto
+	 * e venga ricostruita quando la lista degli edifici viene modificata
+	 * direttamente
+	 */
+	@Test
+	public void testReseProduzione() {
+		Edificio conversione = edificio(1, new Effetto(0, null, -5, 0, 0, 0, 1, 0, 0, 0));
+		Edificio monete = edificio(1, new Effetto(0, null, 3, 0, 0, 0, 0, 0, 0, 0));
+		Edificio legno = edificio(4, new Effetto(0, null, 1, 1, 0, 0, 0, 0, 0, 0));
+		Giocatore giocatore = new Giocatore();
+		giocatore.getPlancia().aggiungiEdificio(conversione);
+		giocatore.getPlancia().aggiungiEdificio(monete);
+		giocatore.getRisorse().setMonete(2);
+		giocatore.produzione(2, null);
+		assertEquals(7, giocatore.getRisorse().getMonete());
+		assertEquals(0, giocatore.getPunti().getPuntiVittoria());
+
+		giocatore.getPlancia().aggiungiEdificio(legno);
+		giocatore.produzione(6, null);
+		assertEquals(8, giocatore.getRisorse().getMonete());
+		assertEquals(1, giocatore.getPunti().getPuntiVittoria());
+		assertEquals(1, giocatore.getRisorse().getLegno());
+
+		giocatore.setScomunica(0, new Scomunica("malus", 1,
+				Arrays.asList(new Effetto(0, EAzioniGioco.RiceviMonete, 0, 0, 0, 0, 0, 0, 0, 0))));
+		giocatore.getRisorse().setMonete(0);
+		giocatore.produzione(6, null);
+		assertEquals(3, giocatore.getRisorse().getMonete());
+		assertEquals(2, giocatore.getRisorse().getLegno());
+
+		giocatore.getPlancia().getEdifici().clear();
+		giocatore.getPlancia().getEdifici().addAll(Arrays.asList(legno, legno, conversione));
+		giocatore.produzione(6, null);
+		assertEquals(4, giocatore.getRisorse().getMonete());
+		assertEquals(4, giocatore.getRisorse().getLegno());
+		assertEquals(1, giocatore.getPunti().getPuntiVittoria());
+	}
+
+	private static Edificio edificio(int valore, Effetto... effettiPermanenti) {
+		return new Edificio("edificio", Collections.emptyList(), Collections.emptyList(),
+				Arrays.asList(effettiPermanenti), valore, 1, new ArrayList<>(), 0, new ArrayList<>(), 0);
+	}
+
+	private static Personaggio personaggio(Effetto... effettiPermanenti) {
+		return new Personaggio("personaggio", Collections.emptyList(), Collections.emptyList(),
+				Arrays.asList(effettiPermanenti), 0, 1, new ArrayList<>(), 0, new ArrayList<>(), 0);
+	}
+
+	/**
+	 * Test che verifica che le attivazioni delle scomuniche vengano
+	 * ricalcolate quando viene assegnata una scomunica e dopo la
+	 * deserializzazione del giocatore
+	 */
+	@Test
+	public void testScomunicaAttiva() throws Exception {
+		Giocatore giocatore = new Giocatore();
+		assertEquals(2, giocatore.getCostoServitori(2));
+		assertFalse(giocatore.scomunicaAttiva(1, EAzioniGioco.Mercato));
+
+		giocatore.setScomunica(1, new Scomunica("servitori", 2,
+				Arrays.asList(new Effetto(0, EAzioniGioco.PagaServitori, 0, 0, 0, 0, 0, 0, 0, 0))));
+		assertEquals(4, giocatore.getCostoServitori(2));
+		assertTrue(giocatore.scomunicaAttiva(1, EAzioniGioco.PagaServitori));
+		assertFalse(giocatore.scomunicaAttiva(1, EAzioniGioco.Mercato));
+		assertFalse(giocatore.scomunicaAttiva(0, EAzioniGioco.PagaServitori));
+
+		giocatore.setScomunica(1, new Scomunica());
+		assertEquals(2, giocatore.getCostoServitori(2));
+
+		EScomuniche scomunica = EScomuniche.RICEVI_MENO_SERVITORI;
+		giocatore.setScomunica(0, new Scomunica(scomunica.getNome(), scomunica.getPeriodo(), scomunica.getEffetto()));
+		assertEquals(1 << Contatori.SERVITORI, giocatore.getMalusRicezione());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(giocatore);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			Giocatore copia = (Giocatore) in.readObject();
+			assertEquals(giocatore.getMalusRicezione(), copia.getMalusRicezione());
+			for (int periodo = 0; periodo < 3; periodo++)
+				for (EAzioniGioco azione : EAzioniGioco.values())
+					assertEquals(giocatore.getScomunica(periodo).attivaOn(azione),
+							copia.scomunicaAttiva(periodo, azione));
+		}
+	}
 }
@@ -0,0 +1,25 @@
+package test.model.game;
+
+import java.util.List;
+
+import main.model.Carta;
+import main.model.Partita;
+
+/**
+ * Partita di cui viene usato solo il mazzo (non scrive sul Log).
+ */
+public class PartitaMazzo extends Partita {
+
+	public PartitaMazzo() {
+		inizializzaMazzo();
+	}
+
+	public List<Carta> getMazzo() {
+		return mazzo;
+	}
+
+	@Override
+	public void log(String message) {
+
+	}
+}
@@ -0,0 +1,124 @@
+package test.model.game;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+import main.model.Famigliare;
+import main.model.Giocatore;
+import main.model.SpazioAzione;
+import main.model.enums.EColoriPedine;
+import main.model.exceptions.NoMoneyException;
+import main.model.exceptions.SameAreaException;
+
+public class SpazioAzioneTest {
+
+	/**
+	 * Test che verifica che l'indice dell'occupazione segua i famigliari
+	 * posizionati (per giocatore, per colore e per torre).
+	 */
+	@Test
+	public void testOccupazione() {
+		SpazioAzione spazioAzione = new SpazioAzione();
+		Giocatore primo = new Giocatore();
+		Giocatore secondo = new Giocatore();
+		assertEquals(0, spazioAzione.getOccupazione());
+		assertEquals(0, spazioAzione.getOccupazione(primo));
+
+		spazioAzione.setFamigliareTorre(primo.getFamigliare(0), 5);
+		spazioAzione.setMercato(secondo.getFamigliare(3), 2);
+		spazioAzione.setZonaRaccoltoOvale(primo.getFamigliare(1));
+		spazioAzione.setPalazzoDelConsiglio(secondo.getFamigliare(1));
+
+		assertFalse(spazioAzione.torreLibera(5));
+		assertTrue(spazioAzione.torreLibera(4));
+		assertTrue(spazioAzione.torreOccupata(1));
+		assertFalse(spazioAzione.torreOccupata(0));
+		assertFalse(spazioAzione.zonaMercatoLibera(2));
+		assertEquals(1 << 5 | 1 << SpazioAzione.ZONA_RACCOLTO_OVALE, spazioAzione.getOccupazione(primo));
+		assertEquals(1 << 5, spazioAzione.getOccupazione(primo, EColoriPedine.Nera));
+		assertEquals(1 << (SpazioAzione.CASELLA_MERCATO + 2),
+				spazioAzione.getOccupazione(secondo, EColoriPedine.Neutrale));
+		assertEquals(1 << SpazioAzione.ZONA_PALAZZO_CONSIGLIO, spazioAzione.getOccupazioneColorati(secondo));
+		assertEquals(1 << SpazioAzione.ZONA_RACCOLTO_OVALE | 1 << SpazioAzione.ZONA_PALAZZO_CONSIGLIO,
+				spazioAzione.getOccupazione(EColoriPedine.Arancione));
+
+		// sostituzione e rimozione di un famigliare
+		spazioAzione.setFamigliareTorre(secondo.getFamigliare(2), 5);
+		assertEquals(1 << SpazioAzione.ZONA_RACCOLTO_OVALE, spazioAzione.getOccupazione(primo));
+		assertEquals(1 << 5, spazioAzione.getOccupazione(secondo, EColoriPedine.Bianca));
+		spazioAzione.setFamigliareTorre(null, 5);
+		assertTrue(spazioAzione.torreLibera(5));
+		assertEquals(0, spazioAzione.getOccupazione(secondo, EColoriPedine.Bianca));
+
+		// modifica diretta delle liste delle zone
+		spazioAzione.getZonaRaccoltoOvale().clear();
+		spazioAzione.aggiornaIndice();
+		assertEquals(0, spazioAzione.getOccupazione(primo));
+	}
+
+	/**
+	 * Test che verifica che l'indice (non serializzato) venga ricostruito
+	 * dopo la deserializzazione.
+	 */
+	@Test
+	public void testSerializzazione() throws Exception {
+		Giocatore giocatore = new Giocatore();
+		giocatore.getSpazioAzione().setFamigliareTorre(giocatore.getFamigliare(2), 9);
+		giocatore.getSpazioAzione().setZonaProduzioneOvale(giocatore.getFamigliare(3));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(giocatore);
+		}
+		Giocatore copia;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copia = (Giocatore) in.readObject();
+		}
+		SpazioAzione spazioAzione = copia.getSpazioAzione();
+		assertEquals(giocatore.getSpazioAzione().getOccupazione(), spazioAzione.getOccupazione());
+		assertEquals(1 << 9, spazioAzione.getOccupazione(copia, EColoriPedine.Bianca));
+		assertEquals(1 << SpazioAzione.ZONA_PRODUZIONE_OVALE,
+				spazioAzione.getOccupazione(copia, EColoriPedine.Neutrale));
+	}
+
+	/**
+	 * Test che verifica i controlli sulle torri eseguiti con l'indice: due
+	 * famigliari colorati nella stessa torre e le tre monete da pagare per ogni
+	 * torre occupata.
+	 */
+	@Test
+	public void testControlliTorre() throws Exception {
+		Giocatore giocatore = new Giocatore();
+		Giocatore avversario = new Giocatore();
+		SpazioAzione spazioAzione = giocatore.getSpazioAzione();
+		spazioAzione.setFamigliareTorre(giocatore.getFamigliare(0), 13);
+
+		try {
+			giocatore.getFamigliare(1).controlloSameTower(3, spazioAzione);
+			fail();
+		} catch (SameAreaException e) {
+			// famigliare colorato gia' presente
+		}
+		giocatore.getFamigliare(3).controlloSameTower(3, spazioAzione);
+		giocatore.getFamigliare(1).controlloSameTower(2, spazioAzione);
+
+		spazioAzione.setFamigliareTorre(avversario.getFamigliare(0), 10);
+		giocatore.getRisorse().setMonete(3);
+		giocatore.getFamigliare(1).controlloAltroFamigliareNellaTorre(2, giocatore.getFamigliare(1), spazioAzione);
+		assertEquals(0, giocatore.getRisorse().getMonete());
+		giocatore.getFamigliare(1).controlloAltroFamigliareNellaTorre(1, giocatore.getFamigliare(1), spazioAzione);
+		try {
+			giocatore.getFamigliare(1).controlloAltroFamigliareNellaTorre(3, giocatore.getFamigliare(1),
+					spazioAzione);
+			fail();
+		} catch (NoMoneyException e) {
+			// tre monete da pagare
+		}
+	}
+}
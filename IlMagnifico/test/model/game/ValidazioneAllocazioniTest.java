@@ -0,0 +1,146 @@
+package test.model.game;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.model.Carta;
+import main.model.Edificio;
+import main.model.Famigliare;
+import main.model.Giocatore;
+import main.model.Impresa;
+import main.model.Personaggio;
+import main.model.SpazioAzione;
+import main.model.Territorio;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+
+public class ValidazioneAllocazioniTest {
+
+	/**
+	 * Numero di turni simulati.
+	 */
+	private static final int TURNI = 2000;
+
+	/**
+	 * Numero di giocatori della partita simulata.
+	 */
+	private static final int GIOCATORI = 4;
+
+	/**
+	 * Simula una partita in cui ogni giocatore, ad ogni turno, prende una carta
+	 * dalla propria torre e si sposta su raccolto ovale, produzione ovale e
+	 * palazzo del consiglio. Misura i byte allocati per azione e li confronta
+	 * con quelli della copia del famigliare usata in precedenza (un nuovo
+	 * Giocatore per ogni azione).
+	 */
+	@Test
+	public void testAllocationsPerAction() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		assumeAllocationCounter(threads);
+		long thread = Thread.currentThread().getId();
+
+		// Carte di ogni torre (territori, personaggi, edifici, imprese)
+		List<List<Carta>> carte = new ArrayList<>();
+		for (int i = 0; i < 4; i++)
+			carte.add(new ArrayList<>());
+		for (Carta carta : new PartitaMazzo().getMazzo()) {
+			if (carta instanceof Territorio)
+				carte.get(0).add(carta);
+			if (carta instanceof Personaggio)
+				carte.get(1).add(carta);
+			if (carta instanceof Edificio)
+				carte.get(2).add(carta);
+			if (carta instanceof Impresa)
+				carte.get(3).add(carta);
+		}
+
+		Giocatore[] giocatori = new Giocatore[GIOCATORI];
+		for (int i = 0; i < GIOCATORI; i++)
+			giocatori[i] = new Giocatore();
+
+		long byteAzioni = 0;
+		int azioni = 0;
+		int rifiutate = 0;
+		for (int turno = 0; turno < TURNI; turno++) {
+			SpazioAzione spazioAzione = new SpazioAzione();
+			for (int t = 0; t < 4; t++)
+				for (int piano = 0; piano < 4; piano++)
+					spazioAzione.setCartaTorre(carte.get(t).get((turno * 4 + piano) % carte.get(t).size()),
+							4 * t + piano);
+			for (int i = 0; i < GIOCATORI; i++)
+				preparaGiocatore(giocatori[i], spazioAzione);
+
+			for (int i = 0; i < GIOCATORI; i++) {
+				Giocatore giocatore = giocatori[i];
+				for (int f = 0; f < 4; f++) {
+					Famigliare famigliare = giocatore.getFamigliare(f);
+					long prima = threads.getThreadAllocatedBytes(thread);
+					try {
+						if (f == 0)
+							famigliare.eseguiSpostamentoTorre(4 * i + turno % 4, null);
+						else if (f == 1)
+							famigliare.eseguiSpostamentoRaccoltoOvale();
+						else if (f == 2)
+							famigliare.eseguiSpostamentoProduzioneOvale(null);
+						else
+							famigliare.eseguiSpostamentoPalazzoConsiglio(ESceltePrivilegioDelConsiglio.LegnoEPietra);
+					} catch (Exception e) {
+						rifiutate++;
+					}
+					byteAzioni += threads.getThreadAllocatedBytes(thread) - prima;
+					azioni++;
+				}
+			}
+		}
+
+		// Copia del famigliare: prima (nuovo Giocatore) e dopo (riutilizzata)
+		Famigliare famigliare = giocatori[0].getFamigliare(0);
+		long prima = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < TURNI; i++)
+			new Famigliare(new Giocatore(), famigliare.getValore(), famigliare.getNeutralita());
+		long byteCopiaPrima = (threads.getThreadAllocatedBytes(thread) - prima) / TURNI;
+		famigliare.clonaFamigliare();
+		prima = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < TURNI; i++)
+			famigliare.clonaFamigliare();
+		long byteCopiaDopo = (threads.getThreadAllocatedBytes(thread) - prima) / TURNI;
+
+		System.out.println("[ALLOC] " + azioni + " actions (" + rifiutate + " rejected): " + byteAzioni / azioni
+				+ " B/action | familiar copy: before " + byteCopiaPrima + " B, after " + byteCopiaDopo + " B");
+		assertTrue(rifiutate < azioni);
+		assertTrue(byteCopiaDopo < byteCopiaPrima);
+		assertTrue(byteAzioni / azioni < byteCopiaPrima);
+	}
+
+	/**
+	 * Prepara il giocatore per un nuovo turno (fuori dalla misura: le azioni
+	 * misurate sono quelle del turno).
+	 */
+	private static void preparaGiocatore(Giocatore giocatore, SpazioAzione spazioAzione) {
+		giocatore.setSpazioAzione(spazioAzione);
+		giocatore.getPlancia().getTerritori().clear();
+		giocatore.getPlancia().getPersonaggi().clear();
+		giocatore.getPlancia().getEdifici().clear();
+		giocatore.getPlancia().getImprese().clear();
+		giocatore.getRisorse().setMonete(50);
+		giocatore.getRisorse().setLegno(50);
+		giocatore.getRisorse().setPietre(50);
+		giocatore.getRisorse().setServitori(50);
+		giocatore.getPunti().setPuntiMilitari(50);
+		for (int f = 0; f < 4; f++) {
+			giocatore.getFamigliare(f).setPosizionato(false);
+			giocatore.getFamigliare(f).setValore(10);
+		}
+	}
+
+	private static void assumeAllocationCounter(com.sun.management.ThreadMXBean threads) {
+		if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled())
+			threads.setThreadAllocatedMemoryEnabled(true);
+		org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+	}
+}
@@ -0,0 +1,193 @@
+package test.network.protocol.socket;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EColoriPedine;
+import main.model.enums.ECostiCarte;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+import main.network.protocol.socket.SocketConstants;
+import main.network.protocol.socket.SocketFrames;
+import main.network.server.game.Game;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.Room;
+import main.network.server.game.UpdateStats;
+import main.network.server.game.exceptions.GameException;
+import main.network.server.game.exceptions.RoomFullException;
+import test.network.server.game.TestPlayer;
+
+public class SocketFramesTest {
+
+	/**
+	 * Numero di iterazioni usate per misurare i tempi di codifica.
+	 */
+	private static final int ITERATIONS = 20000;
+
+	@Test
+	public void testLoginAndChatRoundTrip() throws IOException {
+		Object[] frame = decode(SocketFrames.encode(SocketConstants.LOGIN_REQUEST, "giocatore"));
+		assertArrayEquals(new Object[] { SocketConstants.LOGIN_REQUEST, "giocatore" }, frame);
+
+		frame = decode(SocketFrames.encode(SocketConstants.RESPONSE_OK));
+		assertArrayEquals(new Object[] { SocketConstants.RESPONSE_OK }, frame);
+
+		frame = decode(SocketFrames.encode(SocketConstants.CHAT_MESSAGE, null, "ciao a tutti è"));
+		assertArrayEquals(new Object[] { SocketConstants.CHAT_MESSAGE, null, "ciao a tutti è" }, frame);
+
+		frame = decode(SocketFrames.encode(SocketConstants.CHAT_MESSAGES, Arrays.asList("primo", "secondo"),
+				Arrays.asList("ciao", null)));
+		assertArrayEquals(new Object[] { SocketConstants.CHAT_MESSAGES, Arrays.asList("primo", "secondo"),
+				Arrays.asList("ciao", null) }, frame);
+
+		frame = decode(SocketFrames.encode(SocketConstants.ACTION_NOT_VALID, "SPACE_TAKEN"));
+		assertArrayEquals(new Object[] { SocketConstants.ACTION_NOT_VALID, "SPACE_TAKEN" }, frame);
+	}
+
+	@Test
+	public void testGameActionRoundTrip() throws IOException {
+		UpdateStats request = new UpdateStats(EAzioniGiocatore.Torre);
+		request.spostaPedina(EColoriPedine.Arancione, 7);
+		request.setServitoriDaPagare(2);
+		request.setScelteCosti(new ECostiCarte[] { ECostiCarte.values()[0] });
+		request.setSceltePrivilegiConsiglio(new ESceltePrivilegioDelConsiglio[] {
+				ESceltePrivilegioDelConsiglio.LegnoEPietra, ESceltePrivilegioDelConsiglio.values()[1] });
+
+		UpdateStats decoded = (UpdateStats) decode(SocketFrames.encode(SocketConstants.GAME_ACTION, request))[1];
+		assertEquals(EAzioniGiocatore.Torre, decoded.getAzioneGiocatore());
+		assertEquals(EColoriPedine.Arancione.getIndiceColore(), decoded.getIndiceColorePedina());
+		assertEquals(7, decoded.getPosizioneSpostamentoPedina());
+		assertEquals(2, decoded.getServitoriDaPagare());
+		assertArrayEquals(request.getScelteCosti(), decoded.getScelteCosti());
+		assertArrayEquals(request.getSceltePrivilegiConsiglio(), decoded.getSceltePrivilegiConsiglio());
+		assertNull(decoded.getScelteEffettiPermanenti());
+		assertNull(decoded.getSpazioAzione());
+	}
+
+	/**
+	 * Confronta il formato binario con la serializzazione Java usata in
+	 * precedenza (dimensione e tempi di codifica/decodifica) per una richiesta
+	 * del Client e per l'aggiornamento inviato dal Server dopo una mossa.
+	 */
+	@Test
+	public void testBinaryVersusSerialization() throws IOException, ClassNotFoundException, RoomFullException,
+			GameException, InterruptedException {
+		UpdateStats request = new UpdateStats(EAzioniGiocatore.Mercato);
+		request.spostaPedina(EColoriPedine.Nera, 0);
+		compare("request", request);
+
+		UpdateStats move = playMove();
+		UpdateStats decoded = (UpdateStats) decode(SocketFrames.encode(SocketConstants.GAME_ACTION, move))[1];
+		assertEquals(move.getSequenza(), decoded.getSequenza());
+		assertEquals(move.getDelta().getSequenza(), decoded.getDelta().getSequenza());
+		assertEquals(move.getNomeGiocatore(), decoded.getNomeGiocatore());
+		compare("move", move);
+	}
+
+	/**
+	 * Gioca una mossa e ritorna l'aggiornamento (variazione) inviato ai
+	 * giocatori.
+	 */
+	private static UpdateStats playMove() throws RoomFullException, GameException, InterruptedException {
+		List<UpdateStats> updates = Collections.synchronizedList(new ArrayList<>());
+		TestPlayer player1 = new TestPlayer() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void onGameUpdate(UpdateStats update) {
+				updates.add(update);
+			}
+		};
+		TestPlayer player2 = new TestPlayer();
+		player1.setNome("primo");
+		player2.setNome("secondo");
+		Room room = new Room(player1, 0, 0);
+		room.joinPlayer(player2);
+		Game game = new Game(room);
+		game.startNewGame();
+
+		UpdateStats update = new UpdateStats(EAzioniGiocatore.Mercato);
+		update.spostaPedina(EColoriPedine.Nera, 0);
+		game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+
+		for (int i = 0; i < 100; i++) {
+			synchronized (updates) {
+				for (UpdateStats received : updates)
+					if (received.getAzioneGiocatore() == EAzioniGiocatore.Mercato)
+						return received;
+			}
+			Thread.sleep(20);
+		}
+		fail("move not delivered");
+		return null;
+	}
+
+	/**
+	 * Stampa dimensione e tempi di codifica/decodifica nei due formati.
+	 */
+	private static void compare(String name, UpdateStats update) throws IOException, ClassNotFoundException {
+		byte[] binary = SocketFrames.encode(SocketConstants.GAME_ACTION, update);
+		byte[] serialized = serialize(SocketConstants.GAME_ACTION, update);
+
+		// Riscaldamento
+		for (int i = 0; i < ITERATIONS; i++) {
+			decode(SocketFrames.encode(SocketConstants.GAME_ACTION, update));
+			deserialize(serialize(SocketConstants.GAME_ACTION, update));
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			SocketFrames.encode(SocketConstants.GAME_ACTION, update);
+		long binaryEncode = (System.nanoTime() - start) / ITERATIONS;
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			decode(binary);
+		long binaryDecode = (System.nanoTime() - start) / ITERATIONS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			serialize(SocketConstants.GAME_ACTION, update);
+		long serializedEncode = (System.nanoTime() - start) / ITERATIONS;
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			deserialize(serialized);
+		long serializedDecode = (System.nanoTime() - start) / ITERATIONS;
+
+		System.out.println("[CODEC] " + name + ": binary " + binary.length + " B, encode " + binaryEncode
+				+ " ns, decode " + binaryDecode + " ns | serialization " + serialized.length + " B, encode "
+				+ serializedEncode + " ns, decode " + serializedDecode + " ns");
+		assertTrue(binary.length < serialized.length);
+	}
+
+	private static Object[] decode(byte[] bytes) throws IOException {
+		return SocketFrames.decode(bytes, SocketFrames.HEADER_LENGTH, bytes.length - SocketFrames.HEADER_LENGTH);
+	}
+
+	/**
+	 * Formato precedente: messaggio serializzato con un ObjectOutputStream.
+	 */
+	private static byte[] serialize(Object... frame) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(frame);
+		}
+		return buffer.toByteArray();
+	}
+
+	private static Object[] deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (Object[]) in.readObject();
+		}
+	}
+}
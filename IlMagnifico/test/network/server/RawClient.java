@@ -0,0 +1,87 @@
+package test.network.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.List;
+
+import main.network.protocol.socket.SocketConstants;
+import main.network.protocol.socket.SocketFrames;
+
+/**
+ * Client Socket minimale che parla direttamente il protocollo di
+ * {@link SocketConstants} (vedi {@link SocketFrames}).
+ */
+public class RawClient {
+
+	private final Socket socket;
+	private final OutputStream out;
+	private final DataInputStream in;
+
+	public RawClient(String host, int port) throws IOException {
+		socket = new Socket(host, port);
+		out = new BufferedOutputStream(socket.getOutputStream());
+		in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+	}
+
+	/**
+	 * Esegue il login e ritorna la risposta del Server ([codice, token di
+	 * sessione]).
+	 */
+	public Object[] login(String nickname) throws IOException {
+		return request(SocketConstants.LOGIN_REQUEST, nickname);
+	}
+
+	public Object[] request(Object... frame) throws IOException {
+		send(frame);
+		return read();
+	}
+
+	public void send(Object... frame) throws IOException {
+		out.write(SocketFrames.encode(frame));
+		out.flush();
+	}
+
+	public Object[] read() throws IOException {
+		return SocketFrames.read(in);
+	}
+
+	/**
+	 * Attende il primo messaggio con l'intestazione indicata (ignorando gli
+	 * altri).
+	 */
+	public Object[] await(String header, long timeout) throws IOException {
+		socket.setSoTimeout((int) timeout);
+		Object[] frame;
+		do {
+			frame = read();
+		} while (!header.equals(frame[0]));
+		return frame;
+	}
+
+	/**
+	 * Attende il messaggio di chat indicato (ignorando gli altri).
+	 */
+	public boolean awaitChat(String author, String message, long timeout) throws IOException {
+		socket.setSoTimeout((int) timeout);
+		while (true) {
+			Object[] frame = read();
+			if (SocketConstants.CHAT_MESSAGE.equals(frame[0]) && author.equals(frame[1]) && message.equals(frame[2]))
+				return true;
+			if (SocketConstants.CHAT_MESSAGES.equals(frame[0])) {
+				List<?> authors = (List<?>) frame[1];
+				List<?> messages = (List<?>) frame[2];
+				for (int i = 0; i < authors.size(); i++)
+					if (author.equals(authors.get(i)) && message.equals(messages.get(i)))
+						return true;
+			}
+		}
+	}
+
+	public void close() throws IOException {
+		socket.close();
+	}
+}
@@ -0,0 +1,183 @@
+package test.network.server;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import main.network.exceptions.LoginException;
+import main.network.server.Server;
+import main.network.server.ServerException;
+import main.network.server.SessionRegistry;
+import main.network.server.game.RemotePlayer;
+import test.network.server.game.TestPlayer;
+
+public class SessionRegistryTest {
+
+	/**
+	 * Numero di giocatori che eseguono il login contemporaneamente.
+	 */
+	private static final int PLAYERS = 10000;
+
+	/**
+	 * Numero di Thread usati per simulare i Client.
+	 */
+	private static final int THREADS = 32;
+
+	/**
+	 * Registro usato in precedenza dal Server: HashMap protetta da un unico
+	 * MUTEX globale (qui anche in lettura) e token in una seconda HashMap.
+	 */
+	private static class GlobalLockRegistry {
+
+		private final Object mutex = new Object();
+
+		private final HashMap<String, RemotePlayer> players = new HashMap<>();
+
+		private final HashMap<String, String> sessionTokens = new HashMap<>();
+
+		private String login(String nickname, RemotePlayer player) throws LoginException {
+			synchronized (mutex) {
+				if (players.containsKey(nickname) || nickname.isEmpty())
+					throw new LoginException();
+				player.setNome(nickname);
+				players.put(nickname, player);
+				String sessionToken = UUID.randomUUID().toString();
+				sessionTokens.put(sessionToken, nickname);
+				return sessionToken;
+			}
+		}
+
+		private RemotePlayer getPlayerBySession(String sessionToken) {
+			synchronized (mutex) {
+				return players.get(sessionTokens.get(sessionToken));
+			}
+		}
+	}
+
+	/**
+	 * Interfaccia comune ai due registri confrontati.
+	 */
+	@FunctionalInterface
+	private interface Login {
+		String login(String nickname, RemotePlayer player) throws LoginException;
+	}
+
+	/**
+	 * Test del login tramite Server: il token assegnato identifica il
+	 * giocatore e un secondo login con lo stesso nome viene rifiutato.
+	 */
+	@Test
+	public void testServerLogin() throws ServerException, LoginException {
+		Server server = new Server();
+		TestPlayer player = new TestPlayer();
+		server.loginPlayer("session-player", player);
+
+		assertNotNull(player.getSessionToken());
+		assertSame(player, server.getPlayer("session-player"));
+		assertSame(player, server.getPlayerBySession(player.getSessionToken()));
+		assertNull(server.getPlayerBySession("unknown-token"));
+
+		TestPlayer duplicate = new TestPlayer();
+		try {
+			server.loginPlayer("session-player", duplicate);
+			fail("Duplicate nickname accepted");
+		} catch (LoginException e) {
+			assertNull(duplicate.getSessionToken());
+		}
+	}
+
+	/**
+	 * Simula una "tempesta" di login: {@link #PLAYERS} giocatori, ognuno dei
+	 * quali tenta il login due volte con lo stesso nome da Thread diversi,
+	 * mentre le richieste gia' autenticate cercano il giocatore tramite il
+	 * token. Confronta il registro concorrente con il MUTEX globale usato in
+	 * precedenza.
+	 */
+	@Test
+	public void testLoginStorm() throws InterruptedException {
+		// Riscaldamento
+		for (int i = 0; i < 3; i++) {
+			SessionRegistry registry = new SessionRegistry();
+			storm(registry::login, registry::getPlayerBySession);
+			GlobalLockRegistry globalLock = new GlobalLockRegistry();
+			storm(globalLock::login, globalLock::getPlayerBySession);
+		}
+
+		SessionRegistry registry = new SessionRegistry();
+		long start = System.nanoTime();
+		Set<String> tokens = storm(registry::login, registry::getPlayerBySession);
+		long concurrent = System.nanoTime() - start;
+
+		GlobalLockRegistry globalLock = new GlobalLockRegistry();
+		start = System.nanoTime();
+		storm(globalLock::login, globalLock::getPlayerBySession);
+		long locked = System.nanoTime() - start;
+
+		assertEquals(PLAYERS, tokens.size());
+		assertEquals(PLAYERS, registry.size());
+		for (String token : tokens) {
+			RemotePlayer player = registry.getPlayerBySession(token);
+			assertSame(player, registry.getPlayer(player.getNome()));
+			assertEquals(token, player.getSessionToken());
+		}
+
+		System.out.println("[SESSIONS] " + PLAYERS + " logins (" + 2 * PLAYERS + " requests, " + THREADS
+				+ " threads): registry " + concurrent / 1000000 + " ms (" + (PLAYERS * 1000000000L / concurrent)
+				+ " logins/s), global lock " + locked / 1000000 + " ms (" + (PLAYERS * 1000000000L / locked)
+				+ " logins/s)");
+	}
+
+	/**
+	 * Esegue i login di tutti i giocatori (due richieste per nickname) su
+	 * {@link #THREADS} Thread. Dopo ogni login riuscito il giocatore viene
+	 * cercato tramite il token, come per ogni richiesta RMI.
+	 *
+	 * @return i token assegnati.
+	 */
+	private static Set<String> storm(Login login, Function<String, RemotePlayer> lookup)
+			throws InterruptedException {
+		Set<String> tokens = ConcurrentHashMap.newKeySet();
+		AtomicInteger rejected = new AtomicInteger();
+		AtomicInteger wrong = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			int offset = t;
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = offset; i < 2 * PLAYERS; i += THREADS) {
+					TestPlayer player = new TestPlayer();
+					try {
+						String token = login.login("player" + (i % PLAYERS), player);
+						tokens.add(token);
+						for (int r = 0; r < 4; r++)
+							if (lookup.apply(token) != player)
+								wrong.incrementAndGet();
+					} catch (LoginException e) {
+						rejected.incrementAndGet();
+					}
+				}
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(PLAYERS, rejected.get());
+		assertEquals(0, wrong.get());
+		return tokens;
+	}
+}
@@ -0,0 +1,171 @@
+package test.network.server.cluster;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import main.network.protocol.socket.SocketConstants;
+import main.network.server.Server;
+import main.network.server.ServerException;
+import main.network.server.cluster.ClusterDirectory;
+import main.network.server.cluster.ClusterNode;
+import main.network.server.cluster.ClusterNodeInfo;
+import main.util.Costants;
+import test.network.server.RawClient;
+
+/**
+ * Test del cluster: l'elenco dei nodi viene eseguito nel processo del test,
+ * mentre ogni nodo e' un processo separato (vedi {@link ClusterNode#main}).
+ */
+public class ClusterTest {
+
+	private static final String HOST = "127.0.0.1";
+	private static final int DIRECTORY_PORT = 2040;
+	private static final int NODES = 3;
+	private static final int PLAYERS = 24;
+
+	/**
+	 * Tempo massimo di attesa dell'avvio dei nodi e della consegna dei
+	 * messaggi.
+	 */
+	private static final long TIMEOUT = 30000;
+
+	@Test
+	public void testRoutingAndCrossNodeChat() throws ServerException, IOException, InterruptedException {
+		ClusterDirectory directory = new ClusterDirectory();
+		directory.start(DIRECTORY_PORT);
+
+		List<Process> processes = new ArrayList<>();
+		List<NodeClient> clients = new ArrayList<>();
+		try {
+			for (int i = 1; i <= NODES; i++)
+				processes.add(startNode(i));
+			long end = System.currentTimeMillis() + TIMEOUT;
+			while (directory.getNodes().size() < NODES && System.currentTimeMillis() < end)
+				Thread.sleep(50);
+			assertEquals(NODES, directory.getNodes().size());
+
+			Map<String, Integer> playersByNode = new HashMap<>();
+			long start = System.nanoTime();
+			for (int i = 0; i < PLAYERS; i++) {
+				ClusterNodeInfo node = ClusterDirectory.locateNode(HOST, DIRECTORY_PORT);
+				NodeClient client = new NodeClient("player" + i, node);
+				assertEquals(SocketConstants.RESPONSE_OK, client.login());
+				clients.add(client);
+				playersByNode.merge(node.getNodeId(), 1, Integer::sum);
+			}
+			long elapsed = System.nanoTime() - start;
+			System.out.println("[CLUSTER] " + PLAYERS + " players routed and logged in across " + NODES
+					+ " node processes in " + elapsed / 1000000 + " ms: " + playersByNode);
+
+			// Ogni nodo riceve giocatori (a meno di una Stanza di differenza).
+			assertEquals(NODES, playersByNode.size());
+			int min = PLAYERS, max = 0;
+			for (int players : playersByNode.values()) {
+				min = Math.min(min, players);
+				max = Math.max(max, players);
+			}
+			assertTrue(max - min <= Server.MAX_ROOM_PLAYERS);
+
+			// I nickname sono univoci sull'intero cluster.
+			NodeClient first = clients.get(0);
+			NodeClient other = null;
+			for (NodeClient client : clients)
+				if (!client.node.getNodeId().equals(first.node.getNodeId()))
+					other = client;
+			assertNotNull(other);
+			NodeClient duplicate = new NodeClient(first.nickname, other.node);
+			assertEquals(SocketConstants.RESPONSE_PLAYER_ALREADY_EXISTS, duplicate.login());
+			duplicate.close();
+
+			// Un login rifiutato dal nodo non riserva il nickname sul cluster.
+			NodeClient bot = new NodeClient(Costants.BOT_NAME + "cluster", first.node);
+			assertEquals(SocketConstants.RESPONSE_PLAYER_ALREADY_EXISTS, bot.login());
+			bot.close();
+			assertNull(directory.locatePlayer(bot.nickname));
+			assertTrue(directory.reservePlayer(bot.nickname, first.node.getNodeId()));
+
+			// Messaggio privato verso un giocatore collegato ad un altro nodo.
+			first.send(SocketConstants.CHAT_MESSAGE, other.nickname, "cross-node hello");
+			assertTrue(other.awaitChat(first.nickname, "cross-node hello", TIMEOUT));
+		} finally {
+			for (NodeClient client : clients)
+				client.close();
+			for (Process process : processes)
+				process.destroy();
+		}
+	}
+
+	/**
+	 * I giocatori disconnessi non vengono conteggiati nel carico del proprio
+	 * nodo (fino alla ripresa della sessione), ma il loro nickname resta
+	 * riservato.
+	 */
+	@Test
+	public void testDisconnectedPlayersLeaveNodeLoad() throws IOException {
+		ClusterDirectory directory = new ClusterDirectory();
+		ClusterNodeInfo first = new ClusterNodeInfo("first", HOST, 0, 0);
+		ClusterNodeInfo second = new ClusterNodeInfo("second", HOST, 0, 0);
+		directory.registerNode(first, null);
+		directory.registerNode(second, null);
+		// Nessun posto libero nelle Stanze aperte: vince il nodo meno carico.
+		directory.reportLoad(first.getNodeId(), PLAYERS, 0);
+		directory.reportLoad(second.getNodeId(), PLAYERS, 0);
+
+		assertTrue(directory.reservePlayer("alpha", first.getNodeId()));
+		assertTrue(directory.reservePlayer("beta", first.getNodeId()));
+		assertEquals(second.getNodeId(), directory.route().getNodeId());
+
+		directory.setPlayerOnline("alpha", first.getNodeId(), false);
+		directory.setPlayerOnline("alpha", first.getNodeId(), false);
+		directory.setPlayerOnline("beta", second.getNodeId(), false);
+		assertEquals(first.getNodeId(), directory.route().getNodeId());
+		assertEquals(second.getNodeId(), directory.route().getNodeId());
+		directory.setPlayerOnline("beta", first.getNodeId(), false);
+		assertEquals(first.getNodeId(), directory.route().getNodeId());
+
+		directory.setPlayerOnline("alpha", first.getNodeId(), true);
+		assertFalse(directory.reservePlayer("beta", second.getNodeId()));
+		assertEquals(second.getNodeId(), directory.route().getNodeId());
+	}
+
+	/**
+	 * Avvia un nodo del cluster in un nuovo processo.
+	 */
+	private static Process startNode(int index) throws IOException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		int socketPort = DIRECTORY_PORT + 2 * index - 1;
+		ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				ClusterNode.class.getName(), String.valueOf(index), HOST, String.valueOf(DIRECTORY_PORT),
+				String.valueOf(socketPort), String.valueOf(socketPort + 1));
+		builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+		builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+		return builder.start();
+	}
+
+	/**
+	 * Client collegato al nodo assegnato dall'elenco dei nodi.
+	 */
+	private static class NodeClient extends RawClient {
+
+		private final String nickname;
+		private final ClusterNodeInfo node;
+
+		NodeClient(String nickname, ClusterNodeInfo node) throws IOException {
+			super(node.getHost(), node.getSocketPort());
+			this.nickname = nickname;
+			this.node = node;
+		}
+
+		int login() throws IOException {
+			return (int) login(nickname)[0];
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package test.network.server.game;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import main.model.Giocatore;
+import main.network.exceptions.LoginException;
+import main.network.server.SessionRegistry;
+import main.network.server.game.BotPlayer;
+import main.network.server.game.CouncilStrategy;
+import main.network.server.game.Game;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.Room;
+import main.network.server.game.RoomDirectory;
+import main.network.server.game.exceptions.GameException;
+import main.network.server.game.exceptions.RoomFullException;
+import main.util.Costants;
+
+public class BotPlayerTest {
+
+	/**
+	 * Tempo massimo di attesa dell'inizio e della fine della partita.
+	 */
+	private static final long TIMEOUT = 20000;
+
+	/**
+	 * Test che verifica che i posti liberi di una Stanza vengano occupati da
+	 * bot dopo il tempo di attesa e che la partita (in cui il giocatore gioca
+	 * con la {@link CouncilStrategy}) arrivi alla fine.
+	 */
+	@Test
+	public void testBotsFillRoomAndPlay() throws InterruptedException, GameException {
+		RoomDirectory directory = new RoomDirectory(Costants.ROOM_MAX_PLAYERS);
+		directory.setBotWaitingTime(1);
+		TestPlayer human = new TestPlayer();
+		human.setNome("human");
+		long start = System.currentTimeMillis();
+		Room room = directory.createRoom(human, Costants.ROOM_MAX_PLAYERS, Costants.ROOM_MIN_PLAYERS);
+
+		long end = start + TIMEOUT;
+		while (room.getGame() == null && System.currentTimeMillis() < end)
+			Thread.sleep(5);
+		Game game = room.getGame();
+		assertNotNull(game);
+		long started = System.currentTimeMillis();
+		assertEquals(Costants.ROOM_MAX_PLAYERS, room.getPlayers().size());
+		for (RemotePlayer player : room.getPlayers())
+			if (player != human)
+				assertTrue(player instanceof BotPlayer);
+
+		// Il giocatore gioca quando e' il suo turno, i bot rispondono da soli
+		CouncilStrategy strategy = new CouncilStrategy();
+		int actions = 0;
+		while (!game.isGameEnded() && System.currentTimeMillis() < end) {
+			synchronized (game) {
+				if (!game.isGameEnded() && isTurnOf(game, human)) {
+					game.performGameAction(human, strategy.nextAction(game, human));
+					actions++;
+					continue;
+				}
+			}
+			Thread.sleep(1);
+		}
+		assertTrue(game.isGameEnded());
+		// Almeno 5 azioni per turno (i famigliari possono richiedere servitori)
+		assertTrue(actions >= 30);
+		System.out.println("[BOT] room filled and game started after " + (started - start) + " ms, game played in "
+				+ (System.currentTimeMillis() - started) + " ms (" + actions + " human actions)");
+	}
+
+	/**
+	 * Test che verifica che una strategia bloccata non trattenga il lock della
+	 * partita ne' modifichi la partita (decide su una copia): il bot passa
+	 * alla {@link CouncilStrategy} dopo il tempo massimo di decisione e la
+	 * partita arriva alla fine.
+	 */
+	@Test
+	public void testHungStrategyDoesNotBlockGame() throws InterruptedException, GameException, RoomFullException {
+		AtomicInteger decisions = new AtomicInteger();
+		AtomicReference<Game> decided = new AtomicReference<>();
+		AtomicReference<RemotePlayer> copy = new AtomicReference<>();
+		BotPlayer bot = new BotPlayer((game, player) -> {
+			decisions.incrementAndGet();
+			decided.set(game);
+			copy.set(player);
+			try {
+				Thread.sleep(TIMEOUT);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new IllegalStateException("hung strategy");
+		});
+		TestPlayer human = new TestPlayer();
+		human.setNome("human");
+		Room room = new Room(human, 2, 2);
+		human.setRoom(room);
+		bot.setRoom(room);
+		room.joinPlayer(bot);
+
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (room.getGame() == null && System.currentTimeMillis() < end)
+			Thread.sleep(5);
+		Game game = room.getGame();
+		assertNotNull(game);
+
+		CouncilStrategy strategy = new CouncilStrategy();
+		while (!game.isGameEnded() && System.currentTimeMillis() < end) {
+			synchronized (game) {
+				if (!game.isGameEnded() && isTurnOf(game, human)) {
+					game.performGameAction(human, strategy.nextAction(game, human));
+					continue;
+				}
+			}
+			Thread.sleep(1);
+		}
+		assertTrue(game.isGameEnded());
+		assertEquals(1, decisions.get());
+		assertNotNull(decided.get());
+		assertNotSame(game, decided.get());
+		assertNotSame(bot, copy.get());
+		assertEquals(bot.getNome(), copy.get().getNome());
+	}
+
+	/**
+	 * Test che verifica che i nomi dei bot non possano essere usati dai
+	 * giocatori.
+	 */
+	@Test(expected = LoginException.class)
+	public void testBotNameIsReserved() throws LoginException {
+		new SessionRegistry().login(Costants.BOT_NAME + "1", new TestPlayer());
+	}
+
+	private static boolean isTurnOf(Game game, RemotePlayer player) {
+		if (!game.getGiocatoriRapportoVaticano().isEmpty())
+			return game.getGiocatoriRapportoVaticano().contains(player);
+		Giocatore diTurno = game.getGiocatoreDiTurno();
+		return diTurno == player;
+	}
+}
@@ -0,0 +1,218 @@
+package test.network.server.game;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import main.network.NetworkException;
+import main.network.exceptions.PlayerNotFound;
+import main.network.server.game.ChatChannel;
+import main.network.server.game.ChatHistory;
+import main.network.server.game.ChatMessage;
+import main.network.server.game.Room;
+import main.network.server.game.exceptions.RoomFullException;
+
+public class ChatChannelTest {
+
+	/**
+	 * Numero di giocatori connessi al Server (chat globale).
+	 */
+	private static final int LOBBY_PLAYERS = 5000;
+
+	/**
+	 * Numero di messaggi inviati in broadcast.
+	 */
+	private static final int MESSAGES = 20;
+
+	/**
+	 * Tempo massimo di attesa della consegna dei messaggi.
+	 */
+	private static final long TIMEOUT = 10000;
+
+	/**
+	 * Giocatore che memorizza i messaggi di chat ricevuti.
+	 */
+	private static class ChatPlayer extends TestPlayer {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> received = new ArrayList<>();
+
+		@Override
+		public void onChatMessage(String author, String message) throws NetworkException {
+			synchronized (received) {
+				received.add(author + ": " + message);
+			}
+		}
+
+		List<String> getReceived() {
+			synchronized (received) {
+				return new ArrayList<>(received);
+			}
+		}
+
+		/**
+		 * Attende di aver ricevuto almeno il numero di messaggi indicato.
+		 */
+		List<String> await(int count) throws InterruptedException {
+			long end = System.currentTimeMillis() + TIMEOUT;
+			while (getReceived().size() < count && System.currentTimeMillis() < end)
+				Thread.sleep(5);
+			return getReceived();
+		}
+	}
+
+	/**
+	 * Giocatore che non risponde (es. un Client RMI lento) finche' il test non
+	 * lo sblocca.
+	 */
+	private static class SlowPlayer extends ChatPlayer {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private final AtomicInteger batches = new AtomicInteger();
+
+		@Override
+		public void onChatMessages(List<ChatMessage> messages) throws NetworkException {
+			batches.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.onChatMessages(messages);
+		}
+	}
+
+	/**
+	 * Test che verifica che la cronologia conservi solamente gli ultimi
+	 * messaggi, dal piu' vecchio al piu' recente.
+	 */
+	@Test
+	public void testHistoryKeepsLastMessages() {
+		ChatHistory history = new ChatHistory(3);
+		assertTrue(history.getMessages().isEmpty());
+		for (int i = 0; i < 5; i++)
+			history.add(new ChatMessage("author", "message" + i, null, null));
+
+		List<ChatMessage> messages = history.getMessages();
+		assertEquals(3, messages.size());
+		for (int i = 0; i < 3; i++)
+			assertEquals("message" + (i + 2), messages.get(i).getMessage());
+	}
+
+	/**
+	 * Test della chat di una Stanza: il mittente non riceve i propri messaggi e
+	 * chi si aggiunge alla Stanza riceve la cronologia.
+	 */
+	@Test
+	public void testRoomChatAndHistory() throws PlayerNotFound, RoomFullException, InterruptedException {
+		ChatPlayer first = new ChatPlayer();
+		ChatPlayer second = new ChatPlayer();
+		first.setNome("first");
+		second.setNome("second");
+		Room room = new Room(first, 0, 0);
+
+		room.sendChatMessage(first, null, "hello");
+		room.sendChatMessage(first, null, "anyone?");
+		room.joinPlayer(second);
+		room.sendChatMessage(second, null, "hi");
+		room.sendChatMessage(second, "first", "private");
+
+		List<String> received = second.await(3);
+		assertEquals(3, received.size());
+		assertEquals("first: hello", received.get(1));
+		assertEquals("first: anyone?", received.get(2));
+
+		received = first.await(2);
+		assertEquals(2, received.size());
+		assertEquals("second: hi", received.get(0));
+		assertEquals("second: private", received.get(1));
+		assertEquals(3, room.getChatHistory().getMessages().size());
+	}
+
+	/**
+	 * Test che verifica che un giocatore lento non blocchi la chat degli altri
+	 * giocatori e riceva i messaggi accodati nel frattempo con un solo invio.
+	 */
+	@Test
+	public void testSlowPlayerDoesNotStallChannel() throws InterruptedException {
+		SlowPlayer slow = new SlowPlayer();
+		ChatPlayer first = new ChatPlayer();
+		ChatPlayer second = new ChatPlayer();
+		ChatChannel lobby = new ChatChannel(() -> Arrays.asList(slow, first, second));
+
+		for (int i = 0; i < MESSAGES; i++)
+			lobby.post(new ChatMessage("sender", "message" + i, null, null));
+		assertEquals(MESSAGES, first.await(MESSAGES).size());
+		assertEquals(MESSAGES, second.await(MESSAGES).size());
+		assertTrue(slow.getReceived().isEmpty());
+
+		slow.release.countDown();
+		List<String> received = slow.await(MESSAGES);
+		assertEquals(MESSAGES, received.size());
+		for (int i = 0; i < MESSAGES; i++)
+			assertEquals("sender: message" + i, received.get(i));
+		assertTrue(slow.batches.get() <= 2);
+	}
+
+	/**
+	 * Invia {@link #MESSAGES} messaggi in broadcast a {@link #LOBBY_PLAYERS}
+	 * giocatori e misura il tempo di CPU usato dal Thread che li invia (es. il
+	 * Thread di una connessione), confrontandolo con la consegna sincrona
+	 * usata in precedenza.
+	 */
+	@Test
+	public void testLobbyBroadcast() throws InterruptedException, NetworkException {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		List<ChatPlayer> players = new ArrayList<>();
+		for (int i = 0; i < LOBBY_PLAYERS; i++)
+			players.add(new ChatPlayer());
+		ChatPlayer sender = players.get(0);
+		ChatChannel lobby = new ChatChannel(() -> players);
+
+		// Riscaldamento
+		ChatPlayer warmup = new ChatPlayer();
+		ChatChannel warmupChannel = new ChatChannel(() -> Collections.singletonList(warmup));
+		for (int i = 0; i < 1000; i++)
+			warmupChannel.post(new ChatMessage("sender", "warmup", sender, null));
+		warmup.await(1000);
+
+		long start = System.nanoTime();
+		long cpu = threads.getCurrentThreadCpuTime();
+		for (int i = 0; i < MESSAGES; i++)
+			lobby.post(new ChatMessage("sender", "message" + i, sender, null));
+		long posted = threads.getCurrentThreadCpuTime() - cpu;
+		for (ChatPlayer player : players.subList(1, players.size())) {
+			List<String> received = player.await(MESSAGES);
+			assertEquals(MESSAGES, received.size());
+			for (int i = 0; i < MESSAGES; i++)
+				assertEquals("sender: message" + i, received.get(i));
+		}
+		long delivered = System.nanoTime() - start;
+		assertTrue(sender.getReceived().isEmpty());
+
+		// Consegna sincrona (nel Thread del mittente)
+		cpu = threads.getCurrentThreadCpuTime();
+		for (int i = 0; i < MESSAGES; i++)
+			for (ChatPlayer player : players)
+				if (player != sender)
+					player.onChatMessage("sender", "message" + i);
+		long synchronous = threads.getCurrentThreadCpuTime() - cpu;
+
+		System.out.println("[CHAT] " + MESSAGES + " broadcasts to " + LOBBY_PLAYERS + " players: sender CPU "
+				+ posted / 1000 + " us (channel, all delivered in " + delivered / 1000000 + " ms) vs "
+				+ synchronous / 1000 + " us (synchronous)");
+	}
+}
@@ -2,6 +2,8 @@ package test.network.server.game;
 
 import static org.junit.Assert.*;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.Test;
 
 import main.model.enums.EAzioniGiocatore;
@@ -13,6 +15,7 @@ import main.network.client.Client;
 import main.network.client.ClientException;
 import main.network.server.Server;
 import main.network.server.ServerException;
+import main.network.server.game.UpdateStats;
 import main.ui.cli.CLI;
 import main.util.Costants;
 
@@ -86,6 +89,97 @@ public class ClientTest {
 		nomeLastUpdate = client1.getLatestUpdate().getNomeGiocatore();
 	}
 
+	/**
+	 * Client che scarta la prima variazione ricevuta dopo lo stato completo
+	 * (es. messaggio perso durante la trasmissione), e registra se le
+	 * variazioni successive vengono gestite prima dello stato completo.
+	 */
+	private static class LossyClient extends Client {
+
+		private final AtomicBoolean dropped = new AtomicBoolean();
+
+		private volatile boolean resynced;
+
+		private volatile boolean handledOutOfSync;
+
+		private LossyClient() throws ClientException {
+			super(new CLI());
+		}
+
+		@Override
+		public void onGameUpdate(UpdateStats update) {
+			if (update.getDelta() != null && getGameBoard() != null && dropped.compareAndSet(false, true))
+				return;
+			if (dropped.get() && update.getDelta() == null)
+				resynced = true;
+			super.onGameUpdate(update);
+		}
+
+		@Override
+		public void handleResponse(UpdateStats update) {
+			if (dropped.get() && !resynced && update.getDelta() != null)
+				handledOutOfSync = true;
+			super.handleResponse(update);
+		}
+	}
+
+	/**
+	 * Test che verifica che un Client che perde una variazione richieda lo
+	 * stato completo della partita e torni ad applicare le variazioni.
+	 */
+	@Test
+	public void testDroppedDeltaRequestsSnapshot() throws ClientException, ServerException, InterruptedException {
+		final int SOCKET_PORT = 2006;
+		Server server = new Server();
+		server.startSocketServer(SOCKET_PORT);
+
+		LossyClient lossy = new LossyClient();
+		lossy.startClient("SOCKET", Costants.SERVER_ADDRESS, SOCKET_PORT, 0);
+		lossy.loginPlayer("lossy");
+		Thread.sleep(sec);
+		Client other = new Client(new CLI());
+		other.startClient("SOCKET", Costants.SERVER_ADDRESS, SOCKET_PORT, 0);
+		other.loginPlayer("other");
+
+		// Le prime mosse di ciascun giocatore generano le variazioni
+		long end = System.currentTimeMillis() + 20 * sec;
+		EColoriPedine[] colori = { EColoriPedine.Nera, EColoriPedine.Bianca, EColoriPedine.Arancione };
+		int mosseLossy = 0, mosseOther = 0;
+		while (!lossy.resynced && System.currentTimeMillis() < end) {
+			String turno = other.getPlayerTurn();
+			if (lossy.getNickname().equals(turno) && mosseLossy < colori.length)
+				lossy.performGameAction(councilAction(colori[mosseLossy++]));
+			else if (other.getNickname().equals(turno) && mosseOther < colori.length)
+				other.performGameAction(councilAction(colori[mosseOther++]));
+			Thread.sleep(sec / 4);
+		}
+		assertTrue(lossy.dropped.get());
+		assertTrue(lossy.resynced);
+		// Le fasi di gioco non vengono perse in attesa dello stato completo
+		assertTrue(lossy.handledOutOfSync);
+
+		// Dopo lo stato completo le variazioni vengono nuovamente applicate
+		UpdateStats latest = lossy.getLatestUpdate();
+		while (lossy.getLatestUpdate() == latest && System.currentTimeMillis() < end) {
+			String turno = other.getPlayerTurn();
+			if (lossy.getNickname().equals(turno) && mosseLossy < colori.length)
+				lossy.performGameAction(councilAction(colori[mosseLossy++]));
+			else if (other.getNickname().equals(turno) && mosseOther < colori.length)
+				other.performGameAction(councilAction(colori[mosseOther++]));
+			Thread.sleep(sec / 4);
+		}
+		latest = lossy.getLatestUpdate();
+		assertNotNull(latest.getDelta());
+		assertNotNull(latest.getSpazioAzione());
+	}
+
+	private static UpdateStats councilAction(EColoriPedine colore) {
+		UpdateStats action = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+		action.setColorePedina(colore);
+		action.setSceltaConsiglio(ESceltePrivilegioDelConsiglio.Servitori);
+		return action;
+	}
+
 	@Test
 	public void ordineEsecuzione() throws ClientException, ServerException {
 		final int SOCKET_PORT = 2004, RMI_PORT = 2005;
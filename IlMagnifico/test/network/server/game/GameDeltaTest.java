@@ -0,0 +1,212 @@
+package test.network.server.game;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.model.Famigliare;
+import main.model.Giocatore;
+import main.model.Plancia;
+import main.model.Punti;
+import main.model.Risorsa;
+import main.model.Scomunica;
+import main.model.SpazioAzione;
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EColoriPedine;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+import main.network.protocol.socket.SocketConstants;
+import main.network.protocol.socket.SocketFrames;
+import main.network.server.game.Game;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.Room;
+import main.network.server.game.UpdateStats;
+import main.network.server.game.exceptions.GameException;
+import main.network.server.game.exceptions.RoomFullException;
+
+public class GameDeltaTest {
+
+	/**
+	 * Giocatore che memorizza gli aggiornamenti ricevuti.
+	 */
+	private static class RecordingPlayer extends TestPlayer {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<UpdateStats> updates = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public void onGameUpdate(UpdateStats update) {
+			updates.add(update);
+		}
+	}
+
+	/**
+	 * Test che verifica che la copia locale della partita, ricostruita a
+	 * partire dal primo aggiornamento completo e dalle variazioni successive,
+	 * corrisponda allo stato della partita sul server. Riporta inoltre i byte
+	 * inviati per una mossa prima (stato completo) e dopo (variazione).
+	 *
+	 * @throws RoomFullException
+	 * @throws GameException
+	 * @throws InterruptedException
+	 * @throws IOException
+	 */
+	@Test
+	public void testReplicaFollowsServer()
+			throws RoomFullException, GameException, InterruptedException, IOException {
+		RecordingPlayer player1 = new RecordingPlayer();
+		RecordingPlayer player2 = new RecordingPlayer();
+		player1.setNome("primo");
+		player2.setNome("secondo");
+		Room room = new Room(player1, 0, 0);
+
+		room.joinPlayer(player2);
+		Game game = new Game(room);
+		game.startNewGame();
+
+		Giocatore mercato = game.getGiocatoreDiTurno();
+		UpdateStats update = new UpdateStats(EAzioniGiocatore.Mercato);
+		update.spostaPedina(EColoriPedine.Nera, 0);
+		game.performGameAction((RemotePlayer) mercato, update);
+		int before = SocketFrames.encode(SocketConstants.GAME_ACTION,
+				new UpdateStats(mercato, EAzioniGiocatore.Mercato, mercato.getSpazioAzione())).length;
+
+		update = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+		update.setColorePedina(EColoriPedine.Nera);
+		update.setSceltaConsiglio(ESceltePrivilegioDelConsiglio.LegnoEPietra);
+		game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+		update.setColorePedina(EColoriPedine.Bianca);
+		game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+
+		waitDelivery(player1);
+		waitDelivery(player2);
+
+		// Copia locale ricostruita dagli aggiornamenti ricevuti
+		List<UpdateStats> updates = new ArrayList<>(player1.updates);
+		UpdateStats first = updates.get(0);
+		assertNull(first.getDelta());
+		assertNotNull(first.getSpazioAzione());
+		SpazioAzione board = first.getSpazioAzione();
+		HashMap<String, Famigliare[]> families = first.getFamiglieGiocatori();
+		HashMap<String, Risorsa> resources = first.getRisorseGiocatori();
+		HashMap<String, Punti> points = first.getPuntiGiocatori();
+		HashMap<String, Plancia> dashboards = first.getPlanceGiocatori();
+		HashMap<String, Scomunica[]> excommunications = first.getScomunicheGiocatori();
+
+		int after = 0;
+		long sequence = first.getSequenza();
+		for (UpdateStats received : updates.subList(1, updates.size())) {
+			assertNotNull(received.getDelta());
+			assertEquals(++sequence, received.getSequenza());
+			received.getDelta().applica(board, families, resources, points, dashboards, excommunications);
+			if (received.getAzioneGiocatore() == EAzioniGiocatore.Mercato)
+				after = SocketFrames.encode(SocketConstants.GAME_ACTION, received).length;
+		}
+
+		SpazioAzione server = mercato.getSpazioAzione();
+		assertArrayEquals(server.getValoreDadi(), board.getValoreDadi());
+		for (int i = 0; i < 16; i++)
+			assertSame(server.getCartaTorre(i) == null, board.getCartaTorre(i) == null);
+		assertEquals(mercato.getNome(), board.getMercato()[0].getGiocatore().getNome());
+		assertEquals(EColoriPedine.Nera, board.getMercato()[0].getColoreFamigliare());
+		assertEquals(server.getPalazzoDelConsiglio().size(), board.getPalazzoDelConsiglio().size());
+		for (int i = 0; i < server.getPalazzoDelConsiglio().size(); i++)
+			assertEquals(server.getPalazzoDelConsiglio().get(i).getGiocatore().getNome(),
+					board.getPalazzoDelConsiglio().get(i).getGiocatore().getNome());
+		for (Giocatore giocatore : room.getPlayers()) {
+			String name = giocatore.getNome();
+			assertEquals(giocatore.getRisorse().getMonete(), resources.get(name).getMonete());
+			assertEquals(giocatore.getRisorse().getLegno(), resources.get(name).getLegno());
+			assertEquals(giocatore.getRisorse().getPietre(), resources.get(name).getPietre());
+			assertEquals(giocatore.getRisorse().getServitori(), resources.get(name).getServitori());
+			assertEquals(giocatore.getPunti().getPuntiVittoria(), points.get(name).getPuntiVittoria());
+			for (int i = 0; i < 4; i++) {
+				assertEquals(giocatore.getFamigliare(i).getValore(), families.get(name)[i].getValore());
+				assertEquals(giocatore.getFamigliare(i).getPosizionato(), families.get(name)[i].getPosizionato());
+			}
+		}
+
+		System.out.println("[DELTA] bytes per move: before " + before + ", after " + after);
+		assertTrue(after > 0 && after < before);
+	}
+
+	/**
+	 * Test che verifica che lo stato completo inviato a un giocatore rimasto
+	 * indietro, ricostruito dalla copia iniziale e dalle variazioni
+	 * successive, corrisponda allo stato della partita sul server.
+	 *
+	 * @throws RoomFullException
+	 * @throws GameException
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testSnapshotFollowsServer() throws RoomFullException, GameException, InterruptedException {
+		RecordingPlayer player1 = new RecordingPlayer();
+		RecordingPlayer player2 = new RecordingPlayer();
+		player1.setNome("primo");
+		player2.setNome("secondo");
+		Room room = new Room(player1, 0, 0);
+
+		room.joinPlayer(player2);
+		Game game = new Game(room);
+		game.startNewGame();
+		waitDelivery(player1);
+
+		// Il giocatore perde le variazioni delle prime due mosse
+		player1.setOnline(false);
+		Giocatore mercato = game.getGiocatoreDiTurno();
+		UpdateStats update = new UpdateStats(EAzioniGiocatore.Mercato);
+		update.spostaPedina(EColoriPedine.Nera, 0);
+		game.performGameAction((RemotePlayer) mercato, update);
+		update = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+		update.setColorePedina(EColoriPedine.Nera);
+		update.setSceltaConsiglio(ESceltePrivilegioDelConsiglio.LegnoEPietra);
+		game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+		player1.setOnline(true);
+		update.setColorePedina(EColoriPedine.Bianca);
+		game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+		waitDelivery(player1);
+		waitDelivery(player2);
+
+		UpdateStats snapshot = null;
+		for (UpdateStats received : player1.updates)
+			if (received.getAzioneGiocatore() == EAzioniGiocatore.PalazzoConsiglio)
+				snapshot = received;
+		assertNotNull(snapshot);
+		assertNull(snapshot.getDelta());
+		UpdateStats last = player2.updates.get(player2.updates.size() - 1);
+		assertTrue(snapshot.getSequenza() > 1);
+		assertTrue(snapshot.getSequenza() <= last.getSequenza());
+
+		SpazioAzione board = snapshot.getSpazioAzione();
+		assertNotSame(mercato.getSpazioAzione(), board);
+		assertEquals(mercato.getNome(), board.getMercato()[0].getGiocatore().getNome());
+		assertEquals(2, board.getPalazzoDelConsiglio().size());
+		for (Giocatore giocatore : room.getPlayers()) {
+			Risorsa resources = snapshot.getRisorseGiocatori().get(giocatore.getNome());
+			assertEquals(giocatore.getRisorse().getMonete(), resources.getMonete());
+			assertEquals(giocatore.getRisorse().getLegno(), resources.getLegno());
+			assertEquals(giocatore.getRisorse().getServitori(), resources.getServitori());
+			for (int i = 0; i < 4; i++)
+				assertEquals(giocatore.getFamigliare(i).getPosizionato(),
+						snapshot.getFamiglieGiocatori().get(giocatore.getNome())[i].getPosizionato());
+		}
+	}
+
+	/**
+	 * Attende che il giocatore abbia ricevuto tutti gli aggiornamenti.
+	 */
+	private static void waitDelivery(RecordingPlayer player) throws InterruptedException {
+		int size = -1;
+		for (int i = 0; i < 100 && size != player.updates.size(); i++) {
+			size = player.updates.size();
+			Thread.sleep(50);
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package test.network.server.game;
+
+import static org.junit.Assert.*;
+import static test.network.server.game.GameStates.describe;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EColoriPedine;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+import main.network.server.game.Game;
+import main.network.server.game.GameJournal;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.Room;
+import main.network.server.game.RoomDirectory;
+import main.network.server.game.UpdateStats;
+import main.network.server.game.exceptions.GameException;
+import main.network.server.game.exceptions.RoomFullException;
+import main.util.Costants;
+
+public class GameJournalTest {
+
+	/**
+	 * Numero di partite giocate per misurare il costo del journal.
+	 */
+	private static final int GAMES = 300;
+
+	/**
+	 * Test che verifica che una partita venga ripristinata dal journal con lo
+	 * stesso stato, sia riproducendo tutte le azioni (e i lanci dei dadi)
+	 * registrate dopo il primo snapshot sia a partire da uno snapshot
+	 * intermedio.
+	 */
+	@Test
+	public void testRestoreGame() throws IOException, RoomFullException, GameException, InterruptedException {
+		restoreGame(Costants.JOURNAL_SNAPSHOT_INTERVAL);
+		restoreGame(5);
+	}
+
+	private void restoreGame(int snapshotInterval)
+			throws IOException, RoomFullException, GameException, InterruptedException {
+		Path directory = Files.createTempDirectory("journal");
+		TestPlayer first = newPlayer("primo");
+		TestPlayer second = newPlayer("secondo");
+		Room room = new QuietRoom(first, 2, 2);
+		room.joinPlayer(second);
+		Game game = new Game(room);
+		game.startNewGame();
+		GameJournal journal = GameJournal.create(directory, 2, 2, snapshotInterval);
+		game.startJournal(journal);
+
+		// Primo giro di turni (nuovo lancio dei dadi) e due azioni del secondo
+		playTurn(game);
+		playCouncil(game, EColoriPedine.Nera);
+		playCouncil(game, EColoriPedine.Nera);
+		assertEquals(2, game.getTurno());
+		String expected = describe(game);
+		journal.awaitCompaction();
+
+		// Riavvio del Server
+		RoomDirectory rooms = new RoomDirectory(4, QuietRoom::new);
+		rooms.setJournalDirectory(directory, snapshotInterval);
+		List<Room> restored = rooms.restoreRooms();
+		assertEquals(1, restored.size());
+		Room restoredRoom = restored.get(0);
+		Game restoredGame = restoredRoom.getGame();
+		assertEquals(expected, describe(restoredGame));
+		assertFalse(restoredRoom.isJoinable());
+		for (RemotePlayer player : restoredRoom.getPlayers()) {
+			assertFalse(player.isOnline());
+			assertSame(restoredRoom, player.getRoom());
+			assertEquals(player.getNome() + "-token", player.getSessionToken());
+		}
+
+		// La partita prosegue sul nuovo journal (unico file rimasto)
+		playCouncil(restoredGame, EColoriPedine.Bianca);
+		playCouncil(game, EColoriPedine.Bianca);
+		assertEquals(describe(game), describe(restoredGame));
+		journal.awaitCompaction();
+		assertEquals(1, listJournals(directory).size());
+
+		restoredGame.deleteJournal();
+		game.deleteJournal();
+		assertTrue(listJournals(directory).isEmpty());
+		Files.delete(directory);
+	}
+
+	/**
+	 * Test che verifica che i record registrati durante una compattazione
+	 * (eseguita in background) vengano copiati nel nuovo file del journal, e
+	 * che il file precedente venga eliminato solo alla fine.
+	 */
+	@Test
+	public void testCompactionKeepsLaterRecords() throws IOException, InterruptedException {
+		Path directory = Files.createTempDirectory("journal");
+		List<TestPlayer> players = Arrays.asList(newPlayer("primo"), newPlayer("secondo"));
+		GameJournal journal = GameJournal.create(directory, 2, 2, 2);
+		journal.snapshot(players, new byte[] { 1 });
+		UpdateStats action = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+		journal.appendAction("primo", action);
+		journal.appendAction("secondo", action);
+		assertTrue(journal.needsSnapshot());
+
+		// La compattazione non puo' terminare finche' il journal e' bloccato
+		Path previous;
+		synchronized (journal) {
+			journal.compact(players, new byte[] { 2 });
+			assertFalse(journal.needsSnapshot());
+			journal.appendAction("primo", action);
+			journal.appendDice(new int[] { 1, 2, 3 });
+			previous = journal.getFile();
+			// Il nuovo file non e' ancora visibile al ripristino
+			Thread.sleep(50);
+			for (Path file : listJournals(directory))
+				assertTrue(file.equals(previous) || !file.toString().endsWith(Costants.JOURNAL_EXTENSION));
+		}
+
+		journal.awaitCompaction();
+		assertNotEquals(previous, journal.getFile());
+		journal.appendAction("secondo", action);
+
+		List<GameJournal.Recovery> recovered = GameJournal.recover(directory);
+		assertEquals(1, recovered.size());
+		assertArrayEquals(new byte[] { 2 }, recovered.get(0).getSnapshot());
+		assertEquals(2, recovered.get(0).getActions().size());
+		assertEquals(1, recovered.get(0).getDice().size());
+		assertEquals(Arrays.asList(journal.getFile()), listJournals(directory));
+
+		journal.delete();
+		Files.delete(directory);
+	}
+
+	/**
+	 * Misura il costo del journal per azione, confrontando partite giocate
+	 * con e senza journal (vengono giocati {@link #GAMES} giri di turni), e
+	 * separatamente il costo delle compattazioni.
+	 */
+	@Test
+	public void testJournalOverhead() throws IOException, RoomFullException, GameException, InterruptedException {
+		Path directory = Files.createTempDirectory("journal");
+		// Riscaldamento
+		for (int i = 0; i < 3; i++) {
+			play(null, GAMES / 3);
+			play(directory, GAMES / 3);
+		}
+
+		long[] plain = play(null, GAMES);
+		long[] journaled = play(directory, GAMES);
+		int actions = GAMES * 10;
+
+		// Solo scrittura dei record (senza partita)
+		GameJournal journal = GameJournal.create(directory, 2, 2, Integer.MAX_VALUE);
+		journal.snapshot(Arrays.asList(newPlayer("primo"), newPlayer("secondo")), new byte[1024]);
+		UpdateStats action = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+		action.setColorePedina(EColoriPedine.Nera);
+		action.setSceltaConsiglio(ESceltePrivilegioDelConsiglio.LegnoEPietra);
+		long start = System.nanoTime();
+		for (int i = 0; i < actions; i++)
+			journal.appendAction("primo", action);
+		long append = System.nanoTime() - start;
+		journal.delete();
+
+		long[] compactions = compact(directory, GAMES);
+
+		System.out.println(String.format(
+				"[JOURNAL] %d actions: %d ns/action without journal, %d ns/action with journal (+%d ns/action, record append %d ns), first snapshot %d us/game",
+				actions, plain[0] / actions, journaled[0] / actions, (journaled[0] - plain[0]) / actions,
+				append / actions, journaled[1] / GAMES / 1000));
+		System.out.println(String.format(
+				"[JOURNAL] %d compactions: +%d us/compaction in the game action (state serialization), %d us/compaction in background (new file, fsync, old file deleted)",
+				compactions[2], (compactions[0] / compactions[2] - compactions[1] / compactions[3]) / 1000,
+				compactions[4] / compactions[2] / 1000));
+		assertTrue(listJournals(directory).isEmpty());
+		Files.delete(directory);
+	}
+
+	/**
+	 * Gioca un giro di turni in ogni partita.
+	 *
+	 * @return [tempo speso nelle azioni, tempo speso nel primo snapshot] in
+	 *         nanosecondi.
+	 */
+	private long[] play(Path directory, int games) throws IOException, RoomFullException, GameException {
+		long actions = 0, snapshots = 0;
+		for (int i = 0; i < games; i++) {
+			Room room = new QuietRoom(newPlayer("primo"), 2, 2);
+			room.joinPlayer(newPlayer("secondo"));
+			Game game = new Game(room);
+			game.startNewGame();
+			long start = System.nanoTime();
+			if (directory != null)
+				game.startJournal(GameJournal.create(directory, 2, 2, Costants.JOURNAL_SNAPSHOT_INTERVAL));
+			snapshots += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			playTurn(game);
+			actions += System.nanoTime() - start;
+			game.deleteJournal();
+		}
+		return new long[] { actions, snapshots };
+	}
+
+	/**
+	 * Gioca un giro di turni in ogni partita compattando il journal ogni 5
+	 * azioni; dopo ogni azione che richiede la compattazione ne attende la
+	 * fine, cosi' che non si sovrapponga alle azioni successive.
+	 *
+	 * @return [tempo delle azioni che hanno richiesto la compattazione, tempo
+	 *         delle altre azioni, numero di compattazioni, numero delle altre
+	 *         azioni, tempo delle compattazioni in background] (tempi in
+	 *         nanosecondi).
+	 */
+	private long[] compact(Path directory, int games)
+			throws IOException, RoomFullException, GameException, InterruptedException {
+		long[] result = new long[5];
+		for (int i = 0; i < games; i++) {
+			Room room = new QuietRoom(newPlayer("primo"), 2, 2);
+			room.joinPlayer(newPlayer("secondo"));
+			Game game = new Game(room);
+			game.startNewGame();
+			GameJournal journal = GameJournal.create(directory, 2, 2, 5);
+			game.startJournal(journal);
+			for (UpdateStats update : turnActions()) {
+				int generation = journal.getGeneration();
+				long start = System.nanoTime();
+				game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+				long elapsed = System.nanoTime() - start;
+				if (journal.getGeneration() != generation) {
+					result[0] += elapsed;
+					result[2]++;
+					start = System.nanoTime();
+					journal.awaitCompaction();
+					result[4] += System.nanoTime() - start;
+				} else {
+					result[1] += elapsed;
+					result[3]++;
+				}
+			}
+			game.deleteJournal();
+		}
+		return result;
+	}
+
+	private static TestPlayer newPlayer(String nickname) {
+		TestPlayer player = new TestPlayer();
+		player.setNome(nickname);
+		player.setSessionToken(nickname + "-token");
+		return player;
+	}
+
+	/**
+	 * Gioca un giro di turni completo per due giocatori (10 azioni, vedi
+	 * {@link GametTest}).
+	 */
+	private static void playTurn(Game game) throws GameException {
+		for (UpdateStats update : turnActions())
+			game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+	}
+
+	/**
+	 * Azioni di un giro di turni completo per due giocatori (eseguite dal
+	 * giocatore di turno).
+	 */
+	private static List<UpdateStats> turnActions() {
+		List<UpdateStats> actions = new ArrayList<>();
+		for (EColoriPedine colore : new EColoriPedine[] { EColoriPedine.Nera, EColoriPedine.Nera,
+				EColoriPedine.Bianca, EColoriPedine.Bianca, EColoriPedine.Arancione, EColoriPedine.Arancione })
+			actions.add(council(colore));
+		for (int i = 0; i < 2; i++) {
+			UpdateStats update = new UpdateStats(EAzioniGiocatore.Famigliare);
+			update.setColorePedina(EColoriPedine.Neutrale);
+			update.setServitoriDaPagare(1);
+			actions.add(update);
+			actions.add(council(EColoriPedine.Neutrale));
+		}
+		return actions;
+	}
+
+	private static void playCouncil(Game game, EColoriPedine colore) throws GameException {
+		game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), council(colore));
+	}
+
+	private static UpdateStats council(EColoriPedine colore) {
+		UpdateStats update = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+		update.setColorePedina(colore);
+		update.setSceltaConsiglio(ESceltePrivilegioDelConsiglio.LegnoEPietra);
+		return update;
+	}
+
+	private static List<Path> listJournals(Path directory) throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path file : stream)
+				files.add(file);
+		}
+		return files;
+	}
+}
@@ -0,0 +1,163 @@
+package test.network.server.game;
+
+import static org.junit.Assert.*;
+import static test.network.server.game.GameStates.describe;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.model.Famigliare;
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EColoriPedine;
+import main.model.enums.ESceltePrivilegioDelConsiglio;
+import main.network.server.game.Game;
+import main.network.server.game.GameRecord;
+import main.network.server.game.GameReplay;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.Room;
+import main.network.server.game.UpdateStats;
+import main.network.server.game.exceptions.GameException;
+import main.network.server.game.exceptions.RoomFullException;
+
+public class GameReplayTest {
+
+	/**
+	 * Numero di partite riprodotte per misurare la velocita' del replay.
+	 */
+	private static final int REPLAYS = 200;
+
+	/**
+	 * Test che verifica che due partite con lo stesso seme e le stesse azioni
+	 * si svolgano allo stesso modo (scomuniche, ordine dei giocatori, carte
+	 * e dadi).
+	 */
+	@Test
+	public void testSameSeedSameGame() throws RoomFullException, GameException {
+		List<String> first = playGame(42L, new ArrayList<>());
+		List<String> second = playGame(42L, new ArrayList<>());
+		assertEquals(first, second);
+		assertNotEquals(first.get(0), playGame(43L, new ArrayList<>()).get(0));
+	}
+
+	/**
+	 * Test che verifica che la partita riprodotta dalla registrazione (anche
+	 * dopo il salvataggio su file) e le ricerche tramite keyframe
+	 * corrispondano alla partita originale.
+	 */
+	@Test
+	public void testReplayAndSeek() throws IOException, RoomFullException, GameException {
+		List<String> states = new ArrayList<>();
+		Game game = newGame(7L);
+		play(game, states);
+		GameRecord record = game.getRecord();
+		assertEquals(states.size() - 1, record.size());
+
+		Path directory = Files.createTempDirectory("records");
+		Path file = record.save(directory);
+		GameReplay replay = new GameReplay(GameRecord.load(file));
+		Files.delete(file);
+		Files.delete(directory);
+
+		assertEquals(record.size(), replay.size());
+		assertEquals(states.get(states.size() - 1), describe(replay.run()));
+		assertEquals(0, replay.getKeyframes());
+
+		for (int action : new int[] { 0, 1, 9, 10, 11, 37, replay.size() / 2, replay.size() })
+			assertEquals(states.get(action), describe(replay.seek(action)));
+		// Un keyframe per l'inizio della partita e per ogni turno
+		assertEquals(7, replay.getKeyframes());
+
+		Game turn = replay.seekTurn(2, 3);
+		assertEquals(2, turn.getPeriodo());
+		assertEquals(3, turn.getTurno());
+		assertTrue(states.contains(describe(turn)));
+		assertNull(replay.seekTurn(4, 1));
+		// La partita ripristinata da un keyframe puo' proseguire
+		assertEquals(states.get(replay.size()), describe(replay.seek(replay.size())));
+	}
+
+	/**
+	 * Misura la velocita' del replay (partite intere e ricerche).
+	 */
+	@Test
+	public void testReplaySpeed() throws IOException, RoomFullException, GameException {
+		Game game = newGame(11L);
+		play(game, null);
+		GameReplay replay = new GameReplay(game.getRecord());
+		for (int i = 0; i < REPLAYS; i++)
+			replay.run();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < REPLAYS; i++)
+			replay.run();
+		long run = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		replay.seek(0);
+		long keyframes = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < REPLAYS; i++)
+			replay.seek(i % (replay.size() + 1));
+		long seek = System.nanoTime() - start;
+
+		System.out.println(String.format(
+				"[REPLAY] %d actions/game: %d games/s (%d ns/action), %d keyframes built in %d us, seek %d us",
+				replay.size(), REPLAYS * 1000000000L / run, run / REPLAYS / replay.size(), replay.getKeyframes(),
+				keyframes / 1000, seek / REPLAYS / 1000));
+	}
+
+	private static Game newGame(long seme) throws RoomFullException {
+		TestPlayer first = new TestPlayer();
+		first.setNome("primo");
+		TestPlayer second = new TestPlayer();
+		second.setNome("secondo");
+		Room room = new QuietRoom(first, 2, 2);
+		room.joinPlayer(second);
+		Game game = new Game(room);
+		game.setSeme(seme);
+		game.startNewGame();
+		return game;
+	}
+
+	private static List<String> playGame(long seme, List<String> states) throws RoomFullException, GameException {
+		play(newGame(seme), states);
+		return states;
+	}
+
+	/**
+	 * Gioca una partita completa per due giocatori (tutti i famigliari nel
+	 * Palazzo del Consiglio, pagando un servitore per quello neutrale),
+	 * descrivendo lo stato della partita prima e dopo ogni azione.
+	 */
+	private static void play(Game game, List<String> states) throws GameException {
+		if (states != null)
+			states.add(describe(game));
+		while (game.getPeriodo() <= 3) {
+			RemotePlayer player = (RemotePlayer) game.getGiocatoreDiTurno();
+			Famigliare famigliare = null;
+			for (int i = 0; i < 4 && famigliare == null; i++)
+				if (!player.getFamigliare(i).getPosizionato())
+					famigliare = player.getFamigliare(i);
+			if (famigliare.getValore() == 0) {
+				UpdateStats servant = new UpdateStats(EAzioniGiocatore.Famigliare);
+				servant.setColorePedina(famigliare.getColoreFamigliare());
+				servant.setServitoriDaPagare(1);
+				game.performGameAction(player, servant);
+				if (states != null)
+					states.add(describe(game));
+			}
+			UpdateStats update = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+			update.setColorePedina(famigliare.getColoreFamigliare());
+			update.setSceltaConsiglio(ESceltePrivilegioDelConsiglio.Servitori);
+			game.performGameAction(player, update);
+			if (states != null)
+				states.add(describe(game));
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package test.network.server.game;
+
+import static org.junit.Assert.*;
+import static test.network.server.game.GameStates.describe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import main.model.enums.EAzioniGiocatore;
+import main.model.enums.EColoriPedine;
+import main.network.server.game.CouncilStrategy;
+import main.network.server.game.Game;
+import main.network.server.game.GameRunner;
+import main.network.server.game.PlayerStrategy;
+import main.network.server.game.RandomStrategy;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.UpdateStats;
+import main.network.server.game.exceptions.GameException;
+
+public class GameRunnerTest {
+
+	/**
+	 * Numero di partite giocate per misurare la velocita' del runner.
+	 */
+	private static final int GAMES = 2000;
+
+	/**
+	 * Test che verifica che le partite giocate dal runner terminino e che, a
+	 * parita' di seme, si svolgano allo stesso modo (per 2, 3 e 4 giocatori).
+	 */
+	@Test
+	public void testPlayGames() throws GameException {
+		for (int players = 2; players <= 4; players++) {
+			PlayerStrategy[] strategies = new PlayerStrategy[players];
+			for (int i = 0; i < players; i++)
+				strategies[i] = new CouncilStrategy();
+			GameRunner runner = new GameRunner(strategies);
+			for (long seme = 0; seme < 20; seme++) {
+				Game game = runner.play(seme);
+				assertTrue(game.isGameEnded());
+				assertEquals(players, game.getGiocatori().size());
+				assertEquals(describe(game), describe(runner.play(seme)));
+			}
+		}
+	}
+
+	/**
+	 * Test che verifica che le partite giocate scegliendo a caso tra le mosse
+	 * legali (vedi {@link RandomStrategy}) terminino senza azioni rifiutate.
+	 */
+	@Test
+	public void testRandomStrategy() throws GameException, InterruptedException {
+		for (int players = 2; players <= 4; players++) {
+			PlayerStrategy[] strategies = new PlayerStrategy[players];
+			for (int i = 0; i < players; i++)
+				strategies[i] = new RandomStrategy(i);
+			GameRunner runner = new GameRunner(strategies);
+			GameRunner.Report report = runner.run(0, 50, 1);
+			assertEquals(50, report.getGames());
+			assertEquals(0, report.getRejected());
+			assertEquals(describe(runner.play(3)), describe(runner.play(3)));
+		}
+	}
+
+	/**
+	 * Test che verifica che le azioni non valide vengano richieste di nuovo e
+	 * che un giocatore senza azioni valide interrompa la partita.
+	 */
+	@Test
+	public void testRejectedActions() throws GameException, InterruptedException {
+		CouncilStrategy council = new CouncilStrategy();
+		PlayerStrategy invalid = (game, player) -> {
+			UpdateStats action = new UpdateStats(EAzioniGiocatore.Famigliare);
+			action.setColorePedina(EColoriPedine.Neutrale);
+			action.setServitoriDaPagare(1000);
+			return action;
+		};
+		// Un'azione non valida prima di ogni azione valida
+		PlayerStrategy clumsy = new PlayerStrategy() {
+			private boolean valid;
+
+			@Override
+			public UpdateStats nextAction(Game game, RemotePlayer player) {
+				valid = !valid;
+				return valid ? invalid.nextAction(game, player) : council.nextAction(game, player);
+			}
+		};
+		GameRunner.Report report = new GameRunner(clumsy, council).run(1, 10, 1);
+		assertEquals(10, report.getGames());
+		assertTrue(report.getRejected() > 0);
+
+		try {
+			new GameRunner(council, invalid).play(1);
+			fail("The game cannot end");
+		} catch (GameException e) {
+			assertTrue(e.getMessage().contains("has no valid action"));
+		}
+	}
+
+	/**
+	 * Test che verifica che, quando una partita fallisce, gli altri Thread del
+	 * runner smettano di giocare prima che l'errore venga riportato.
+	 */
+	@Test
+	public void testErrorStopsWorkers() throws InterruptedException {
+		CouncilStrategy council = new CouncilStrategy();
+		AtomicLong actions = new AtomicLong();
+		// Il primo Thread non ha azioni valide, gli altri giocano a lungo
+		PlayerStrategy strategy = (game, player) -> {
+			actions.incrementAndGet();
+			if (Thread.currentThread().getName().equals("GameRunner-0")) {
+				UpdateStats action = new UpdateStats(EAzioniGiocatore.Famigliare);
+				action.setColorePedina(EColoriPedine.Neutrale);
+				action.setServitoriDaPagare(1000);
+				return action;
+			}
+			return council.nextAction(game, player);
+		};
+		try {
+			new GameRunner(strategy, council).run(0, 1000000, 4);
+			fail("The game cannot end");
+		} catch (GameException e) {
+			assertTrue(e.getMessage().contains("has no valid action"));
+		}
+		long stopped = actions.get();
+		Thread.sleep(100);
+		assertEquals(stopped, actions.get());
+	}
+
+	/**
+	 * Misura il numero di partite al secondo (4 giocatori) su un Thread e su
+	 * tutti i processori disponibili.
+	 */
+	@Test
+	public void testThroughput() throws GameException, InterruptedException {
+		GameRunner runner = new GameRunner(new CouncilStrategy(), new CouncilStrategy(), new CouncilStrategy(),
+				new CouncilStrategy());
+		int processors = Runtime.getRuntime().availableProcessors();
+		runner.run(0, GAMES * 2, processors);
+
+		GameRunner.Report single = runner.run(0, GAMES, 1);
+		GameRunner.Report all = runner.run(0, GAMES, processors);
+		assertEquals(GAMES, single.getGames());
+		assertEquals(GAMES, all.getGames());
+		assertEquals(single.getActions(), all.getActions());
+		System.out.println("[RUNNER] " + single);
+		System.out.println("[RUNNER] " + all);
+	}
+}
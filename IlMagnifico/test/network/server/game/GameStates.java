@@ -0,0 +1,64 @@
+package test.network.server.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import main.model.Carta;
+import main.model.Famigliare;
+import main.model.Giocatore;
+import main.network.server.game.Game;
+
+/**
+ * Descrizione testuale dello stato di una partita, usata dai test per
+ * confrontare partite che devono svolgersi allo stesso modo (ripristino dal
+ * journal, replay, partite con lo stesso seme).
+ */
+public class GameStates {
+
+	private GameStates() {
+
+	}
+
+	/**
+	 * Descrive lo stato della partita: turno, dadi, scomuniche, carte e
+	 * posizioni libere delle torri, risorse, punti e famigliari di ogni
+	 * giocatore (in ordine di nome).
+	 */
+	public static String describe(Game game) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("turno=").append(game.getTurno()).append(" periodo=").append(game.getPeriodo());
+		Giocatore diTurno = game.getGiocatoreDiTurno();
+		builder.append(" di turno=").append(diTurno != null ? diTurno.getNome() : null);
+		builder.append(" dadi=").append(Arrays.toString(game.getSpazioAzione().getValoreDadi()));
+		builder.append(" consiglio=").append(game.getSpazioAzione().getPalazzoDelConsiglio().size());
+		builder.append(" scomuniche=");
+		for (int i = 0; i < game.getScomuniche().length; i++)
+			builder.append(game.getScomuniche()[i].getNome()).append(',');
+		builder.append(" torri=");
+		for (int i = 0; i < 16; i++) {
+			Carta carta = game.getSpazioAzione().getCartaTorre(i);
+			builder.append(carta != null ? carta.getNome() : null).append(game.getSpazioAzione().torreLibera(i))
+					.append(',');
+		}
+		List<Giocatore> sorted = new ArrayList<>(game.getGiocatori());
+		sorted.sort(Comparator.comparing(Giocatore::getNome));
+		for (Giocatore player : sorted) {
+			builder.append('\n').append(player.getNome()).append(' ').append(player.getColore());
+			builder.append(" monete=").append(player.getRisorse().getMonete());
+			builder.append(" legno=").append(player.getRisorse().getLegno());
+			builder.append(" pietre=").append(player.getRisorse().getPietre());
+			builder.append(" servitori=").append(player.getRisorse().getServitori());
+			builder.append(" pv=").append(player.getPunti().getPuntiVittoria());
+			builder.append(" pm=").append(player.getPunti().getPuntiMilitari());
+			builder.append(" pf=").append(player.getPunti().getPuntiFede());
+			for (int i = 0; i < 4; i++) {
+				Famigliare famigliare = player.getFamigliare(i);
+				builder.append(" f").append(i).append('=').append(famigliare.getValore())
+						.append(famigliare.getPosizionato() ? "P" : "-");
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -2,6 +2,9 @@ package test.network.server.game;
 
 import static org.junit.Assert.*;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import main.model.enums.EAzioniGiocatore;
@@ -651,4 +654,103 @@ System.out.println("il periodo corrente è:" +game.getPeriodo());
 		assertTrue(game.getSpazioAzione().getZonaProduzioneOvale().get(0).getGiocatore().getNome()
 				.equals(nomeGiocatoreFamigliareSpostato));
 	}
+
+	/**
+	 * Test che verifica che un giocatore lento non rallenti l'esecuzione delle
+	 * azioni degli altri giocatori (gli aggiornamenti vengono consegnati in
+	 * modo asincrono).
+	 * 
+	 * @throws RoomFullException
+	 * @throws GameException
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testSlowPlayerDoesNotDelayActions() throws RoomFullException, GameException, InterruptedException {
+		CountDownLatch delivered = new CountDownLatch(5);
+		TestPlayer player1 = new TestPlayer() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void onGameUpdate(UpdateStats update) {
+				delivered.countDown();
+			}
+		};
+		TestPlayer player2 = new TestPlayer() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void onGameUpdate(UpdateStats update) {
+				try {
+					Thread.sleep(1000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		player1.setNome("primo giocatore");
+		player2.setNome("giocatore lento");
+		Room room = new Room(player1, 0, 0);
+
+		room.joinPlayer(player2);
+		Game game = new Game(room);
+		game.startNewGame();
+
+		UpdateStats update = new UpdateStats(EAzioniGiocatore.Mercato);
+		update.spostaPedina(EColoriPedine.Nera, 0);
+		long start = System.currentTimeMillis();
+		game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+		long elapsed = System.currentTimeMillis() - start;
+
+		assertTrue("action took " + elapsed + "ms", elapsed < 1000);
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Test che verifica che l'inizio di un turno (lancio dei dadi compreso) non
+	 * blocchi il Server: prima del lancio "istantaneo" dei dadi l'avvio di una
+	 * partita richiedeva almeno 1500 ms.
+	 * 
+	 * @throws RoomFullException
+	 * @throws GameException
+	 */
+	@Test
+	public void testTurnStartLatency() throws RoomFullException, GameException {
+		TestPlayer player1 = new TestPlayer();
+		TestPlayer player2 = new TestPlayer();
+		player1.setNome("primo");
+		player2.setNome("secondo");
+		Room room = new Room(player1, 0, 0);
+
+		room.joinPlayer(player2);
+		Game game = new Game(room);
+		long start = System.nanoTime();
+		game.startNewGame();
+		long gameStart = (System.nanoTime() - start) / 1000000;
+
+		// Tutti i famigliari vengono mossi nel Palazzo del Consiglio, in modo
+		// che inizi il turno successivo (e vengano rilanciati i dadi).
+		EColoriPedine[] colori = { EColoriPedine.Nera, EColoriPedine.Bianca, EColoriPedine.Arancione,
+				EColoriPedine.Neutrale };
+		start = System.nanoTime();
+		for (EColoriPedine colore : colori) {
+			for (int i = 0; i < 2; i++) {
+				UpdateStats update = new UpdateStats(EAzioniGiocatore.PalazzoConsiglio);
+				update.setColorePedina(colore);
+				update.setSceltaConsiglio(ESceltePrivilegioDelConsiglio.LegnoEPietra);
+				if (colore == EColoriPedine.Neutrale) {
+					UpdateStats servitori = new UpdateStats(EAzioniGiocatore.Famigliare);
+					servitori.setColorePedina(EColoriPedine.Neutrale);
+					servitori.setServitoriDaPagare(1);
+					game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), servitori);
+				}
+				game.performGameAction((RemotePlayer) game.getGiocatoreDiTurno(), update);
+			}
+		}
+		long nextTurn = (System.nanoTime() - start) / 1000000;
+
+		System.out.println("[LATENCY] game start " + gameStart + " ms, next turn " + nextTurn + " ms");
+		assertTrue(game.getTurno() == 2);
+		assertTrue("game start took " + gameStart + "ms", gameStart < 1500);
+		assertTrue("next turn took " + nextTurn + "ms", nextTurn < 1500);
+	}
 }
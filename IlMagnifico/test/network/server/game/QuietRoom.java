@@ -0,0 +1,24 @@
+package test.network.server.game;
+
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.Room;
+
+/**
+ * Stanza che non avvia alcuna partita e non scrive sul Log.
+ */
+public class QuietRoom extends Room {
+
+	public QuietRoom(RemotePlayer player, int maxPlayers, int minPlayers) {
+		super(player, maxPlayers, minPlayers);
+	}
+
+	@Override
+	protected void startCountDownTimer(int waitingTime) {
+
+	}
+
+	@Override
+	public void log(String message) {
+
+	}
+}
@@ -0,0 +1,205 @@
+package test.network.server.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.Room;
+import main.network.server.game.RoomDirectory;
+import main.network.server.game.exceptions.RoomFullException;
+
+public class RoomDirectoryTest {
+
+	/**
+	 * Numero di giocatori che arrivano contemporaneamente sul Server.
+	 */
+	private static final int PLAYERS = 4000;
+
+	/**
+	 * Numero di Thread usati per simulare gli arrivi.
+	 */
+	private static final int THREADS = 16;
+
+	/**
+	 * Numero massimo di giocatori per Stanza.
+	 */
+	private static final int MAX_PLAYERS = 4;
+
+	/**
+	 * Numero minimo di giocatori per Stanza.
+	 */
+	private static final int MIN_PLAYERS = 2;
+
+	/**
+	 * Assegnazione delle Stanze usata in precedenza dal Server: MUTEX globale
+	 * e solo l'ultima Stanza della lista puo' essere riempita.
+	 */
+	private static class LastRoomMatchmaking {
+
+		private final Object mutex = new Object();
+
+		private final ArrayList<Room> rooms = new ArrayList<>();
+
+		private void join(RemotePlayer player) {
+			synchronized (mutex) {
+				Room lastRoom = rooms.isEmpty() ? null : rooms.get(rooms.size() - 1);
+				try {
+					if (lastRoom == null)
+						throw new RoomFullException();
+					lastRoom.joinPlayer(player);
+					player.setRoom(lastRoom);
+				} catch (RoomFullException e) {
+					Room room = new QuietRoom(player, MAX_PLAYERS, MIN_PLAYERS);
+					rooms.add(room);
+					player.setRoom(room);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test che verifica che le Stanze vengano riempite a partire da quelle con
+	 * meno posti liberi.
+	 */
+	@Test
+	public void testFillsFullestRoomFirst() throws RoomFullException {
+		RoomDirectory directory = new RoomDirectory(MAX_PLAYERS, QuietRoom::new);
+		Room first = directory.createRoom(new TestPlayer(), MAX_PLAYERS, MIN_PLAYERS);
+		Room second = directory.createRoom(new TestPlayer(), MAX_PLAYERS, MIN_PLAYERS);
+
+		TestPlayer player = new TestPlayer();
+		assertSame(first, directory.joinOpenRoom(player));
+		assertSame(first, player.getRoom());
+		assertSame(first, directory.joinOpenRoom(new TestPlayer()));
+		assertSame(first, directory.joinOpenRoom(new TestPlayer()));
+		assertEquals(0, first.getFreeSeats());
+		assertSame(second, directory.joinOpenRoom(new TestPlayer()));
+		assertEquals(2, second.getFreeSeats());
+	}
+
+	/**
+	 * Simula {@link #PLAYERS} giocatori che arrivano contemporaneamente e
+	 * misura il numero di giocatori aggiunti al secondo e il riempimento medio
+	 * delle Stanze, confrontandoli con l'assegnazione usata in precedenza.
+	 */
+	@Test
+	public void testConcurrentArrivals() throws InterruptedException {
+		// Riscaldamento
+		for (int i = 0; i < 3; i++) {
+			arrivals(new RoomDirectory(MAX_PLAYERS, QuietRoom::new));
+			arrivals(new LastRoomMatchmaking());
+		}
+
+		RoomDirectory directory = new RoomDirectory(MAX_PLAYERS, QuietRoom::new);
+		long directoryTime = arrivals(directory);
+		LastRoomMatchmaking lastRoom = new LastRoomMatchmaking();
+		long lastRoomTime = arrivals(lastRoom);
+
+		double directoryFill = fill(directory.getRooms());
+		double lastRoomFill = fill(lastRoom.rooms);
+
+		System.out.println(String.format(
+				"[MATCHMAKING] %d arrivals (%d threads): directory %d joins/s, fill %.1f%% | last room + global lock %d joins/s, fill %.1f%%",
+				PLAYERS, THREADS, PLAYERS * 1000000000L / directoryTime, 100 * directoryFill,
+				PLAYERS * 1000000000L / lastRoomTime, 100 * lastRoomFill));
+		assertTrue(directoryFill >= 0.9);
+	}
+
+	/**
+	 * Esegue gli arrivi tramite l'elenco delle Stanze (come
+	 * {@link main.network.server.Server#joinFirstAvailableRoom(RemotePlayer)}).
+	 *
+	 * @return il tempo impiegato in nanosecondi.
+	 */
+	private static long arrivals(RoomDirectory directory) throws InterruptedException {
+		List<TestPlayer> players = newPlayers();
+		long time = run(players, player -> {
+			try {
+				directory.joinOpenRoom(player);
+			} catch (RoomFullException e) {
+				directory.createRoom(player, MAX_PLAYERS, MIN_PLAYERS);
+			}
+		});
+		check(players, directory.getRooms());
+		return time;
+	}
+
+	private static long arrivals(LastRoomMatchmaking matchmaking) throws InterruptedException {
+		List<TestPlayer> players = newPlayers();
+		long time = run(players, matchmaking::join);
+		check(players, matchmaking.rooms);
+		return time;
+	}
+
+	private static List<TestPlayer> newPlayers() {
+		List<TestPlayer> players = new ArrayList<>();
+		for (int i = 0; i < PLAYERS; i++) {
+			TestPlayer player = new TestPlayer();
+			player.setNome("player" + i);
+			players.add(player);
+		}
+		return players;
+	}
+
+	/**
+	 * Interfaccia usata per aggiungere un giocatore ad una Stanza.
+	 */
+	@FunctionalInterface
+	private interface Join {
+		void join(RemotePlayer player);
+	}
+
+	private static long run(List<TestPlayer> players, Join join) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			int offset = t;
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = offset; i < players.size(); i += THREADS)
+					join.join(players.get(i));
+			});
+			threads[t].start();
+		}
+		long time = System.nanoTime();
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+		return System.nanoTime() - time;
+	}
+
+	/**
+	 * Verifica che ogni giocatore sia in una sola Stanza e che nessuna Stanza
+	 * superi il numero massimo di giocatori.
+	 */
+	private static void check(List<TestPlayer> players, Collection<Room> rooms) {
+		int total = 0;
+		for (Room room : rooms) {
+			assertTrue(room.getPlayers().size() <= MAX_PLAYERS);
+			for (RemotePlayer player : room.getPlayers())
+				assertSame(room, player.getRoom());
+			total += room.getPlayers().size();
+		}
+		assertEquals(players.size(), total);
+	}
+
+	/**
+	 * Ritorna il riempimento medio delle Stanze (giocatori / posti).
+	 */
+	private static double fill(Collection<Room> rooms) {
+		int players = 0;
+		for (Room room : rooms)
+			players += room.getPlayers().size();
+		return (double) players / (rooms.size() * MAX_PLAYERS);
+	}
+}
@@ -0,0 +1,241 @@
+package test.network.server.socket;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import main.network.NetworkException;
+import main.network.client.Client;
+import main.network.client.ClientException;
+import main.network.protocol.socket.SocketConstants;
+import main.network.server.HeartbeatMonitor;
+import main.network.server.Server;
+import main.network.server.ServerException;
+import main.network.server.ServerMode;
+import main.network.server.game.RemotePlayer;
+import main.network.server.game.Room;
+import main.ui.cli.CLI;
+import main.util.Costants;
+import test.network.server.RawClient;
+import test.network.server.game.TestPlayer;
+
+/**
+ * Test della ripresa della sessione dopo una disconnessione e del controllo
+ * della raggiungibilita' dei giocatori (heartbeat).
+ */
+public class SessionResumeTest {
+
+	private static final String HOST = "127.0.0.1";
+	private static final int PORT = 2020;
+
+	/**
+	 * Tempo massimo di attesa delle condizioni verificate dai test.
+	 */
+	private static final long TIMEOUT = 5000;
+
+	/**
+	 * Numero di login e di riprese della sessione misurati.
+	 */
+	private static final int ROUNDS = 50;
+
+	/**
+	 * Giocatore che non risponde agli heartbeat.
+	 */
+	private static class SilentPlayer extends TestPlayer {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void sendHeartbeat(long timestamp) throws NetworkException {
+
+		}
+	}
+
+	/**
+	 * Un giocatore che perde la connessione riprende la propria sessione (lo
+	 * stesso giocatore, nella stessa Stanza) con un solo scambio di messaggi;
+	 * il tempo della ripresa viene confrontato con quello di un nuovo login.
+	 */
+	@Test
+	public void testResumeAfterDrop() throws ServerException, IOException, InterruptedException {
+		Server server = new Server(ServerMode.NIO);
+		server.startSocketServer(PORT);
+
+		// Riscaldamento
+		for (int i = 0; i < 20; i++) {
+			RawClient warmup = new RawClient(HOST, PORT);
+			login(warmup, "warmup" + i);
+			warmup.close();
+		}
+
+		RawClient client = new RawClient(HOST, PORT);
+		String token = login(client, "resume");
+		assertNotNull(token);
+		RemotePlayer player = server.getPlayer("resume");
+		// La Stanza viene assegnata dopo la risposta al login (le richieste
+		// vengono gestite fuori dall'EventLoop)
+		long join = System.currentTimeMillis() + TIMEOUT;
+		while (player.getRoom() == null && System.currentTimeMillis() < join)
+			Thread.sleep(1);
+		Room room = player.getRoom();
+		assertNotNull(room);
+
+		long login = 0, resume = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			client.close();
+			long end = System.currentTimeMillis() + TIMEOUT;
+			while (player.isOnline() && System.currentTimeMillis() < end)
+				Thread.sleep(1);
+			assertFalse(player.isOnline());
+
+			long start = System.nanoTime();
+			RawClient fresh = new RawClient(HOST, PORT);
+			login(fresh, "fresh" + i);
+			login += System.nanoTime() - start;
+			fresh.close();
+
+			start = System.nanoTime();
+			client = new RawClient(HOST, PORT);
+			Object[] response = client.request(SocketConstants.RESUME_REQUEST, token);
+			resume += System.nanoTime() - start;
+
+			assertEquals(SocketConstants.RESPONSE_OK, (int) response[0]);
+			assertEquals(token, response[1]);
+			assertSame(player, server.getPlayer("resume"));
+			assertSame(room, player.getRoom());
+			assertTrue(player.isOnline());
+		}
+
+		RawClient unknown = new RawClient(HOST, PORT);
+		assertEquals(SocketConstants.RESPONSE_SESSION_NOT_FOUND,
+				(int) unknown.request(SocketConstants.RESUME_REQUEST, "unknown")[0]);
+
+		System.out.println("[RESUME] " + ROUNDS + " rounds: session resumed in " + resume / ROUNDS / 1000
+				+ " us on average (1 round trip) vs fresh login " + login / ROUNDS / 1000 + " us");
+
+		client.close();
+		unknown.close();
+	}
+
+	/**
+	 * Il Client risponde agli heartbeat del Server, che misura il tempo di
+	 * andata e ritorno.
+	 */
+	@Test
+	public void testSocketHeartbeat() throws ServerException, IOException, InterruptedException {
+		Server server = new Server(ServerMode.NIO);
+		server.startSocketServer(PORT + 1);
+
+		RawClient client = new RawClient(HOST, PORT + 1);
+		login(client, "heartbeat");
+		RemotePlayer player = server.getPlayer("heartbeat");
+
+		Object[] frame = client.await(SocketConstants.HEARTBEAT, TIMEOUT);
+		client.send(SocketConstants.HEARTBEAT, frame[1]);
+
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (player.getRoundTripTime() < 0 && System.currentTimeMillis() < end)
+			Thread.sleep(5);
+		assertTrue(player.getRoundTripTime() >= 0);
+		assertTrue(player.isOnline());
+		client.close();
+	}
+
+	/**
+	 * Un giocatore che non risponde agli heartbeat viene disconnesso allo
+	 * scadere del tempo massimo, mentre gli altri restano online.
+	 */
+	@Test
+	public void testHeartbeatTimeout() throws InterruptedException {
+		TestPlayer responsive = new TestPlayer();
+		SilentPlayer silent = new SilentPlayer();
+		responsive.setNome("responsive");
+		silent.setNome("silent");
+		List<RemotePlayer> players = Arrays.asList(responsive, silent);
+		HeartbeatMonitor monitor = new HeartbeatMonitor(() -> players, 50, 200);
+
+		int expired = 0;
+		for (int i = 0; i < 8; i++) {
+			expired += monitor.check(System.nanoTime());
+			Thread.sleep(50);
+		}
+
+		assertEquals(1, expired);
+		assertFalse(silent.isOnline());
+		assertTrue(responsive.isOnline());
+		assertTrue(responsive.getRoundTripTime() >= 0);
+	}
+
+	/**
+	 * Un Client che perde la connessione si ricollega e riprende la propria
+	 * sessione senza intervento del giocatore.
+	 */
+	@Test
+	public void testClientResumesAfterConnectionLoss()
+			throws ServerException, ClientException, InterruptedException {
+		Server server = new Server(ServerMode.NIO);
+		server.startSocketServer(PORT + 3);
+
+		Client client = new Client(new CLI());
+		client.startClient("SOCKET", HOST, PORT + 3, 0);
+		client.loginPlayer("dropped");
+		RemotePlayer player = server.getPlayer("dropped");
+		assertNotNull(player);
+
+		// Il Server chiude la connessione (es. rete non raggiungibile)
+		player.disconnect();
+		assertFalse(player.isOnline());
+
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (!player.isOnline() && System.currentTimeMillis() < end)
+			Thread.sleep(5);
+		assertTrue(player.isOnline());
+		assertSame(player, server.getPlayer("dropped"));
+		assertTrue(client.isLogged());
+	}
+
+	/**
+	 * Un Client che non legge piu' i messaggi viene disconnesso quando i
+	 * messaggi in attesa di essere inviati superano il limite, prima dello
+	 * scadere degli heartbeat.
+	 */
+	@Test
+	public void testSlowReaderDisconnected() throws ServerException, IOException, InterruptedException {
+		Server server = new Server(ServerMode.NIO);
+		server.startSocketServer(PORT + 2);
+
+		RawClient slow = new RawClient(HOST, PORT + 2);
+		login(slow, "slow");
+		RawClient sender = new RawClient(HOST, PORT + 2);
+		login(sender, "sender");
+		RemotePlayer player = server.getPlayer("slow");
+
+		char[] text = new char[8 * 1024];
+		Arrays.fill(text, 'x');
+		String message = new String(text);
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 4000 && player.isOnline(); i++)
+			sender.send(SocketConstants.CHAT_MESSAGE, "slow", message);
+
+		long end = start + Costants.HEARTBEAT_TIMEOUT / 2;
+		while (player.isOnline() && System.currentTimeMillis() < end)
+			Thread.sleep(5);
+		assertFalse(player.isOnline());
+		assertTrue(server.getPlayer("sender").isOnline());
+		slow.close();
+		sender.close();
+	}
+
+	/**
+	 * Esegue il login e ritorna il token di sessione.
+	 */
+	private static String login(RawClient client, String nickname) throws IOException {
+		Object[] response = client.login(nickname);
+		assertEquals(SocketConstants.RESPONSE_OK, (int) response[0]);
+		return (String) response[1];
+	}
+}
@@ -0,0 +1,175 @@
+package test.network.server.socket;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import main.network.protocol.socket.SocketConstants;
+import main.network.protocol.socket.SocketFrames;
+import main.network.server.Server;
+import main.network.server.ServerException;
+import main.network.server.ServerMode;
+import main.network.server.ServerThreads;
+
+/**
+ * Test di carico del Server Socket: molti
+ * Client Socket concorrenti si scambiano messaggi di chat (ogni Client invia i
+ * propri messaggi al Client successivo).
+ */
+public class SocketServerLoadTest {
+
+	private static final int PORT = 2010;
+	private static final int CLIENTS = 120;
+	private static final int MESSAGES = 20;
+	private static final String PREFIX = "load-";
+
+	@Test
+	public void testThroughputNio() throws ServerException, IOException, InterruptedException {
+		runLoad(ServerMode.NIO, PORT);
+	}
+
+	@Test
+	public void testThroughputThreadPerConnection() throws ServerException, IOException, InterruptedException {
+		runLoad(ServerMode.THREAD, PORT + 1);
+	}
+
+	@Test
+	public void testThroughputVirtualThreads() throws ServerException, IOException, InterruptedException {
+		runLoad(ServerMode.VIRTUAL, PORT + 2);
+	}
+
+	/**
+	 * Avvia un Server nella modalita' indicata, collega {@link #CLIENTS}
+	 * Client e misura il numero di messaggi consegnati al secondo, il numero
+	 * di Thread di sistema creati dal Server e la memoria occupata.
+	 */
+	private void runLoad(ServerMode mode, int port) throws ServerException, IOException, InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+		long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+		Server server = new Server(mode);
+		server.startSocketServer(port);
+		ServerMode actualMode = ServerThreads.getMode();
+
+		CountDownLatch received = new CountDownLatch(CLIENTS);
+		AtomicInteger total = new AtomicInteger();
+
+		ArrayList<LoadClient> clients = new ArrayList<>();
+		for (int i = 0; i < CLIENTS; i++) {
+			LoadClient client = new LoadClient("player" + i, "player" + ((i + 1) % CLIENTS), received, total);
+			client.login(port);
+			clients.add(client);
+		}
+
+		long start = System.nanoTime();
+		for (LoadClient client : clients)
+			new Thread(client::sendMessages).start();
+		boolean completed = received.await(60, TimeUnit.SECONDS);
+		long elapsed = System.nanoTime() - start;
+
+		System.gc();
+		// I Thread di lettura dei Client del test non vengono conteggiati.
+		int serverThreads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore - CLIENTS;
+		long heap = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+		System.out.println("[LOAD] mode: " + actualMode + ", " + CLIENTS + " clients, " + total.get()
+				+ " chat messages delivered in " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms ("
+				+ (long) (total.get() / (elapsed / 1e9)) + " msg/s), server platform threads: " + serverThreads
+				+ ", heap: " + heap / 1024 + "KB");
+
+		for (LoadClient client : clients)
+			client.close();
+
+		assertTrue("not all messages were delivered", completed);
+		assertEquals(CLIENTS * MESSAGES, total.get());
+	}
+
+	/**
+	 * Client Socket minimale che parla direttamente il protocollo di
+	 * {@link SocketConstants} (vedi {@link SocketFrames}).
+	 */
+	private static class LoadClient extends Thread {
+
+		private final String nickname;
+		private final String receiver;
+		private final CountDownLatch received;
+		private final AtomicInteger total;
+
+		private Socket socket;
+		private OutputStream out;
+		private DataInputStream in;
+		private int count;
+
+		LoadClient(String nickname, String receiver, CountDownLatch received, AtomicInteger total) {
+			this.nickname = nickname;
+			this.receiver = receiver;
+			this.received = received;
+			this.total = total;
+			setDaemon(true);
+		}
+
+		void login(int port) throws IOException {
+			socket = new Socket("127.0.0.1", port);
+			out = new BufferedOutputStream(socket.getOutputStream());
+			in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+			out.write(SocketFrames.encode(SocketConstants.LOGIN_REQUEST, nickname));
+			out.flush();
+			assertEquals(SocketConstants.RESPONSE_OK, (int) SocketFrames.read(in)[0]);
+			start();
+		}
+
+		void sendMessages() {
+			try {
+				for (int i = 0; i < MESSAGES; i++) {
+					out.write(SocketFrames.encode(SocketConstants.CHAT_MESSAGE, receiver, PREFIX + nickname + "-" + i));
+					out.flush();
+				}
+			} catch (IOException e) {
+				fail(e.getMessage());
+			}
+		}
+
+		void close() throws IOException {
+			socket.close();
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					Object[] frame = SocketFrames.read(in);
+					if (SocketConstants.CHAT_MESSAGE.equals(frame[0]))
+						onChatMessage((String) frame[2]);
+					else if (SocketConstants.CHAT_MESSAGES.equals(frame[0]))
+						for (Object message : (List<?>) frame[2])
+							onChatMessage((String) message);
+				}
+			} catch (IOException e) {
+				// Connessione chiusa.
+			}
+		}
+
+		private void onChatMessage(String message) {
+			if (message.startsWith(PREFIX)) {
+				total.incrementAndGet();
+				if (++count == MESSAGES)
+					received.countDown();
+			}
+		}
+	}
+}